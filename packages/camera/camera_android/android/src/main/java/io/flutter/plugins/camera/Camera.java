@@ -15,14 +15,17 @@ import android.hardware.camera2.CameraCaptureSession;
 import android.hardware.camera2.CameraDevice;
 import android.hardware.camera2.CameraManager;
 import android.hardware.camera2.CameraMetadata;
+import android.hardware.camera2.CaptureFailure;
 import android.hardware.camera2.CaptureRequest;
 import android.hardware.camera2.TotalCaptureResult;
+import android.hardware.camera2.params.InputConfiguration;
 import android.hardware.camera2.params.OutputConfiguration;
 import android.hardware.camera2.params.SessionConfiguration;
 import android.media.CamcorderProfile;
 import android.media.EncoderProfiles;
 import android.media.Image;
 import android.media.ImageReader;
+import android.media.ImageWriter;
 import android.media.MediaRecorder;
 import android.os.Build.VERSION_CODES;
 import android.os.Handler;
@@ -38,6 +41,7 @@ import androidx.annotation.Nullable;
 import androidx.annotation.VisibleForTesting;
 import io.flutter.BuildConfig;
 import io.flutter.embedding.engine.systemchannels.PlatformChannel;
+import io.flutter.plugin.common.BinaryMessenger;
 import io.flutter.plugin.common.EventChannel;
 import io.flutter.plugins.camera.features.CameraFeature;
 import io.flutter.plugins.camera.features.CameraFeatureFactory;
@@ -57,17 +61,23 @@ import io.flutter.plugins.camera.features.resolution.ResolutionFeature;
 import io.flutter.plugins.camera.features.resolution.ResolutionPreset;
 import io.flutter.plugins.camera.features.sensororientation.DeviceOrientationManager;
 import io.flutter.plugins.camera.features.zoomlevel.ZoomLevelFeature;
+import io.flutter.plugins.camera.media.ImageStreamOptions;
 import io.flutter.plugins.camera.media.ImageStreamReader;
+import io.flutter.plugins.camera.media.MediaCodecRecorder;
 import io.flutter.plugins.camera.media.MediaRecorderBuilder;
+import io.flutter.plugins.camera.media.ZslRingBuffer;
 import io.flutter.plugins.camera.types.CameraCaptureProperties;
 import io.flutter.plugins.camera.types.CaptureTimeoutsWrapper;
+import io.flutter.plugins.camera.types.CaptureTimings;
 import io.flutter.view.TextureRegistry.SurfaceTextureEntry;
 import java.io.File;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 import java.util.Locale;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 
 @FunctionalInterface
@@ -80,6 +90,9 @@ class Camera
         ImageReader.OnImageAvailableListener {
   private static final String TAG = "Camera";
 
+  /** The maximum number of pictures taken by {@link #takePictureBurst}. */
+  static final int MAX_BURST_SIZE = 10;
+
   /**
    * Holds all of the camera features/settings and will be used to update the request builder when
    * one changes.
@@ -100,6 +113,9 @@ class Camera
    */
   @VisibleForTesting int initialCameraFacing;
 
+  /** Frames dropped by video renderers that were closed during the current recording. */
+  private long droppedVideoFrameCount;
+
   @VisibleForTesting final SurfaceTextureEntry flutterTexture;
   private final VideoCaptureSettings videoCaptureSettings;
   private final Context applicationContext;
@@ -114,15 +130,37 @@ class Camera
 
   /** An additional thread for running tasks that shouldn't block the UI. */
   private HandlerThread backgroundHandlerThread;
+  /** Shares the background thread and pre-opened cameras between cameras, or null if unused. */
+  @Nullable private final CameraSessionManager sessionManager;
 
   CameraDeviceWrapper cameraDevice;
   CameraCaptureSession captureSession;
   @VisibleForTesting ImageReader pictureImageReader;
   ImageStreamReader imageStreamReader;
+  /** The messenger and channel used to send image stream frames encoded into direct buffers. */
+  @Nullable private BinaryMessenger imageStreamMessenger;
+
+  @Nullable private String imageStreamChannelName;
+  /** Keeps recent full resolution preview frames while zero shutter lag is enabled. */
+  @Nullable ZslRingBuffer zslRingBuffer;
+  /** Queues ZSL frames to the input of the preview session, which reprocesses them to JPEG. */
+  @VisibleForTesting @Nullable volatile ImageWriter zslImageWriter;
+
+  private boolean zeroShutterLagEnabled;
+  /** Saves pictures, so that file I/O never delays the requests sent from the background thread. */
+  @Nullable private ExecutorService imageSaverExecutor;
+  /** How pictures are written to their files. */
+  @NonNull private ImageSaver.Options pictureSaveOptions = ImageSaver.Options.DEFAULT;
   /** {@link CaptureRequest.Builder} for the camera preview */
   CaptureRequest.Builder previewRequestBuilder;
 
   @VisibleForTesting MediaRecorder mediaRecorder;
+  /** Records instead of {@link #mediaRecorder} when video encoder options are set. */
+  @VisibleForTesting @Nullable MediaCodecRecorder mediaCodecRecorder;
+  /** How videos are encoded, or null to record them with a {@link MediaRecorder}. */
+  @Nullable private MediaCodecRecorder.Options videoEncoderOptions;
+  /** When videos are split into segment files, or null to record them to a single file. */
+  @Nullable private MediaCodecRecorder.SegmentOptions videoSegmentOptions;
   /** True when recording video. */
   boolean recordingVideo;
   /** True when the preview is paused. */
@@ -132,6 +170,16 @@ class Camera
 
   /** Holds the current capture timeouts */
   private CaptureTimeoutsWrapper captureTimeouts;
+  /** Records per-frame and picture capture latencies when timing instrumentation is enabled. */
+  private final CaptureTimings captureTimings = new CaptureTimings();
+  /** When the current picture capture was requested, for the takePicture latency breakdown. */
+  private volatile long takePictureStartNanos;
+  /** The picture capture stage currently running, or null when none is being timed. */
+  @Nullable private volatile String picturePhase;
+
+  private volatile long picturePhaseStartNanos;
+  /** When the camera started opening, for the {@link CaptureTimings#STAGE_OPEN} timing. */
+  private long openStartNanos;
   /** Holds the last known capture properties */
   private CameraCaptureProperties captureProps;
 
@@ -169,6 +217,37 @@ class Camera
       cameraDevice.createCaptureSession(outputs, callback, backgroundHandler);
     }
 
+    @SuppressLint("UseRequiresApi")
+    @TargetApi(VERSION_CODES.M)
+    @SuppressWarnings("deprecation")
+    @Override
+    public void createReprocessableCaptureSession(
+        @NonNull InputConfiguration inputConfig,
+        @NonNull List<Surface> outputs,
+        @NonNull CameraCaptureSession.StateCallback callback,
+        @Nullable Handler handler)
+        throws CameraAccessException {
+      cameraDevice.createReprocessableCaptureSession(
+          inputConfig, outputs, callback, backgroundHandler);
+    }
+
+    @SuppressLint("UseRequiresApi")
+    @TargetApi(VERSION_CODES.M)
+    @NonNull
+    @Override
+    public CaptureRequest.Builder createReprocessCaptureRequest(
+        @NonNull TotalCaptureResult inputResult) throws CameraAccessException {
+      return cameraDevice.createReprocessCaptureRequest(inputResult);
+    }
+
+    @SuppressLint("UseRequiresApi")
+    @TargetApi(VERSION_CODES.Q)
+    @Override
+    public boolean isSessionConfigurationSupported(@NonNull SessionConfiguration config)
+        throws CameraAccessException {
+      return cameraDevice.isSessionConfigurationSupported(config);
+    }
+
     @Override
     public void close() {
       cameraDevice.close();
@@ -207,6 +286,24 @@ class Camera
       final DartMessenger dartMessenger,
       final CameraProperties cameraProperties,
       final VideoCaptureSettings videoCaptureSettings) {
+    this(
+        activity,
+        flutterTexture,
+        cameraFeatureFactory,
+        dartMessenger,
+        cameraProperties,
+        videoCaptureSettings,
+        null);
+  }
+
+  public Camera(
+      final Activity activity,
+      final SurfaceTextureEntry flutterTexture,
+      final CameraFeatureFactory cameraFeatureFactory,
+      final DartMessenger dartMessenger,
+      final CameraProperties cameraProperties,
+      final VideoCaptureSettings videoCaptureSettings,
+      @Nullable final CameraSessionManager sessionManager) {
 
     if (activity == null) {
       throw new IllegalStateException("No activity available!");
@@ -214,10 +311,12 @@ class Camera
     this.activity = activity;
     this.flutterTexture = flutterTexture;
     this.dartMessenger = dartMessenger;
+    dartMessenger.setCaptureTimings(captureTimings);
     this.applicationContext = activity.getApplicationContext();
     this.cameraProperties = cameraProperties;
     this.cameraFeatureFactory = cameraFeatureFactory;
     this.videoCaptureSettings = videoCaptureSettings;
+    this.sessionManager = sessionManager;
     this.cameraFeatures =
         CameraFeatures.init(
             cameraFeatureFactory,
@@ -229,7 +328,8 @@ class Camera
     // Create capture callback.
     captureTimeouts = new CaptureTimeoutsWrapper(3000, 3000);
     captureProps = new CameraCaptureProperties();
-    cameraCaptureCallback = CameraCaptureCallback.create(this, captureTimeouts, captureProps);
+    cameraCaptureCallback =
+        CameraCaptureCallback.create(this, captureTimeouts, captureProps, captureTimings);
 
     startBackgroundThread();
   }
@@ -263,8 +363,11 @@ class Camera
 
     if (mediaRecorder != null) {
       mediaRecorder.release();
+      mediaRecorder = null;
     }
+    releaseMediaCodecRecorder();
     closeRenderer();
+    droppedVideoFrameCount = 0;
 
     final PlatformChannel.DeviceOrientation lockedOrientation =
         cameraFeatures.getSensorOrientation().getLockedCaptureOrientation();
@@ -293,14 +396,80 @@ class Camera
                   videoCaptureSettings.audioBitrate));
     }
 
-    mediaRecorder =
-        mediaRecorderBuilder
-            .setEnableAudio(videoCaptureSettings.enableAudio)
-            .setMediaOrientation(
-                lockedOrientation == null
-                    ? getDeviceOrientationManager().getVideoOrientation()
-                    : getDeviceOrientationManager().getVideoOrientation(lockedOrientation))
-            .build();
+    mediaRecorderBuilder
+        .setEnableAudio(videoCaptureSettings.enableAudio)
+        .setMediaOrientation(
+            lockedOrientation == null
+                ? getDeviceOrientationManager().getVideoOrientation()
+                : getDeviceOrientationManager().getVideoOrientation(lockedOrientation));
+    if (videoEncoderOptions != null || videoSegmentOptions != null) {
+      final Integer timestampSource = cameraProperties.getSensorInfoTimestampSource();
+      mediaCodecRecorder =
+          mediaRecorderBuilder.buildMediaCodecRecorder(
+              videoEncoderOptions != null
+                  ? videoEncoderOptions
+                  : MediaCodecRecorder.Options.DEFAULT,
+              timestampSource != null
+                  && timestampSource == CameraMetadata.SENSOR_INFO_TIMESTAMP_SOURCE_REALTIME);
+      if (videoSegmentOptions != null) {
+        mediaCodecRecorder.setSegmentation(videoSegmentOptions, createSegmentListener());
+      }
+    } else {
+      mediaRecorder = mediaRecorderBuilder.build();
+    }
+  }
+
+  private void releaseMediaCodecRecorder() {
+    if (mediaCodecRecorder != null) {
+      mediaCodecRecorder.release();
+      mediaCodecRecorder = null;
+    }
+  }
+
+  /** Returns the surface of the recorder in use. */
+  @NonNull
+  private Surface getRecordingSurface() {
+    return mediaCodecRecorder != null
+        ? mediaCodecRecorder.getSurface()
+        : mediaRecorder.getSurface();
+  }
+
+  @NonNull
+  private MediaCodecRecorder.SegmentListener createSegmentListener() {
+    final File outputDir = applicationContext.getCacheDir();
+    return new MediaCodecRecorder.SegmentListener() {
+      @NonNull
+      @Override
+      public String createSegmentPath() throws IOException {
+        return File.createTempFile("REC", ".mp4", outputDir).getAbsolutePath();
+      }
+
+      @Override
+      public void onSegmentReady(@NonNull String path, long durationUs, long sizeBytes) {
+        dartMessenger.sendVideoSegmentReadyEvent(path, durationUs / 1000, sizeBytes);
+      }
+    };
+  }
+
+  /**
+   * Sets whether the next videos are split into segment files.
+   *
+   * <p>Segments are recorded with a {@link MediaCodecRecorder}, with the default encoder options
+   * unless others were set.
+   *
+   * @param options when videos are split, or null to record them to a single file.
+   */
+  public void setVideoSegmentOptions(@Nullable MediaCodecRecorder.SegmentOptions options) {
+    videoSegmentOptions = options;
+  }
+
+  /**
+   * Sets how the next videos are encoded.
+   *
+   * @param options the encoder options, or null to record with a {@link MediaRecorder}.
+   */
+  public void setVideoEncoderOptions(@Nullable MediaCodecRecorder.Options options) {
+    videoEncoderOptions = options;
   }
 
   /**
@@ -336,6 +505,7 @@ class Camera
   @SuppressLint("MissingPermission")
   public void open(Integer imageFormatGroup) throws CameraAccessException {
     this.imageFormatGroup = imageFormatGroup;
+    openStartNanos = CaptureTimings.now();
     final ResolutionFeature resolutionFeature = cameraFeatures.getResolution();
 
     if (!resolutionFeature.checkIsSupported()) {
@@ -349,42 +519,73 @@ class Camera
       return;
     }
 
-    // Always capture using JPEG format.
-    pictureImageReader =
-        ImageReader.newInstance(
-            resolutionFeature.getCaptureSize().getWidth(),
-            resolutionFeature.getCaptureSize().getHeight(),
-            ImageFormat.JPEG,
-            1);
+    // Always capture using JPEG format. The readers of the previous camera are reused when the
+    // camera is switched to one with the same sizes. The picture reader holds as many images as a
+    // burst captures, so that the frames of a burst are not held back while the previous ones are
+    // saved. Its buffers are only allocated once they are used.
+    final int captureWidth = resolutionFeature.getCaptureSize().getWidth();
+    final int captureHeight = resolutionFeature.getCaptureSize().getHeight();
+    if (!hasSize(pictureImageReader, captureWidth, captureHeight)) {
+      if (pictureImageReader != null) {
+        pictureImageReader.close();
+      }
+      pictureImageReader =
+          (sessionManager == null)
+              ? null
+              : sessionManager.takePictureReader(
+                  captureWidth, captureHeight, ImageFormat.JPEG, MAX_BURST_SIZE);
+      if (pictureImageReader == null) {
+        pictureImageReader =
+            ImageReader.newInstance(captureWidth, captureHeight, ImageFormat.JPEG, MAX_BURST_SIZE);
+      }
+    }
+
+    closeZeroShutterLag();
+    if (zeroShutterLagEnabled && isReprocessingInputSize(captureWidth, captureHeight)) {
+      zslRingBuffer =
+          new ZslRingBuffer(captureWidth, captureHeight, ZslRingBuffer.DEFAULT_CAPACITY);
+      cameraCaptureCallback.setZslRingBuffer(zslRingBuffer);
+    }
 
-    imageStreamReader =
-        new ImageStreamReader(
-            resolutionFeature.getPreviewSize().getWidth(),
-            resolutionFeature.getPreviewSize().getHeight(),
-            this.imageFormatGroup,
-            1);
+    final int previewWidth = resolutionFeature.getPreviewSize().getWidth();
+    final int previewHeight = resolutionFeature.getPreviewSize().getHeight();
+    if (imageStreamReader == null
+        || !imageStreamReader.matches(previewWidth, previewHeight, this.imageFormatGroup)) {
+      if (imageStreamReader != null) {
+        imageStreamReader.close();
+      }
+      imageStreamReader =
+          new ImageStreamReader(previewWidth, previewHeight, this.imageFormatGroup, 1);
+    }
 
     // Open the camera.
-    CameraManager cameraManager = CameraUtils.getCameraManager(activity);
-    cameraManager.openCamera(
-        cameraProperties.getCameraName(),
+    final CameraManager cameraManager = CameraUtils.getCameraManager(activity);
+    final boolean prewarmed =
+        sessionManager != null && sessionManager.isPrewarmed(cameraProperties.getCameraName());
+    final CameraDevice.StateCallback stateCallback =
         new CameraDevice.StateCallback() {
           @Override
           public void onOpened(@NonNull CameraDevice device) {
             cameraDevice = new DefaultCameraDeviceWrapper(device);
             try {
               // only send initialization if we werent already recording and switching cameras
+              final boolean switchingWhileRecording = recordingVideo;
+              final String openStage =
+                  prewarmed ? CaptureTimings.STAGE_OPEN_PREWARMED : CaptureTimings.STAGE_OPEN;
               Runnable onSuccess =
-                  recordingVideo
-                      ? null
-                      : () ->
-                          dartMessenger.sendCameraInitializedEvent(
-                              resolutionFeature.getPreviewSize().getWidth(),
-                              resolutionFeature.getPreviewSize().getHeight(),
-                              cameraFeatures.getExposureLock().getValue(),
-                              cameraFeatures.getAutoFocus().getValue(),
-                              cameraFeatures.getExposurePoint().checkIsSupported(),
-                              cameraFeatures.getFocusPoint().checkIsSupported());
+                  () -> {
+                    captureTimings.record(openStage, openStartNanos, CaptureTimings.now());
+                    if (switchingWhileRecording) {
+                      return;
+                    }
+                    dartMessenger.sendCameraInitializedEvent(
+                        resolutionFeature.getPreviewSize().getWidth(),
+                        resolutionFeature.getPreviewSize().getHeight(),
+                        cameraFeatures.getExposureLock().getValue(),
+                        cameraFeatures.getAutoFocus().getValue(),
+                        cameraFeatures.getExposurePoint().checkIsSupported(),
+                        cameraFeatures.getFocusPoint().checkIsSupported());
+                  };
               startPreview(onSuccess);
             } catch (Exception e) {
               String message =
@@ -445,8 +646,17 @@ class Camera
             }
             dartMessenger.sendCameraErrorEvent(errorDescription);
           }
-        },
-        backgroundHandler);
+        };
+    if (sessionManager != null) {
+      sessionManager.openCamera(
+          cameraManager, cameraProperties.getCameraName(), stateCallback, backgroundHandler);
+    } else {
+      cameraManager.openCamera(cameraProperties.getCameraName(), stateCallback, backgroundHandler);
+    }
+  }
+
+  private static boolean hasSize(@Nullable ImageReader reader, int width, int height) {
+    return reader != null && reader.getWidth() == width && reader.getHeight() == height;
   }
 
   @VisibleForTesting
@@ -486,6 +696,19 @@ class Camera
       }
     }
 
+    boolean reprocessable = false;
+    if (zslRingBuffer != null) {
+      // Frames of the previous session no longer match the current preview.
+      zslRingBuffer.clear();
+      if (templateType == CameraDevice.TEMPLATE_PREVIEW
+          && remainingSurfaces.contains(zslRingBuffer.getSurface())) {
+        zslRingBuffer.start(backgroundHandler);
+        previewRequestBuilder.addTarget(zslRingBuffer.getSurface());
+        // The kept frames are reprocessed into pictures through the input of the session.
+        reprocessable = true;
+      }
+    }
+
     // Update camera regions.
     Size cameraBoundaries =
         CameraRegionUtils.getCameraBoundaries(cameraProperties, previewRequestBuilder);
@@ -506,6 +729,7 @@ class Camera
               return;
             }
             captureSession = session;
+            updateZslImageWriter(session);
 
             Log.i(TAG, "Updating builder settings");
             updateBuilderSettings(previewRequestBuilder);
@@ -535,27 +759,78 @@ class Camera
       for (Surface surface : remainingSurfaces) {
         configs.add(new OutputConfiguration(surface));
       }
-      createCaptureSessionWithSessionConfig(configs, callback);
+      createCaptureSessionWithSessionConfig(configs, reprocessable, callback);
     } else {
       // Collect all surfaces to render to.
       List<Surface> surfaceList = new ArrayList<>();
       surfaceList.add(flutterSurface);
       surfaceList.addAll(remainingSurfaces);
-      createCaptureSession(surfaceList, callback);
+      if (reprocessable) {
+        cameraDevice.createReprocessableCaptureSession(
+            createZslInputConfiguration(), surfaceList, callback, backgroundHandler);
+      } else {
+        createCaptureSession(surfaceList, callback);
+      }
     }
   }
 
   @SuppressLint("UseRequiresApi")
   @TargetApi(VERSION_CODES.P)
   private void createCaptureSessionWithSessionConfig(
-      List<OutputConfiguration> outputConfigs, CameraCaptureSession.StateCallback callback)
+      List<OutputConfiguration> outputConfigs,
+      boolean reprocessable,
+      CameraCaptureSession.StateCallback callback)
       throws CameraAccessException {
-    cameraDevice.createCaptureSession(
+    final SessionConfiguration sessionConfig =
         new SessionConfiguration(
             SessionConfiguration.SESSION_REGULAR,
             outputConfigs,
             Executors.newSingleThreadExecutor(),
-            callback));
+            callback);
+    if (reprocessable) {
+      sessionConfig.setInputConfiguration(createZslInputConfiguration());
+    }
+    cameraDevice.createCaptureSession(sessionConfig);
+  }
+
+  /** Describes the ZSL frames as the input of a reprocessable session. */
+  @SuppressLint("UseRequiresApi")
+  @TargetApi(VERSION_CODES.M)
+  @NonNull
+  private InputConfiguration createZslInputConfiguration() {
+    return new InputConfiguration(
+        zslRingBuffer.getWidth(), zslRingBuffer.getHeight(), ImageFormat.YUV_420_888);
+  }
+
+  /**
+   * Replaces the writer that queues ZSL frames for reprocessing with one for the input of {@code
+   * session}, or with none if the session is not reprocessable.
+   */
+  private void updateZslImageWriter(@NonNull CameraCaptureSession session) {
+    closeZslImageWriter();
+    if (zslRingBuffer != null
+        && SdkCapabilityChecker.supportsReprocessing()
+        && session.isReprocessable()) {
+      zslImageWriter = ImageWriter.newInstance(session.getInputSurface(), 1);
+    }
+  }
+
+  private void closeZslImageWriter() {
+    final ImageWriter imageWriter = zslImageWriter;
+    zslImageWriter = null;
+    if (imageWriter != null && SdkCapabilityChecker.supportsReprocessing()) {
+      imageWriter.close();
+    }
+  }
+
+  /** Closes the ZSL ring buffer and the writer that queues its frames for reprocessing. */
+  private void closeZeroShutterLag() {
+    cameraCaptureCallback.setZslRingBuffer(null);
+    closeZslImageWriter();
+    if (zslRingBuffer != null) {
+      zslRingBuffer.close();
+      zslRingBuffer = null;
+    }
   }
 
   @SuppressWarnings("deprecation")
@@ -599,8 +874,10 @@ class Camera
     List<Surface> surfaces = new ArrayList<>();
     Runnable successCallback = null;
     if (record) {
-      surfaces.add(mediaRecorder.getSurface());
-      successCallback = () -> mediaRecorder.start();
+      surfaces.add(getRecordingSurface());
+      final MediaCodecRecorder codecRecorder = mediaCodecRecorder;
+      successCallback =
+          codecRecorder != null ? codecRecorder::start : () -> mediaRecorder.start();
     }
     if (stream && imageStreamReader != null) {
       surfaces.add(imageStreamReader.getSurface());
@@ -624,6 +901,8 @@ class Camera
     }
 
     flutterResult = result;
+    takePictureStartNanos = CaptureTimings.now();
+    picturePhase = null;
 
     // Create temporary file.
     final File outputDir = applicationContext.getCacheDir();
@@ -635,6 +914,10 @@ class Camera
       return;
     }
 
+    if (takeZeroShutterLagPicture()) {
+      return;
+    }
+
     // Listen for picture being taken.
     pictureImageReader.setOnImageAvailableListener(this, backgroundHandler);
 
@@ -647,12 +930,119 @@ class Camera
     }
   }
 
+  /**
+   * Reprocesses the zero shutter lag frame nearest to now into a JPEG picture, skipping focus and
+   * precapture entirely.
+   *
+   * @return false when the regular capture sequence has to be used instead, because zero shutter
+   *     lag is disabled, no frame has been kept yet or the flash has to fire.
+   */
+  private boolean takeZeroShutterLagPicture() {
+    final ImageWriter imageWriter = zslImageWriter;
+    if (zslRingBuffer == null || imageWriter == null || captureSession == null) {
+      return false;
+    }
+    final FlashMode flashMode = cameraFeatures.getFlash().getValue();
+    if (flashMode != FlashMode.off && flashMode != FlashMode.torch) {
+      return false;
+    }
+    // Without a realtime timestamp source, frame timestamps can't be compared to the current time.
+    final Image frame =
+        zslRingBuffer.takeNearest(
+            isSensorTimestampRealtime() ? CaptureTimings.now() : Long.MAX_VALUE);
+    if (frame == null) {
+      return false;
+    }
+    final TotalCaptureResult frameResult = zslRingBuffer.takeResult(frame.getTimestamp());
+    if (frameResult == null) {
+      // The frame can't be reprocessed without the settings it was captured with.
+      frame.close();
+      return false;
+    }
+
+    Log.i(TAG, "takeZeroShutterLagPicture");
+    boolean queued = false;
+    try {
+      final CaptureRequest.Builder reprocessBuilder =
+          cameraDevice.createReprocessCaptureRequest(frameResult);
+      reprocessBuilder.addTarget(pictureImageReader.getSurface());
+      reprocessBuilder.set(CaptureRequest.JPEG_ORIENTATION, getPhotoOrientation());
+
+      // The JPEG picture is saved by onImageAvailable, like regular captures.
+      pictureImageReader.setOnImageAvailableListener(this, backgroundHandler);
+      cameraCaptureCallback.setCameraState(CameraState.STATE_CAPTURING);
+      imageWriter.queueInputImage(frame);
+      queued = true;
+      captureSession.capture(reprocessBuilder.build(), null, backgroundHandler);
+    } catch (CameraAccessException | IllegalStateException e) {
+      if (!queued) {
+        frame.close();
+      }
+      cameraCaptureCallback.setCameraState(CameraState.STATE_PREVIEW);
+      dartMessenger.error(flutterResult, "cameraAccess", e.getMessage(), null);
+    }
+    return true;
+  }
+
+  /**
+   * Takes {@code count} pictures with a single burst request, without running the focus and
+   * precapture sequences in between.
+   *
+   * @param count the number of pictures, between 1 and {@link #MAX_BURST_SIZE}.
+   * @param result completed with the paths of the pictures, in capture order.
+   */
+  public void takePictureBurst(int count, @NonNull final Messages.Result<List<String>> result) {
+    if (cameraCaptureCallback.getCameraState() != CameraState.STATE_PREVIEW) {
+      result.error(
+          new Messages.FlutterError(
+              "captureAlreadyActive", "Picture is currently already being captured", null));
+      return;
+    }
+    if (count < 1 || count > MAX_BURST_SIZE) {
+      result.error(
+          new Messages.FlutterError(
+              "invalidBurstCount",
+              "The burst count must be between 1 and " + MAX_BURST_SIZE + ".",
+              null));
+      return;
+    }
+    final ImageReader reader = pictureImageReader;
+    if (cameraDevice == null || captureSession == null || reader == null) {
+      result.error(new Messages.FlutterError("cameraAccess", "Camera is closed.", null));
+      return;
+    }
+
+    final File outputDir = applicationContext.getCacheDir();
+    final List<File> files = new ArrayList<>(count);
+    try {
+      for (int i = 0; i < count; i++) {
+        files.add(File.createTempFile("CAP", ".jpg", outputDir));
+      }
+    } catch (IOException | SecurityException e) {
+      dartMessenger.error(result, "cannotCreateFile", e.getMessage(), null);
+      return;
+    }
+
+    Log.i(TAG, "takePictureBurst");
+    final BurstCapture burstCapture = new BurstCapture(files, result);
+    try {
+      final CaptureRequest request = createStillCaptureRequest();
+      cameraCaptureCallback.setCameraState(CameraState.STATE_CAPTURING);
+      reader.setOnImageAvailableListener(burstCapture, backgroundHandler);
+      captureSession.captureBurst(
+          Collections.nCopies(count, request), burstCapture, backgroundHandler);
+    } catch (CameraAccessException e) {
+      burstCapture.fail("cameraAccess", e.getMessage());
+    }
+  }
+
   /**
    * Run the precapture sequence for capturing a still image. This method should be called when a
    * response is received in {@link #cameraCaptureCallback} from lockFocus().
    */
   private void runPrecaptureSequence() {
     Log.i(TAG, "runPrecaptureSequence");
+    startPicturePhase(CaptureTimings.STAGE_PRECAPTURE);
     try {
       // First set precapture state to idle or else it can hang in STATE_WAITING_PRECAPTURE_START.
       previewRequestBuilder.set(
@@ -688,37 +1078,19 @@ class Camera
    */
   private void takePictureAfterPrecapture() {
     Log.i(TAG, "captureStillPicture");
+    startPicturePhase(CaptureTimings.STAGE_STILL_CAPTURE);
     cameraCaptureCallback.setCameraState(CameraState.STATE_CAPTURING);
 
     if (cameraDevice == null) {
       return;
     }
-    // This is the CaptureRequest.Builder that is used to take a picture.
-    CaptureRequest.Builder stillBuilder;
+    final CaptureRequest stillRequest;
     try {
-      stillBuilder = cameraDevice.createCaptureRequest(CameraDevice.TEMPLATE_STILL_CAPTURE);
+      stillRequest = createStillCaptureRequest();
     } catch (CameraAccessException e) {
       dartMessenger.error(flutterResult, "cameraAccess", e.getMessage(), null);
       return;
     }
-    stillBuilder.addTarget(pictureImageReader.getSurface());
-
-    // Zoom.
-    stillBuilder.set(
-        CaptureRequest.SCALER_CROP_REGION,
-        previewRequestBuilder.get(CaptureRequest.SCALER_CROP_REGION));
-
-    // Have all features update the builder.
-    updateBuilderSettings(stillBuilder);
-
-    // Orientation.
-    final PlatformChannel.DeviceOrientation lockedOrientation =
-        cameraFeatures.getSensorOrientation().getLockedCaptureOrientation();
-    stillBuilder.set(
-        CaptureRequest.JPEG_ORIENTATION,
-        lockedOrientation == null
-            ? getDeviceOrientationManager().getPhotoOrientation()
-            : getDeviceOrientationManager().getPhotoOrientation(lockedOrientation));
 
     CameraCaptureSession.CaptureCallback captureCallback =
         new CameraCaptureSession.CaptureCallback() {
@@ -733,12 +1105,55 @@ class Camera
 
     try {
       Log.i(TAG, "sending capture request");
-      captureSession.capture(stillBuilder.build(), captureCallback, backgroundHandler);
+      captureSession.capture(stillRequest, captureCallback, backgroundHandler);
     } catch (CameraAccessException e) {
       dartMessenger.error(flutterResult, "cameraAccess", e.getMessage(), null);
     }
   }
 
+  /** Creates a still capture request for the picture image reader with the current settings. */
+  private CaptureRequest createStillCaptureRequest() throws CameraAccessException {
+    // This is the CaptureRequest.Builder that is used to take a picture.
+    final CaptureRequest.Builder stillBuilder =
+        cameraDevice.createCaptureRequest(CameraDevice.TEMPLATE_STILL_CAPTURE);
+    stillBuilder.addTarget(pictureImageReader.getSurface());
+
+    // Zoom.
+    stillBuilder.set(
+        CaptureRequest.SCALER_CROP_REGION,
+        previewRequestBuilder.get(CaptureRequest.SCALER_CROP_REGION));
+
+    // Have all features update the builder.
+    updateBuilderSettings(stillBuilder);
+
+    // Orientation.
+    stillBuilder.set(CaptureRequest.JPEG_ORIENTATION, getPhotoOrientation());
+    return stillBuilder.build();
+  }
+
+  /** Returns the JPEG orientation of pictures, honoring the locked capture orientation. */
+  private int getPhotoOrientation() {
+    final PlatformChannel.DeviceOrientation lockedOrientation =
+        cameraFeatures.getSensorOrientation().getLockedCaptureOrientation();
+    return lockedOrientation == null
+        ? getDeviceOrientationManager().getPhotoOrientation()
+        : getDeviceOrientationManager().getPhotoOrientation(lockedOrientation);
+  }
+
+  /**
+   * Records the picture capture stage that is running, if any, and starts timing the next one.
+   *
+   * @param stage the stage that starts now, or null when no further stage is timed.
+   */
+  private void startPicturePhase(@Nullable String stage) {
+    final long now = CaptureTimings.now();
+    if (picturePhase != null) {
+      captureTimings.record(picturePhase, picturePhaseStartNanos, now);
+    }
+    picturePhase = stage;
+    picturePhaseStartNanos = now;
+  }
+
   @SuppressWarnings("deprecation")
   private Display getDefaultDisplay() {
     return activity.getWindowManager().getDefaultDisplay();
@@ -746,6 +1161,11 @@ class Camera
 
   /** Starts a background thread and its {@link Handler}. */
   public void startBackgroundThread() {
+    if (sessionManager != null) {
+      // The thread of the session manager outlives this camera.
+      backgroundHandler = sessionManager.getBackgroundHandler();
+      return;
+    }
     if (backgroundHandlerThread != null) {
       return;
     }
@@ -771,6 +1191,7 @@ class Camera
   /** Start capturing a picture, doing autofocus first. */
   private void runPictureAutoFocus() {
     Log.i(TAG, "runPictureAutoFocus");
+    startPicturePhase(CaptureTimings.STAGE_FOCUS_LOCK);
 
     cameraCaptureCallback.setCameraState(CameraState.STATE_WAITING_FOCUS);
     lockAutoFocus();
@@ -850,11 +1271,23 @@ class Camera
 
   private void closeRenderer() {
     if (videoRenderer != null) {
+      droppedVideoFrameCount += videoRenderer.getDroppedFrameCount();
       videoRenderer.close();
       videoRenderer = null;
     }
   }
 
+  /**
+   * Returns the number of frames dropped while recording the current or last video.
+   *
+   * <p>Frames can only be dropped after the camera was switched while recording, when they are
+   * rendered through the {@link VideoRenderer}.
+   */
+  public long getDroppedVideoFrameCount() {
+    final VideoRenderer renderer = videoRenderer;
+    return droppedVideoFrameCount + (renderer == null ? 0 : renderer.getDroppedFrameCount());
+  }
+
   public String stopVideoRecording() {
     if (!recordingVideo) {
       return "";
@@ -866,22 +1299,41 @@ class Camera
     cameraFeatures.setFpsRange(cameraFeatureFactory.createFpsRangeFeature(cameraProperties));
 
     recordingVideo = false;
+    // The file is unusable when the MediaCodecRecorder fails, unlike when stopping a MediaRecorder.
+    IllegalStateException recordingFailure = null;
     try {
       closeRenderer();
       captureSession.abortCaptures();
-      mediaRecorder.stop();
+      if (mediaCodecRecorder != null) {
+        try {
+          mediaCodecRecorder.stop();
+        } catch (IllegalStateException e) {
+          recordingFailure = e;
+        }
+      } else {
+        mediaRecorder.stop();
+      }
     } catch (CameraAccessException | IllegalStateException e) {
       // Ignore exceptions and try to continue (changes are camera session already aborted capture).
     }
-    mediaRecorder.reset();
+    String path = captureFile.getAbsolutePath();
+    if (mediaCodecRecorder != null) {
+      // The last segment when the video is split into segments.
+      path = mediaCodecRecorder.getOutputFilePath();
+      releaseMediaCodecRecorder();
+    } else {
+      mediaRecorder.reset();
+    }
     try {
       // Don't wait for start preview
       startPreview(null);
     } catch (CameraAccessException | IllegalStateException | InterruptedException e) {
       throw new Messages.FlutterError("videoRecordingFailed", e.getMessage(), null);
     }
-    String path = captureFile.getAbsolutePath();
     captureFile = null;
+    if (recordingFailure != null) {
+      throw new Messages.FlutterError("videoRecordingFailed", recordingFailure.getMessage(), null);
+    }
     return path;
   }
 
@@ -891,7 +1343,9 @@ class Camera
     }
 
     try {
-      if (SdkCapabilityChecker.supportsVideoPause()) {
+      if (mediaCodecRecorder != null) {
+        mediaCodecRecorder.pause();
+      } else if (SdkCapabilityChecker.supportsVideoPause()) {
         mediaRecorder.pause();
       } else {
         throw new Messages.FlutterError(
@@ -908,7 +1362,9 @@ class Camera
     }
 
     try {
-      if (SdkCapabilityChecker.supportsVideoPause()) {
+      if (mediaCodecRecorder != null) {
+        mediaCodecRecorder.resume();
+      } else if (SdkCapabilityChecker.supportsVideoPause()) {
         mediaRecorder.resume();
       } else {
         throw new Messages.FlutterError(
@@ -1186,6 +1642,18 @@ class Camera
     }
 
     Log.i(TAG, "startPreview");
+    if (zslRingBuffer != null && !isZeroShutterLagSessionSupported()) {
+      Log.w(TAG, "The camera does not support zero shutter lag with the current sizes.");
+      closeZeroShutterLag();
+    }
+    if (zslRingBuffer != null) {
+      createCaptureSession(
+          CameraDevice.TEMPLATE_PREVIEW,
+          onSuccessCallback,
+          pictureImageReader.getSurface(),
+          zslRingBuffer.getSurface());
+      return;
+    }
     createCaptureSession(
         CameraDevice.TEMPLATE_PREVIEW, onSuccessCallback, pictureImageReader.getSurface());
   }
@@ -1247,25 +1715,143 @@ class Camera
     if (image == null) {
       return;
     }
+    startPicturePhase(null);
+    savePicture(image);
+  }
 
-    backgroundHandler.post(
-        new ImageSaver(
-            image,
-            captureFile,
-            new ImageSaver.Callback() {
-              @Override
-              public void onComplete(@NonNull String absolutePath) {
-                dartMessenger.finish(flutterResult, absolutePath);
-              }
-
-              @Override
-              public void onError(@NonNull String errorCode, @NonNull String errorMessage) {
-                dartMessenger.error(flutterResult, errorCode, errorMessage, null);
-              }
-            }));
+  /**
+   * Saves a picture to the capture file on the background thread and completes the pending result.
+   *
+   * @param image the JPEG picture to save.
+   */
+  private void savePicture(@NonNull Image image) {
+    final long startNanos = takePictureStartNanos;
+    // The saver may still be running when the next picture is requested.
+    final Messages.Result<String> result = flutterResult;
+    getImageSaverExecutor()
+        .execute(
+            new ImageSaver(
+                image,
+                captureFile,
+                new ImageSaver.Callback() {
+                  @Override
+                  public void onComplete(@NonNull String absolutePath) {
+                    captureTimings.record(
+                        CaptureTimings.STAGE_TAKE_PICTURE, startNanos, CaptureTimings.now());
+                    dartMessenger.finish(result, absolutePath);
+                  }
+
+                  @Override
+                  public void onError(@NonNull String errorCode, @NonNull String errorMessage) {
+                    dartMessenger.error(result, errorCode, errorMessage, null);
+                  }
+                },
+                captureTimings,
+                pictureSaveOptions));
     cameraCaptureCallback.setCameraState(CameraState.STATE_PREVIEW);
   }
 
+  @NonNull
+  private ExecutorService getImageSaverExecutor() {
+    if (imageSaverExecutor == null) {
+      imageSaverExecutor = Executors.newSingleThreadExecutor();
+    }
+    return imageSaverExecutor;
+  }
+
+  /**
+   * Sets how pictures are written to their files, starting with the next picture.
+   *
+   * @param options the durability and EXIF attributes of pictures.
+   */
+  public void setPictureSaveOptions(@NonNull ImageSaver.Options options) {
+    pictureSaveOptions = options;
+  }
+
+  /** Saves the pictures of a burst capture in order and reports them once all are saved. */
+  private class BurstCapture extends CameraCaptureSession.CaptureCallback
+      implements ImageReader.OnImageAvailableListener, ImageSaver.Callback {
+    private final List<File> files;
+    private final List<String> paths;
+    private final Messages.Result<List<String>> result;
+    private int acquiredCount;
+    private boolean done;
+
+    BurstCapture(@NonNull List<File> files, @NonNull Messages.Result<List<String>> result) {
+      this.files = files;
+      this.paths = new ArrayList<>(files.size());
+      this.result = result;
+    }
+
+    @Override
+    public synchronized void onImageAvailable(ImageReader reader) {
+      while (true) {
+        final Image image;
+        try {
+          image = reader.acquireNextImage();
+        } catch (IllegalStateException e) {
+          // Every image of the reader is being saved. The pending ones are acquired once a picture
+          // has been saved and its image closed.
+          return;
+        }
+        if (image == null) {
+          return;
+        }
+        if (done || acquiredCount == files.size()) {
+          image.close();
+          continue;
+        }
+        getImageSaverExecutor()
+            .execute(
+                new ImageSaver(
+                    image,
+                    files.get(acquiredCount++),
+                    this,
+                    captureTimings,
+                    0,
+                    pictureSaveOptions));
+      }
+    }
+
+    @Override
+    public synchronized void onComplete(@NonNull String absolutePath) {
+      paths.add(absolutePath);
+      if (paths.size() == files.size()) {
+        done = true;
+        cameraCaptureCallback.setCameraState(CameraState.STATE_PREVIEW);
+        dartMessenger.finish(result, paths);
+        return;
+      }
+      final ImageReader reader = pictureImageReader;
+      final Handler handler = backgroundHandler;
+      if (reader != null && handler != null) {
+        handler.post(() -> onImageAvailable(reader));
+      }
+    }
+
+    @Override
+    public void onError(@NonNull String errorCode, @NonNull String errorMessage) {
+      fail(errorCode, errorMessage);
+    }
+
+    @Override
+    public void onCaptureFailed(
+        @NonNull CameraCaptureSession session,
+        @NonNull CaptureRequest request,
+        @NonNull CaptureFailure failure) {
+      fail("burstCaptureFailed", "Burst capture failed with reason " + failure.getReason() + ".");
+    }
+
+    synchronized void fail(@NonNull String errorCode, @Nullable String errorMessage) {
+      if (done) {
+        return;
+      }
+      done = true;
+      cameraCaptureCallback.setCameraState(CameraState.STATE_PREVIEW);
+      dartMessenger.error(result, errorCode, errorMessage, null);
+    }
+  }
+
   @VisibleForTesting
   void prepareRecording() {
     final File outputDir = applicationContext.getCacheDir();
@@ -1293,7 +1879,8 @@ class Camera
         new EventChannel.StreamHandler() {
           @Override
           public void onListen(Object o, EventChannel.EventSink imageStreamSink) {
-            setImageStreamImageAvailableListener(imageStreamSink);
+            setImageStreamImageAvailableListener(
+                imageStreamSink, ImageStreamOptions.fromListenArguments(o));
           }
 
           @Override
@@ -1307,11 +1894,155 @@ class Camera
         });
   }
 
+  /**
+   * Sets the messenger used to send image stream frames when Dart requests direct buffers.
+   *
+   * @param messenger the messenger the image stream channel was created with.
+   * @param channelName the name of the image stream channel.
+   */
+  public void setImageStreamMessenger(
+      @Nullable BinaryMessenger messenger, @NonNull String channelName) {
+    imageStreamMessenger = messenger;
+    imageStreamChannelName = channelName;
+  }
+
+  /**
+   * Enables or disables per-frame timing instrumentation. Enabling discards previous timings.
+   *
+   * @param enabled whether timings should be recorded.
+   */
+  public void setTimingInstrumentationEnabled(boolean enabled) {
+    if (enabled) {
+      captureTimings.setSensorTimestampRealtime(isSensorTimestampRealtime());
+    }
+    captureTimings.setEnabled(enabled);
+  }
+
+  private boolean isSensorTimestampRealtime() {
+    final Integer timestampSource = cameraProperties.getSensorInfoTimestampSource();
+    return timestampSource != null
+        && timestampSource == CameraMetadata.SENSOR_INFO_TIMESTAMP_SOURCE_REALTIME;
+  }
+
+  /**
+   * Enables or disables zero shutter lag pictures.
+   *
+   * <p>While enabled, the preview session also keeps the most recent full resolution frames and
+   * {@link #takePicture} reprocesses the one nearest to the request into a JPEG picture, unless
+   * the flash has to fire. The change takes effect the next time the camera is opened. Regular
+   * captures are used instead when the camera does not support the reprocessable preview session
+   * with the current sizes.
+   *
+   * @param enabled whether zero shutter lag should be used.
+   * @throws Messages.FlutterError if enabling it on a camera that can't reprocess YUV frames.
+   */
+  public void setZeroShutterLagEnabled(boolean enabled) {
+    if (enabled && !supportsYuvReprocessing()) {
+      throw new Messages.FlutterError(
+          "zeroShutterLagUnsupported",
+          "Zero shutter lag requires a camera that can reprocess YUV frames.",
+          null);
+    }
+    zeroShutterLagEnabled = enabled;
+  }
+
+  private boolean supportsYuvReprocessing() {
+    if (!SdkCapabilityChecker.supportsReprocessing()) {
+      return false;
+    }
+    final int[] capabilities = cameraProperties.getAvailableCapabilities();
+    if (capabilities == null) {
+      return false;
+    }
+    for (int capability : capabilities) {
+      if (capability == CameraMetadata.REQUEST_AVAILABLE_CAPABILITIES_YUV_REPROCESSING) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /** Returns whether YUV frames of the given size can be reprocessed into pictures. */
+  private boolean isReprocessingInputSize(int width, int height) {
+    if (!supportsYuvReprocessing()) {
+      return false;
+    }
+    final Size[] inputSizes = cameraProperties.getReprocessingInputSizes(ImageFormat.YUV_420_888);
+    if (inputSizes == null) {
+      return false;
+    }
+    for (Size size : inputSizes) {
+      if (size.getWidth() == width && size.getHeight() == height) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Returns whether the camera supports a preview session that also fills the ZSL ring buffer and
+   * reprocesses its frames into JPEG pictures.
+   *
+   * <p>The YUV reprocessing capability lists a preview, a YUV input and a JPEG output as a
+   * guaranteed stream combination. Where the camera can be asked, the actual sizes are confirmed
+   * as well.
+   */
+  @VisibleForTesting
+  boolean isZeroShutterLagSessionSupported() {
+    if (!SdkCapabilityChecker.supportsSessionConfigurationQuery()) {
+      return true;
+    }
+    final List<OutputConfiguration> outputConfigs = new ArrayList<>();
+    outputConfigs.add(
+        new OutputConfiguration(
+            cameraFeatures.getResolution().getPreviewSize(), SurfaceTexture.class));
+    outputConfigs.add(new OutputConfiguration(pictureImageReader.getSurface()));
+    outputConfigs.add(new OutputConfiguration(zslRingBuffer.getSurface()));
+    final SessionConfiguration sessionConfig =
+        new SessionConfiguration(
+            SessionConfiguration.SESSION_REGULAR,
+            outputConfigs,
+            Runnable::run,
+            new CameraCaptureSession.StateCallback() {
+              // The configuration is only queried, never used to create a session.
+              @Override
+              public void onConfigured(@NonNull CameraCaptureSession session) {}
+
+              @Override
+              public void onConfigureFailed(@NonNull CameraCaptureSession session) {}
+            });
+    sessionConfig.setInputConfiguration(createZslInputConfiguration());
+    try {
+      return cameraDevice.isSessionConfigurationSupported(sessionConfig);
+    } catch (UnsupportedOperationException e) {
+      // The camera can't answer, so rely on the guaranteed stream combination.
+      return true;
+    } catch (IllegalArgumentException | CameraAccessException e) {
+      return false;
+    }
+  }
+
+  /** Returns the timings recorded while timing instrumentation is enabled. */
+  @NonNull
+  public CaptureTimings getCaptureTimings() {
+    return captureTimings;
+  }
+
   void setImageStreamImageAvailableListener(final EventChannel.EventSink imageStreamSink) {
+    setImageStreamImageAvailableListener(imageStreamSink, ImageStreamOptions.DEFAULT);
+  }
+
+  void setImageStreamImageAvailableListener(
+      final EventChannel.EventSink imageStreamSink, @NonNull ImageStreamOptions options) {
     if (imageStreamReader == null) {
       return;
     }
 
+    imageStreamReader.applyOptions(options);
+    imageStreamReader.setCaptureTimings(captureTimings);
+    if (imageStreamChannelName != null) {
+      imageStreamReader.setBinaryMessenger(imageStreamMessenger, imageStreamChannelName);
+    }
     imageStreamReader.subscribeListener(this.captureProps, imageStreamSink, backgroundHandler);
   }
 
@@ -1324,24 +2055,41 @@ class Camera
     }
   }
 
+  /** Returns the name of the camera device this camera has open, or null when it has none. */
+  @Nullable
+  String getOpenCameraName() {
+    return cameraDevice != null ? cameraProperties.getCameraName() : null;
+  }
+
   public void close() {
     Log.i(TAG, "close");
 
     stopAndReleaseCamera();
 
     if (pictureImageReader != null) {
-      pictureImageReader.close();
+      if (sessionManager != null) {
+        sessionManager.recyclePictureReader(pictureImageReader);
+      } else {
+        pictureImageReader.close();
+      }
       pictureImageReader = null;
     }
     if (imageStreamReader != null) {
       imageStreamReader.close();
       imageStreamReader = null;
     }
+    closeZeroShutterLag();
+    if (imageSaverExecutor != null) {
+      // Pictures that are already being saved are still completed.
+      imageSaverExecutor.shutdown();
+      imageSaverExecutor = null;
+    }
     if (mediaRecorder != null) {
       mediaRecorder.reset();
       mediaRecorder.release();
       mediaRecorder = null;
     }
+    releaseMediaCodecRecorder();
 
     stopBackgroundThread();
   }
@@ -1376,7 +2124,7 @@ class Camera
 
     videoRenderer =
         new VideoRenderer(
-            mediaRecorder.getSurface(),
+            getRecordingSurface(),
             resolutionFeature.getCaptureSize().getWidth(),
             resolutionFeature.getCaptureSize().getHeight(),
             videoRendererUncaughtExceptionHandler);
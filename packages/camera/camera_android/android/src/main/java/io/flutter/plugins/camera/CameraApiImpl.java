@@ -19,17 +19,25 @@ import io.flutter.plugins.camera.features.Point;
 import io.flutter.plugins.camera.features.exposurelock.ExposureMode;
 import io.flutter.plugins.camera.features.flash.FlashMode;
 import io.flutter.plugins.camera.features.resolution.ResolutionPreset;
+import io.flutter.plugins.camera.media.MediaCodecRecorder;
+import io.flutter.plugins.camera.types.CaptureTimings;
 import io.flutter.view.TextureRegistry;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 
 final class CameraApiImpl implements Messages.CameraApi {
+  private static final String IMAGE_STREAM_CHANNEL =
+      "plugins.flutter.io/camera_android/imageStream";
+
   private final Activity activity;
   private final BinaryMessenger messenger;
   private final CameraPermissions cameraPermissions;
   private final PermissionsRegistry permissionsRegistry;
   private final TextureRegistry textureRegistry;
   private final EventChannel imageStreamChannel;
+  private final CameraSessionManager sessionManager = new CameraSessionManager();
   @VisibleForTesting @Nullable Camera camera;
 
   CameraApiImpl(
@@ -44,13 +52,13 @@ final class CameraApiImpl implements Messages.CameraApi {
     this.permissionsRegistry = permissionsAdder;
     this.textureRegistry = textureRegistry;
 
-    imageStreamChannel =
-        new EventChannel(messenger, "plugins.flutter.io/camera_android/imageStream");
+    imageStreamChannel = new EventChannel(messenger, IMAGE_STREAM_CHANNEL);
     Messages.CameraApi.setUp(messenger, this);
   }
 
   void tearDownMessageHandler() {
     Messages.CameraApi.setUp(messenger, null);
+    sessionManager.release();
   }
 
   private Long instantiateCamera(String cameraName, Messages.PlatformMediaSettings settings)
@@ -63,8 +71,7 @@ final class CameraApiImpl implements Messages.CameraApi {
             new Handler(Looper.getMainLooper()),
             new Messages.CameraGlobalEventApi(messenger),
             new Messages.CameraEventApi(messenger, String.valueOf(cameraId)));
-    CameraProperties cameraProperties =
-        new CameraPropertiesImpl(cameraName, CameraUtils.getCameraManager(activity));
+    CameraProperties cameraProperties = CameraUtils.getCameraProperties(activity, cameraName);
     Integer fps = (settings.getFps() == null) ? null : settings.getFps().intValue();
     Integer videoBitrate =
         (settings.getVideoBitrate() == null) ? null : settings.getVideoBitrate().intValue();
@@ -81,7 +88,9 @@ final class CameraApiImpl implements Messages.CameraApi {
             dartMessenger,
             cameraProperties,
             new Camera.VideoCaptureSettings(
-                resolutionPreset, settings.getEnableAudio(), fps, videoBitrate, audioBitrate));
+                resolutionPreset, settings.getEnableAudio(), fps, videoBitrate, audioBitrate),
+            sessionManager);
+    camera.setImageStreamMessenger(messenger, IMAGE_STREAM_CHANNEL);
 
     return flutterSurfaceTexture.id();
   }
@@ -337,10 +346,97 @@ final class CameraApiImpl implements Messages.CameraApi {
   @Override
   public void setDescriptionWhileRecording(@NonNull String cameraName) {
     try {
-      camera.setDescriptionWhileRecording(
-          new CameraPropertiesImpl(cameraName, CameraUtils.getCameraManager(activity)));
+      camera.setDescriptionWhileRecording(CameraUtils.getCameraProperties(activity, cameraName));
+    } catch (CameraAccessException e) {
+      throw new Messages.FlutterError("CameraAccessException", e.getMessage(), null);
+    }
+  }
+
+  @Override
+  public void setTimingInstrumentationEnabled(@NonNull Boolean enabled) {
+    camera.setTimingInstrumentationEnabled(enabled);
+  }
+
+  @NonNull
+  @Override
+  public List<Messages.PlatformStageTiming> getStageTimings() {
+    final List<CaptureTimings.StageSummary> summaries = camera.getCaptureTimings().getSummaries();
+    final List<Messages.PlatformStageTiming> timings = new ArrayList<>(summaries.size());
+    for (CaptureTimings.StageSummary summary : summaries) {
+      timings.add(
+          new Messages.PlatformStageTiming.Builder()
+              .setStage(summary.stage)
+              .setSampleCount(summary.sampleCount)
+              .setP50Millis(summary.p50Millis)
+              .setP95Millis(summary.p95Millis)
+              .setP99Millis(summary.p99Millis)
+              .build());
+    }
+    return timings;
+  }
+
+  @Override
+  public void takePictureBurst(
+      @NonNull Long count, @NonNull Messages.Result<List<String>> result) {
+    camera.takePictureBurst(count.intValue(), result);
+  }
+
+  @Override
+  public void setZeroShutterLagEnabled(@NonNull Boolean enabled) {
+    camera.setZeroShutterLagEnabled(enabled);
+  }
+
+  @Override
+  public void setPictureSaveOptions(
+      @NonNull Boolean syncToStorage, @NonNull Map<String, String> exifAttributes) {
+    camera.setPictureSaveOptions(
+        new ImageSaver.Options(
+            syncToStorage ? ImageSaver.Durability.FDATASYNC : ImageSaver.Durability.NONE,
+            exifAttributes));
+  }
+
+  @NonNull
+  @Override
+  public Long getDroppedVideoFrameCount() {
+    return camera.getDroppedVideoFrameCount();
+  }
+
+  @Override
+  public void setVideoEncoderOptions(
+      @NonNull Boolean useMediaCodec,
+      @NonNull Boolean preferHevc,
+      @NonNull Boolean constantBitrate,
+      @NonNull Long keyFrameIntervalSeconds,
+      @NonNull Boolean fragmented) {
+    camera.setVideoEncoderOptions(
+        useMediaCodec
+            ? new MediaCodecRecorder.Options(
+                preferHevc, constantBitrate, keyFrameIntervalSeconds.intValue(), fragmented)
+            : null);
+  }
+
+  @Override
+  public void setVideoSegmentOptions(
+      @NonNull Boolean segmented,
+      @NonNull Long maxDurationMillis,
+      @NonNull Long maxSizeBytes,
+      @NonNull Long maxSegmentCount) {
+    camera.setVideoSegmentOptions(
+        segmented
+            ? new MediaCodecRecorder.SegmentOptions(
+                maxDurationMillis * 1000, maxSizeBytes, maxSegmentCount.intValue())
+            : null);
+  }
+
+  @Override
+  public void prewarmCamera(@NonNull String cameraName) {
+    final String openCameraName = camera != null ? camera.getOpenCameraName() : null;
+    try {
+      sessionManager.prewarm(CameraUtils.getCameraManager(activity), cameraName, openCameraName);
     } catch (CameraAccessException e) {
       throw new Messages.FlutterError("CameraAccessException", e.getMessage(), null);
+    } catch (SecurityException e) {
+      throw new Messages.FlutterError("CameraAccessDenied", e.getMessage(), null);
     }
   }
 
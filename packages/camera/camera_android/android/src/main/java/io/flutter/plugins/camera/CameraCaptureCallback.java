@@ -11,9 +11,12 @@ import android.hardware.camera2.CaptureResult;
 import android.hardware.camera2.TotalCaptureResult;
 import android.util.Log;
 import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
 import androidx.annotation.VisibleForTesting;
+import io.flutter.plugins.camera.media.ZslRingBuffer;
 import io.flutter.plugins.camera.types.CameraCaptureProperties;
 import io.flutter.plugins.camera.types.CaptureTimeoutsWrapper;
+import io.flutter.plugins.camera.types.CaptureTimings;
 
 /**
  * A callback object for tracking the progress of a {@link android.hardware.camera2.CaptureRequest}
@@ -25,6 +28,9 @@ class CameraCaptureCallback extends CaptureCallback {
   private CameraState cameraState;
   private final CaptureTimeoutsWrapper captureTimeouts;
   private final CameraCaptureProperties captureProps;
+  private final CaptureTimings captureTimings;
+  /** Receives the capture results of the preview frames it keeps, or null without ZSL. */
+  @Nullable private volatile ZslRingBuffer zslRingBuffer;
 
   // Lookup keys for state; overrideable for unit tests since Mockito can't mock them.
   @VisibleForTesting @NonNull
@@ -36,11 +42,13 @@ class CameraCaptureCallback extends CaptureCallback {
   private CameraCaptureCallback(
       @NonNull CameraCaptureStateListener cameraStateListener,
       @NonNull CaptureTimeoutsWrapper captureTimeouts,
-      @NonNull CameraCaptureProperties captureProps) {
+      @NonNull CameraCaptureProperties captureProps,
+      @NonNull CaptureTimings captureTimings) {
     cameraState = CameraState.STATE_PREVIEW;
     this.cameraStateListener = cameraStateListener;
     this.captureTimeouts = captureTimeouts;
     this.captureProps = captureProps;
+    this.captureTimings = captureTimings;
   }
 
   /**
@@ -55,7 +63,26 @@ class CameraCaptureCallback extends CaptureCallback {
       @NonNull CameraCaptureStateListener cameraStateListener,
       @NonNull CaptureTimeoutsWrapper captureTimeouts,
       @NonNull CameraCaptureProperties captureProps) {
-    return new CameraCaptureCallback(cameraStateListener, captureTimeouts, captureProps);
+    return create(cameraStateListener, captureTimeouts, captureProps, new CaptureTimings());
+  }
+
+  /**
+   * Creates a new instance of the {@link CameraCaptureCallback} class that records the time from
+   * sensor exposure to capture result.
+   *
+   * @param cameraStateListener instance which will be called when the camera state changes.
+   * @param captureTimeouts specifying the different timeout counters that should be taken into
+   *     account.
+   * @param captureTimings the timings to record into when they are enabled.
+   * @return a configured instance of the {@link CameraCaptureCallback} class.
+   */
+  public static CameraCaptureCallback create(
+      @NonNull CameraCaptureStateListener cameraStateListener,
+      @NonNull CaptureTimeoutsWrapper captureTimeouts,
+      @NonNull CameraCaptureProperties captureProps,
+      @NonNull CaptureTimings captureTimings) {
+    return new CameraCaptureCallback(
+        cameraStateListener, captureTimeouts, captureProps, captureTimings);
   }
 
   /**
@@ -76,6 +103,16 @@ class CameraCaptureCallback extends CaptureCallback {
     cameraState = state;
   }
 
+  /**
+   * Sets the ring buffer that keeps the capture results of the frames, so that they can be
+   * reprocessed into pictures.
+   *
+   * @param zslRingBuffer the ring buffer, or null when zero shutter lag is not used.
+   */
+  public void setZslRingBuffer(@Nullable ZslRingBuffer zslRingBuffer) {
+    this.zslRingBuffer = zslRingBuffer;
+  }
+
   private void process(CaptureResult result) {
     Integer aeState = result.get(aeStateKey);
     Integer afState = result.get(afStateKey);
@@ -174,6 +211,19 @@ class CameraCaptureCallback extends CaptureCallback {
       @NonNull CameraCaptureSession session,
       @NonNull CaptureRequest request,
       @NonNull TotalCaptureResult result) {
+    final ZslRingBuffer ringBuffer = zslRingBuffer;
+    if (captureTimings.isEnabled() || ringBuffer != null) {
+      Long sensorTimestamp = result.get(CaptureResult.SENSOR_TIMESTAMP);
+      if (sensorTimestamp != null) {
+        if (captureTimings.isEnabled()) {
+          captureTimings.recordSinceSensor(
+              CaptureTimings.STAGE_SENSOR_TO_RESULT, sensorTimestamp, CaptureTimings.now());
+        }
+        if (ringBuffer != null) {
+          ringBuffer.addResult(sensorTimestamp, result);
+        }
+      }
+    }
     process(result);
   }
 
@@ -0,0 +1,128 @@
+// Copyright 2013 The Flutter Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package io.flutter.plugins.camera;
+
+import android.hardware.camera2.CameraAccessException;
+import android.hardware.camera2.CameraCharacteristics;
+import android.hardware.camera2.CameraManager;
+import android.hardware.camera2.CameraMetadata;
+import android.os.Handler;
+import android.os.Looper;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.VisibleForTesting;
+import io.flutter.plugins.camera.features.resolution.ResolutionFeature;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Process-wide cache of the camera ID list and of {@link CameraCharacteristics}.
+ *
+ * <p>Both are binder calls into the camera service, which can take tens of milliseconds each on
+ * some devices. The characteristics of a camera never change while it is connected, so the cache
+ * is only invalidated when a camera is connected or an external camera is disconnected, as
+ * reported by a {@link CameraManager.AvailabilityCallback}. The cached encoder profiles of {@link
+ * ResolutionFeature} are invalidated along with it.
+ */
+final class CameraCharacteristicsCache {
+  private static final CameraCharacteristicsCache INSTANCE = new CameraCharacteristicsCache();
+
+  @Nullable private String[] cameraIds;
+  private final Map<String, CameraCharacteristics> characteristics = new HashMap<>();
+  private boolean listening;
+
+  private final CameraManager.AvailabilityCallback availabilityCallback =
+      new CameraManager.AvailabilityCallback() {
+        @Override
+        public void onCameraAvailable(@NonNull String cameraId) {
+          // Also called for every available camera when the callback is registered.
+          synchronized (CameraCharacteristicsCache.this) {
+            if (cameraIds != null && !Arrays.asList(cameraIds).contains(cameraId)) {
+              invalidate();
+            }
+          }
+        }
+
+        @Override
+        public void onCameraUnavailable(@NonNull String cameraId) {
+          // Opening a camera also makes it unavailable, so only external cameras, which can be
+          // unplugged, invalidate the cache.
+          synchronized (CameraCharacteristicsCache.this) {
+            final CameraCharacteristics cameraCharacteristics = characteristics.get(cameraId);
+            if (cameraCharacteristics == null) {
+              return;
+            }
+            final Integer lensFacing = cameraCharacteristics.get(CameraCharacteristics.LENS_FACING);
+            if (lensFacing != null && lensFacing == CameraMetadata.LENS_FACING_EXTERNAL) {
+              invalidate();
+            }
+          }
+        }
+      };
+
+  private CameraCharacteristicsCache() {}
+
+  /** Returns the process-wide instance. */
+  @NonNull
+  static CameraCharacteristicsCache getInstance() {
+    return INSTANCE;
+  }
+
+  /**
+   * Returns the IDs of the connected cameras, as {@link CameraManager#getCameraIdList()} does.
+   *
+   * @param cameraManager the manager used when the list is not cached.
+   * @throws CameraAccessException when the camera service could not be accessed.
+   */
+  @NonNull
+  synchronized String[] getCameraIdList(@NonNull CameraManager cameraManager)
+      throws CameraAccessException {
+    listen(cameraManager);
+    if (cameraIds == null) {
+      cameraIds = cameraManager.getCameraIdList();
+    }
+    return cameraIds.clone();
+  }
+
+  /**
+   * Returns the characteristics of a camera, as {@link
+   * CameraManager#getCameraCharacteristics(String)} does.
+   *
+   * @param cameraManager the manager used when the characteristics are not cached.
+   * @param cameraId the ID of the camera.
+   * @throws CameraAccessException when the camera service could not be accessed.
+   */
+  @NonNull
+  synchronized CameraCharacteristics getCameraCharacteristics(
+      @NonNull CameraManager cameraManager, @NonNull String cameraId)
+      throws CameraAccessException {
+    listen(cameraManager);
+    CameraCharacteristics cameraCharacteristics = characteristics.get(cameraId);
+    if (cameraCharacteristics == null) {
+      cameraCharacteristics = cameraManager.getCameraCharacteristics(cameraId);
+      characteristics.put(cameraId, cameraCharacteristics);
+    }
+    return cameraCharacteristics;
+  }
+
+  /** Discards everything cached, including the encoder profiles of {@link ResolutionFeature}. */
+  @VisibleForTesting
+  synchronized void invalidate() {
+    cameraIds = null;
+    characteristics.clear();
+    ResolutionFeature.clearProfileCache();
+  }
+
+  private void listen(@NonNull CameraManager cameraManager) {
+    if (listening) {
+      return;
+    }
+    listening = true;
+    // The callback is kept by the camera service client of the process, not by this manager.
+    cameraManager.registerAvailabilityCallback(
+        availabilityCallback, new Handler(Looper.getMainLooper()));
+  }
+}
@@ -9,6 +9,8 @@ import android.annotation.TargetApi;
 import android.hardware.camera2.CameraAccessException;
 import android.hardware.camera2.CameraCaptureSession;
 import android.hardware.camera2.CaptureRequest;
+import android.hardware.camera2.TotalCaptureResult;
+import android.hardware.camera2.params.InputConfiguration;
 import android.hardware.camera2.params.SessionConfiguration;
 import android.os.Build;
 import android.os.Handler;
@@ -32,5 +34,25 @@ interface CameraDeviceWrapper {
       @Nullable Handler handler)
       throws CameraAccessException;
 
+  @SuppressLint("UseRequiresApi")
+  @TargetApi(Build.VERSION_CODES.M)
+  void createReprocessableCaptureSession(
+      @NonNull InputConfiguration inputConfig,
+      @NonNull List<Surface> outputs,
+      @NonNull CameraCaptureSession.StateCallback callback,
+      @Nullable Handler handler)
+      throws CameraAccessException;
+
+  @SuppressLint("UseRequiresApi")
+  @TargetApi(Build.VERSION_CODES.M)
+  @NonNull
+  CaptureRequest.Builder createReprocessCaptureRequest(@NonNull TotalCaptureResult inputResult)
+      throws CameraAccessException;
+
+  @SuppressLint("UseRequiresApi")
+  @TargetApi(Build.VERSION_CODES.Q)
+  boolean isSessionConfigurationSupported(@NonNull SessionConfiguration config)
+      throws CameraAccessException;
+
   void close();
 }
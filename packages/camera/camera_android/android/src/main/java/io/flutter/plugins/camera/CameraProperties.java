@@ -240,6 +240,18 @@ public interface CameraProperties {
    */
   int getSensorOrientation();
 
+  /**
+   * Returns the time base source for sensor capture start timestamps.
+   *
+   * <p>By default maps to the @see
+   * android.hardware.camera2.CameraCharacteristics#SENSOR_INFO_TIMESTAMP_SOURCE key.
+   *
+   * @return Integer Either SENSOR_INFO_TIMESTAMP_SOURCE_UNKNOWN or
+   *     SENSOR_INFO_TIMESTAMP_SOURCE_REALTIME.
+   */
+  @Nullable
+  Integer getSensorInfoTimestampSource();
+
   /**
    * Returns a level which generally classifies the overall set of the camera device functionality.
    *
@@ -273,4 +285,30 @@ public interface CameraProperties {
    */
   @NonNull
   int[] getAvailableNoiseReductionModes();
+
+  /**
+   * Returns the capabilities that this camera device advertises as fully supporting.
+   *
+   * <p>By default maps to the @see
+   * android.hardware.camera2.CameraCharacteristics#REQUEST_AVAILABLE_CAPABILITIES key.
+   *
+   * @return int[] List of capabilities supported by this camera device.
+   */
+  @Nullable
+  int[] getAvailableCapabilities();
+
+  /**
+   * Returns the sizes this camera device supports as reprocessing input for the given format.
+   *
+   * <p>By default maps to @see
+   * android.hardware.camera2.params.StreamConfigurationMap#getInputSizes(int) of the @see
+   * android.hardware.camera2.CameraCharacteristics#SCALER_STREAM_CONFIGURATION_MAP key.
+   *
+   * @param format the image format of the input, such as @see
+   *     android.graphics.ImageFormat#YUV_420_888.
+   * @return Size[] List of supported input sizes, or null if the format isn't supported as input.
+   */
+  @RequiresApi(api = VERSION_CODES.M)
+  @Nullable
+  Size[] getReprocessingInputSizes(int format);
 }
@@ -8,6 +8,7 @@ import android.graphics.Rect;
 import android.hardware.camera2.CameraAccessException;
 import android.hardware.camera2.CameraCharacteristics;
 import android.hardware.camera2.CameraManager;
+import android.hardware.camera2.params.StreamConfigurationMap;
 import android.os.Build.VERSION_CODES;
 import android.util.Range;
 import android.util.Rational;
@@ -26,8 +27,19 @@ public class CameraPropertiesImpl implements CameraProperties {
 
   public CameraPropertiesImpl(@NonNull String cameraName, @NonNull CameraManager cameraManager)
       throws CameraAccessException {
+    this(cameraName, cameraManager.getCameraCharacteristics(cameraName));
+  }
+
+  /**
+   * Creates the properties of a camera from characteristics that were already retrieved.
+   *
+   * @param cameraName the ID of the camera.
+   * @param cameraCharacteristics the characteristics of the camera.
+   */
+  public CameraPropertiesImpl(
+      @NonNull String cameraName, @NonNull CameraCharacteristics cameraCharacteristics) {
     this.cameraName = cameraName;
-    this.cameraCharacteristics = cameraManager.getCameraCharacteristics(cameraName);
+    this.cameraCharacteristics = cameraCharacteristics;
   }
 
   @NonNull
@@ -153,6 +165,12 @@ public class CameraPropertiesImpl implements CameraProperties {
     return cameraCharacteristics.get(CameraCharacteristics.SENSOR_ORIENTATION);
   }
 
+  @Nullable
+  @Override
+  public Integer getSensorInfoTimestampSource() {
+    return cameraCharacteristics.get(CameraCharacteristics.SENSOR_INFO_TIMESTAMP_SOURCE);
+  }
+
   @Override
   public int getHardwareLevel() {
     return cameraCharacteristics.get(CameraCharacteristics.INFO_SUPPORTED_HARDWARE_LEVEL);
@@ -164,4 +182,19 @@ public class CameraPropertiesImpl implements CameraProperties {
     return cameraCharacteristics.get(
         CameraCharacteristics.NOISE_REDUCTION_AVAILABLE_NOISE_REDUCTION_MODES);
   }
+
+  @Nullable
+  @Override
+  public int[] getAvailableCapabilities() {
+    return cameraCharacteristics.get(CameraCharacteristics.REQUEST_AVAILABLE_CAPABILITIES);
+  }
+
+  @RequiresApi(api = VERSION_CODES.M)
+  @Nullable
+  @Override
+  public Size[] getReprocessingInputSizes(int format) {
+    final StreamConfigurationMap map =
+        cameraCharacteristics.get(CameraCharacteristics.SCALER_STREAM_CONFIGURATION_MAP);
+    return map == null ? null : map.getInputSizes(format);
+  }
 }
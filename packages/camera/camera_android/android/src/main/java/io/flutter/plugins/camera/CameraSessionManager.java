@@ -0,0 +1,278 @@
+// Copyright 2013 The Flutter Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package io.flutter.plugins.camera;
+
+import android.annotation.SuppressLint;
+import android.hardware.camera2.CameraAccessException;
+import android.hardware.camera2.CameraDevice;
+import android.hardware.camera2.CameraManager;
+import android.media.ImageReader;
+import android.os.Handler;
+import android.os.HandlerThread;
+import android.util.Log;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import java.util.Set;
+
+/**
+ * Keeps camera resources alive from one {@link Camera} to the next, so that switching cameras, for
+ * example from the back to the front lens, does not start from scratch.
+ *
+ * <ul>
+ *   <li>The background {@link HandlerThread} is shared by every camera and lives until {@link
+ *       #release()}.
+ *   <li>A camera can be pre-opened with {@link #prewarm(CameraManager, String, String)}. Opening
+ *       it then reuses the {@link CameraDevice}, so that only a new capture session has to be
+ *       configured. While another camera is open, it is only pre-opened when the device supports
+ *       streaming from both cameras at once, as most devices can only open one camera at a time.
+ *   <li>The picture {@link ImageReader} of a closed camera is parked, and reused by the next
+ *       camera capturing pictures of the same size.
+ * </ul>
+ */
+final class CameraSessionManager {
+  private static final String TAG = "CameraSessionManager";
+
+  @Nullable private HandlerThread backgroundHandlerThread;
+  @Nullable private Handler backgroundHandler;
+  @Nullable private WarmCamera warmCamera;
+  @Nullable private ImageReader parkedPictureReader;
+
+  /** Returns the shared background handler, starting its thread on first use. */
+  @NonNull
+  synchronized Handler getBackgroundHandler() {
+    if (backgroundHandler == null) {
+      backgroundHandlerThread = Camera.HandlerThreadFactory.create("CameraBackground");
+      try {
+        backgroundHandlerThread.start();
+      } catch (IllegalThreadStateException e) {
+        // Ignore exception in case the thread has already started.
+      }
+      backgroundHandler = Camera.HandlerFactory.create(backgroundHandlerThread.getLooper());
+    }
+    return backgroundHandler;
+  }
+
+  /**
+   * Starts opening a camera ahead of its {@link Camera}, replacing any camera pre-opened before.
+   *
+   * <p>Does nothing when {@code openCameraName} is open and the device does not list both cameras
+   * in {@link CameraManager#getConcurrentCameraIds()}, which is only available from API 30. On such
+   * devices opening a second camera fails, or disconnects the camera that is open.
+   *
+   * @param cameraManager the manager used to open the camera.
+   * @param cameraName the ID of the camera to open.
+   * @param openCameraName the ID of the camera that is currently open, if any.
+   * @throws CameraAccessException when the camera service could not be accessed.
+   */
+  @SuppressLint("MissingPermission")
+  synchronized void prewarm(
+      @NonNull CameraManager cameraManager,
+      @NonNull String cameraName,
+      @Nullable String openCameraName)
+      throws CameraAccessException {
+    if (openCameraName != null
+        && (openCameraName.equals(cameraName)
+            || !canOpenConcurrently(cameraManager, openCameraName, cameraName))) {
+      Log.i(TAG, "prewarm | " + cameraName + " can't be opened along with " + openCameraName);
+      return;
+    }
+    if (warmCamera != null) {
+      if (warmCamera.cameraName.equals(cameraName)) {
+        return;
+      }
+      warmCamera.close();
+    }
+    final WarmCamera camera = new WarmCamera(cameraName);
+    cameraManager.openCamera(cameraName, camera, getBackgroundHandler());
+    warmCamera = camera;
+  }
+
+  /** Returns whether the device supports streaming from both cameras at the same time. */
+  private static boolean canOpenConcurrently(
+      @NonNull CameraManager cameraManager, @NonNull String first, @NonNull String second)
+      throws CameraAccessException {
+    if (!SdkCapabilityChecker.supportsConcurrentCameraIds()) {
+      return false;
+    }
+    for (Set<String> cameraIds : cameraManager.getConcurrentCameraIds()) {
+      if (cameraIds.contains(first) && cameraIds.contains(second)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Opens a camera as {@link CameraManager#openCamera(String, CameraDevice.StateCallback, Handler)}
+   * does, reusing the device pre-opened by {@link #prewarm(CameraManager, String, String)} when
+   * there is one.
+   *
+   * @throws CameraAccessException when the camera service could not be accessed.
+   */
+  @SuppressLint("MissingPermission")
+  synchronized void openCamera(
+      @NonNull CameraManager cameraManager,
+      @NonNull String cameraName,
+      @NonNull CameraDevice.StateCallback callback,
+      @NonNull Handler handler)
+      throws CameraAccessException {
+    final WarmCamera camera = warmCamera;
+    warmCamera = null;
+    if (camera != null) {
+      if (camera.cameraName.equals(cameraName) && camera.claim(callback, handler)) {
+        Log.i(TAG, "openCamera | reusing pre-opened camera " + cameraName);
+        return;
+      }
+      // Some devices can only open one camera at a time.
+      camera.close();
+    }
+    cameraManager.openCamera(cameraName, callback, handler);
+  }
+
+  /**
+   * Takes the parked picture reader when it captures pictures of the given size and holds at least
+   * {@code maxImages} images.
+   *
+   * @return the reader, now owned by the caller, or null when a new one has to be created.
+   */
+  @Nullable
+  synchronized ImageReader takePictureReader(int width, int height, int format, int maxImages) {
+    final ImageReader reader = parkedPictureReader;
+    if (reader == null
+        || reader.getWidth() != width
+        || reader.getHeight() != height
+        || reader.getImageFormat() != format
+        || reader.getMaxImages() < maxImages) {
+      return null;
+    }
+    parkedPictureReader = null;
+    return reader;
+  }
+
+  /**
+   * Parks the picture reader of a closed camera for reuse, closing the one parked before.
+   *
+   * @param reader a reader the caller no longer uses.
+   */
+  synchronized void recyclePictureReader(@NonNull ImageReader reader) {
+    reader.setOnImageAvailableListener(null, null);
+    if (parkedPictureReader != null && parkedPictureReader != reader) {
+      parkedPictureReader.close();
+    }
+    parkedPictureReader = reader;
+  }
+
+  /** Closes the pre-opened camera and the parked reader, and stops the background thread. */
+  synchronized void release() {
+    if (warmCamera != null) {
+      warmCamera.close();
+      warmCamera = null;
+    }
+    if (parkedPictureReader != null) {
+      parkedPictureReader.close();
+      parkedPictureReader = null;
+    }
+    if (backgroundHandlerThread != null) {
+      backgroundHandlerThread.quitSafely();
+    }
+    backgroundHandlerThread = null;
+    backgroundHandler = null;
+  }
+
+  /** Returns whether a camera is pre-opened, or being pre-opened, and has not failed since. */
+  synchronized boolean isPrewarmed(@NonNull String cameraName) {
+    return warmCamera != null
+        && warmCamera.cameraName.equals(cameraName)
+        && !warmCamera.isClosed();
+  }
+
+  /**
+   * The state callback of a pre-opened camera.
+   *
+   * <p>Until the camera is claimed by a {@link Camera}, a disconnection or an error closes it. Once
+   * claimed, every state change is forwarded to the callback of the {@link Camera}.
+   */
+  private static final class WarmCamera extends CameraDevice.StateCallback {
+    @NonNull final String cameraName;
+    @Nullable private CameraDevice device;
+    @Nullable private CameraDevice.StateCallback delegate;
+    @Nullable private Handler delegateHandler;
+    private boolean closed;
+
+    WarmCamera(@NonNull String cameraName) {
+      this.cameraName = cameraName;
+    }
+
+    /** Forwards the state of the camera, including its opening if it already happened. */
+    synchronized boolean claim(
+        @NonNull CameraDevice.StateCallback callback, @NonNull Handler handler) {
+      if (closed) {
+        return false;
+      }
+      delegate = callback;
+      delegateHandler = handler;
+      final CameraDevice openedDevice = device;
+      if (openedDevice != null) {
+        handler.post(() -> callback.onOpened(openedDevice));
+      }
+      return true;
+    }
+
+    synchronized boolean isClosed() {
+      return closed;
+    }
+
+    synchronized void close() {
+      closed = true;
+      if (device != null) {
+        device.close();
+        device = null;
+      }
+    }
+
+    @Override
+    public synchronized void onOpened(@NonNull CameraDevice camera) {
+      if (closed) {
+        camera.close();
+        return;
+      }
+      device = camera;
+      final CameraDevice.StateCallback callback = delegate;
+      if (callback != null) {
+        delegateHandler.post(() -> callback.onOpened(camera));
+      }
+    }
+
+    @Override
+    public synchronized void onClosed(@NonNull CameraDevice camera) {
+      final CameraDevice.StateCallback callback = delegate;
+      if (callback != null) {
+        delegateHandler.post(() -> callback.onClosed(camera));
+      }
+    }
+
+    @Override
+    public synchronized void onDisconnected(@NonNull CameraDevice camera) {
+      final CameraDevice.StateCallback callback = delegate;
+      if (callback != null) {
+        delegateHandler.post(() -> callback.onDisconnected(camera));
+        return;
+      }
+      close();
+      camera.close();
+    }
+
+    @Override
+    public synchronized void onError(@NonNull CameraDevice camera, int error) {
+      final CameraDevice.StateCallback callback = delegate;
+      if (callback != null) {
+        delegateHandler.post(() -> callback.onError(camera, error));
+        return;
+      }
+      close();
+      camera.close();
+    }
+  }
+}
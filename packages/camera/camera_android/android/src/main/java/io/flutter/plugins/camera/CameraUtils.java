@@ -35,6 +35,23 @@ public final class CameraUtils {
     return (CameraManager) context.getSystemService(Context.CAMERA_SERVICE);
   }
 
+  /**
+   * Gets the properties of a camera, from the process-wide characteristics cache when possible.
+   *
+   * @param context The context to get the {@link CameraManager} singleton from.
+   * @param cameraName The ID of the camera.
+   * @return The properties of the camera.
+   * @throws CameraAccessException when the camera could not be accessed.
+   */
+  @NonNull
+  static CameraProperties getCameraProperties(@NonNull Context context, @NonNull String cameraName)
+      throws CameraAccessException {
+    return new CameraPropertiesImpl(
+        cameraName,
+        CameraCharacteristicsCache.getInstance()
+            .getCameraCharacteristics(getCameraManager(context), cameraName));
+  }
+
   /**
    * Converts a raw integer to a PlatformCameraLensDirection enum.
    *
@@ -59,6 +76,9 @@ public final class CameraUtils {
   /**
    * Gets all the available cameras for the device.
    *
+   * <p>The camera list and characteristics are cached across calls, so only the first call queries
+   * the camera service.
+   *
    * @param activity The current Android activity.
    * @return A map of all the available cameras, with their name as their key.
    * @throws CameraAccessException when the camera could not be accessed.
@@ -67,7 +87,8 @@ public final class CameraUtils {
   public static List<Messages.PlatformCameraDescription> getAvailableCameras(
       @NonNull Activity activity) throws CameraAccessException {
     CameraManager cameraManager = (CameraManager) activity.getSystemService(Context.CAMERA_SERVICE);
-    String[] cameraNames = cameraManager.getCameraIdList();
+    CameraCharacteristicsCache cache = CameraCharacteristicsCache.getInstance();
+    String[] cameraNames = cache.getCameraIdList(cameraManager);
     List<Messages.PlatformCameraDescription> cameras = new ArrayList<>();
     for (String cameraName : cameraNames) {
       int cameraId;
@@ -80,7 +101,8 @@ public final class CameraUtils {
         continue;
       }
 
-      CameraCharacteristics characteristics = cameraManager.getCameraCharacteristics(cameraName);
+      CameraCharacteristics characteristics =
+          cache.getCameraCharacteristics(cameraManager, cameraName);
       int sensorOrientation = characteristics.get(CameraCharacteristics.SENSOR_ORIENTATION);
 
       int lensFacing = characteristics.get(CameraCharacteristics.LENS_FACING);
@@ -7,16 +7,47 @@ package io.flutter.plugins.camera;
 import android.os.Handler;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
+import androidx.annotation.VisibleForTesting;
 import io.flutter.embedding.engine.systemchannels.PlatformChannel;
 import io.flutter.plugin.common.MethodChannel;
 import io.flutter.plugins.camera.features.autofocus.FocusMode;
 import io.flutter.plugins.camera.features.exposurelock.ExposureMode;
+import io.flutter.plugins.camera.types.CaptureTimings;
+import java.util.ArrayList;
 
-/** Utility class that facilitates communication to the Flutter client */
+/**
+ * Utility class that facilitates communication to the Flutter client
+ *
+ * <p>Events and results are delivered in order on the main thread, in batches: while a batch is
+ * waiting for the main thread, whatever is sent is added to it instead of being posted on its own.
+ * Orientation changes are debounced and only sent when they differ from the last one sent.
+ */
 public class DartMessenger {
+  /** How long the device orientation has to be stable before it is sent. */
+  @VisibleForTesting static final long ORIENTATION_DEBOUNCE_MS = 100;
+
+  private static final Messages.VoidResult NO_OP_RESULT = new NoOpVoidResult();
+
   @NonNull private final Handler handler;
   Messages.CameraGlobalEventApi globalEventApi;
   Messages.CameraEventApi eventApi;
+  /** Records how long batches wait for the main thread, when set. */
+  @Nullable private volatile CaptureTimings captureTimings;
+
+  private final Object lock = new Object();
+  // The following fields are guarded by lock.
+  /** Deliveries waiting for the main thread. */
+  private ArrayList<Runnable> pendingDeliveries = new ArrayList<>();
+  /** The list delivered on the main thread, swapped with pendingDeliveries to avoid allocations. */
+  private ArrayList<Runnable> deliveringDeliveries = new ArrayList<>();
+
+  private boolean deliveryPosted;
+  private long deliveryPostedNanos;
+  @Nullable private PlatformChannel.DeviceOrientation pendingOrientation;
+  @Nullable private PlatformChannel.DeviceOrientation sentOrientation;
+
+  private final Runnable deliverPending = this::deliverPending;
+  private final Runnable sendPendingOrientation = this::sendPendingOrientation;
 
   /**
    * Creates a new instance of the {@link DartMessenger} class.
@@ -37,17 +68,82 @@ public class DartMessenger {
     this.eventApi = eventApi;
   }
 
+  /**
+   * Sets the timings the main thread latency is recorded to, as the {@link
+   * CaptureTimings#STAGE_MAIN_THREAD_QUEUE} stage.
+   *
+   * @param captureTimings the timings of the camera, or null to record nothing.
+   */
+  void setCaptureTimings(@Nullable CaptureTimings captureTimings) {
+    this.captureTimings = captureTimings;
+  }
+
   /**
    * Sends a message to the Flutter client informing the orientation of the device has been changed.
    *
+   * <p>The message is sent once the orientation has been stable for {@link
+   * #ORIENTATION_DEBOUNCE_MS}, and only if it differs from the orientation sent last.
+   *
    * @param orientation specifies the new orientation of the device.
    */
   public void sendDeviceOrientationChangeEvent(
       @NonNull PlatformChannel.DeviceOrientation orientation) {
-    handler.post(
-        () ->
-            globalEventApi.deviceOrientationChanged(
-                CameraUtils.orientationToPigeon(orientation), new NoOpVoidResult()));
+    synchronized (lock) {
+      pendingOrientation = orientation;
+    }
+    handler.removeCallbacks(sendPendingOrientation);
+    handler.postDelayed(sendPendingOrientation, ORIENTATION_DEBOUNCE_MS);
+  }
+
+  private void sendPendingOrientation() {
+    final PlatformChannel.DeviceOrientation orientation;
+    synchronized (lock) {
+      orientation = pendingOrientation;
+      pendingOrientation = null;
+      if (orientation == null || orientation == sentOrientation) {
+        return;
+      }
+      sentOrientation = orientation;
+    }
+    globalEventApi.deviceOrientationChanged(
+        CameraUtils.orientationToPigeon(orientation), NO_OP_RESULT);
+  }
+
+  /**
+   * Runs a delivery on the main thread, together with the other deliveries sent before the main
+   * thread gets to them.
+   */
+  private void deliver(@NonNull Runnable delivery) {
+    synchronized (lock) {
+      pendingDeliveries.add(delivery);
+      if (deliveryPosted) {
+        return;
+      }
+      deliveryPosted = true;
+      deliveryPostedNanos = CaptureTimings.now();
+    }
+    handler.post(deliverPending);
+  }
+
+  private void deliverPending() {
+    final ArrayList<Runnable> deliveries;
+    final long postedNanos;
+    synchronized (lock) {
+      deliveries = pendingDeliveries;
+      pendingDeliveries = deliveringDeliveries;
+      deliveringDeliveries = deliveries;
+      deliveryPosted = false;
+      postedNanos = deliveryPostedNanos;
+    }
+    final CaptureTimings timings = captureTimings;
+    if (timings != null) {
+      timings.record(CaptureTimings.STAGE_MAIN_THREAD_QUEUE, postedNanos, CaptureTimings.now());
+    }
+    // Only this method, on the main thread, uses the delivering list.
+    for (int i = 0; i < deliveries.size(); i++) {
+      deliveries.get(i).run();
+    }
+    deliveries.clear();
   }
 
   /**
@@ -73,7 +169,7 @@ public class DartMessenger {
     assert (focusMode != null);
     assert (exposurePointSupported != null);
     assert (focusPointSupported != null);
-    handler.post(
+    deliver(
         () ->
             eventApi.initialized(
                 new Messages.PlatformCameraState.Builder()
@@ -87,12 +183,12 @@ public class DartMessenger {
                     .setExposureMode(CameraUtils.exposureModeToPigeon(exposureMode))
                     .setFocusMode(CameraUtils.focusModeToPigeon(focusMode))
                     .build(),
-                new NoOpVoidResult()));
+                NO_OP_RESULT));
   }
 
   /** Sends a message to the Flutter client informing that the camera is closing. */
   void sendCameraClosingEvent() {
-    handler.post(() -> eventApi.closed(new NoOpVoidResult()));
+    deliver(() -> eventApi.closed(NO_OP_RESULT));
   }
 
   /**
@@ -102,7 +198,19 @@ public class DartMessenger {
    * @param description contains details regarding the error that occurred.
    */
   void sendCameraErrorEvent(@NonNull String description) {
-    handler.post(() -> eventApi.error(description, new NoOpVoidResult()));
+    deliver(() -> eventApi.error(description, NO_OP_RESULT));
+  }
+
+  /**
+   * Sends a message to the Flutter client informing that a segment of the video being recorded is
+   * complete.
+   *
+   * @param path the path of the segment file.
+   * @param durationMillis the duration of the segment.
+   * @param sizeBytes the size of the segment file.
+   */
+  void sendVideoSegmentReadyEvent(@NonNull String path, long durationMillis, long sizeBytes) {
+    deliver(() -> eventApi.videoSegmentReady(path, durationMillis, sizeBytes, NO_OP_RESULT));
   }
 
   /**
@@ -111,7 +219,7 @@ public class DartMessenger {
    * @param payload The payload to send.
    */
   public <T> void finish(@NonNull Messages.Result<T> result, @NonNull T payload) {
-    handler.post(() -> result.success(payload));
+    deliver(() -> result.success(payload));
   }
 
   /**
@@ -126,7 +234,6 @@ public class DartMessenger {
       @NonNull String errorCode,
       @Nullable String errorMessage,
       @Nullable Object errorDetails) {
-    handler.post(
-        () -> result.error(new Messages.FlutterError(errorCode, errorMessage, errorDetails)));
+    deliver(() -> result.error(new Messages.FlutterError(errorCode, errorMessage, errorDetails)));
   }
 }
@@ -4,18 +4,30 @@
 
 package io.flutter.plugins.camera;
 
+import android.media.ExifInterface;
 import android.media.Image;
 import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
 import androidx.annotation.VisibleForTesting;
+import io.flutter.plugins.camera.types.CaptureTimings;
 import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.RandomAccessFile;
 import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
 
-/** Saves a JPEG {@link Image} into the specified {@link File}. */
+/**
+ * Saves a JPEG {@link Image} into the specified {@link File}.
+ *
+ * <p>JPEG images are written straight from their plane buffer through a {@link FileChannel}, so
+ * that the encoded picture is never copied onto the heap.
+ */
 public class ImageSaver implements Runnable {
-
   /** The JPEG image */
   private final Image image;
 
@@ -25,6 +37,12 @@ public class ImageSaver implements Runnable {
   /** Used to report the status of the save action. */
   private final Callback callback;
 
+  /** Records how long the JPEG write takes, or null when it is not measured. */
+  @Nullable private final CaptureTimings captureTimings;
+
+  /** How the file is written. */
+  private final Options options;
+
   /**
    * Creates an instance of the ImageSaver runnable
    *
@@ -33,23 +51,81 @@ public class ImageSaver implements Runnable {
    * @param callback - The callback that is run on completion, or when an error is encountered.
    */
   ImageSaver(@NonNull Image image, @NonNull File file, @NonNull Callback callback) {
+    this(image, file, callback, null);
+  }
+
+  /**
+   * Creates an instance of the ImageSaver runnable that records how long the JPEG write takes.
+   *
+   * @param image - The image to save
+   * @param file - The file to save the image to
+   * @param callback - The callback that is run on completion, or when an error is encountered.
+   * @param captureTimings - The timings to record into, or null to not measure the write.
+   */
+  ImageSaver(
+      @NonNull Image image,
+      @NonNull File file,
+      @NonNull Callback callback,
+      @Nullable CaptureTimings captureTimings) {
+    this(image, file, callback, captureTimings, Options.DEFAULT);
+  }
+
+  /**
+   * Creates an instance of the ImageSaver runnable that writes the file with the given options.
+   *
+   * @param image - The image to save
+   * @param file - The file to save the image to
+   * @param callback - The callback that is run on completion, or when an error is encountered.
+   * @param captureTimings - The timings to record into, or null to not measure the write.
+   * @param options - How the file is written.
+   */
+  ImageSaver(
+      @NonNull Image image,
+      @NonNull File file,
+      @NonNull Callback callback,
+      @Nullable CaptureTimings captureTimings,
+      @NonNull Options options) {
     this.image = image;
     this.file = file;
     this.callback = callback;
+    this.captureTimings = captureTimings;
+    this.options = options;
   }
 
   @Override
   public void run() {
-    ByteBuffer buffer = image.getPlanes()[0].getBuffer();
-    byte[] bytes = new byte[buffer.remaining()];
-    buffer.get(bytes);
+    final long startNanos = captureTimings == null ? 0 : CaptureTimings.now();
+    if (!writeJpeg()) {
+      return;
+    }
+    try {
+      addExifAttributes(options.exifAttributes);
+    } catch (IOException e) {
+      callback.onError("IOError", "Failed saving image");
+      return;
+    }
+    complete(startNanos);
+  }
+
+  /**
+   * Writes the JPEG plane to the file and closes the image.
+   *
+   * @return false if an error was reported.
+   */
+  private boolean writeJpeg() {
+    final ByteBuffer buffer = image.getPlanes()[0].getBuffer();
     FileOutputStream output = null;
+    boolean written = false;
     try {
       output = FileOutputStreamFactory.create(file);
-      output.write(bytes);
-
-      callback.onComplete(file.getAbsolutePath());
-
+      final FileChannel channel = output.getChannel();
+      while (buffer.hasRemaining()) {
+        channel.write(buffer);
+      }
+      if (options.exifAttributes.isEmpty()) {
+        sync(channel);
+      }
+      written = true;
     } catch (IOException e) {
       callback.onError("IOError", "Failed saving image");
     } finally {
@@ -58,10 +134,81 @@ public class ImageSaver implements Runnable {
         try {
           output.close();
         } catch (IOException e) {
-          callback.onError("cameraAccess", e.getMessage());
+          if (written) {
+            callback.onError("cameraAccess", e.getMessage());
+            written = false;
+          }
         }
       }
     }
+    return written;
+  }
+
+  /**
+   * Adds EXIF attributes to the written file, then flushes it to storage if the options require
+   * it. Does nothing when there are no attributes, in which case the file was already flushed
+   * while it was written.
+   */
+  private void addExifAttributes(@NonNull Map<String, String> attributes) throws IOException {
+    if (attributes.isEmpty()) {
+      return;
+    }
+    final ExifInterface exif = new ExifInterface(file.getAbsolutePath());
+    for (Map.Entry<String, String> attribute : attributes.entrySet()) {
+      exif.setAttribute(attribute.getKey(), attribute.getValue());
+    }
+    exif.saveAttributes();
+    if (options.durability == Durability.FDATASYNC) {
+      try (RandomAccessFile savedFile = new RandomAccessFile(file, "rw")) {
+        sync(savedFile.getChannel());
+      }
+    }
+  }
+
+  /** Flushes the file data to storage if the options require it. */
+  private void sync(@NonNull FileChannel channel) throws IOException {
+    if (options.durability == Durability.FDATASYNC) {
+      // Like fdatasync, skips metadata such as the modification time that isn't needed to read
+      // the file back.
+      channel.force(false);
+    }
+  }
+
+  private void complete(long startNanos) {
+    if (captureTimings != null) {
+      captureTimings.record(CaptureTimings.STAGE_JPEG_WRITE, startNanos, CaptureTimings.now());
+    }
+    callback.onComplete(file.getAbsolutePath());
+  }
+
+  /** How durably a picture is written before its completion is reported. */
+  public enum Durability {
+    /** The file is left in the page cache, to be written back to storage by the kernel. */
+    NONE,
+    /** The file data is flushed to storage before completion is reported. */
+    FDATASYNC
+  }
+
+  /** How a picture is written to its file. */
+  public static final class Options {
+    /** Leaves writing back to the kernel and adds no EXIF attributes. */
+    @NonNull public static final Options DEFAULT = new Options(Durability.NONE, new HashMap<>());
+
+    @NonNull public final Durability durability;
+
+    /** EXIF attributes added to every picture, keyed by {@link ExifInterface} tag name. */
+    @NonNull public final Map<String, String> exifAttributes;
+
+    /**
+     * Creates the options.
+     *
+     * @param durability how durably the picture is written.
+     * @param exifAttributes EXIF attributes added to every picture, keyed by tag name.
+     */
+    public Options(@NonNull Durability durability, @NonNull Map<String, String> exifAttributes) {
+      this.durability = durability;
+      this.exifAttributes = Collections.unmodifiableMap(new HashMap<>(exifAttributes));
+    }
   }
 
   /**
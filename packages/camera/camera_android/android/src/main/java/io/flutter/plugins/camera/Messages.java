@@ -21,8 +21,10 @@ import java.lang.annotation.Retention;
 import java.lang.annotation.Target;
 import java.nio.ByteBuffer;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 
 /** Generated class from Pigeon. */
@@ -824,6 +826,181 @@ public class Messages {
     }
   }
 
+  /**
+   * Latency percentiles of one stage of the capture pipeline.
+   *
+   * <p>Generated class from Pigeon that represents data sent in messages.
+   */
+  public static final class PlatformStageTiming {
+    private @NonNull String stage;
+
+    public @NonNull String getStage() {
+      return stage;
+    }
+
+    public void setStage(@NonNull String setterArg) {
+      if (setterArg == null) {
+        throw new IllegalStateException("Nonnull field \"stage\" is null.");
+      }
+      this.stage = setterArg;
+    }
+
+    private @NonNull Long sampleCount;
+
+    public @NonNull Long getSampleCount() {
+      return sampleCount;
+    }
+
+    public void setSampleCount(@NonNull Long setterArg) {
+      if (setterArg == null) {
+        throw new IllegalStateException("Nonnull field \"sampleCount\" is null.");
+      }
+      this.sampleCount = setterArg;
+    }
+
+    private @NonNull Double p50Millis;
+
+    public @NonNull Double getP50Millis() {
+      return p50Millis;
+    }
+
+    public void setP50Millis(@NonNull Double setterArg) {
+      if (setterArg == null) {
+        throw new IllegalStateException("Nonnull field \"p50Millis\" is null.");
+      }
+      this.p50Millis = setterArg;
+    }
+
+    private @NonNull Double p95Millis;
+
+    public @NonNull Double getP95Millis() {
+      return p95Millis;
+    }
+
+    public void setP95Millis(@NonNull Double setterArg) {
+      if (setterArg == null) {
+        throw new IllegalStateException("Nonnull field \"p95Millis\" is null.");
+      }
+      this.p95Millis = setterArg;
+    }
+
+    private @NonNull Double p99Millis;
+
+    public @NonNull Double getP99Millis() {
+      return p99Millis;
+    }
+
+    public void setP99Millis(@NonNull Double setterArg) {
+      if (setterArg == null) {
+        throw new IllegalStateException("Nonnull field \"p99Millis\" is null.");
+      }
+      this.p99Millis = setterArg;
+    }
+
+    /** Constructor is non-public to enforce null safety; use Builder. */
+    PlatformStageTiming() {}
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (o == null || getClass() != o.getClass()) {
+        return false;
+      }
+      PlatformStageTiming that = (PlatformStageTiming) o;
+      return stage.equals(that.stage)
+          && sampleCount.equals(that.sampleCount)
+          && p50Millis.equals(that.p50Millis)
+          && p95Millis.equals(that.p95Millis)
+          && p99Millis.equals(that.p99Millis);
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(stage, sampleCount, p50Millis, p95Millis, p99Millis);
+    }
+
+    public static final class Builder {
+
+      private @Nullable String stage;
+
+      @CanIgnoreReturnValue
+      public @NonNull Builder setStage(@NonNull String setterArg) {
+        this.stage = setterArg;
+        return this;
+      }
+
+      private @Nullable Long sampleCount;
+
+      @CanIgnoreReturnValue
+      public @NonNull Builder setSampleCount(@NonNull Long setterArg) {
+        this.sampleCount = setterArg;
+        return this;
+      }
+
+      private @Nullable Double p50Millis;
+
+      @CanIgnoreReturnValue
+      public @NonNull Builder setP50Millis(@NonNull Double setterArg) {
+        this.p50Millis = setterArg;
+        return this;
+      }
+
+      private @Nullable Double p95Millis;
+
+      @CanIgnoreReturnValue
+      public @NonNull Builder setP95Millis(@NonNull Double setterArg) {
+        this.p95Millis = setterArg;
+        return this;
+      }
+
+      private @Nullable Double p99Millis;
+
+      @CanIgnoreReturnValue
+      public @NonNull Builder setP99Millis(@NonNull Double setterArg) {
+        this.p99Millis = setterArg;
+        return this;
+      }
+
+      public @NonNull PlatformStageTiming build() {
+        PlatformStageTiming pigeonReturn = new PlatformStageTiming();
+        pigeonReturn.setStage(stage);
+        pigeonReturn.setSampleCount(sampleCount);
+        pigeonReturn.setP50Millis(p50Millis);
+        pigeonReturn.setP95Millis(p95Millis);
+        pigeonReturn.setP99Millis(p99Millis);
+        return pigeonReturn;
+      }
+    }
+
+    @NonNull
+    ArrayList<Object> toList() {
+      ArrayList<Object> toListResult = new ArrayList<>(5);
+      toListResult.add(stage);
+      toListResult.add(sampleCount);
+      toListResult.add(p50Millis);
+      toListResult.add(p95Millis);
+      toListResult.add(p99Millis);
+      return toListResult;
+    }
+
+    static @NonNull PlatformStageTiming fromList(@NonNull ArrayList<Object> pigeonVar_list) {
+      PlatformStageTiming pigeonResult = new PlatformStageTiming();
+      Object stage = pigeonVar_list.get(0);
+      pigeonResult.setStage((String) stage);
+      Object sampleCount = pigeonVar_list.get(1);
+      pigeonResult.setSampleCount((Long) sampleCount);
+      Object p50Millis = pigeonVar_list.get(2);
+      pigeonResult.setP50Millis((Double) p50Millis);
+      Object p95Millis = pigeonVar_list.get(3);
+      pigeonResult.setP95Millis((Double) p95Millis);
+      Object p99Millis = pigeonVar_list.get(4);
+      pigeonResult.setP99Millis((Double) p99Millis);
+      return pigeonResult;
+    }
+  }
+
   private static class PigeonCodec extends StandardMessageCodec {
     public static final PigeonCodec INSTANCE = new PigeonCodec();
 
@@ -885,6 +1062,8 @@ public class Messages {
           return PlatformPoint.fromList((ArrayList<Object>) readValue(buffer));
         case (byte) 140:
           return PlatformMediaSettings.fromList((ArrayList<Object>) readValue(buffer));
+        case (byte) 141:
+          return PlatformStageTiming.fromList((ArrayList<Object>) readValue(buffer));
         default:
           return super.readValueOfType(type, buffer);
       }
@@ -928,6 +1107,9 @@ public class Messages {
       } else if (value instanceof PlatformMediaSettings) {
         stream.write(140);
         writeValue(stream, ((PlatformMediaSettings) value).toList());
+      } else if (value instanceof PlatformStageTiming) {
+        stream.write(141);
+        writeValue(stream, ((PlatformStageTiming) value).toList());
       } else {
         super.writeValue(stream, value);
       }
@@ -1048,6 +1230,78 @@ public class Messages {
      * <p>This should be called only while video recording is active.
      */
     void setDescriptionWhileRecording(@NonNull String description);
+    /**
+     * Enables or disables per-frame timing instrumentation of the capture pipeline.
+     *
+     * <p>Enabling it discards the timings recorded so far.
+     */
+    void setTimingInstrumentationEnabled(@NonNull Boolean enabled);
+    /**
+     * Returns the latency percentiles of each capture pipeline stage recorded since
+     * instrumentation was enabled.
+     */
+    @NonNull
+    List<PlatformStageTiming> getStageTimings();
+    /**
+     * Takes [count] pictures with a single burst request and returns the paths of the resulting
+     * files in capture order.
+     */
+    void takePictureBurst(@NonNull Long count, @NonNull Result<List<String>> result);
+    /**
+     * Enables or disables zero shutter lag pictures.
+     *
+     * <p>The change takes effect the next time the camera is initialized.
+     */
+    void setZeroShutterLagEnabled(@NonNull Boolean enabled);
+    /**
+     * Sets how pictures are written to their files.
+     *
+     * <p>When [syncToStorage] is true, the file data is flushed to storage before the picture is
+     * returned. [exifAttributes] are added to every picture.
+     */
+    void setPictureSaveOptions(
+        @NonNull Boolean syncToStorage, @NonNull Map<String, String> exifAttributes);
+    /**
+     * Starts opening the camera with the given name ahead of time, so that switching to it only
+     * has to configure a new capture session.
+     *
+     * <p>While another camera is open, this does nothing unless the device can stream from both
+     * cameras at once.
+     */
+    void prewarmCamera(@NonNull String cameraName);
+    /**
+     * Returns the number of video frames dropped while recording the current or last video after
+     * switching cameras.
+     */
+    @NonNull
+    Long getDroppedVideoFrameCount();
+    /**
+     * Sets how the next videos are encoded.
+     *
+     * <p>When [useMediaCodec] is false, videos are recorded with a MediaRecorder and the other
+     * options are ignored. Otherwise they are encoded with H.265 when [preferHevc] is true and the
+     * device supports it, at a constant bitrate when [constantBitrate] is true, with a key frame
+     * every [keyFrameIntervalSeconds], and written as a fragmented MP4 file when [fragmented] is
+     * true.
+     */
+    void setVideoEncoderOptions(
+        @NonNull Boolean useMediaCodec,
+        @NonNull Boolean preferHevc,
+        @NonNull Boolean constantBitrate,
+        @NonNull Long keyFrameIntervalSeconds,
+        @NonNull Boolean fragmented);
+    /**
+     * Sets whether the next videos are split into segment files.
+     *
+     * <p>When [segmented] is true, a new segment is started at the first key frame after
+     * [maxDurationMillis] or [maxSizeBytes] is reached, and only the last [maxSegmentCount]
+     * complete segments are kept. A value of 0 means no limit.
+     */
+    void setVideoSegmentOptions(
+        @NonNull Boolean segmented,
+        @NonNull Long maxDurationMillis,
+        @NonNull Long maxSizeBytes,
+        @NonNull Long maxSegmentCount);
 
     /** The codec used by CameraApi. */
     static @NonNull MessageCodec<Object> getCodec() {
@@ -1778,6 +2032,247 @@ public class Messages {
           channel.setMessageHandler(null);
         }
       }
+      {
+        BasicMessageChannel<Object> channel =
+            new BasicMessageChannel<>(
+                binaryMessenger,
+                "dev.flutter.pigeon.camera_android.CameraApi.setTimingInstrumentationEnabled"
+                    + messageChannelSuffix,
+                getCodec());
+        if (api != null) {
+          channel.setMessageHandler(
+              (message, reply) -> {
+                ArrayList<Object> wrapped = new ArrayList<>();
+                ArrayList<Object> args = (ArrayList<Object>) message;
+                Boolean enabledArg = (Boolean) args.get(0);
+                try {
+                  api.setTimingInstrumentationEnabled(enabledArg);
+                  wrapped.add(0, null);
+                } catch (Throwable exception) {
+                  wrapped = wrapError(exception);
+                }
+                reply.reply(wrapped);
+              });
+        } else {
+          channel.setMessageHandler(null);
+        }
+      }
+      {
+        BasicMessageChannel<Object> channel =
+            new BasicMessageChannel<>(
+                binaryMessenger,
+                "dev.flutter.pigeon.camera_android.CameraApi.getStageTimings"
+                    + messageChannelSuffix,
+                getCodec());
+        if (api != null) {
+          channel.setMessageHandler(
+              (message, reply) -> {
+                ArrayList<Object> wrapped = new ArrayList<>();
+                try {
+                  List<PlatformStageTiming> output = api.getStageTimings();
+                  wrapped.add(0, output);
+                } catch (Throwable exception) {
+                  wrapped = wrapError(exception);
+                }
+                reply.reply(wrapped);
+              });
+        } else {
+          channel.setMessageHandler(null);
+        }
+      }
+      {
+        BasicMessageChannel<Object> channel =
+            new BasicMessageChannel<>(
+                binaryMessenger,
+                "dev.flutter.pigeon.camera_android.CameraApi.takePictureBurst"
+                    + messageChannelSuffix,
+                getCodec());
+        if (api != null) {
+          channel.setMessageHandler(
+              (message, reply) -> {
+                ArrayList<Object> wrapped = new ArrayList<>();
+                ArrayList<Object> args = (ArrayList<Object>) message;
+                Long countArg = (Long) args.get(0);
+                Result<List<String>> resultCallback =
+                    new Result<List<String>>() {
+                      public void success(List<String> result) {
+                        wrapped.add(0, result);
+                        reply.reply(wrapped);
+                      }
+
+                      public void error(Throwable error) {
+                        ArrayList<Object> wrappedError = wrapError(error);
+                        reply.reply(wrappedError);
+                      }
+                    };
+
+                api.takePictureBurst(countArg, resultCallback);
+              });
+        } else {
+          channel.setMessageHandler(null);
+        }
+      }
+      {
+        BasicMessageChannel<Object> channel =
+            new BasicMessageChannel<>(
+                binaryMessenger,
+                "dev.flutter.pigeon.camera_android.CameraApi.setZeroShutterLagEnabled"
+                    + messageChannelSuffix,
+                getCodec());
+        if (api != null) {
+          channel.setMessageHandler(
+              (message, reply) -> {
+                ArrayList<Object> wrapped = new ArrayList<>();
+                ArrayList<Object> args = (ArrayList<Object>) message;
+                Boolean enabledArg = (Boolean) args.get(0);
+                try {
+                  api.setZeroShutterLagEnabled(enabledArg);
+                  wrapped.add(0, null);
+                } catch (Throwable exception) {
+                  wrapped = wrapError(exception);
+                }
+                reply.reply(wrapped);
+              });
+        } else {
+          channel.setMessageHandler(null);
+        }
+      }
+      {
+        BasicMessageChannel<Object> channel =
+            new BasicMessageChannel<>(
+                binaryMessenger,
+                "dev.flutter.pigeon.camera_android.CameraApi.setPictureSaveOptions"
+                    + messageChannelSuffix,
+                getCodec());
+        if (api != null) {
+          channel.setMessageHandler(
+              (message, reply) -> {
+                ArrayList<Object> wrapped = new ArrayList<>();
+                ArrayList<Object> args = (ArrayList<Object>) message;
+                Boolean syncToStorageArg = (Boolean) args.get(0);
+                Map<String, String> exifAttributesArg = (Map<String, String>) args.get(1);
+                try {
+                  api.setPictureSaveOptions(syncToStorageArg, exifAttributesArg);
+                  wrapped.add(0, null);
+                } catch (Throwable exception) {
+                  wrapped = wrapError(exception);
+                }
+                reply.reply(wrapped);
+              });
+        } else {
+          channel.setMessageHandler(null);
+        }
+      }
+      {
+        BasicMessageChannel<Object> channel =
+            new BasicMessageChannel<>(
+                binaryMessenger,
+                "dev.flutter.pigeon.camera_android.CameraApi.prewarmCamera" + messageChannelSuffix,
+                getCodec());
+        if (api != null) {
+          channel.setMessageHandler(
+              (message, reply) -> {
+                ArrayList<Object> wrapped = new ArrayList<>();
+                ArrayList<Object> args = (ArrayList<Object>) message;
+                String cameraNameArg = (String) args.get(0);
+                try {
+                  api.prewarmCamera(cameraNameArg);
+                  wrapped.add(0, null);
+                } catch (Throwable exception) {
+                  wrapped = wrapError(exception);
+                }
+                reply.reply(wrapped);
+              });
+        } else {
+          channel.setMessageHandler(null);
+        }
+      }
+      {
+        BasicMessageChannel<Object> channel =
+            new BasicMessageChannel<>(
+                binaryMessenger,
+                "dev.flutter.pigeon.camera_android.CameraApi.getDroppedVideoFrameCount"
+                    + messageChannelSuffix,
+                getCodec());
+        if (api != null) {
+          channel.setMessageHandler(
+              (message, reply) -> {
+                ArrayList<Object> wrapped = new ArrayList<>();
+                try {
+                  Long output = api.getDroppedVideoFrameCount();
+                  wrapped.add(0, output);
+                } catch (Throwable exception) {
+                  wrapped = wrapError(exception);
+                }
+                reply.reply(wrapped);
+              });
+        } else {
+          channel.setMessageHandler(null);
+        }
+      }
+      {
+        BasicMessageChannel<Object> channel =
+            new BasicMessageChannel<>(
+                binaryMessenger,
+                "dev.flutter.pigeon.camera_android.CameraApi.setVideoEncoderOptions"
+                    + messageChannelSuffix,
+                getCodec());
+        if (api != null) {
+          channel.setMessageHandler(
+              (message, reply) -> {
+                ArrayList<Object> wrapped = new ArrayList<>();
+                ArrayList<Object> args = (ArrayList<Object>) message;
+                Boolean useMediaCodecArg = (Boolean) args.get(0);
+                Boolean preferHevcArg = (Boolean) args.get(1);
+                Boolean constantBitrateArg = (Boolean) args.get(2);
+                Long keyFrameIntervalSecondsArg = (Long) args.get(3);
+                Boolean fragmentedArg = (Boolean) args.get(4);
+                try {
+                  api.setVideoEncoderOptions(
+                      useMediaCodecArg,
+                      preferHevcArg,
+                      constantBitrateArg,
+                      keyFrameIntervalSecondsArg,
+                      fragmentedArg);
+                  wrapped.add(0, null);
+                } catch (Throwable exception) {
+                  wrapped = wrapError(exception);
+                }
+                reply.reply(wrapped);
+              });
+        } else {
+          channel.setMessageHandler(null);
+        }
+      }
+      {
+        BasicMessageChannel<Object> channel =
+            new BasicMessageChannel<>(
+                binaryMessenger,
+                "dev.flutter.pigeon.camera_android.CameraApi.setVideoSegmentOptions"
+                    + messageChannelSuffix,
+                getCodec());
+        if (api != null) {
+          channel.setMessageHandler(
+              (message, reply) -> {
+                ArrayList<Object> wrapped = new ArrayList<>();
+                ArrayList<Object> args = (ArrayList<Object>) message;
+                Boolean segmentedArg = (Boolean) args.get(0);
+                Long maxDurationMillisArg = (Long) args.get(1);
+                Long maxSizeBytesArg = (Long) args.get(2);
+                Long maxSegmentCountArg = (Long) args.get(3);
+                try {
+                  api.setVideoSegmentOptions(
+                      segmentedArg, maxDurationMillisArg, maxSizeBytesArg, maxSegmentCountArg);
+                  wrapped.add(0, null);
+                } catch (Throwable exception) {
+                  wrapped = wrapError(exception);
+                }
+                reply.reply(wrapped);
+              });
+        } else {
+          channel.setMessageHandler(null);
+        }
+      }
     }
   }
   /**
@@ -1922,5 +2417,33 @@ public class Messages {
             }
           });
     }
+    /** Called when a segment of the video being recorded is complete. */
+    public void videoSegmentReady(
+        @NonNull String pathArg,
+        @NonNull Long durationMillisArg,
+        @NonNull Long sizeBytesArg,
+        @NonNull VoidResult result) {
+      final String channelName =
+          "dev.flutter.pigeon.camera_android.CameraEventApi.videoSegmentReady"
+              + messageChannelSuffix;
+      BasicMessageChannel<Object> channel =
+          new BasicMessageChannel<>(binaryMessenger, channelName, getCodec());
+      channel.send(
+          new ArrayList<>(Arrays.asList(pathArg, durationMillisArg, sizeBytesArg)),
+          channelReply -> {
+            if (channelReply instanceof List) {
+              List<Object> listReply = (List<Object>) channelReply;
+              if (listReply.size() > 1) {
+                result.error(
+                    new FlutterError(
+                        (String) listReply.get(0), (String) listReply.get(1), listReply.get(2)));
+              } else {
+                result.success();
+              }
+            } else {
+              result.error(createConnectionError(channelName));
+            }
+          });
+    }
   }
 }
@@ -22,6 +22,12 @@ public class SdkCapabilityChecker {
     return SDK_VERSION >= Build.VERSION_CODES.P;
   }
 
+  @ChecksSdkIntAtLeast(api = Build.VERSION_CODES.R)
+  public static boolean supportsConcurrentCameraIds() {
+    // See https://developer.android.com/reference/android/hardware/camera2/CameraManager#getConcurrentCameraIds()
+    return SDK_VERSION >= Build.VERSION_CODES.R;
+  }
+
   @ChecksSdkIntAtLeast(api = Build.VERSION_CODES.O)
   public static boolean supportsEglRecordableAndroid() {
     // See https://developer.android.com/reference/android/opengl/EGLExt#EGL_RECORDABLE_ANDROID
@@ -40,12 +46,24 @@ public class SdkCapabilityChecker {
     return SDK_VERSION >= Build.VERSION_CODES.M;
   }
 
+  @ChecksSdkIntAtLeast(api = Build.VERSION_CODES.M)
+  public static boolean supportsReprocessing() {
+    // See https://developer.android.com/reference/android/hardware/camera2/params/InputConfiguration
+    return SDK_VERSION >= Build.VERSION_CODES.M;
+  }
+
   @ChecksSdkIntAtLeast(api = Build.VERSION_CODES.P)
   public static boolean supportsSessionConfiguration() {
     // See https://developer.android.com/reference/android/hardware/camera2/params/SessionConfiguration
     return SDK_VERSION >= Build.VERSION_CODES.P;
   }
 
+  @ChecksSdkIntAtLeast(api = Build.VERSION_CODES.Q)
+  public static boolean supportsSessionConfigurationQuery() {
+    // See https://developer.android.com/reference/android/hardware/camera2/CameraDevice#isSessionConfigurationSupported(android.hardware.camera2.params.SessionConfiguration)
+    return SDK_VERSION >= Build.VERSION_CODES.Q;
+  }
+
   @ChecksSdkIntAtLeast(api = Build.VERSION_CODES.N)
   public static boolean supportsVideoPause() {
     // See https://developer.android.com/reference/androidx/camera/video/VideoRecordEvent.Pause
@@ -4,8 +4,6 @@
 
 package io.flutter.plugins.camera;
 
-import static android.os.SystemClock.uptimeMillis;
-
 import android.graphics.SurfaceTexture;
 import android.opengl.EGL14;
 import android.opengl.EGLConfig;
@@ -24,6 +22,7 @@ import android.view.Surface;
 import androidx.annotation.NonNull;
 import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * Renders video onto texture after performing a matrix rotation on each frame.
@@ -38,6 +37,10 @@ import java.nio.ByteOrder;
  * <p>This leaves the solution to be routing the recording through a surface texture and performing
  * a matrix transformation on it manually to get the correct orientation. This only happens when
  * setDescription is called mid video recording.
+ *
+ * <p>Frames are drawn on a dedicated thread as soon as the surface texture reports them, without
+ * allocating, and are presented with the timestamp the camera gave them so that they stay in sync
+ * with the audio and with the frames recorded before the switch.
  */
 public class VideoRenderer {
 
@@ -90,18 +93,26 @@ public class VideoRenderer {
   EGLDisplay display;
   EGLContext context;
   EGLSurface surface;
-  private Thread thread;
+  /** Owns the EGL context and draws every frame. */
+  private HandlerThread renderThread;
+
+  private Handler renderHandler;
   private final Surface outputSurface;
   SurfaceTexture inputSurfaceTexture;
   private Surface inputSurface;
 
-  private HandlerThread surfaceTextureFrameAvailableHandler;
-  final Object surfaceTextureAvailableFrameLock = new Object();
-  Boolean surfaceTextureFrameAvailable = false;
-
   final int recordingWidth;
   final int recordingHeight;
-  private int rotation = 0;
+  private volatile int rotation = 0;
+
+  // Only used on the render thread.
+  private final float[] surfaceTextureMatrix = new float[16];
+  private final float[] rotationMatrix = new float[16];
+  private int rotationMatrixDegrees = -1;
+  private long lastPresentationTimeNanos;
+
+  /** Frames that were replaced by a newer frame or arrived out of order, and were not drawn. */
+  private final AtomicLong droppedFrameCount = new AtomicLong();
 
   private final Object lock = new Object();
 
@@ -133,18 +144,31 @@ public class VideoRenderer {
 
   /** Stop rendering and cleanup resources. */
   public void close() {
-    thread.interrupt();
-    surfaceTextureFrameAvailableHandler.quitSafely();
-    cleanupOpenGL();
-    inputSurfaceTexture.release();
+    // The EGL context is current on the render thread, so it has to be cleaned up there.
+    renderHandler.post(
+        () -> {
+          cleanupOpenGL();
+          inputSurfaceTexture.release();
+        });
+    renderThread.quitSafely();
+  }
+
+  /**
+   * Returns the number of frames that were not recorded since this renderer was created.
+   *
+   * <p>A frame is dropped when a newer frame replaced it before it could be drawn, or when its
+   * timestamp is not after the one of the last recorded frame.
+   */
+  public long getDroppedFrameCount() {
+    return droppedFrameCount.get();
   }
 
   private void cleanupOpenGL() {
     GLES20.glDeleteBuffers(2, bufferHandles, 0);
     GLES20.glDeleteTextures(1, textureHandles, 0);
-    EGL14.eglDestroyContext(display, context);
-    EGL14.eglDestroySurface(display, surface);
     GLES20.glDeleteProgram(program);
+    EGL14.eglDestroySurface(display, surface);
+    EGL14.eglDestroyContext(display, context);
   }
 
   /** Configures openGL. Must be called in same thread as draw is called. */
@@ -259,23 +283,11 @@ public class VideoRenderer {
 
       inputSurfaceTexture = new SurfaceTexture(getTexId());
       inputSurfaceTexture.setDefaultBufferSize(recordingWidth, recordingHeight);
-      surfaceTextureFrameAvailableHandler = new HandlerThread("FrameHandlerThread");
-      surfaceTextureFrameAvailableHandler.start();
       inputSurface = new Surface(inputSurfaceTexture);
 
+      // Frames are drawn right away on the render thread, which owns the EGL context.
       inputSurfaceTexture.setOnFrameAvailableListener(
-          new SurfaceTexture.OnFrameAvailableListener() {
-            @Override
-            public void onFrameAvailable(SurfaceTexture surfaceTexture) {
-              synchronized (surfaceTextureAvailableFrameLock) {
-                if (surfaceTextureFrameAvailable)
-                  Log.w(TAG, "Frame available before processing other frames. dropping frames");
-                surfaceTextureFrameAvailable = true;
-                surfaceTextureAvailableFrameLock.notifyAll();
-              }
-            }
-          },
-          new Handler(surfaceTextureFrameAvailableHandler.getLooper()));
+          surfaceTexture -> renderFrame(), renderHandler);
       lock.notifyAll();
     }
   }
@@ -283,51 +295,53 @@ public class VideoRenderer {
   /** Starts and configures Video Renderer. */
   private void startOpenGL() {
     Log.d(TAG, "Starting OpenGL Thread");
-    thread =
-        new Thread() {
-          @Override
-          public void run() {
-
-            configureOpenGL();
-
-            try {
-              // Continuously pull frames from input surface texture and use videoRenderer to modify
-              // to correct rotation.
-              while (!Thread.interrupted()) {
-
-                synchronized (surfaceTextureAvailableFrameLock) {
-                  while (!surfaceTextureFrameAvailable) {
-                    surfaceTextureAvailableFrameLock.wait(500);
-                  }
-                  surfaceTextureFrameAvailable = false;
-                }
-
-                inputSurfaceTexture.updateTexImage();
-
-                float[] surfaceTextureMatrix = new float[16];
-                inputSurfaceTexture.getTransformMatrix(surfaceTextureMatrix);
-
-                draw(recordingWidth, recordingHeight, surfaceTextureMatrix);
-              }
-            } catch (InterruptedException e) {
-              Log.d(TAG, "thread interrupted while waiting for frames");
-            }
-          }
-        };
-    thread.setUncaughtExceptionHandler(uncaughtExceptionHandler);
-    thread.start();
+    renderThread = new HandlerThread("VideoRenderer");
+    renderThread.setUncaughtExceptionHandler(uncaughtExceptionHandler);
+    renderThread.start();
+    renderHandler = new Handler(renderThread.getLooper());
+    renderHandler.post(this::configureOpenGL);
+  }
+
+  /** Draws the newest frame of the input surface texture, rotated, to the output surface. */
+  private void renderFrame() {
+    inputSurfaceTexture.updateTexImage();
+
+    long timestampNanos = inputSurfaceTexture.getTimestamp();
+    if (timestampNanos == 0) {
+      // The producer did not set a timestamp.
+      timestampNanos = System.nanoTime();
+    }
+    if (timestampNanos <= lastPresentationTimeNanos) {
+      // The frame of this callback was replaced by a newer one, already drawn by a previous
+      // callback, or it is older than the last frame sent to the encoder.
+      droppedFrameCount.incrementAndGet();
+      return;
+    }
+    lastPresentationTimeNanos = timestampNanos;
+
+    inputSurfaceTexture.getTransformMatrix(surfaceTextureMatrix);
+    draw(recordingWidth, recordingHeight, surfaceTextureMatrix, timestampNanos);
   }
 
   public int getTexId() {
     return textureHandles[0];
   }
 
+  /**
+   * Returns the rotation matrix of the current rotation.
+   *
+   * <p>The matrix is only recomputed after the rotation changed. It must only be used on the render
+   * thread and must not be modified.
+   */
   @NonNull
   public float[] moveMatrix() {
-    float[] m = new float[16];
-    Matrix.setIdentityM(m, 0);
-    Matrix.rotateM(m, 0, rotation, 0, 0, 1);
-    return m;
+    final int degrees = rotation;
+    if (degrees != rotationMatrixDegrees) {
+      Matrix.setIdentityM(rotationMatrix, 0);
+      Matrix.rotateM(rotationMatrix, 0, degrees, 0, 0, 1);
+      rotationMatrixDegrees = degrees;
+    }
+    return rotationMatrix;
   }
 
   public void setRotation(int rotation) {
@@ -348,6 +362,19 @@ public class VideoRenderer {
   }
 
   public void draw(int viewportWidth, int viewportHeight, @NonNull float[] texMatrix) {
+    draw(viewportWidth, viewportHeight, texMatrix, System.nanoTime());
+  }
+
+  /**
+   * Draws the current frame and presents it to the output surface.
+   *
+   * @param presentationTimeNanos the timestamp of the frame, usually the one the camera gave it.
+   */
+  public void draw(
+      int viewportWidth,
+      int viewportHeight,
+      @NonNull float[] texMatrix,
+      long presentationTimeNanos) {
 
     GLES20.glClear(GLES20.GL_COLOR_BUFFER_BIT | GLES20.GL_DEPTH_BUFFER_BIT);
     GLES20.glClearColor(0f, 0f, 0f, 0f);
@@ -372,7 +399,7 @@ public class VideoRenderer {
 
     GLES20.glDrawElements(GLES20.GL_TRIANGLES, 6, GLES20.GL_UNSIGNED_INT, 0);
 
-    EGLExt.eglPresentationTimeANDROID(display, surface, uptimeMillis() * 1000000);
+    EGLExt.eglPresentationTimeANDROID(display, surface, presentationTimeNanos);
     if (!EGL14.eglSwapBuffers(display, surface)) {
       Log.w(TAG, "eglSwapBuffers() " + GLUtils.getEGLErrorString(EGL14.eglGetError()));
     }
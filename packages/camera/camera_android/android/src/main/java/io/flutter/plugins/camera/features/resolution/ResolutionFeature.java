@@ -17,7 +17,9 @@ import androidx.annotation.VisibleForTesting;
 import io.flutter.plugins.camera.CameraProperties;
 import io.flutter.plugins.camera.SdkCapabilityChecker;
 import io.flutter.plugins.camera.features.CameraFeature;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Controls the resolutions configuration on the {@link android.hardware.camera2} API.
@@ -27,6 +29,11 @@ import java.util.List;
  * required to configure the resolution using the {@link android.hardware.camera2} API.
  */
 public class ResolutionFeature extends CameraFeature<ResolutionPreset> {
+  // Profile lookups are binder calls into the media server. Their results never change for a
+  // connected camera, so they are cached process-wide, keyed by camera ID and preset.
+  private static final Map<String, EncoderProfiles> encoderProfilesCache = new HashMap<>();
+  private static final Map<String, CamcorderProfile> camcorderProfileCache = new HashMap<>();
+
   @Nullable private Size captureSize;
   @Nullable private Size previewSize;
   private CamcorderProfile recordingProfileLegacy;
@@ -121,6 +128,23 @@ public class ResolutionFeature extends CameraFeature<ResolutionPreset> {
     // No-op: when setting a resolution there is no need to update the request builder.
   }
 
+  /**
+   * Discards the cached profiles, for example when a camera was connected or disconnected.
+   *
+   * <p>The profiles of a camera are cached the first time they are looked up for a preset.
+   */
+  public static void clearProfileCache() {
+    synchronized (encoderProfilesCache) {
+      encoderProfilesCache.clear();
+      camcorderProfileCache.clear();
+    }
+  }
+
+  @NonNull
+  private static String getProfileCacheKey(int cameraId, @NonNull ResolutionPreset preset) {
+    return cameraId + "/" + preset.name();
+  }
+
   @VisibleForTesting
   static Size computeBestPreviewSize(int cameraId, ResolutionPreset preset)
       throws IndexOutOfBoundsException {
@@ -158,8 +182,6 @@ public class ResolutionFeature extends CameraFeature<ResolutionPreset> {
    */
   @SuppressLint("UseRequiresApi")
   @TargetApi(Build.VERSION_CODES.R)
-  // All of these cases deliberately fall through to get the best available profile.
-  @SuppressWarnings({"fallthrough", "deprecation"})
   @NonNull
   public static CamcorderProfile getBestAvailableCamcorderProfileForResolutionPresetLegacy(
       int cameraId, @NonNull ResolutionPreset preset) {
@@ -168,6 +190,25 @@ public class ResolutionFeature extends CameraFeature<ResolutionPreset> {
           "getBestAvailableCamcorderProfileForResolutionPreset can only be used with valid (>=0) camera identifiers.");
     }
 
+    final String cacheKey = getProfileCacheKey(cameraId, preset);
+    synchronized (encoderProfilesCache) {
+      final CamcorderProfile cachedProfile = camcorderProfileCache.get(cacheKey);
+      if (cachedProfile != null) {
+        return cachedProfile;
+      }
+    }
+    final CamcorderProfile profile = findBestCamcorderProfileLegacy(cameraId, preset);
+    synchronized (encoderProfilesCache) {
+      camcorderProfileCache.put(cacheKey, profile);
+    }
+    return profile;
+  }
+
+  // All of these cases deliberately fall through to get the best available profile.
+  @SuppressWarnings({"fallthrough", "deprecation"})
+  @NonNull
+  private static CamcorderProfile findBestCamcorderProfileLegacy(
+      int cameraId, @NonNull ResolutionPreset preset) {
     switch (preset) {
       case max:
         if (CamcorderProfile.hasProfile(cameraId, CamcorderProfile.QUALITY_HIGH)) {
@@ -211,8 +252,6 @@ public class ResolutionFeature extends CameraFeature<ResolutionPreset> {
 
   @SuppressLint("UseRequiresApi")
   @TargetApi(Build.VERSION_CODES.S)
-  // All of these cases deliberately fall through to get the best available profile.
-  @SuppressWarnings("fallthrough")
   @NonNull
   public static EncoderProfiles getBestAvailableCamcorderProfileForResolutionPreset(
       int cameraId, @NonNull ResolutionPreset preset) {
@@ -221,6 +260,27 @@ public class ResolutionFeature extends CameraFeature<ResolutionPreset> {
           "getBestAvailableCamcorderProfileForResolutionPreset can only be used with valid (>=0) camera identifiers.");
     }
 
+    final String cacheKey = getProfileCacheKey(cameraId, preset);
+    synchronized (encoderProfilesCache) {
+      final EncoderProfiles cachedProfiles = encoderProfilesCache.get(cacheKey);
+      if (cachedProfiles != null) {
+        return cachedProfiles;
+      }
+    }
+    final EncoderProfiles profiles = findBestEncoderProfiles(cameraId, preset);
+    synchronized (encoderProfilesCache) {
+      encoderProfilesCache.put(cacheKey, profiles);
+    }
+    return profiles;
+  }
+
+  @SuppressLint("UseRequiresApi")
+  @TargetApi(Build.VERSION_CODES.S)
+  // All of these cases deliberately fall through to get the best available profile.
+  @SuppressWarnings("fallthrough")
+  @NonNull
+  private static EncoderProfiles findBestEncoderProfiles(
+      int cameraId, @NonNull ResolutionPreset preset) {
     String cameraIdString = Integer.toString(cameraId);
 
     switch (preset) {
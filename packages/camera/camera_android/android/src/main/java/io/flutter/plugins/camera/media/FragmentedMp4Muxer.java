@@ -0,0 +1,837 @@
+// Copyright 2013 The Flutter Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package io.flutter.plugins.camera.media;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.VisibleForTesting;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Writes H.264 or H.265 video and AAC audio as a fragmented MP4 file.
+ *
+ * <p>Unlike {@link android.media.MediaMuxer}, which only writes the sample tables once the
+ * recording is stopped, the file is written as a header followed by self-contained fragments of
+ * about {@link #FRAGMENT_DURATION_US}, each starting at a video key frame. If the app is killed
+ * while recording, everything but the last fragment can still be played.
+ *
+ * <p>Video samples are expected in the Annex B format produced by {@link android.media.MediaCodec}
+ * and are converted to length-prefixed NAL units. This class is not thread safe.
+ */
+final class FragmentedMp4Muxer {
+  /** The minimum duration of a fragment. Fragments are cut at the next key frame after it. */
+  static final long FRAGMENT_DURATION_US = 1_000_000;
+
+  private static final int MOVIE_TIMESCALE = 1000;
+  private static final int VIDEO_TIMESCALE = 90_000;
+  private static final int AUDIO_SAMPLES_PER_FRAME = 1024;
+
+  static final int SAMPLE_FLAGS_SYNC = 0x02000000;
+  static final int SAMPLE_FLAGS_NON_SYNC = 0x01010000;
+
+  private static final int HEVC_NAL_VPS = 32;
+  private static final int HEVC_NAL_SPS = 33;
+  private static final int HEVC_NAL_PPS = 34;
+
+  private final FileChannel channel;
+  private final int orientationDegrees;
+  private final List<Track> tracks = new ArrayList<>();
+  @Nullable private Track videoTrack;
+
+  private boolean started;
+  private int sequenceNumber;
+  /** The timestamp of the first video sample, which is the start of the movie. */
+  private long startTimeUs = -1;
+  /** Where the movie duration is written in the file, to update it once the movie is complete. */
+  private long mvhdDurationPosition;
+
+  private long mehdDurationPosition;
+
+  /**
+   * Creates a new instance of the {@link FragmentedMp4Muxer}.
+   *
+   * @param channel the file channel to write to, positioned at the start of an empty file.
+   * @param orientationDegrees the clockwise rotation players should apply to the video.
+   */
+  FragmentedMp4Muxer(@NonNull FileChannel channel, int orientationDegrees) {
+    this.channel = channel;
+    this.orientationDegrees = orientationDegrees;
+  }
+
+  /**
+   * Adds an H.264 or H.265 video track. There can be at most one.
+   *
+   * @param mimeType either {@code video/avc} or {@code video/hevc}.
+   * @param codecConfig the parameter sets of the codec, as given by the {@code csd-0} and {@code
+   *     csd-1} buffers of its output format, in the Annex B format.
+   * @return the index of the track.
+   */
+  int addVideoTrack(
+      @NonNull String mimeType, int width, int height, @NonNull List<ByteBuffer> codecConfig) {
+    if (started || videoTrack != null) {
+      throw new IllegalStateException("A video track can only be added once, before start().");
+    }
+    final List<byte[]> nalUnits = new ArrayList<>();
+    for (ByteBuffer buffer : codecConfig) {
+      nalUnits.addAll(splitAnnexB(buffer));
+    }
+    final boolean hevc = "video/hevc".equals(mimeType);
+    final byte[] sampleEntry =
+        hevc ? hevcSampleEntry(width, height, nalUnits) : avcSampleEntry(width, height, nalUnits);
+    videoTrack = new Track(tracks.size() + 1, true, VIDEO_TIMESCALE, sampleEntry, width, height);
+    tracks.add(videoTrack);
+    return tracks.size() - 1;
+  }
+
+  /**
+   * Adds an AAC audio track.
+   *
+   * @param audioSpecificConfig the {@code csd-0} buffer of the output format of the encoder.
+   * @return the index of the track.
+   */
+  int addAudioTrack(int sampleRate, int channelCount, @NonNull ByteBuffer audioSpecificConfig) {
+    if (started) {
+      throw new IllegalStateException("Tracks can only be added before start().");
+    }
+    final Track track =
+        new Track(
+            tracks.size() + 1,
+            false,
+            sampleRate,
+            mp4aSampleEntry(tracks.size() + 1, sampleRate, channelCount, audioSpecificConfig),
+            0,
+            0);
+    tracks.add(track);
+    return tracks.size() - 1;
+  }
+
+  /** Writes the file header. Samples can be written from now on. */
+  void start() throws IOException {
+    if (videoTrack == null) {
+      throw new IllegalStateException("A video track is required.");
+    }
+    final BoxWriter writer = new BoxWriter();
+    final int ftyp = writer.start("ftyp");
+    writer.putFourCc("isom");
+    writer.putInt(0x200);
+    writer.putFourCc("isom");
+    writer.putFourCc("iso6");
+    writer.putFourCc("mp41");
+    writer.end(ftyp);
+    writeMoov(writer);
+    write(writer.toByteBuffer());
+    started = true;
+  }
+
+  /**
+   * Writes an encoded sample.
+   *
+   * <p>Audio samples older than the first video sample are dropped, as is any sample written
+   * before the first video key frame.
+   *
+   * @param trackIndex the index returned when the track was added.
+   * @param data the sample, between its position and limit. It is not modified.
+   * @param presentationTimeUs the presentation time of the sample.
+   * @param keyFrame whether the sample is a video key frame.
+   */
+  void writeSampleData(
+      int trackIndex, @NonNull ByteBuffer data, long presentationTimeUs, boolean keyFrame)
+      throws IOException {
+    if (!started) {
+      throw new IllegalStateException("start() has not been called.");
+    }
+    final Track track = tracks.get(trackIndex);
+    if (startTimeUs < 0) {
+      if (track != videoTrack || !keyFrame) {
+        return;
+      }
+      startTimeUs = presentationTimeUs;
+    }
+    if (presentationTimeUs < startTimeUs) {
+      return;
+    }
+    final boolean fragmentComplete =
+        track == videoTrack
+            && keyFrame
+            && !track.samples.isEmpty()
+            && presentationTimeUs - track.samples.get(0).presentationTimeUs
+                >= FRAGMENT_DURATION_US;
+    final byte[] bytes = track.video ? annexBToLengthPrefixed(data) : copy(data);
+    track.samples.add(new Sample(bytes, presentationTimeUs, !track.video || keyFrame));
+    if (fragmentComplete) {
+      writeFragment(false);
+    }
+  }
+
+  /** Writes the remaining samples and completes the file. The channel is not closed. */
+  void stop() throws IOException {
+    if (!started) {
+      return;
+    }
+    writeFragment(true);
+    // Fragmented files do not need a duration, but players show it when it is there.
+    long durationUs = 0;
+    for (Track track : tracks) {
+      durationUs = Math.max(durationUs, track.decodeTime * 1_000_000L / track.timescale);
+    }
+    final long duration = durationUs * MOVIE_TIMESCALE / 1_000_000L;
+    final ByteBuffer mvhdDuration = ByteBuffer.allocate(4);
+    mvhdDuration.putInt(0, (int) duration);
+    writeAt(mvhdDuration, mvhdDurationPosition);
+    final ByteBuffer mehdDuration = ByteBuffer.allocate(8);
+    mehdDuration.putLong(0, duration);
+    writeAt(mehdDuration, mehdDurationPosition);
+    started = false;
+  }
+
+  private void writeMoov(@NonNull BoxWriter writer) {
+    final int moov = writer.start("moov");
+
+    final int mvhd = writer.startFull("mvhd", 0, 0);
+    writer.putInt(0); // creation_time
+    writer.putInt(0); // modification_time
+    writer.putInt(MOVIE_TIMESCALE);
+    mvhdDurationPosition = writer.position();
+    writer.putInt(0); // duration, updated by stop()
+    writer.putInt(0x00010000); // rate 1.0
+    writer.putShort(0x0100); // volume 1.0
+    writer.putZeros(2 + 8);
+    writeMatrix(writer, 0);
+    writer.putZeros(24); // pre_defined
+    writer.putInt(tracks.size() + 1); // next_track_ID
+    writer.end(mvhd);
+
+    for (Track track : tracks) {
+      writeTrak(writer, track);
+    }
+
+    final int mvex = writer.start("mvex");
+    final int mehd = writer.startFull("mehd", 1, 0);
+    mehdDurationPosition = writer.position();
+    writer.putLong(0); // fragment_duration, updated by stop()
+    writer.end(mehd);
+    for (Track track : tracks) {
+      final int trex = writer.startFull("trex", 0, 0);
+      writer.putInt(track.id);
+      writer.putInt(1); // default_sample_description_index
+      writer.putInt(0); // default_sample_duration
+      writer.putInt(0); // default_sample_size
+      writer.putInt(0); // default_sample_flags
+      writer.end(trex);
+    }
+    writer.end(mvex);
+
+    writer.end(moov);
+  }
+
+  private void writeTrak(@NonNull BoxWriter writer, @NonNull Track track) {
+    final int trak = writer.start("trak");
+
+    // Track enabled and in movie.
+    final int tkhd = writer.startFull("tkhd", 0, 3);
+    writer.putInt(0); // creation_time
+    writer.putInt(0); // modification_time
+    writer.putInt(track.id);
+    writer.putInt(0); // reserved
+    writer.putInt(0); // duration
+    writer.putZeros(8);
+    writer.putShort(0); // layer
+    writer.putShort(0); // alternate_group
+    writer.putShort(track.video ? 0 : 0x0100); // volume
+    writer.putShort(0);
+    writeMatrix(writer, track.video ? orientationDegrees : 0);
+    writer.putInt(track.width << 16);
+    writer.putInt(track.height << 16);
+    writer.end(tkhd);
+
+    final int mdia = writer.start("mdia");
+    final int mdhd = writer.startFull("mdhd", 0, 0);
+    writer.putInt(0); // creation_time
+    writer.putInt(0); // modification_time
+    writer.putInt(track.timescale);
+    writer.putInt(0); // duration
+    writer.putShort(0x55c4); // language "und"
+    writer.putShort(0);
+    writer.end(mdhd);
+
+    final int hdlr = writer.startFull("hdlr", 0, 0);
+    writer.putInt(0);
+    writer.putFourCc(track.video ? "vide" : "soun");
+    writer.putZeros(12);
+    writer.putBytes(
+        (track.video ? "VideoHandle\0" : "SoundHandle\0").getBytes(StandardCharsets.US_ASCII));
+    writer.end(hdlr);
+
+    final int minf = writer.start("minf");
+    if (track.video) {
+      final int vmhd = writer.startFull("vmhd", 0, 1);
+      writer.putZeros(8);
+      writer.end(vmhd);
+    } else {
+      final int smhd = writer.startFull("smhd", 0, 0);
+      writer.putZeros(4);
+      writer.end(smhd);
+    }
+    final int dinf = writer.start("dinf");
+    final int dref = writer.startFull("dref", 0, 0);
+    writer.putInt(1);
+    // The media data is in this file.
+    writer.end(writer.startFull("url ", 0, 1));
+    writer.end(dref);
+    writer.end(dinf);
+
+    // The sample tables are empty, the samples are described by the fragments.
+    final int stbl = writer.start("stbl");
+    final int stsd = writer.startFull("stsd", 0, 0);
+    writer.putInt(1);
+    writer.putBytes(track.sampleEntry);
+    writer.end(stsd);
+    for (String type : new String[] {"stts", "stsc", "stco"}) {
+      final int table = writer.startFull(type, 0, 0);
+      writer.putInt(0);
+      writer.end(table);
+    }
+    final int stsz = writer.startFull("stsz", 0, 0);
+    writer.putInt(0);
+    writer.putInt(0);
+    writer.end(stsz);
+    writer.end(stbl);
+
+    writer.end(minf);
+    writer.end(mdia);
+    writer.end(trak);
+  }
+
+  private static void writeMatrix(@NonNull BoxWriter writer, int degrees) {
+    final int a;
+    final int b;
+    final int c;
+    final int d;
+    switch (degrees) {
+      case 90:
+        a = 0;
+        b = 0x10000;
+        c = -0x10000;
+        d = 0;
+        break;
+      case 180:
+        a = -0x10000;
+        b = 0;
+        c = 0;
+        d = -0x10000;
+        break;
+      case 270:
+        a = 0;
+        b = -0x10000;
+        c = 0x10000;
+        d = 0;
+        break;
+      default:
+        a = 0x10000;
+        b = 0;
+        c = 0;
+        d = 0x10000;
+    }
+    writer.putInt(a);
+    writer.putInt(b);
+    writer.putInt(0);
+    writer.putInt(c);
+    writer.putInt(d);
+    writer.putInt(0);
+    writer.putInt(0);
+    writer.putInt(0);
+    writer.putInt(0x40000000);
+  }
+
+  /**
+   * Writes the pending samples of every track as a fragment.
+   *
+   * @param last whether this is the last fragment. Otherwise, the last sample of every track is
+   *     kept for the next fragment: the key frame starting it, and audio samples whose duration is
+   *     only known once the sample after them is written.
+   */
+  private void writeFragment(boolean last) throws IOException {
+    final List<List<Sample>> fragmentSamples = new ArrayList<>();
+    final List<Track> fragmentTracks = new ArrayList<>();
+    for (Track track : tracks) {
+      int count = track.samples.size();
+      if (!last && count > 0) {
+        count--;
+      }
+      if (count == 0) {
+        continue;
+      }
+      fragmentTracks.add(track);
+      fragmentSamples.add(new ArrayList<>(track.samples.subList(0, count)));
+    }
+    if (fragmentTracks.isEmpty()) {
+      return;
+    }
+
+    final BoxWriter moof = new BoxWriter();
+    final int moofBox = moof.start("moof");
+    final int mfhd = moof.startFull("mfhd", 0, 0);
+    moof.putInt(++sequenceNumber);
+    moof.end(mfhd);
+    final int[] dataOffsetPositions = new int[fragmentTracks.size()];
+    for (int i = 0; i < fragmentTracks.size(); i++) {
+      final Track track = fragmentTracks.get(i);
+      final List<Sample> samples = fragmentSamples.get(i);
+      final int traf = moof.start("traf");
+      // default-base-is-moof: data offsets are relative to the start of the moof box.
+      final int tfhd = moof.startFull("tfhd", 0, 0x020000);
+      moof.putInt(track.id);
+      moof.end(tfhd);
+      if (!track.hasFragments) {
+        track.hasFragments = true;
+        // The first sample of the track may start after the first video sample.
+        track.decodeTime = toTimescale(samples.get(0).presentationTimeUs - startTimeUs, track);
+      }
+      final int tfdt = moof.startFull("tfdt", 1, 0);
+      moof.putLong(track.decodeTime);
+      moof.end(tfdt);
+      // Data offset, sample duration, sample size and sample flags are present.
+      final int trun = moof.startFull("trun", 0, 0x000701);
+      moof.putInt(samples.size());
+      dataOffsetPositions[i] = moof.position();
+      moof.putInt(0);
+      for (int s = 0; s < samples.size(); s++) {
+        final Sample sample = samples.get(s);
+        final int duration = sampleDuration(track, s < track.samples.size() - 1, sample, s);
+        track.decodeTime += duration;
+        moof.putInt(duration);
+        moof.putInt(sample.data.length);
+        moof.putInt(sample.sync ? SAMPLE_FLAGS_SYNC : SAMPLE_FLAGS_NON_SYNC);
+      }
+      moof.end(trun);
+      moof.end(traf);
+    }
+    moof.end(moofBox);
+
+    // The samples of each track follow each other in the mdat box, right after the moof box.
+    long dataSize = 0;
+    for (int i = 0; i < fragmentTracks.size(); i++) {
+      moof.putIntAt(dataOffsetPositions[i], (int) (moof.position() + 8 + dataSize));
+      for (Sample sample : fragmentSamples.get(i)) {
+        dataSize += sample.data.length;
+      }
+    }
+    final ByteBuffer mdatHeader = ByteBuffer.allocate(8);
+    mdatHeader.putInt((int) (8 + dataSize));
+    mdatHeader.put("mdat".getBytes(StandardCharsets.US_ASCII));
+    mdatHeader.flip();
+
+    write(moof.toByteBuffer());
+    write(mdatHeader);
+    for (int i = 0; i < fragmentTracks.size(); i++) {
+      final Track track = fragmentTracks.get(i);
+      final List<Sample> samples = fragmentSamples.get(i);
+      for (Sample sample : samples) {
+        write(ByteBuffer.wrap(sample.data));
+      }
+      track.samples.subList(0, samples.size()).clear();
+    }
+  }
+
+  /** Returns the duration of a sample in the timescale of its track. */
+  private int sampleDuration(
+      @NonNull Track track, boolean hasNext, @NonNull Sample sample, int index) {
+    long duration;
+    if (hasNext) {
+      final long nextDecodeTime =
+          toTimescale(track.samples.get(index + 1).presentationTimeUs - startTimeUs, track);
+      duration = nextDecodeTime - track.decodeTime;
+    } else if (track.video) {
+      duration = track.lastDuration;
+    } else {
+      duration = AUDIO_SAMPLES_PER_FRAME;
+    }
+    if (duration <= 0) {
+      // Out of order or repeated timestamps, or the first and only sample of a track.
+      duration = track.video ? track.timescale / 30 : AUDIO_SAMPLES_PER_FRAME;
+    }
+    track.lastDuration = duration;
+    return (int) duration;
+  }
+
+  private static long toTimescale(long durationUs, @NonNull Track track) {
+    return durationUs * track.timescale / 1_000_000L;
+  }
+
+  private void write(@NonNull ByteBuffer buffer) throws IOException {
+    while (buffer.hasRemaining()) {
+      channel.write(buffer);
+    }
+  }
+
+  private void writeAt(@NonNull ByteBuffer buffer, long position) throws IOException {
+    long offset = position;
+    while (buffer.hasRemaining()) {
+      offset += channel.write(buffer, offset);
+    }
+  }
+
+  @NonNull
+  private static byte[] copy(@NonNull ByteBuffer data) {
+    final byte[] bytes = new byte[data.remaining()];
+    data.duplicate().get(bytes);
+    return bytes;
+  }
+
+  /** Splits Annex B data into NAL units, without their start codes. */
+  @VisibleForTesting
+  @NonNull
+  static List<byte[]> splitAnnexB(@NonNull ByteBuffer data) {
+    final byte[] bytes = copy(data);
+    final List<byte[]> nalUnits = new ArrayList<>();
+    int start = -1;
+    int i = 0;
+    while (i + 2 < bytes.length) {
+      if (bytes[i] == 0 && bytes[i + 1] == 0 && bytes[i + 2] == 1) {
+        if (start >= 0) {
+          // A 4 byte start code has one more leading zero.
+          int end = i;
+          if (end > start && bytes[end - 1] == 0) {
+            end--;
+          }
+          nalUnits.add(Arrays.copyOfRange(bytes, start, end));
+        }
+        i += 3;
+        start = i;
+      } else {
+        i++;
+      }
+    }
+    if (start >= 0 && start < bytes.length) {
+      nalUnits.add(Arrays.copyOfRange(bytes, start, bytes.length));
+    } else if (start < 0 && bytes.length > 0) {
+      // Already a single NAL unit without a start code.
+      nalUnits.add(bytes);
+    }
+    return nalUnits;
+  }
+
+  /** Replaces the start code of every NAL unit with its 4 byte length. */
+  @VisibleForTesting
+  @NonNull
+  static byte[] annexBToLengthPrefixed(@NonNull ByteBuffer data) {
+    final List<byte[]> nalUnits = splitAnnexB(data);
+    int size = 0;
+    for (byte[] nalUnit : nalUnits) {
+      size += 4 + nalUnit.length;
+    }
+    final ByteBuffer output = ByteBuffer.allocate(size);
+    for (byte[] nalUnit : nalUnits) {
+      output.putInt(nalUnit.length);
+      output.put(nalUnit);
+    }
+    return output.array();
+  }
+
+  @NonNull
+  private static byte[] avcSampleEntry(int width, int height, @NonNull List<byte[]> nalUnits) {
+    byte[] sps = null;
+    byte[] pps = null;
+    for (byte[] nalUnit : nalUnits) {
+      final int type = nalUnit[0] & 0x1f;
+      if (type == 7 && sps == null) {
+        sps = nalUnit;
+      } else if (type == 8 && pps == null) {
+        pps = nalUnit;
+      }
+    }
+    if (sps == null || pps == null || sps.length < 4) {
+      throw new IllegalArgumentException("The codec config has no SPS and PPS.");
+    }
+    final BoxWriter writer = new BoxWriter();
+    final int avc1 = writer.start("avc1");
+    writeVisualSampleEntry(writer, width, height);
+    final int avcC = writer.start("avcC");
+    writer.putByte(1); // configurationVersion
+    writer.putByte(sps[1]); // AVCProfileIndication
+    writer.putByte(sps[2]); // profile_compatibility
+    writer.putByte(sps[3]); // AVCLevelIndication
+    writer.putByte(0xff); // 4 byte NAL unit lengths
+    writer.putByte(0xe1); // 1 SPS
+    writer.putShort(sps.length);
+    writer.putBytes(sps);
+    writer.putByte(1); // 1 PPS
+    writer.putShort(pps.length);
+    writer.putBytes(pps);
+    final int profile = sps[1] & 0xff;
+    if (profile == 100 || profile == 110 || profile == 122 || profile == 144) {
+      // Surface encoders produce 8 bit 4:2:0 video.
+      writer.putByte(0xfd); // chroma_format 1
+      writer.putByte(0xf8); // bit_depth_luma_minus8 0
+      writer.putByte(0xf8); // bit_depth_chroma_minus8 0
+      writer.putByte(0); // numOfSequenceParameterSetExt
+    }
+    writer.end(avcC);
+    writer.end(avc1);
+    return writer.toByteArray();
+  }
+
+  @NonNull
+  private static byte[] hevcSampleEntry(int width, int height, @NonNull List<byte[]> nalUnits) {
+    final List<byte[]> vps = new ArrayList<>();
+    final List<byte[]> sps = new ArrayList<>();
+    final List<byte[]> pps = new ArrayList<>();
+    for (byte[] nalUnit : nalUnits) {
+      final int type = (nalUnit[0] >> 1) & 0x3f;
+      if (type == HEVC_NAL_VPS) {
+        vps.add(nalUnit);
+      } else if (type == HEVC_NAL_SPS) {
+        sps.add(nalUnit);
+      } else if (type == HEVC_NAL_PPS) {
+        pps.add(nalUnit);
+      }
+    }
+    if (vps.isEmpty() || sps.isEmpty() || pps.isEmpty()) {
+      throw new IllegalArgumentException("The codec config has no VPS, SPS and PPS.");
+    }
+    // general_profile_space to general_level_idc follow the NAL unit header and the
+    // sps_video_parameter_set_id, sps_max_sub_layers_minus1 and sps_temporal_id_nesting_flag byte.
+    final byte[] spsPayload = removeEmulationPrevention(sps.get(0));
+    if (spsPayload.length < 15) {
+      throw new IllegalArgumentException("The SPS is too short.");
+    }
+    final BoxWriter writer = new BoxWriter();
+    final int hvc1 = writer.start("hvc1");
+    writeVisualSampleEntry(writer, width, height);
+    final int hvcC = writer.start("hvcC");
+    writer.putByte(1); // configurationVersion
+    writer.putBytes(Arrays.copyOfRange(spsPayload, 3, 15));
+    writer.putShort(0xf000); // min_spatial_segmentation_idc
+    writer.putByte(0xfc); // parallelismType
+    writer.putByte(0xfd); // chroma_format_idc 1
+    writer.putByte(0xf8); // bit_depth_luma_minus8 0
+    writer.putByte(0xf8); // bit_depth_chroma_minus8 0
+    writer.putShort(0); // avgFrameRate
+    // constantFrameRate 0, numTemporalLayers 1, temporalIdNested 1, lengthSizeMinusOne 3.
+    writer.putByte(0x0f);
+    writer.putByte(3); // numOfArrays
+    writeHevcNalArray(writer, HEVC_NAL_VPS, vps);
+    writeHevcNalArray(writer, HEVC_NAL_SPS, sps);
+    writeHevcNalArray(writer, HEVC_NAL_PPS, pps);
+    writer.end(hvcC);
+    writer.end(hvc1);
+    return writer.toByteArray();
+  }
+
+  private static void writeHevcNalArray(
+      @NonNull BoxWriter writer, int type, @NonNull List<byte[]> nalUnits) {
+    writer.putByte(0x80 | type); // array_completeness 1
+    writer.putShort(nalUnits.size());
+    for (byte[] nalUnit : nalUnits) {
+      writer.putShort(nalUnit.length);
+      writer.putBytes(nalUnit);
+    }
+  }
+
+  private static void writeVisualSampleEntry(@NonNull BoxWriter writer, int width, int height) {
+    writer.putZeros(6);
+    writer.putShort(1); // data_reference_index
+    writer.putZeros(16);
+    writer.putShort(width);
+    writer.putShort(height);
+    writer.putInt(0x00480000); // 72 dpi
+    writer.putInt(0x00480000);
+    writer.putInt(0);
+    writer.putShort(1); // frame_count
+    writer.putZeros(32); // compressorname
+    writer.putShort(0x0018); // depth
+    writer.putShort(0xffff); // pre_defined -1
+  }
+
+  @NonNull
+  private static byte[] mp4aSampleEntry(
+      int trackId, int sampleRate, int channelCount, @NonNull ByteBuffer audioSpecificConfig) {
+    final byte[] config = copy(audioSpecificConfig);
+    final BoxWriter writer = new BoxWriter();
+    final int mp4a = writer.start("mp4a");
+    writer.putZeros(6);
+    writer.putShort(1); // data_reference_index
+    writer.putZeros(8);
+    writer.putShort(channelCount);
+    writer.putShort(16); // samplesize
+    writer.putZeros(4);
+    writer.putInt(sampleRate << 16);
+
+    final int esds = writer.startFull("esds", 0, 0);
+    // ES_Descriptor
+    writer.putByte(0x03);
+    writer.putByte(3 + 2 + 13 + 2 + config.length + 3);
+    writer.putShort(trackId);
+    writer.putByte(0);
+    // DecoderConfigDescriptor: MPEG-4 audio, audio stream.
+    writer.putByte(0x04);
+    writer.putByte(13 + 2 + config.length);
+    writer.putByte(0x40);
+    writer.putByte(0x15);
+    writer.putZeros(3 + 4 + 4);
+    // DecoderSpecificInfo
+    writer.putByte(0x05);
+    writer.putByte(config.length);
+    writer.putBytes(config);
+    // SLConfigDescriptor
+    writer.putByte(0x06);
+    writer.putByte(1);
+    writer.putByte(0x02);
+    writer.end(esds);
+
+    writer.end(mp4a);
+    return writer.toByteArray();
+  }
+
+  @NonNull
+  private static byte[] removeEmulationPrevention(@NonNull byte[] nalUnit) {
+    final ByteBuffer output = ByteBuffer.allocate(nalUnit.length);
+    int zeros = 0;
+    for (byte b : nalUnit) {
+      if (zeros >= 2 && b == 3) {
+        zeros = 0;
+        continue;
+      }
+      zeros = (b == 0) ? zeros + 1 : 0;
+      output.put(b);
+    }
+    return Arrays.copyOf(output.array(), output.position());
+  }
+
+  private static final class Track {
+    final int id;
+    final boolean video;
+    final int timescale;
+    @NonNull final byte[] sampleEntry;
+    final int width;
+    final int height;
+    final List<Sample> samples = new ArrayList<>();
+    /** The decode time of the next sample written to a fragment, in the track timescale. */
+    long decodeTime;
+
+    long lastDuration;
+    boolean hasFragments;
+
+    Track(
+        int id,
+        boolean video,
+        int timescale,
+        @NonNull byte[] sampleEntry,
+        int width,
+        int height) {
+      this.id = id;
+      this.video = video;
+      this.timescale = timescale;
+      this.sampleEntry = sampleEntry;
+      this.width = width;
+      this.height = height;
+    }
+  }
+
+  private static final class Sample {
+    @NonNull final byte[] data;
+    final long presentationTimeUs;
+    final boolean sync;
+
+    Sample(@NonNull byte[] data, long presentationTimeUs, boolean sync) {
+      this.data = data;
+      this.presentationTimeUs = presentationTimeUs;
+      this.sync = sync;
+    }
+  }
+
+  /** Builds nested ISO base media file format boxes in memory. */
+  private static final class BoxWriter {
+    private ByteBuffer buffer = ByteBuffer.allocate(1024);
+
+    int position() {
+      return buffer.position();
+    }
+
+    /** Starts a box, returning its offset to pass to {@link #end(int)}. */
+    int start(@NonNull String type) {
+      final int offset = buffer.position();
+      putInt(0);
+      putFourCc(type);
+      return offset;
+    }
+
+    int startFull(@NonNull String type, int version, int flags) {
+      final int offset = start(type);
+      putInt((version << 24) | flags);
+      return offset;
+    }
+
+    void end(int offset) {
+      buffer.putInt(offset, buffer.position() - offset);
+    }
+
+    void putByte(int value) {
+      ensureCapacity(1);
+      buffer.put((byte) value);
+    }
+
+    void putShort(int value) {
+      ensureCapacity(2);
+      buffer.putShort((short) value);
+    }
+
+    void putInt(int value) {
+      ensureCapacity(4);
+      buffer.putInt(value);
+    }
+
+    void putIntAt(int position, int value) {
+      buffer.putInt(position, value);
+    }
+
+    void putLong(long value) {
+      ensureCapacity(8);
+      buffer.putLong(value);
+    }
+
+    void putFourCc(@NonNull String type) {
+      putBytes(type.getBytes(StandardCharsets.US_ASCII));
+    }
+
+    void putBytes(@NonNull byte[] bytes) {
+      ensureCapacity(bytes.length);
+      buffer.put(bytes);
+    }
+
+    void putZeros(int count) {
+      ensureCapacity(count);
+      for (int i = 0; i < count; i++) {
+        buffer.put((byte) 0);
+      }
+    }
+
+    @NonNull
+    byte[] toByteArray() {
+      return Arrays.copyOf(buffer.array(), buffer.position());
+    }
+
+    @NonNull
+    ByteBuffer toByteBuffer() {
+      return ByteBuffer.wrap(buffer.array(), 0, buffer.position());
+    }
+
+    private void ensureCapacity(int size) {
+      if (buffer.remaining() < size) {
+        final ByteBuffer larger =
+            ByteBuffer.allocate(Math.max(buffer.capacity() * 2, buffer.position() + size));
+        buffer.flip();
+        larger.put(buffer);
+        buffer = larger;
+      }
+    }
+  }
+}
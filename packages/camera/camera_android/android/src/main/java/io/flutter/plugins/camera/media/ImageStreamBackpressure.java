@@ -0,0 +1,165 @@
+// Copyright 2013 The Flutter Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package io.flutter.plugins.camera.media;
+
+import android.os.Handler;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+/**
+ * Limits how many image stream frames can be waiting on the main thread for delivery to Dart.
+ *
+ * <p>Frames are admitted on the camera background thread by {@link #tryAdmit()} before any plane
+ * data is copied, and then handed over with {@link #submit(Handler, PendingFrame)}. Frames that
+ * are rejected or replaced are counted as dropped.
+ */
+public class ImageStreamBackpressure {
+  /** How frames are dropped when Dart does not keep up with the camera. */
+  public enum Policy {
+    /** Every frame is delivered, no matter how many are already waiting. */
+    UNBOUNDED,
+    /** At most one frame waits for delivery; a newer frame replaces the waiting one. */
+    LATEST_ONLY,
+    /** At most {@code limit} frames wait for delivery; newer frames are dropped. */
+    BOUNDED_QUEUE,
+    /** Only every {@code limit}-th frame is delivered. */
+    EVERY_NTH_FRAME
+  }
+
+  /** A frame that has been prepared for delivery on the main thread. */
+  public interface PendingFrame {
+    /** Sends the frame to Dart. Called on the main thread. */
+    void deliver();
+
+    /** Releases the frame without sending it, because a newer frame replaced it. */
+    void discard();
+  }
+
+  @NonNull private final Policy policy;
+  private final int limit;
+
+  private long frameCount;
+  private long droppedFrameCount;
+  private int queueDepth;
+  @Nullable private PendingFrame latestFrame;
+
+  /** Creates an instance that delivers every frame. */
+  public ImageStreamBackpressure() {
+    this(Policy.UNBOUNDED, 1);
+  }
+
+  /**
+   * Creates an instance with the given policy.
+   *
+   * @param policy the policy used to drop frames.
+   * @param limit the queue size for {@link Policy#BOUNDED_QUEUE} or the frame interval for {@link
+   *     Policy#EVERY_NTH_FRAME}. Ignored by the other policies.
+   */
+  public ImageStreamBackpressure(@NonNull Policy policy, int limit) {
+    if (limit < 1) {
+      throw new IllegalArgumentException("limit must be at least 1");
+    }
+    this.policy = policy;
+    this.limit = limit;
+  }
+
+  /** Returns the policy used to drop frames. */
+  @NonNull
+  public Policy getPolicy() {
+    return policy;
+  }
+
+  /**
+   * Decides whether a new camera frame should be processed at all.
+   *
+   * @return false if the frame should be dropped before copying any of its data.
+   */
+  public synchronized boolean tryAdmit() {
+    final long index = frameCount++;
+    switch (policy) {
+      case BOUNDED_QUEUE:
+        if (queueDepth >= limit) {
+          droppedFrameCount++;
+          return false;
+        }
+        return true;
+      case EVERY_NTH_FRAME:
+        if (index % limit != 0) {
+          droppedFrameCount++;
+          return false;
+        }
+        return true;
+      case UNBOUNDED:
+      case LATEST_ONLY:
+      default:
+        return true;
+    }
+  }
+
+  /**
+   * Schedules a prepared frame for delivery on the main thread.
+   *
+   * @param mainHandler the handler of the main thread.
+   * @param frame the frame to deliver.
+   */
+  public void submit(@NonNull Handler mainHandler, @NonNull PendingFrame frame) {
+    if (policy == Policy.LATEST_ONLY) {
+      submitLatest(mainHandler, frame);
+      return;
+    }
+
+    synchronized (this) {
+      queueDepth++;
+    }
+    mainHandler.post(
+        () -> {
+          synchronized (this) {
+            queueDepth--;
+          }
+          frame.deliver();
+        });
+  }
+
+  private void submitLatest(@NonNull Handler mainHandler, @NonNull PendingFrame frame) {
+    final PendingFrame replaced;
+    synchronized (this) {
+      replaced = latestFrame;
+      latestFrame = frame;
+      if (replaced != null) {
+        droppedFrameCount++;
+      } else {
+        queueDepth++;
+      }
+    }
+
+    if (replaced != null) {
+      replaced.discard();
+      return;
+    }
+
+    mainHandler.post(
+        () -> {
+          final PendingFrame latest;
+          synchronized (this) {
+            latest = latestFrame;
+            latestFrame = null;
+            queueDepth--;
+          }
+          if (latest != null) {
+            latest.deliver();
+          }
+        });
+  }
+
+  /** Returns the number of frames dropped since this instance was created. */
+  public synchronized long getDroppedFrameCount() {
+    return droppedFrameCount;
+  }
+
+  /** Returns the number of frames waiting on the main thread for delivery. */
+  public synchronized int getQueueDepth() {
+    return queueDepth;
+  }
+}
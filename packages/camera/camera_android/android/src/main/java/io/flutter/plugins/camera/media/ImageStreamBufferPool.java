@@ -0,0 +1,212 @@
+// Copyright 2013 The Flutter Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package io.flutter.plugins.camera.media;
+
+import androidx.annotation.NonNull;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A small ring of reusable frame buffers for the image stream.
+ *
+ * <p>Frames are keyed by their width, height and format. A frame is acquired on the camera
+ * background thread, filled with plane data, sent to Dart and released once the event sink has
+ * encoded it. Released frames with the current key are handed out again, so once the pool is warm
+ * streaming does not allocate any plane buffers. Changing the key (for example when the resolution
+ * changes) drops the pooled frames of the old key.
+ */
+public class ImageStreamBufferPool {
+  /** The default number of frames kept in the pool. */
+  public static final int DEFAULT_CAPACITY = 3;
+
+  private final int capacity;
+  private final ArrayDeque<Frame> freeFrames = new ArrayDeque<>();
+
+  private int width = -1;
+  private int height = -1;
+  private int format = -1;
+
+  private long frameAllocationCount;
+  private long bufferAllocationCount;
+  private long allocatedBytes;
+  private long reuseCount;
+
+  /** Creates a pool that keeps up to {@link #DEFAULT_CAPACITY} frames. */
+  public ImageStreamBufferPool() {
+    this(DEFAULT_CAPACITY);
+  }
+
+  /**
+   * Creates a pool that keeps up to {@code capacity} released frames.
+   *
+   * @param capacity the maximum number of released frames kept for reuse.
+   */
+  public ImageStreamBufferPool(int capacity) {
+    if (capacity < 1) {
+      throw new IllegalArgumentException("capacity must be at least 1");
+    }
+    this.capacity = capacity;
+  }
+
+  /**
+   * Returns a frame for the given key, reusing a released one when possible.
+   *
+   * @param width the frame width.
+   * @param height the frame height.
+   * @param format the image format sent to Dart.
+   * @return a frame owned by the caller until it is passed to {@link #release(Frame)}.
+   */
+  @NonNull
+  public synchronized Frame acquire(int width, int height, int format) {
+    if (width != this.width || height != this.height || format != this.format) {
+      freeFrames.clear();
+      this.width = width;
+      this.height = height;
+      this.format = format;
+    }
+
+    final Frame frame = freeFrames.poll();
+    if (frame != null) {
+      reuseCount++;
+      return frame;
+    }
+
+    frameAllocationCount++;
+    return new Frame(this, width, height, format);
+  }
+
+  /**
+   * Returns a frame to the pool.
+   *
+   * <p>Frames of a stale key, or frames that do not fit into the pool, are dropped.
+   *
+   * @param frame the frame to release.
+   */
+  public synchronized void release(@NonNull Frame frame) {
+    if (frame.pool != this
+        || frame.width != width
+        || frame.height != height
+        || frame.format != format
+        || freeFrames.size() >= capacity
+        || freeFrames.contains(frame)) {
+      return;
+    }
+    freeFrames.add(frame);
+  }
+
+  /** Drops all pooled frames. Counters are left untouched. */
+  public synchronized void clear() {
+    freeFrames.clear();
+    width = -1;
+    height = -1;
+    format = -1;
+  }
+
+  /** Returns how many frames were allocated because no pooled frame was available. */
+  public synchronized long getFrameAllocationCount() {
+    return frameAllocationCount;
+  }
+
+  /** Returns how many plane buffers were allocated. */
+  public synchronized long getBufferAllocationCount() {
+    return bufferAllocationCount;
+  }
+
+  /** Returns the total size of all plane buffers allocated, in bytes. */
+  public synchronized long getAllocatedBytes() {
+    return allocatedBytes;
+  }
+
+  /** Returns how many frames were served from the pool. */
+  public synchronized long getReuseCount() {
+    return reuseCount;
+  }
+
+  /** Returns how many released frames are currently waiting to be reused. */
+  public synchronized int getPooledFrameCount() {
+    return freeFrames.size();
+  }
+
+  private synchronized void recordBufferAllocation(int size) {
+    bufferAllocationCount++;
+    allocatedBytes += size;
+  }
+
+  /**
+   * A reusable frame: the plane buffers plus the maps that describe the frame to Dart.
+   *
+   * <p>The maps are reused as well, so the frame must not be modified or released before the
+   * event sink has finished encoding it.
+   */
+  public static class Frame {
+    private final ImageStreamBufferPool pool;
+    private final int width;
+    private final int height;
+    private final int format;
+
+    private final Map<String, Object> imageBuffer = new HashMap<>();
+    private final List<Map<String, Object>> planes = new ArrayList<>();
+    private final List<Map<String, Object>> planeMaps = new ArrayList<>();
+    private final List<byte[]> planeBytes = new ArrayList<>();
+
+    private Frame(ImageStreamBufferPool pool, int width, int height, int format) {
+      this.pool = pool;
+      this.width = width;
+      this.height = height;
+      this.format = format;
+    }
+
+    /** Returns the map describing this frame, cleared of any previous content. */
+    @NonNull
+    public Map<String, Object> getImageBuffer() {
+      imageBuffer.clear();
+      return imageBuffer;
+    }
+
+    /**
+     * Returns the list of plane maps to fill for this frame.
+     *
+     * @param planeCount the number of planes of the frame.
+     * @return a list of exactly {@code planeCount} plane maps.
+     */
+    @NonNull
+    public List<Map<String, Object>> getPlanes(int planeCount) {
+      while (planeMaps.size() < planeCount) {
+        planeMaps.add(new HashMap<>());
+      }
+      planes.clear();
+      for (int i = 0; i < planeCount; i++) {
+        planes.add(planeMaps.get(i));
+      }
+      return planes;
+    }
+
+    /**
+     * Returns a buffer of exactly {@code size} bytes for the given plane.
+     *
+     * <p>The buffer is only allocated when the plane has no buffer yet or its size changed.
+     *
+     * @param planeIndex the index of the plane.
+     * @param size the number of bytes the plane needs.
+     * @return a buffer of {@code size} bytes whose content is undefined.
+     */
+    @NonNull
+    public byte[] getPlaneBytes(int planeIndex, int size) {
+      while (planeBytes.size() <= planeIndex) {
+        planeBytes.add(null);
+      }
+      byte[] bytes = planeBytes.get(planeIndex);
+      if (bytes == null || bytes.length != size) {
+        bytes = new byte[size];
+        planeBytes.set(planeIndex, bytes);
+        pool.recordBufferAllocation(size);
+      }
+      return bytes;
+    }
+  }
+}
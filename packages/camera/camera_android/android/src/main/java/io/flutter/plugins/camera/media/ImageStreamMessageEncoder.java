@@ -0,0 +1,212 @@
+// Copyright 2013 The Flutter Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package io.flutter.plugins.camera.media;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Encodes image stream events straight into reusable direct {@link ByteBuffer}s.
+ *
+ * <p>The output is the success envelope of {@link io.flutter.plugin.common.StandardMethodCodec},
+ * so it can be sent on the image stream channel with {@link
+ * io.flutter.plugin.common.BinaryMessenger#send(String, ByteBuffer)} and decoded by the Dart
+ * {@code EventChannel} unchanged. Unlike the codec, plane data given as a {@link ByteBuffer} (for
+ * example the buffer of an {@link android.media.Image.Plane}) is copied once, directly into the
+ * outgoing message, instead of being copied into a {@code byte[]}, then into the codec's stream
+ * and then into a direct buffer.
+ *
+ * <p>Supported values are the ones the image stream sends: null, {@link Boolean}, {@link Integer},
+ * {@link Long}, {@link Float}, {@link Double}, {@link String}, {@code byte[]}, {@link ByteBuffer},
+ * {@link List} and {@link Map}.
+ */
+public class ImageStreamMessageEncoder {
+  // Type tags of io.flutter.plugin.common.StandardMessageCodec.
+  private static final byte NULL = 0;
+  private static final byte TRUE = 1;
+  private static final byte FALSE = 2;
+  private static final byte INT = 3;
+  private static final byte LONG = 4;
+  private static final byte DOUBLE = 6;
+  private static final byte STRING = 7;
+  private static final byte BYTE_ARRAY = 8;
+  private static final byte LIST = 12;
+  private static final byte MAP = 13;
+
+  // The first byte of a StandardMethodCodec success envelope.
+  private static final byte SUCCESS_ENVELOPE = 0;
+
+  private static final int MAX_POOLED_BUFFERS = 3;
+
+  private final ArrayDeque<ByteBuffer> freeBuffers = new ArrayDeque<>();
+  private long copiedByteCount;
+
+  /**
+   * Encodes {@code event} as a success envelope.
+   *
+   * @param event the event to encode.
+   * @return a direct buffer holding the message between position zero and its current position,
+   *     as expected by {@link io.flutter.plugin.common.BinaryMessenger#send(String, ByteBuffer)}.
+   *     Pass it to {@link #release(ByteBuffer)} once it has been sent.
+   */
+  @NonNull
+  public ByteBuffer encodeSuccessEnvelope(@Nullable Object event) {
+    final ByteBuffer buffer = acquire(1 + maxEncodedSize(event));
+    buffer.put(SUCCESS_ENVELOPE);
+    writeValue(buffer, event);
+    return buffer;
+  }
+
+  /**
+   * Returns a message buffer for reuse once the binary messenger is done with it.
+   *
+   * <p>The messenger copies the message while sending it, so the buffer can be released as soon
+   * as {@code send} returns.
+   *
+   * @param buffer a buffer returned by {@link #encodeSuccessEnvelope(Object)}.
+   */
+  public synchronized void release(@NonNull ByteBuffer buffer) {
+    if (freeBuffers.size() < MAX_POOLED_BUFFERS && !freeBuffers.contains(buffer)) {
+      freeBuffers.add(buffer);
+    }
+  }
+
+  /** Returns the number of plane bytes copied into messages so far. */
+  public synchronized long getCopiedByteCount() {
+    return copiedByteCount;
+  }
+
+  @NonNull
+  private synchronized ByteBuffer acquire(int capacity) {
+    ByteBuffer buffer;
+    while ((buffer = freeBuffers.poll()) != null) {
+      if (buffer.capacity() >= capacity) {
+        buffer.clear();
+        return buffer;
+      }
+    }
+    return ByteBuffer.allocateDirect(capacity).order(ByteOrder.LITTLE_ENDIAN);
+  }
+
+  private synchronized void recordCopy(int byteCount) {
+    copiedByteCount += byteCount;
+  }
+
+  private void writeValue(@NonNull ByteBuffer buffer, @Nullable Object value) {
+    if (value == null) {
+      buffer.put(NULL);
+    } else if (value instanceof Boolean) {
+      buffer.put((Boolean) value ? TRUE : FALSE);
+    } else if (value instanceof Integer) {
+      buffer.put(INT);
+      buffer.putInt((Integer) value);
+    } else if (value instanceof Long) {
+      buffer.put(LONG);
+      buffer.putLong((Long) value);
+    } else if (value instanceof Float || value instanceof Double) {
+      buffer.put(DOUBLE);
+      writeAlignment(buffer, 8);
+      buffer.putDouble(((Number) value).doubleValue());
+    } else if (value instanceof String) {
+      final byte[] bytes = ((String) value).getBytes(StandardCharsets.UTF_8);
+      buffer.put(STRING);
+      writeSize(buffer, bytes.length);
+      buffer.put(bytes);
+    } else if (value instanceof byte[]) {
+      final byte[] bytes = (byte[]) value;
+      buffer.put(BYTE_ARRAY);
+      writeSize(buffer, bytes.length);
+      buffer.put(bytes);
+      recordCopy(bytes.length);
+    } else if (value instanceof ByteBuffer) {
+      // Copy the remaining bytes without moving the source buffer.
+      final ByteBuffer bytes = ((ByteBuffer) value).duplicate();
+      final int length = bytes.remaining();
+      buffer.put(BYTE_ARRAY);
+      writeSize(buffer, length);
+      buffer.put(bytes);
+      recordCopy(length);
+    } else if (value instanceof List) {
+      final List<?> list = (List<?>) value;
+      buffer.put(LIST);
+      writeSize(buffer, list.size());
+      for (int i = 0; i < list.size(); i++) {
+        writeValue(buffer, list.get(i));
+      }
+    } else if (value instanceof Map) {
+      final Map<?, ?> map = (Map<?, ?>) value;
+      buffer.put(MAP);
+      writeSize(buffer, map.size());
+      for (Map.Entry<?, ?> entry : map.entrySet()) {
+        writeValue(buffer, entry.getKey());
+        writeValue(buffer, entry.getValue());
+      }
+    } else {
+      throw new IllegalArgumentException(
+          "Unsupported value: '" + value + "' of type '" + value.getClass() + "'");
+    }
+  }
+
+  private static void writeSize(@NonNull ByteBuffer buffer, int size) {
+    if (size < 254) {
+      buffer.put((byte) size);
+    } else if (size <= 0xffff) {
+      buffer.put((byte) 254);
+      buffer.putChar((char) size);
+    } else {
+      buffer.put((byte) 255);
+      buffer.putInt(size);
+    }
+  }
+
+  private static void writeAlignment(@NonNull ByteBuffer buffer, int alignment) {
+    final int mod = buffer.position() % alignment;
+    if (mod != 0) {
+      for (int i = 0; i < alignment - mod; i++) {
+        buffer.put((byte) 0);
+      }
+    }
+  }
+
+  /** Returns an upper bound of the number of bytes needed to encode {@code value}. */
+  private static int maxEncodedSize(@Nullable Object value) {
+    if (value == null || value instanceof Boolean) {
+      return 1;
+    } else if (value instanceof Integer) {
+      return 1 + 4;
+    } else if (value instanceof Long) {
+      return 1 + 8;
+    } else if (value instanceof Float || value instanceof Double) {
+      return 1 + 7 + 8;
+    } else if (value instanceof String) {
+      // A UTF-8 encoded char takes at most 3 bytes.
+      return 1 + 5 + 3 * ((String) value).length();
+    } else if (value instanceof byte[]) {
+      return 1 + 5 + ((byte[]) value).length;
+    } else if (value instanceof ByteBuffer) {
+      return 1 + 5 + ((ByteBuffer) value).remaining();
+    } else if (value instanceof List) {
+      int size = 1 + 5;
+      for (Object element : (List<?>) value) {
+        size += maxEncodedSize(element);
+      }
+      return size;
+    } else if (value instanceof Map) {
+      int size = 1 + 5;
+      for (Map.Entry<?, ?> entry : ((Map<?, ?>) value).entrySet()) {
+        size += maxEncodedSize(entry.getKey()) + maxEncodedSize(entry.getValue());
+      }
+      return size;
+    }
+    throw new IllegalArgumentException(
+        "Unsupported value: '" + value + "' of type '" + value.getClass() + "'");
+  }
+}
@@ -0,0 +1,181 @@
+// Copyright 2013 The Flutter Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package io.flutter.plugins.camera.media;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import java.util.Map;
+
+/**
+ * Options that configure how an {@link ImageStreamReader} delivers frames to Dart.
+ *
+ * <p>The options are supplied as the arguments of the image stream {@link
+ * io.flutter.plugin.common.EventChannel} listen call. Unknown keys are ignored and missing keys
+ * fall back to the default behavior, so a listen call without arguments streams frames exactly as
+ * before.
+ */
+public class ImageStreamOptions {
+  /** Options used when Dart does not supply any. */
+  @NonNull public static final ImageStreamOptions DEFAULT = new Builder().build();
+
+  /**
+   * Whether frame buffers are recycled through an {@link ImageStreamBufferPool} instead of being
+   * allocated for every frame.
+   */
+  public final boolean recycleBuffers;
+
+  /** How frames are dropped when Dart does not keep up with the camera. */
+  @NonNull public final ImageStreamBackpressure.Policy backpressurePolicy;
+
+  /** The queue size or frame interval used by {@link #backpressurePolicy}. */
+  public final int backpressureLimit;
+
+  /** The native processing applied to frames before sending them, or null to send them as-is. */
+  @Nullable public final ImageStreamProcessor.Config processing;
+
+  /**
+   * Whether frames are encoded straight into direct buffers with {@link ImageStreamMessageEncoder}
+   * and sent through the binary messenger, instead of through the event sink.
+   */
+  public final boolean directBuffers;
+
+  private ImageStreamOptions(@NonNull Builder builder) {
+    this.recycleBuffers = builder.recycleBuffers;
+    this.backpressurePolicy = builder.backpressurePolicy;
+    this.backpressureLimit = builder.backpressureLimit;
+    this.processing = builder.processing;
+    this.directBuffers = builder.directBuffers;
+  }
+
+  /**
+   * Parses the arguments of an image stream listen call.
+   *
+   * @param arguments the arguments passed to the listen call, usually a {@link Map} or null.
+   * @return the parsed options, or {@link #DEFAULT} when no options were supplied.
+   */
+  @NonNull
+  public static ImageStreamOptions fromListenArguments(@Nullable Object arguments) {
+    if (!(arguments instanceof Map)) {
+      return DEFAULT;
+    }
+    final Map<?, ?> map = (Map<?, ?>) arguments;
+    final Builder builder = new Builder();
+    final Object recycleBuffers = map.get("recycleBuffers");
+    if (recycleBuffers instanceof Boolean) {
+      builder.setRecycleBuffers((Boolean) recycleBuffers);
+    }
+    final Object backpressure = map.get("backpressure");
+    if (backpressure instanceof String) {
+      builder.setBackpressurePolicy(backpressurePolicyFromString((String) backpressure));
+    }
+    final Object backpressureLimit = map.get("backpressureLimit");
+    if (backpressureLimit instanceof Number && ((Number) backpressureLimit).intValue() > 0) {
+      builder.setBackpressureLimit(((Number) backpressureLimit).intValue());
+    }
+    final Object processing = map.get("processing");
+    if (processing instanceof Map) {
+      builder.setProcessing(ImageStreamProcessor.Config.fromMap((Map<?, ?>) processing));
+    }
+    final Object directBuffers = map.get("directBuffers");
+    if (directBuffers instanceof Boolean) {
+      builder.setDirectBuffers((Boolean) directBuffers);
+    }
+    return builder.build();
+  }
+
+  @NonNull
+  private static ImageStreamBackpressure.Policy backpressurePolicyFromString(
+      @NonNull String policy) {
+    switch (policy) {
+      case "latestOnly":
+        return ImageStreamBackpressure.Policy.LATEST_ONLY;
+      case "boundedQueue":
+        return ImageStreamBackpressure.Policy.BOUNDED_QUEUE;
+      case "everyNthFrame":
+        return ImageStreamBackpressure.Policy.EVERY_NTH_FRAME;
+      case "unbounded":
+      default:
+        return ImageStreamBackpressure.Policy.UNBOUNDED;
+    }
+  }
+
+  /** Builder for {@link ImageStreamOptions}. */
+  public static class Builder {
+    private boolean recycleBuffers;
+    private ImageStreamBackpressure.Policy backpressurePolicy =
+        ImageStreamBackpressure.Policy.UNBOUNDED;
+    private int backpressureLimit = 1;
+    @Nullable private ImageStreamProcessor.Config processing;
+    private boolean directBuffers;
+
+    /**
+     * Sets whether frame buffers should be recycled between frames.
+     *
+     * @param recycleBuffers true to reuse plane buffers once Dart has received a frame.
+     * @return this builder.
+     */
+    @NonNull
+    public Builder setRecycleBuffers(boolean recycleBuffers) {
+      this.recycleBuffers = recycleBuffers;
+      return this;
+    }
+
+    /**
+     * Sets how frames are dropped when Dart does not keep up with the camera.
+     *
+     * @param backpressurePolicy the policy to use.
+     * @return this builder.
+     */
+    @NonNull
+    public Builder setBackpressurePolicy(
+        @NonNull ImageStreamBackpressure.Policy backpressurePolicy) {
+      this.backpressurePolicy = backpressurePolicy;
+      return this;
+    }
+
+    /**
+     * Sets the queue size for {@link ImageStreamBackpressure.Policy#BOUNDED_QUEUE} or the frame
+     * interval for {@link ImageStreamBackpressure.Policy#EVERY_NTH_FRAME}.
+     *
+     * @param backpressureLimit a value of at least 1.
+     * @return this builder.
+     */
+    @NonNull
+    public Builder setBackpressureLimit(int backpressureLimit) {
+      this.backpressureLimit = backpressureLimit;
+      return this;
+    }
+
+    /**
+     * Sets the native processing applied to YUV frames before they are sent to Dart.
+     *
+     * @param processing the processing to apply, or null to send frames as-is.
+     * @return this builder.
+     */
+    @NonNull
+    public Builder setProcessing(@Nullable ImageStreamProcessor.Config processing) {
+      this.processing = processing;
+      return this;
+    }
+
+    /**
+     * Sets whether frames are encoded straight into direct buffers.
+     *
+     * @param directBuffers true to copy plane data once, into the outgoing message.
+     * @return this builder.
+     */
+    @NonNull
+    public Builder setDirectBuffers(boolean directBuffers) {
+      this.directBuffers = directBuffers;
+      return this;
+    }
+
+    /** Creates the {@link ImageStreamOptions}. */
+    @NonNull
+    public ImageStreamOptions build() {
+      return new ImageStreamOptions(this);
+    }
+  }
+}
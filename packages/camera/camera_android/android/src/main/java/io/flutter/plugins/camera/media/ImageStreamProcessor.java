@@ -0,0 +1,409 @@
+// Copyright 2013 The Flutter Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package io.flutter.plugins.camera.media;
+
+import android.graphics.PixelFormat;
+import android.media.Image;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import java.nio.ByteBuffer;
+import java.util.Map;
+
+/**
+ * Reduces YUV_420_888 camera frames before they are sent to Dart.
+ *
+ * <p>The processor crops a region of interest, scales it to a target size with either
+ * nearest-neighbor sampling (which is an integer subsampling when the sizes divide evenly) or
+ * bilinear filtering, and converts it either to a single luminance plane or to RGBA. It runs on
+ * the camera background thread and only touches the source rows it needs, so only the reduced
+ * payload is copied and sent over the channel.
+ *
+ * <p>Scratch buffers are kept between frames, so processing frames of a constant size does not
+ * allocate unless no reusable output buffer is supplied.
+ */
+public class ImageStreamProcessor {
+  /** The format of the processed frame. */
+  public enum OutputFormat {
+    /** A single plane holding the Y values, one byte per pixel. Sent as {@code ImageFormat.Y8}. */
+    LUMINANCE,
+    /** A single plane of RGBA pixels, four bytes per pixel. Sent as {@code RGBA_8888}. */
+    RGBA
+  }
+
+  /** How the cropped region is scaled to the target size. */
+  public enum Scaling {
+    /** Picks the nearest source pixel. */
+    NEAREST,
+    /** Interpolates the luminance of the four nearest source pixels. */
+    BILINEAR
+  }
+
+  /** The processing requested by Dart. */
+  public static class Config {
+    final int cropLeft;
+    final int cropTop;
+    final int cropWidth;
+    final int cropHeight;
+    final int targetWidth;
+    final int targetHeight;
+    final int downscaleFactor;
+    @NonNull final Scaling scaling;
+    @NonNull final OutputFormat outputFormat;
+
+    /**
+     * Creates a processing configuration.
+     *
+     * @param cropLeft the left edge of the region of interest.
+     * @param cropTop the top edge of the region of interest.
+     * @param cropWidth the width of the region of interest, or 0 to use the full width.
+     * @param cropHeight the height of the region of interest, or 0 to use the full height.
+     * @param targetWidth the width of the processed frame, or 0 to derive it from the crop.
+     * @param targetHeight the height of the processed frame, or 0 to derive it from the crop.
+     * @param downscaleFactor the integer factor the crop is divided by when no target size is
+     *     given.
+     * @param scaling how the crop is scaled to the target size.
+     * @param outputFormat the format of the processed frame.
+     */
+    public Config(
+        int cropLeft,
+        int cropTop,
+        int cropWidth,
+        int cropHeight,
+        int targetWidth,
+        int targetHeight,
+        int downscaleFactor,
+        @NonNull Scaling scaling,
+        @NonNull OutputFormat outputFormat) {
+      this.cropLeft = Math.max(0, cropLeft);
+      this.cropTop = Math.max(0, cropTop);
+      this.cropWidth = Math.max(0, cropWidth);
+      this.cropHeight = Math.max(0, cropHeight);
+      this.targetWidth = Math.max(0, targetWidth);
+      this.targetHeight = Math.max(0, targetHeight);
+      this.downscaleFactor = Math.max(1, downscaleFactor);
+      this.scaling = scaling;
+      this.outputFormat = outputFormat;
+    }
+
+    /**
+     * Parses the processing configuration sent by Dart.
+     *
+     * @param map the value of the {@code processing} listen argument.
+     * @return the parsed configuration.
+     */
+    @NonNull
+    public static Config fromMap(@NonNull Map<?, ?> map) {
+      return new Config(
+          intValue(map.get("cropLeft")),
+          intValue(map.get("cropTop")),
+          intValue(map.get("cropWidth")),
+          intValue(map.get("cropHeight")),
+          intValue(map.get("targetWidth")),
+          intValue(map.get("targetHeight")),
+          intValue(map.get("downscaleFactor")),
+          "bilinear".equals(map.get("scaling")) ? Scaling.BILINEAR : Scaling.NEAREST,
+          "rgba".equals(map.get("output")) ? OutputFormat.RGBA : OutputFormat.LUMINANCE);
+    }
+
+    private static int intValue(@Nullable Object value) {
+      return value instanceof Number ? ((Number) value).intValue() : 0;
+    }
+  }
+
+  // The value of ImageFormat.Y8, which is only defined from API 29 on.
+  private static final int IMAGE_FORMAT_Y8 = 0x20203859;
+
+  // Fixed point (16 bit) coefficients of the full range BT.601 YUV to RGB conversion used by
+  // camera YUV_420_888 frames.
+  private static final int V_TO_R = 91881;
+  private static final int U_TO_G = 22554;
+  private static final int V_TO_G = 46802;
+  private static final int U_TO_B = 116130;
+
+  @NonNull private final Config config;
+
+  // Geometry of the last prepared frame.
+  private int imageWidth = -1;
+  private int imageHeight = -1;
+  private int cropLeft;
+  private int cropTop;
+  private int cropWidth;
+  private int cropHeight;
+  private int outputWidth;
+  private int outputHeight;
+
+  // Source coordinates and bilinear weights (0-256) of every output column and row.
+  private int[] sourceX = new int[0];
+  private int[] sourceY = new int[0];
+  private int[] weightX = new int[0];
+  private int[] weightY = new int[0];
+
+  // Scratch rows read from the planes.
+  private byte[] yRow0 = new byte[0];
+  private byte[] yRow1 = new byte[0];
+  private byte[] uRow = new byte[0];
+  private byte[] vRow = new byte[0];
+
+  /**
+   * Creates a processor for the given configuration.
+   *
+   * @param config the processing to apply.
+   */
+  public ImageStreamProcessor(@NonNull Config config) {
+    this.config = config;
+  }
+
+  /**
+   * Computes the crop and output geometry for frames of the given size.
+   *
+   * <p>This is cheap when the size did not change since the last call.
+   *
+   * @param width the width of the camera frame.
+   * @param height the height of the camera frame.
+   */
+  public void prepare(int width, int height) {
+    if (width == imageWidth && height == imageHeight) {
+      return;
+    }
+    imageWidth = width;
+    imageHeight = height;
+
+    // Chroma is subsampled by 2, so keep the crop origin on even coordinates.
+    cropLeft = Math.min(config.cropLeft, Math.max(0, width - 2)) & ~1;
+    cropTop = Math.min(config.cropTop, Math.max(0, height - 2)) & ~1;
+    cropWidth = config.cropWidth == 0 ? width - cropLeft : config.cropWidth;
+    cropHeight = config.cropHeight == 0 ? height - cropTop : config.cropHeight;
+    cropWidth = Math.max(1, Math.min(cropWidth, width - cropLeft));
+    cropHeight = Math.max(1, Math.min(cropHeight, height - cropTop));
+
+    outputWidth =
+        computeOutputDimension(config.targetWidth, config.targetHeight, cropWidth, cropHeight);
+    outputHeight =
+        computeOutputDimension(config.targetHeight, config.targetWidth, cropHeight, cropWidth);
+
+    sourceX = ensureCapacity(sourceX, outputWidth);
+    weightX = ensureCapacity(weightX, outputWidth);
+    sourceY = ensureCapacity(sourceY, outputHeight);
+    weightY = ensureCapacity(weightY, outputHeight);
+    computeSampling(cropWidth, outputWidth, sourceX, weightX);
+    computeSampling(cropHeight, outputHeight, sourceY, weightY);
+  }
+
+  private int computeOutputDimension(int target, int otherTarget, int crop, int otherCrop) {
+    if (target > 0) {
+      return Math.min(target, crop);
+    }
+    if (otherTarget > 0) {
+      // Keep the aspect ratio of the crop when only one target dimension is given.
+      return Math.max(1, (int) ((long) crop * Math.min(otherTarget, otherCrop) / otherCrop));
+    }
+    return Math.max(1, crop / config.downscaleFactor);
+  }
+
+  private void computeSampling(int sourceSize, int outputSize, int[] source, int[] weight) {
+    final boolean bilinear = config.scaling == Scaling.BILINEAR;
+    for (int i = 0; i < outputSize; i++) {
+      if (bilinear) {
+        // Sample at pixel centers, in 8 bit fixed point.
+        long position = (((2L * i + 1) * sourceSize * 256) / (2L * outputSize)) - 128;
+        position = Math.max(0, Math.min(position, (sourceSize - 1) * 256L));
+        source[i] = (int) (position >> 8);
+        weight[i] = (int) (position & 0xFF);
+      } else {
+        source[i] = (int) ((long) i * sourceSize / outputSize);
+        weight[i] = 0;
+      }
+    }
+  }
+
+  /** Returns the width of the processed frame. Only valid after {@link #prepare(int, int)}. */
+  public int getOutputWidth() {
+    return outputWidth;
+  }
+
+  /** Returns the height of the processed frame. Only valid after {@link #prepare(int, int)}. */
+  public int getOutputHeight() {
+    return outputHeight;
+  }
+
+  /** Returns the number of bytes per pixel of the processed frame. */
+  public int getBytesPerPixel() {
+    return config.outputFormat == OutputFormat.RGBA ? 4 : 1;
+  }
+
+  /** Returns the size of the processed frame in bytes. Only valid after {@link #prepare}. */
+  public int getOutputSize() {
+    return outputWidth * outputHeight * getBytesPerPixel();
+  }
+
+  /** Returns the image format reported to Dart for processed frames. */
+  public int getOutputImageFormat() {
+    return config.outputFormat == OutputFormat.RGBA ? PixelFormat.RGBA_8888 : IMAGE_FORMAT_Y8;
+  }
+
+  /**
+   * Processes a YUV_420_888 frame.
+   *
+   * @param planes the Y, U and V planes of the frame.
+   * @param width the width of the frame.
+   * @param height the height of the frame.
+   * @param reusableOut an optional array to write the result into. A new array is allocated when
+   *     it is null or does not have the size of the processed frame.
+   * @return the processed frame.
+   */
+  @NonNull
+  public byte[] process(
+      @NonNull Image.Plane[] planes, int width, int height, @Nullable byte[] reusableOut) {
+    prepare(width, height);
+    final int outputSize = getOutputSize();
+    final byte[] out =
+        (reusableOut != null && reusableOut.length == outputSize)
+            ? reusableOut
+            : new byte[outputSize];
+
+    if (config.outputFormat == OutputFormat.RGBA) {
+      processRgba(planes, out);
+    } else {
+      processLuminance(planes[0], out);
+    }
+    return out;
+  }
+
+  private void processLuminance(@NonNull Image.Plane yPlane, @NonNull byte[] out) {
+    final ByteBuffer yBuffer = yPlane.getBuffer();
+    final int yRowStride = yPlane.getRowStride();
+    final int yPixelStride = yPlane.getPixelStride();
+    final int rowLength = (cropWidth - 1) * yPixelStride + 1;
+    yRow0 = ensureCapacity(yRow0, rowLength);
+    yRow1 = ensureCapacity(yRow1, rowLength);
+    final boolean bilinear = config.scaling == Scaling.BILINEAR;
+
+    int row0 = -1;
+    int row1 = -1;
+    int outputPos = 0;
+    for (int oy = 0; oy < outputHeight; oy++) {
+      final int sy = sourceY[oy];
+      if (sy != row0) {
+        readRow(yBuffer, (cropTop + sy) * yRowStride + cropLeft * yPixelStride, yRow0, rowLength);
+        row0 = sy;
+      }
+      if (!bilinear) {
+        for (int ox = 0; ox < outputWidth; ox++) {
+          out[outputPos++] = yRow0[sourceX[ox] * yPixelStride];
+        }
+        continue;
+      }
+
+      final int sy1 = Math.min(sy + 1, cropHeight - 1);
+      if (sy1 != row1) {
+        readRow(
+            yBuffer, (cropTop + sy1) * yRowStride + cropLeft * yPixelStride, yRow1, rowLength);
+        row1 = sy1;
+      }
+      final int wy = weightY[oy];
+      for (int ox = 0; ox < outputWidth; ox++) {
+        out[outputPos++] = (byte) sampleBilinear(ox, wy, yPixelStride);
+      }
+    }
+  }
+
+  private void processRgba(@NonNull Image.Plane[] planes, @NonNull byte[] out) {
+    final Image.Plane yPlane = planes[0];
+    final Image.Plane uPlane = planes[1];
+    final Image.Plane vPlane = planes[2];
+    final ByteBuffer yBuffer = yPlane.getBuffer();
+    final ByteBuffer uBuffer = uPlane.getBuffer();
+    final ByteBuffer vBuffer = vPlane.getBuffer();
+    final int yRowStride = yPlane.getRowStride();
+    final int yPixelStride = yPlane.getPixelStride();
+    final int uRowStride = uPlane.getRowStride();
+    final int vRowStride = vPlane.getRowStride();
+    final int uvPixelStride = uPlane.getPixelStride();
+
+    final int yRowLength = (cropWidth - 1) * yPixelStride + 1;
+    final int chromaLeft = cropLeft >> 1;
+    final int chromaColumns = ((cropLeft + cropWidth - 1) >> 1) - chromaLeft + 1;
+    final int uvRowLength = (chromaColumns - 1) * uvPixelStride + 1;
+    yRow0 = ensureCapacity(yRow0, yRowLength);
+    yRow1 = ensureCapacity(yRow1, yRowLength);
+    uRow = ensureCapacity(uRow, uvRowLength);
+    vRow = ensureCapacity(vRow, uvRowLength);
+    final boolean bilinear = config.scaling == Scaling.BILINEAR;
+
+    int row0 = -1;
+    int row1 = -1;
+    int chromaRow = -1;
+    int outputPos = 0;
+    for (int oy = 0; oy < outputHeight; oy++) {
+      final int sy = sourceY[oy];
+      if (sy != row0) {
+        readRow(yBuffer, (cropTop + sy) * yRowStride + cropLeft * yPixelStride, yRow0, yRowLength);
+        row0 = sy;
+      }
+      final int sy1 = Math.min(sy + 1, cropHeight - 1);
+      if (bilinear && sy1 != row1) {
+        readRow(
+            yBuffer, (cropTop + sy1) * yRowStride + cropLeft * yPixelStride, yRow1, yRowLength);
+        row1 = sy1;
+      }
+      final int cy = (cropTop + sy) >> 1;
+      if (cy != chromaRow) {
+        readRow(uBuffer, cy * uRowStride + chromaLeft * uvPixelStride, uRow, uvRowLength);
+        readRow(vBuffer, cy * vRowStride + chromaLeft * uvPixelStride, vRow, uvRowLength);
+        chromaRow = cy;
+      }
+
+      final int wy = weightY[oy];
+      for (int ox = 0; ox < outputWidth; ox++) {
+        final int sx = sourceX[ox];
+        final int y =
+            bilinear ? sampleBilinear(ox, wy, yPixelStride) : yRow0[sx * yPixelStride] & 0xFF;
+        final int chromaIndex = (((cropLeft + sx) >> 1) - chromaLeft) * uvPixelStride;
+        final int u = (uRow[chromaIndex] & 0xFF) - 128;
+        final int v = (vRow[chromaIndex] & 0xFF) - 128;
+
+        out[outputPos++] = (byte) clamp(y + ((V_TO_R * v) >> 16));
+        out[outputPos++] = (byte) clamp(y - ((U_TO_G * u + V_TO_G * v) >> 16));
+        out[outputPos++] = (byte) clamp(y + ((U_TO_B * u) >> 16));
+        out[outputPos++] = (byte) 0xFF;
+      }
+    }
+  }
+
+  private int sampleBilinear(int ox, int wy, int pixelStride) {
+    final int x0 = sourceX[ox];
+    final int x1 = Math.min(x0 + 1, cropWidth - 1);
+    final int wx = weightX[ox];
+    final int topLeft = yRow0[x0 * pixelStride] & 0xFF;
+    final int topRight = yRow0[x1 * pixelStride] & 0xFF;
+    final int bottomLeft = yRow1[x0 * pixelStride] & 0xFF;
+    final int bottomRight = yRow1[x1 * pixelStride] & 0xFF;
+    final int top = (topLeft << 8) + (topRight - topLeft) * wx;
+    final int bottom = (bottomLeft << 8) + (bottomRight - bottomLeft) * wx;
+    return ((top << 8) + (bottom - top) * wy + (1 << 15)) >> 16;
+  }
+
+  private static void readRow(
+      @NonNull ByteBuffer buffer, int position, @NonNull byte[] row, int length) {
+    // The last row of a plane is not padded, so never read past the end of the buffer.
+    final int available = Math.min(length, buffer.limit() - position);
+    buffer.position(position);
+    buffer.get(row, 0, available);
+  }
+
+  private static int clamp(int value) {
+    return value < 0 ? 0 : (value > 255 ? 255 : value);
+  }
+
+  @NonNull
+  private static int[] ensureCapacity(@NonNull int[] array, int length) {
+    return array.length >= length ? array : new int[length];
+  }
+
+  @NonNull
+  private static byte[] ensureCapacity(@NonNull byte[] array, int length) {
+    return array.length >= length ? array : new byte[length];
+  }
+}
@@ -11,14 +11,18 @@ import android.os.Handler;
 import android.os.Looper;
 import android.view.Surface;
 import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
 import androidx.annotation.VisibleForTesting;
+import io.flutter.plugin.common.BinaryMessenger;
 import io.flutter.plugin.common.EventChannel;
 import io.flutter.plugins.camera.types.CameraCaptureProperties;
+import io.flutter.plugins.camera.types.CaptureTimings;
 import java.nio.ByteBuffer;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
 
 // Wraps an ImageReader to allow for testing of the image handler.
 public class ImageStreamReader {
@@ -33,6 +37,34 @@ public class ImageStreamReader {
   private final ImageReader imageReader;
   private final ImageStreamReaderUtils imageStreamReaderUtils;
 
+  /** Recycles frame buffers between frames, or null when every frame is freshly allocated. */
+  @Nullable private ImageStreamBufferPool bufferPool;
+
+  /** Decides which frames are sent to Dart when Dart does not keep up with the camera. */
+  @NonNull private ImageStreamBackpressure backpressure = new ImageStreamBackpressure();
+
+  /** Reduces YUV frames before they are sent to Dart, or null when frames are sent as-is. */
+  @Nullable private ImageStreamProcessor processor;
+
+  /**
+   * Encodes frames straight into direct buffers, or null when frames are sent through the event
+   * sink.
+   */
+  @Nullable private ImageStreamMessageEncoder messageEncoder;
+
+  /** The messenger and channel used to send frames encoded by {@link #messageEncoder}. */
+  @Nullable private BinaryMessenger messenger;
+
+  @Nullable private String channelName;
+
+  /** The number of frame payload bytes copied before frames are handed to the engine. */
+  private final AtomicLong copiedByteCount = new AtomicLong();
+
+  /** Records per-frame stage durations when enabled, or null when frames are not timed. */
+  @Nullable private CaptureTimings captureTimings;
+
+  private final Handler mainHandler = new Handler(Looper.getMainLooper());
+
   /**
    * Creates a new instance of the {@link ImageStreamReader}.
    *
@@ -95,33 +127,116 @@ public class ImageStreamReader {
       @NonNull Image image,
       @NonNull CameraCaptureProperties captureProps,
       @NonNull EventChannel.EventSink imageStreamSink) {
+    final CaptureTimings timings =
+        captureTimings != null && captureTimings.isEnabled() ? captureTimings : null;
+    final long availableNanos = timings == null ? 0 : CaptureTimings.now();
+    final long sensorTimestamp = timings == null ? 0 : image.getTimestamp();
+    if (timings != null) {
+      timings.recordSinceSensor(
+          CaptureTimings.STAGE_SENSOR_TO_IMAGE_AVAILABLE, sensorTimestamp, availableNanos);
+    }
+
+    final ImageStreamBackpressure backpressure = this.backpressure;
+    if (!backpressure.tryAdmit()) {
+      image.close();
+      return;
+    }
+
+    // Processing only applies to YUV frames, which is what the camera streams unless Dart asked
+    // for JPEG.
+    final ImageStreamProcessor processor =
+        dartImageFormat == ImageFormat.JPEG ? null : this.processor;
+    final int width;
+    final int height;
+    final int format;
+    if (processor == null) {
+      width = image.getWidth();
+      height = image.getHeight();
+      format = dartImageFormat;
+    } else {
+      processor.prepare(image.getWidth(), image.getHeight());
+      width = processor.getOutputWidth();
+      height = processor.getOutputHeight();
+      format = processor.getOutputImageFormat();
+    }
+
+    final ImageStreamMessageEncoder encoder = messenger == null ? null : messageEncoder;
+    final ImageStreamBufferPool pool = bufferPool;
+    final ImageStreamBufferPool.Frame frame =
+        pool == null ? null : pool.acquire(width, height, format);
     try {
-      Map<String, Object> imageBuffer = new HashMap<>();
+      Map<String, Object> imageBuffer = frame == null ? new HashMap<>() : frame.getImageBuffer();
 
       // Get plane data ready
-      if (dartImageFormat == ImageFormat.NV21) {
-        imageBuffer.put("planes", parsePlanesForNv21(image));
+      final List<Map<String, Object>> planes;
+      if (processor != null) {
+        planes = parsePlanesForProcessing(image, processor, frame);
+      } else if (dartImageFormat == ImageFormat.NV21) {
+        planes = parsePlanesForNv21(image, frame);
       } else {
-        imageBuffer.put("planes", parsePlanesForYuvOrJpeg(image));
+        planes = parsePlanesForYuvOrJpeg(image, frame, encoder != null);
       }
+      imageBuffer.put("planes", planes);
 
-      imageBuffer.put("width", image.getWidth());
-      imageBuffer.put("height", image.getHeight());
-      imageBuffer.put("format", dartImageFormat);
+      imageBuffer.put("width", width);
+      imageBuffer.put("height", height);
+      imageBuffer.put("format", format);
       imageBuffer.put("lensAperture", captureProps.getLastLensAperture());
       imageBuffer.put("sensorExposureTime", captureProps.getLastSensorExposureTime());
       Integer sensorSensitivity = captureProps.getLastSensorSensitivity();
       imageBuffer.put(
           "sensorSensitivity", sensorSensitivity == null ? null : (double) sensorSensitivity);
 
-      final Handler handler = new Handler(Looper.getMainLooper());
-      handler.post(() -> imageStreamSink.success(imageBuffer));
+      if (encoder != null) {
+        submitEncodedFrame(
+            encoder, backpressure, imageBuffer, planes, frame, pool, timings, sensorTimestamp);
+        if (timings != null) {
+          timings.record(CaptureTimings.STAGE_CONVERSION, availableNanos, CaptureTimings.now());
+        }
+        image.close();
+        return;
+      }
+
+      // Plane bytes were copied into arrays, and the event sink copies them twice more: into the
+      // codec's output stream and then into the direct buffer handed to the engine.
+      copiedByteCount.addAndGet(3L * getPayloadSize(planes));
+      final long submittedNanos = timings == null ? 0 : CaptureTimings.now();
+      if (timings != null) {
+        timings.record(CaptureTimings.STAGE_CONVERSION, availableNanos, submittedNanos);
+      }
+      backpressure.submit(
+          mainHandler,
+          new ImageStreamBackpressure.PendingFrame() {
+            @Override
+            public void deliver() {
+              final long deliverNanos = timings == null ? 0 : CaptureTimings.now();
+              if (backpressure.getPolicy() != ImageStreamBackpressure.Policy.UNBOUNDED) {
+                imageBuffer.put("droppedFrames", backpressure.getDroppedFrameCount());
+                imageBuffer.put("queueDepth", backpressure.getQueueDepth());
+              }
+              imageStreamSink.success(imageBuffer);
+              if (timings != null) {
+                recordDelivery(timings, sensorTimestamp, submittedNanos, deliverNanos);
+              }
+              // The event sink encodes the frame synchronously, so its buffers can be reused now.
+              discard();
+            }
+
+            @Override
+            public void discard() {
+              if (frame != null) {
+                pool.release(frame);
+              }
+            }
+          });
       image.close();
 
     } catch (IllegalStateException e) {
+      if (frame != null) {
+        pool.release(frame);
+      }
       // Handle "buffer is inaccessible" errors that can happen on some devices from ImageStreamReaderUtils.yuv420ThreePlanesToNV21()
-      final Handler handler = new Handler(Looper.getMainLooper());
-      handler.post(
+      mainHandler.post(
           () ->
               imageStreamSink.error(
                   "IllegalStateException",
@@ -131,6 +246,90 @@ public class ImageStreamReader {
     }
   }
 
+  /**
+   * Encodes a frame into a direct buffer right away, while the image planes are still valid, and
+   * queues it for sending through the binary messenger.
+   *
+   * <p>The backpressure counters are added as of when the frame is encoded, since the encoded
+   * message can no longer be changed when it is delivered.
+   */
+  private void submitEncodedFrame(
+      @NonNull ImageStreamMessageEncoder encoder,
+      @NonNull ImageStreamBackpressure backpressure,
+      @NonNull Map<String, Object> imageBuffer,
+      @NonNull List<Map<String, Object>> planes,
+      @Nullable ImageStreamBufferPool.Frame frame,
+      @Nullable ImageStreamBufferPool pool,
+      @Nullable CaptureTimings timings,
+      long sensorTimestamp) {
+    if (backpressure.getPolicy() != ImageStreamBackpressure.Policy.UNBOUNDED) {
+      imageBuffer.put("droppedFrames", backpressure.getDroppedFrameCount());
+      imageBuffer.put("queueDepth", backpressure.getQueueDepth());
+    }
+    final ByteBuffer message = encoder.encodeSuccessEnvelope(imageBuffer);
+    // YUV and JPEG planes are copied once, straight from the image into the message. NV21 and
+    // processed frames were already copied into an array by the conversion.
+    long payloadSize = getPayloadSize(planes);
+    for (Map<String, Object> plane : planes) {
+      if (plane.get("bytes") instanceof byte[]) {
+        payloadSize += ((byte[]) plane.get("bytes")).length;
+      }
+    }
+    copiedByteCount.addAndGet(payloadSize);
+    if (frame != null) {
+      pool.release(frame);
+    }
+
+    final BinaryMessenger messenger = this.messenger;
+    final String channelName = this.channelName;
+    final long submittedNanos = timings == null ? 0 : CaptureTimings.now();
+    backpressure.submit(
+        mainHandler,
+        new ImageStreamBackpressure.PendingFrame() {
+          @Override
+          public void deliver() {
+            final long deliverNanos = timings == null ? 0 : CaptureTimings.now();
+            messenger.send(channelName, message);
+            if (timings != null) {
+              recordDelivery(timings, sensorTimestamp, submittedNanos, deliverNanos);
+            }
+            // The engine copies the message synchronously, so the buffer can be reused now.
+            discard();
+          }
+
+          @Override
+          public void discard() {
+            encoder.release(message);
+          }
+        });
+  }
+
+  /** Records the main thread stages of a frame once it has been handed to the engine. */
+  private static void recordDelivery(
+      @NonNull CaptureTimings timings,
+      long sensorTimestamp,
+      long submittedNanos,
+      long deliverNanos) {
+    final long deliveredNanos = CaptureTimings.now();
+    timings.record(CaptureTimings.STAGE_POST_TO_MAIN, submittedNanos, deliverNanos);
+    timings.record(CaptureTimings.STAGE_DELIVERY, deliverNanos, deliveredNanos);
+    timings.recordSinceSensor(
+        CaptureTimings.STAGE_SENSOR_TO_DELIVERY, sensorTimestamp, deliveredNanos);
+  }
+
+  private static long getPayloadSize(@NonNull List<Map<String, Object>> planes) {
+    long size = 0;
+    for (Map<String, Object> plane : planes) {
+      final Object bytes = plane.get("bytes");
+      if (bytes instanceof byte[]) {
+        size += ((byte[]) bytes).length;
+      } else if (bytes instanceof ByteBuffer) {
+        size += ((ByteBuffer) bytes).remaining();
+      }
+    }
+    return size;
+  }
+
   /**
    * Given an input image, will return a list of maps suitable to send back to dart where each map
    * describes the image plane.
@@ -142,21 +341,48 @@ public class ImageStreamReader {
    */
   @NonNull
   public List<Map<String, Object>> parsePlanesForYuvOrJpeg(@NonNull Image image) {
-    List<Map<String, Object>> planes = new ArrayList<>();
+    return parsePlanesForYuvOrJpeg(image, null, false);
+  }
+
+  /**
+   * Describes the planes of a YUV or JPEG image.
+   *
+   * @param image - the image to process.
+   * @param frame - the pooled frame to write into, or null to allocate new buffers.
+   * @param direct - whether to reference the plane buffers instead of copying them, for encoding
+   *     with an {@link ImageStreamMessageEncoder} before the image is closed.
+   * @return parsed map describing the image planes to be sent to dart.
+   */
+  @NonNull
+  private List<Map<String, Object>> parsePlanesForYuvOrJpeg(
+      @NonNull Image image, @Nullable ImageStreamBufferPool.Frame frame, boolean direct) {
+    Image.Plane[] imagePlanes = image.getPlanes();
+    List<Map<String, Object>> planes =
+        frame == null ? new ArrayList<>() : frame.getPlanes(imagePlanes.length);
 
     // For YUV420 and JPEG, just send the data as-is for each plane.
-    for (Image.Plane plane : image.getPlanes()) {
+    for (int i = 0; i < imagePlanes.length; i++) {
+      Image.Plane plane = imagePlanes[i];
       ByteBuffer buffer = plane.getBuffer();
 
-      byte[] bytes = new byte[buffer.remaining()];
-      buffer.get(bytes, 0, bytes.length);
+      Object bytes;
+      if (direct) {
+        bytes = buffer;
+      } else {
+        int size = buffer.remaining();
+        byte[] array = frame == null ? new byte[size] : frame.getPlaneBytes(i, size);
+        buffer.get(array, 0, array.length);
+        bytes = array;
+      }
 
-      Map<String, Object> planeBuffer = new HashMap<>();
+      Map<String, Object> planeBuffer = frame == null ? new HashMap<>() : planes.get(i);
       planeBuffer.put("bytesPerRow", plane.getRowStride());
       planeBuffer.put("bytesPerPixel", plane.getPixelStride());
       planeBuffer.put("bytes", bytes);
 
-      planes.add(planeBuffer);
+      if (frame == null) {
+        planes.add(planeBuffer);
+      }
     }
     return planes;
   }
@@ -169,21 +395,161 @@ public class ImageStreamReader {
    */
   @NonNull
   public List<Map<String, Object>> parsePlanesForNv21(@NonNull Image image) {
-    List<Map<String, Object>> planes = new ArrayList<>();
+    return parsePlanesForNv21(image, null);
+  }
+
+  @NonNull
+  private List<Map<String, Object>> parsePlanesForNv21(
+      @NonNull Image image, @Nullable ImageStreamBufferPool.Frame frame) {
+    List<Map<String, Object>> planes = frame == null ? new ArrayList<>() : frame.getPlanes(1);
 
     // We will convert the YUV data to NV21 which is a single-plane image
-    ByteBuffer bytes =
-        imageStreamReaderUtils.yuv420ThreePlanesToNV21(
-            image.getPlanes(), image.getWidth(), image.getHeight());
+    ByteBuffer bytes;
+    if (frame == null) {
+      bytes =
+          imageStreamReaderUtils.yuv420ThreePlanesToNV21(
+              image.getPlanes(), image.getWidth(), image.getHeight());
+    } else {
+      bytes =
+          imageStreamReaderUtils.yuv420ThreePlanesToNV21(
+              image.getPlanes(),
+              image.getWidth(),
+              image.getHeight(),
+              frame.getPlaneBytes(
+                  0, ImageStreamReaderUtils.getNv21Size(image.getWidth(), image.getHeight())));
+    }
 
-    Map<String, Object> planeBuffer = new HashMap<>();
+    Map<String, Object> planeBuffer = frame == null ? new HashMap<>() : planes.get(0);
     planeBuffer.put("bytesPerRow", image.getWidth());
     planeBuffer.put("bytesPerPixel", 1);
     planeBuffer.put("bytes", bytes.array());
-    planes.add(planeBuffer);
+    if (frame == null) {
+      planes.add(planeBuffer);
+    }
+    return planes;
+  }
+
+  /**
+   * Given an input YUV image, will return a single plane holding the output of the native
+   * processing stage.
+   *
+   * @param image - the image to process.
+   * @param processor - the processing to apply.
+   * @param frame - the pooled frame to write into, or null to allocate new buffers.
+   * @return parsed map describing the image planes to be sent to dart.
+   */
+  @NonNull
+  private List<Map<String, Object>> parsePlanesForProcessing(
+      @NonNull Image image,
+      @NonNull ImageStreamProcessor processor,
+      @Nullable ImageStreamBufferPool.Frame frame) {
+    List<Map<String, Object>> planes = frame == null ? new ArrayList<>() : frame.getPlanes(1);
+
+    byte[] bytes =
+        processor.process(
+            image.getPlanes(),
+            image.getWidth(),
+            image.getHeight(),
+            frame == null ? null : frame.getPlaneBytes(0, processor.getOutputSize()));
+
+    Map<String, Object> planeBuffer = frame == null ? new HashMap<>() : planes.get(0);
+    planeBuffer.put("bytesPerRow", processor.getOutputWidth() * processor.getBytesPerPixel());
+    planeBuffer.put("bytesPerPixel", processor.getBytesPerPixel());
+    planeBuffer.put("width", processor.getOutputWidth());
+    planeBuffer.put("height", processor.getOutputHeight());
+    planeBuffer.put("bytes", bytes);
+    if (frame == null) {
+      planes.add(planeBuffer);
+    }
     return planes;
   }
 
+  /**
+   * Applies the options requested by Dart when it started listening to the image stream.
+   *
+   * @param options the options to apply.
+   */
+  public void applyOptions(@NonNull ImageStreamOptions options) {
+    if (options.recycleBuffers) {
+      if (bufferPool == null) {
+        bufferPool = new ImageStreamBufferPool();
+      }
+    } else {
+      bufferPool = null;
+    }
+    backpressure =
+        new ImageStreamBackpressure(options.backpressurePolicy, options.backpressureLimit);
+    processor = options.processing == null ? null : new ImageStreamProcessor(options.processing);
+    if (options.directBuffers) {
+      if (messageEncoder == null) {
+        messageEncoder = new ImageStreamMessageEncoder();
+      }
+    } else {
+      messageEncoder = null;
+    }
+  }
+
+  /**
+   * Sets the messenger used to send frames when direct buffers are requested.
+   *
+   * <p>Without a messenger, frames are always sent through the event sink.
+   *
+   * @param messenger the messenger the image stream channel was created with.
+   * @param channelName the name of the image stream channel.
+   */
+  public void setBinaryMessenger(
+      @Nullable BinaryMessenger messenger, @NonNull String channelName) {
+    this.messenger = messenger;
+    this.channelName = channelName;
+  }
+
+  /**
+   * Sets the timings that frame stages are recorded into while they are enabled.
+   *
+   * @param captureTimings the timings to record into, or null to not time frames.
+   */
+  public void setCaptureTimings(@Nullable CaptureTimings captureTimings) {
+    this.captureTimings = captureTimings;
+  }
+
+  /**
+   * Returns the number of frame payload bytes copied on the platform side before frames were
+   * handed to the engine, which makes one more copy into Dart memory.
+   *
+   * <p>Frames sent through the event sink are copied three times. Frames sent with direct buffers
+   * are copied once, or twice when they are converted to NV21 or processed first.
+   */
+  public long getCopiedByteCount() {
+    return copiedByteCount.get();
+  }
+
+  /** Returns the backpressure policy state, including the dropped frame and queue counters. */
+  @NonNull
+  public ImageStreamBackpressure getBackpressure() {
+    return backpressure;
+  }
+
+  /**
+   * Returns the buffer pool used to recycle frame buffers, or null when buffers are not recycled.
+   *
+   * <p>The pool exposes allocation counters that can be used to verify that streaming reached an
+   * allocation-free steady state.
+   */
+  @Nullable
+  public ImageStreamBufferPool getBufferPool() {
+    return bufferPool;
+  }
+
+  /**
+   * Returns whether this reader streams frames of the given size and Dart image format, so that
+   * it can be kept when the camera is switched.
+   */
+  public boolean matches(int width, int height, int imageFormat) {
+    return imageReader.getWidth() == width
+        && imageReader.getHeight() == height
+        && dartImageFormat == imageFormat;
+  }
+
   /** Returns the image reader surface. */
   @NonNull
   public Surface getSurface() {
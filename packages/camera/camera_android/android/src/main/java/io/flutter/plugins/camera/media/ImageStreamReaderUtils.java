@@ -9,6 +9,7 @@ package io.flutter.plugins.camera.media;
 
 import android.media.Image;
 import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
 import java.nio.ByteBuffer;
 
 public class ImageStreamReaderUtils {
@@ -34,8 +35,29 @@ public class ImageStreamReaderUtils {
   @NonNull
   public ByteBuffer yuv420ThreePlanesToNV21(
       @NonNull Image.Plane[] yuv420888planes, int width, int height) {
+    return yuv420ThreePlanesToNV21(yuv420888planes, width, height, null);
+  }
+
+  /**
+   * Converts YUV_420_888 to NV21 bytebuffer, writing into {@code reusableOut} when it has exactly
+   * the size of the NV21 image.
+   *
+   * <p>See {@link #yuv420ThreePlanesToNV21(Image.Plane[], int, int)} for the conversion details.
+   *
+   * @param reusableOut an optional array to write the NV21 image into. A new array is allocated
+   *     when it is null or does not have the size of the NV21 image.
+   * @return a buffer wrapping the NV21 image.
+   */
+  @NonNull
+  public ByteBuffer yuv420ThreePlanesToNV21(
+      @NonNull Image.Plane[] yuv420888planes,
+      int width,
+      int height,
+      @Nullable byte[] reusableOut) {
     int imageSize = width * height;
-    byte[] out = new byte[imageSize + 2 * (imageSize / 4)];
+    int nv21Size = getNv21Size(width, height);
+    byte[] out =
+        (reusableOut != null && reusableOut.length == nv21Size) ? reusableOut : new byte[nv21Size];
 
     if (areUVPlanesNV21(yuv420888planes, width, height)) {
       // Copy the Y values.
@@ -48,7 +70,7 @@ public class ImageStreamReaderUtils {
       // Copy the first U value and the remaining VU values from the U buffer.
       uBuffer.get(out, imageSize + 1, 2 * imageSize / 4 - 1);
     } else {
-      // Fallback to copying the UV values one by one, which is slower but also works.
+      // Fallback to unpacking the planes row by row, which is slower but also works.
       // Unpack Y.
       unpackPlane(yuv420888planes[0], width, height, out, 0, 1);
       // Unpack U.
@@ -60,6 +82,18 @@ public class ImageStreamReaderUtils {
     return ByteBuffer.wrap(out);
   }
 
+  /**
+   * Returns the size in bytes of an NV21 image with the given dimensions.
+   *
+   * @param width the image width.
+   * @param height the image height.
+   * @return the number of bytes of the NV21 image.
+   */
+  public static int getNv21Size(int width, int height) {
+    int imageSize = width * height;
+    return imageSize + 2 * (imageSize / 4);
+  }
+
   /**
    * Copyright 2020 Google LLC. All rights reserved.
    *
@@ -121,6 +155,9 @@ public class ImageStreamReaderUtils {
    * <p>The input plane data will be copied in 'out', starting at 'offset' and every pixel will be
    * spaced by 'pixelStride'. Note that there is no row padding on the output.
    *
+   * <p>Rows are read with bulk copies: packed rows go straight into 'out', other rows are copied
+   * into a row buffer allocated for the plane and spread from there.
+   *
    * <p>https://github.com/googlesamples/mlkit/blob/master/android/vision-quickstart/app/src/main/java/com/google/mlkit/vision/demo/BitmapUtils.java
    */
   private static void unpackPlane(
@@ -129,26 +166,49 @@ public class ImageStreamReaderUtils {
     ByteBuffer buffer = plane.getBuffer();
     buffer.rewind();
 
+    // Read the plane layout once instead of once per pixel.
+    final int inputRowStride = plane.getRowStride();
+    final int inputPixelStride = plane.getPixelStride();
+    final int limit = buffer.limit();
+
     // Compute the size of the current plane.
     // We assume that it has the aspect ratio as the original image.
-    int numRow = (buffer.limit() + plane.getRowStride() - 1) / plane.getRowStride();
+    int numRow = (limit + inputRowStride - 1) / inputRowStride;
     if (numRow == 0) {
       return;
     }
     int scaleFactor = height / numRow;
     int numCol = width / scaleFactor;
 
-    // Extract the data in the output buffer.
+    if (inputPixelStride == 1 && pixelStride == 1) {
+      // Both sides are packed, so each row is a single bulk copy.
+      int outputPos = offset;
+      for (int row = 0; row < numRow; row++) {
+        int rowStart = row * inputRowStride;
+        buffer.position(rowStart);
+        buffer.get(out, outputPos, Math.min(numCol, limit - rowStart));
+        outputPos += numCol;
+      }
+      buffer.rewind();
+      return;
+    }
+
+    // Bulk copy each row into a row buffer and spread it from there, which is much cheaper than
+    // reading the direct buffer one byte at a time.
+    final int rowLength = (numCol - 1) * inputPixelStride + 1;
+    final byte[] rowBytes = new byte[rowLength];
+
     int outputPos = offset;
-    int rowStart = 0;
     for (int row = 0; row < numRow; row++) {
-      int inputPos = rowStart;
-      for (int col = 0; col < numCol; col++) {
-        out[outputPos] = buffer.get(inputPos);
+      int rowStart = row * inputRowStride;
+      buffer.position(rowStart);
+      buffer.get(rowBytes, 0, Math.min(rowLength, limit - rowStart));
+
+      for (int col = 0, inputPos = 0; col < numCol; col++, inputPos += inputPixelStride) {
+        out[outputPos] = rowBytes[inputPos];
         outputPos += pixelStride;
-        inputPos += plane.getPixelStride();
       }
-      rowStart += plane.getRowStride();
     }
+    buffer.rewind();
   }
 }
@@ -0,0 +1,1031 @@
+// Copyright 2013 The Flutter Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package io.flutter.plugins.camera.media;
+
+import android.annotation.SuppressLint;
+import android.media.AudioFormat;
+import android.media.AudioRecord;
+import android.media.MediaCodec;
+import android.media.MediaCodecInfo;
+import android.media.MediaCodecList;
+import android.media.MediaFormat;
+import android.media.MediaMuxer;
+import android.media.MediaRecorder;
+import android.os.Bundle;
+import android.os.SystemClock;
+import android.util.Log;
+import android.view.Surface;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.VisibleForTesting;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Records video from a {@link Surface} with {@link MediaCodec} encoders, as an alternative to
+ * {@link MediaRecorder} giving control over the encoding.
+ *
+ * <ul>
+ *   <li>H.265 is used instead of H.264 when the device has an H.265 encoder, for smaller files at
+ *       the same quality.
+ *   <li>The bitrate can be constant instead of variable.
+ *   <li>The interval between key frames can be set.
+ *   <li>The file can be written as a fragmented MP4 by {@link FragmentedMp4Muxer}, so that a crash
+ *       only loses the last second of video.
+ * </ul>
+ *
+ * <p>It is used like a {@link MediaRecorder}: {@link #prepare()}, {@link #getSurface()}, {@link
+ * #start()}, {@link #stop()} and {@link #release()}. Encoded samples are written from two threads,
+ * one draining the video encoder and one feeding and draining the audio encoder.
+ *
+ * <p>With {@link #setSegmentation(SegmentOptions, SegmentListener)}, the video is split into
+ * segment files of a maximum duration or size. The encoders keep running from one segment to the
+ * next, and every segment starts with a key frame, so that no frame is dropped and each file plays
+ * on its own.
+ */
+public class MediaCodecRecorder {
+  private static final String TAG = "MediaCodecRecorder";
+
+  private static final String MIME_TYPE_AVC = MediaFormat.MIMETYPE_VIDEO_AVC;
+  private static final String MIME_TYPE_HEVC = MediaFormat.MIMETYPE_VIDEO_HEVC;
+  private static final String MIME_TYPE_AAC = MediaFormat.MIMETYPE_AUDIO_AAC;
+
+  private static final long DEQUEUE_TIMEOUT_US = 10_000;
+  /** How long {@link #stop()} waits for the encoders to output their last samples. */
+  private static final long STOP_TIMEOUT_MS = 2_000;
+
+  /** How the video is encoded. */
+  public static final class Options {
+    /** H.265 when available, a variable bitrate, a key frame every second, fragmented MP4. */
+    @NonNull public static final Options DEFAULT = new Options(true, false, 1, true);
+
+    /** Whether to encode with H.265 when the device has an H.265 encoder. */
+    public final boolean preferHevc;
+
+    /** Whether to encode with a constant instead of a variable bitrate, when supported. */
+    public final boolean constantBitrate;
+
+    /**
+     * The interval between key frames, in seconds. Fragmented files get a key frame at least every
+     * {@link FragmentedMp4Muxer#FRAGMENT_DURATION_US}.
+     */
+    public final int keyFrameIntervalSeconds;
+
+    /** Whether to write a fragmented MP4 file. */
+    public final boolean fragmented;
+
+    /**
+     * Creates the options.
+     *
+     * @param preferHevc whether to encode with H.265 when the device has an H.265 encoder.
+     * @param constantBitrate whether to encode with a constant bitrate, when supported.
+     * @param keyFrameIntervalSeconds the interval between key frames, in seconds.
+     * @param fragmented whether to write a fragmented MP4 file.
+     */
+    public Options(
+        boolean preferHevc,
+        boolean constantBitrate,
+        int keyFrameIntervalSeconds,
+        boolean fragmented) {
+      this.preferHevc = preferHevc;
+      this.constantBitrate = constantBitrate;
+      this.keyFrameIntervalSeconds = keyFrameIntervalSeconds;
+      this.fragmented = fragmented;
+    }
+  }
+
+  /** When the video is split into segments, and how many of them are kept. */
+  public static final class SegmentOptions {
+    /** The maximum duration of a segment, or 0 for no maximum. */
+    public final long maxDurationUs;
+
+    /** The maximum size of a segment, or 0 for no maximum. */
+    public final long maxSizeBytes;
+
+    /** The number of complete segments kept on disk, or 0 to keep all of them. */
+    public final int maxSegmentCount;
+
+    /**
+     * Creates the options.
+     *
+     * @param maxDurationUs the maximum duration of a segment, or 0 for no maximum.
+     * @param maxSizeBytes the approximate maximum size of a segment, or 0 for no maximum.
+     * @param maxSegmentCount the number of complete segments kept on disk, or 0 to keep all of
+     *     them. Older segments are deleted.
+     */
+    public SegmentOptions(long maxDurationUs, long maxSizeBytes, int maxSegmentCount) {
+      this.maxDurationUs = maxDurationUs;
+      this.maxSizeBytes = maxSizeBytes;
+      this.maxSegmentCount = maxSegmentCount;
+    }
+  }
+
+  /** Provides the files of the segments and is notified when they are complete. */
+  public interface SegmentListener {
+    /**
+     * Returns the path of the file the next segment is written to.
+     *
+     * @throws IOException when the file could not be created.
+     */
+    @NonNull
+    String createSegmentPath() throws IOException;
+
+    /**
+     * Called on an encoder thread when a segment file is complete, including the last one when
+     * the recording is stopped.
+     *
+     * @param path the path of the segment file.
+     * @param durationUs the duration of the segment.
+     * @param sizeBytes the size of the segment file.
+     */
+    void onSegmentReady(@NonNull String path, long durationUs, long sizeBytes);
+  }
+
+  /** Writes encoded samples to a file. Calls are synchronized by the recorder. */
+  @VisibleForTesting
+  interface SampleWriter {
+    int addTrack(@NonNull MediaFormat format);
+
+    void start() throws IOException;
+
+    void writeSampleData(
+        int trackIndex, @NonNull ByteBuffer data, @NonNull MediaCodec.BufferInfo info)
+        throws IOException;
+
+    void stop() throws IOException;
+
+    void release();
+  }
+
+  @NonNull private final Options options;
+  private final int width;
+  private final int height;
+  private final int frameRate;
+  private final int videoBitrate;
+  private final boolean enableAudio;
+  private final int audioSampleRate;
+  private final int audioBitrate;
+  private final int orientationHint;
+  private final boolean sensorTimestampRealtime;
+  @Nullable private SegmentOptions segmentOptions;
+  @Nullable private SegmentListener segmentListener;
+
+  @Nullable private MediaCodec videoEncoder;
+  @Nullable private MediaCodec audioEncoder;
+  @Nullable private AudioRecord audioRecord;
+  @Nullable private Surface inputSurface;
+  @Nullable private SampleWriter writer;
+  @Nullable private Thread videoThread;
+  @Nullable private Thread audioThread;
+
+  private final Object lock = new Object();
+  // The following fields are guarded by lock.
+  private int videoTrackIndex = -1;
+  private int audioTrackIndex = -1;
+  private boolean writerStarted;
+  /** Samples encoded before every track was added to the writer. */
+  private final List<PendingSample> pendingSamples = new ArrayList<>();
+  /** The formats of the tracks, to add them again to the writer of the next segment. */
+  @Nullable private MediaFormat videoFormat;
+
+  @Nullable private MediaFormat audioFormat;
+  /** The path of the file being written. */
+  @NonNull private String outputFilePath;
+  /** The time of the first frame of the current segment, or -1 before it is written. */
+  private long segmentStartTimeUs = -1;
+  /** The size of the samples written to the current segment. */
+  private long segmentSizeBytes;
+
+  private boolean segmentKeyFrameRequested;
+  /** The time of the last video key frame, which starts the current fragment, or -1. */
+  private long fragmentStartTimeUs = -1;
+
+  private boolean fragmentKeyFrameRequested;
+  private long lastVideoTimeUs;
+  /** The paths of the complete segments still on disk, oldest first. */
+  private final ArrayDeque<String> completedSegments = new ArrayDeque<>();
+  /** The segment whose writer was replaced, until it is completed outside the lock. */
+  @Nullable private CompletedSegment completedSegment;
+
+  /** Whether the first video key frame was written. Audio samples are written from then on. */
+  private boolean writtenKeyFrame;
+  /** Whether video frames are dropped until the next key frame, which follows a pause. */
+  private boolean awaitingKeyFrame = true;
+
+  private boolean writtenSample;
+  /** The time {@link #start()} was called, in the timebase of {@link #nowUs()}. */
+  private long startTimeUs = Long.MAX_VALUE;
+
+  /**
+   * The difference between the timebase of the video timestamps and {@link #nowUs()}, or {@link
+   * Long#MIN_VALUE} before the first video sample is encoded.
+   */
+  private long videoTimeOffsetUs;
+
+  private long pauseStartTimeUs = -1;
+  /** Pairs of start and end times of the pauses so far. */
+  private final List<long[]> pauses = new ArrayList<>();
+
+  private volatile boolean stopping;
+  /** When {@link #stop()} was called, in {@link SystemClock#uptimeMillis()}. */
+  private volatile long stopTimeMs;
+  @Nullable private volatile Exception failure;
+
+  /**
+   * Creates a recorder. {@link #prepare()} has to be called before using it.
+   *
+   * @param outputFilePath the path of the MP4 file to write.
+   * @param options how the video is encoded.
+   * @param width the width of the video.
+   * @param height the height of the video.
+   * @param frameRate the frame rate of the video.
+   * @param videoBitrate the bitrate of the video, in bits per second.
+   * @param enableAudio whether to record audio from the microphone.
+   * @param audioSampleRate the sample rate of the audio.
+   * @param audioBitrate the bitrate of the audio, in bits per second.
+   * @param orientationHint the clockwise rotation players should apply to the video.
+   * @param sensorTimestampRealtime whether the camera timestamps frames with {@link
+   *     SystemClock#elapsedRealtimeNanos()}. Otherwise, the timebase of the video is unknown and
+   *     is estimated from the first encoded frames, to align the audio to it.
+   */
+  public MediaCodecRecorder(
+      @NonNull String outputFilePath,
+      @NonNull Options options,
+      int width,
+      int height,
+      int frameRate,
+      int videoBitrate,
+      boolean enableAudio,
+      int audioSampleRate,
+      int audioBitrate,
+      int orientationHint,
+      boolean sensorTimestampRealtime) {
+    this.outputFilePath = outputFilePath;
+    this.options = options;
+    this.width = width;
+    this.height = height;
+    this.frameRate = frameRate;
+    this.videoBitrate = videoBitrate;
+    this.enableAudio = enableAudio;
+    this.audioSampleRate = audioSampleRate;
+    this.audioBitrate = audioBitrate;
+    this.orientationHint = orientationHint;
+    this.sensorTimestampRealtime = sensorTimestampRealtime;
+    this.videoTimeOffsetUs = sensorTimestampRealtime ? 0 : Long.MIN_VALUE;
+  }
+
+  /**
+   * Configures and starts the encoders and opens the output file.
+   *
+   * @throws IOException when an encoder could not be created or the file could not be opened.
+   */
+  @SuppressLint("MissingPermission")
+  public void prepare() throws IOException {
+    final MediaCodecList codecList = new MediaCodecList(MediaCodecList.REGULAR_CODECS);
+    MediaFormat videoFormat = null;
+    String videoEncoderName = null;
+    if (options.preferHevc) {
+      videoFormat = createVideoFormat(MIME_TYPE_HEVC);
+      videoEncoderName = findEncoder(codecList, videoFormat);
+    }
+    if (videoEncoderName == null) {
+      videoFormat = createVideoFormat(MIME_TYPE_AVC);
+      videoEncoderName = findEncoder(codecList, videoFormat);
+    }
+    if (videoEncoderName == null) {
+      throw new IOException("No video encoder supports " + width + "x" + height + ".");
+    }
+    videoEncoder = MediaCodec.createByCodecName(videoEncoderName);
+    if (options.constantBitrate) {
+      final MediaCodecInfo.EncoderCapabilities capabilities =
+          videoEncoder
+              .getCodecInfo()
+              .getCapabilitiesForType(videoFormat.getString(MediaFormat.KEY_MIME))
+              .getEncoderCapabilities();
+      if (capabilities.isBitrateModeSupported(
+          MediaCodecInfo.EncoderCapabilities.BITRATE_MODE_CBR)) {
+        videoFormat.setInteger(
+            MediaFormat.KEY_BITRATE_MODE, MediaCodecInfo.EncoderCapabilities.BITRATE_MODE_CBR);
+      } else {
+        Log.w(TAG, "prepare | " + videoEncoderName + " does not support a constant bitrate.");
+      }
+    }
+    videoEncoder.configure(videoFormat, null, null, MediaCodec.CONFIGURE_FLAG_ENCODE);
+    inputSurface = videoEncoder.createInputSurface();
+
+    if (enableAudio) {
+      final MediaFormat audioFormat =
+          MediaFormat.createAudioFormat(MIME_TYPE_AAC, audioSampleRate, 1);
+      audioFormat.setInteger(
+          MediaFormat.KEY_AAC_PROFILE, MediaCodecInfo.CodecProfileLevel.AACObjectLC);
+      audioFormat.setInteger(MediaFormat.KEY_BIT_RATE, audioBitrate);
+      audioEncoder = MediaCodec.createEncoderByType(MIME_TYPE_AAC);
+      audioEncoder.configure(audioFormat, null, null, MediaCodec.CONFIGURE_FLAG_ENCODE);
+      final int bufferSize =
+          AudioRecord.getMinBufferSize(
+              audioSampleRate, AudioFormat.CHANNEL_IN_MONO, AudioFormat.ENCODING_PCM_16BIT);
+      audioRecord =
+          new AudioRecord(
+              MediaRecorder.AudioSource.CAMCORDER,
+              audioSampleRate,
+              AudioFormat.CHANNEL_IN_MONO,
+              AudioFormat.ENCODING_PCM_16BIT,
+              Math.max(bufferSize, audioSampleRate / 5));
+      if (audioRecord.getState() != AudioRecord.STATE_INITIALIZED) {
+        throw new IOException("The microphone could not be opened.");
+      }
+    }
+
+    openWriter();
+
+    videoEncoder.start();
+    videoThread = new Thread(this::drainVideo, "MediaCodecRecorderVideo");
+    videoThread.start();
+    if (audioEncoder != null) {
+      audioEncoder.start();
+    }
+  }
+
+  @VisibleForTesting
+  void openWriter() throws IOException {
+    synchronized (lock) {
+      writer = createWriter(outputFilePath);
+    }
+  }
+
+  @VisibleForTesting
+  @NonNull
+  SampleWriter createWriter(@NonNull String path) throws IOException {
+    return options.fragmented
+        ? new FragmentedSampleWriter(path, orientationHint)
+        : new MediaMuxerSampleWriter(path, orientationHint);
+  }
+
+  /**
+   * Splits the video into segment files. It has to be called before {@link #start()}.
+   *
+   * <p>The first segment is written to the output file passed to the constructor, the next ones to
+   * the files returned by {@link SegmentListener#createSegmentPath()}.
+   *
+   * @param options when the video is split, or null to write a single file.
+   * @param listener provides the files of the segments and is notified when they are complete.
+   */
+  public void setSegmentation(
+      @Nullable SegmentOptions options, @Nullable SegmentListener listener) {
+    synchronized (lock) {
+      segmentOptions = options;
+      segmentListener = options != null ? listener : null;
+    }
+  }
+
+  /** Returns the path of the file being written, which is the last segment when segmented. */
+  @NonNull
+  public String getOutputFilePath() {
+    synchronized (lock) {
+      return outputFilePath;
+    }
+  }
+
+  /**
+   * Returns the name of an encoder supporting the format, or null when there is none.
+   *
+   * <p>On API 21, {@link MediaCodecList#findEncoderForFormat(MediaFormat)} returns null for a
+   * format with a frame rate, so the frame rate is cleared for the lookup and set again after it.
+   */
+  @Nullable
+  private String findEncoder(@NonNull MediaCodecList codecList, @NonNull MediaFormat format) {
+    format.setString(MediaFormat.KEY_FRAME_RATE, null);
+    try {
+      return codecList.findEncoderForFormat(format);
+    } finally {
+      format.setInteger(MediaFormat.KEY_FRAME_RATE, frameRate);
+    }
+  }
+
+  @NonNull
+  private MediaFormat createVideoFormat(@NonNull String mimeType) {
+    final MediaFormat format = MediaFormat.createVideoFormat(mimeType, width, height);
+    format.setInteger(
+        MediaFormat.KEY_COLOR_FORMAT, MediaCodecInfo.CodecCapabilities.COLOR_FormatSurface);
+    format.setInteger(MediaFormat.KEY_BIT_RATE, videoBitrate);
+    format.setInteger(MediaFormat.KEY_FRAME_RATE, frameRate);
+    format.setInteger(MediaFormat.KEY_I_FRAME_INTERVAL, options.keyFrameIntervalSeconds);
+    // Samples are written in decode order, with their presentation times as decode times.
+    format.setInteger(MediaFormat.KEY_MAX_B_FRAMES, 0);
+    return format;
+  }
+
+  /** Returns the surface the camera renders the frames to record to. */
+  @NonNull
+  public Surface getSurface() {
+    if (inputSurface == null) {
+      throw new IllegalStateException("prepare() has not been called.");
+    }
+    return inputSurface;
+  }
+
+  /** Starts writing frames rendered to the surface from now on, starting with a key frame. */
+  public void start() {
+    synchronized (lock) {
+      startTimeUs = nowUs();
+    }
+    requestKeyFrame();
+    if (audioRecord != null) {
+      audioRecord.startRecording();
+      audioThread = new Thread(this::recordAudio, "MediaCodecRecorderAudio");
+      audioThread.start();
+    }
+  }
+
+  /** Stops writing frames until {@link #resume()} is called. */
+  public void pause() {
+    synchronized (lock) {
+      if (pauseStartTimeUs < 0) {
+        pauseStartTimeUs = nowUs();
+      }
+    }
+  }
+
+  /** Writes frames again after {@link #pause()}, leaving no gap in the video. */
+  public void resume() {
+    synchronized (lock) {
+      if (pauseStartTimeUs < 0) {
+        return;
+      }
+      pauses.add(new long[] {pauseStartTimeUs, nowUs()});
+      pauseStartTimeUs = -1;
+      // Frames encoded while paused are dropped, so later frames cannot be decoded until then.
+      awaitingKeyFrame = true;
+    }
+    requestKeyFrame();
+  }
+
+  /**
+   * Stops the encoders and completes the file.
+   *
+   * @throws IllegalStateException when no video was recorded or writing the file failed, in which
+   *     case the file is unusable.
+   */
+  public void stop() {
+    stopTimeMs = SystemClock.uptimeMillis();
+    stopping = true;
+    final MediaCodec encoder = videoEncoder;
+    if (encoder != null) {
+      try {
+        encoder.signalEndOfInputStream();
+      } catch (IllegalStateException e) {
+        Log.w(TAG, "stop | " + e.getMessage());
+      }
+    }
+    join(audioThread);
+    join(videoThread);
+    audioThread = null;
+    videoThread = null;
+    try {
+      finishCompletedSegment();
+    } catch (IOException | IllegalStateException e) {
+      failure = e;
+    }
+    synchronized (lock) {
+      try {
+        if (writerStarted && writer != null) {
+          writer.stop();
+          if (segmentListener != null && writtenSample) {
+            completeSegment(outputFilePath, lastVideoTimeUs - segmentStartTimeUs);
+          }
+        }
+      } catch (IOException | IllegalStateException e) {
+        failure = e;
+      }
+      if (failure != null) {
+        throw new IllegalStateException("Recording failed: " + failure.getMessage(), failure);
+      }
+      if (!writtenSample) {
+        throw new IllegalStateException("No video was recorded.");
+      }
+    }
+  }
+
+  /** Releases the encoders, the microphone and the file. */
+  public void release() {
+    stopTimeMs = SystemClock.uptimeMillis();
+    stopping = true;
+    join(audioThread);
+    join(videoThread);
+    if (audioRecord != null) {
+      audioRecord.release();
+      audioRecord = null;
+    }
+    if (audioEncoder != null) {
+      audioEncoder.release();
+      audioEncoder = null;
+    }
+    if (videoEncoder != null) {
+      videoEncoder.release();
+      videoEncoder = null;
+    }
+    if (inputSurface != null) {
+      inputSurface.release();
+      inputSurface = null;
+    }
+    synchronized (lock) {
+      if (completedSegment != null) {
+        completedSegment.writer.release();
+        completedSegment = null;
+      }
+      if (writer != null) {
+        writer.release();
+        writer = null;
+      }
+      pendingSamples.clear();
+    }
+  }
+
+  @VisibleForTesting
+  void requestKeyFrame() {
+    final MediaCodec encoder = videoEncoder;
+    if (encoder == null) {
+      return;
+    }
+    final Bundle parameters = new Bundle();
+    parameters.putInt(MediaCodec.PARAMETER_KEY_REQUEST_SYNC_FRAME, 0);
+    try {
+      encoder.setParameters(parameters);
+    } catch (IllegalStateException e) {
+      Log.w(TAG, "requestKeyFrame | " + e.getMessage());
+    }
+  }
+
+  /** Returns the current time in the timebase of the recording, which the audio is stamped in. */
+  private long nowUs() {
+    return SystemClock.elapsedRealtimeNanos() / 1000;
+  }
+
+  /**
+   * Estimates the timebase of the video from a frame the encoder just output, when the camera
+   * timestamps are not in the timebase of {@link #nowUs()}.
+   *
+   * <p>A frame is output some time after it was captured, so the frame with the shortest delay
+   * gives the closest estimate. The estimate is kept once the first frame is written, so that the
+   * video has no jumps.
+   */
+  @VisibleForTesting
+  void updateVideoTimeOffset(long presentationTimeUs) {
+    synchronized (lock) {
+      if (sensorTimestampRealtime || writtenKeyFrame) {
+        return;
+      }
+      videoTimeOffsetUs = Math.max(videoTimeOffsetUs, presentationTimeUs - nowUs());
+    }
+  }
+
+  /** Returns the time of a video frame in the timebase of {@link #nowUs()}. */
+  @VisibleForTesting
+  long toRecordingTimeUs(long videoPresentationTimeUs) {
+    synchronized (lock) {
+      return videoTimeOffsetUs == Long.MIN_VALUE
+          ? videoPresentationTimeUs
+          : videoPresentationTimeUs - videoTimeOffsetUs;
+    }
+  }
+
+  private static void join(@Nullable Thread thread) {
+    if (thread == null) {
+      return;
+    }
+    try {
+      thread.join(STOP_TIMEOUT_MS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  private void drainVideo() {
+    final MediaCodec encoder = videoEncoder;
+    final MediaCodec.BufferInfo info = new MediaCodec.BufferInfo();
+    try {
+      while (drain(encoder, info, true)) {
+        // Keep draining until the end of the stream.
+      }
+    } catch (IllegalStateException | IOException e) {
+      Log.e(TAG, "drainVideo | " + e.getMessage());
+      failure = e;
+    }
+  }
+
+  private void recordAudio() {
+    final AudioRecord record = audioRecord;
+    final MediaCodec encoder = audioEncoder;
+    final MediaCodec.BufferInfo info = new MediaCodec.BufferInfo();
+    // Audio timestamps are derived from the number of frames read, which does not jitter.
+    final long baseTimeUs = nowUs();
+    long framesRead = 0;
+    boolean inputDone = false;
+    try {
+      while (true) {
+        if (!inputDone) {
+          final int inputIndex = encoder.dequeueInputBuffer(DEQUEUE_TIMEOUT_US);
+          if (inputIndex >= 0) {
+            final ByteBuffer input = encoder.getInputBuffer(inputIndex);
+            final long presentationTimeUs =
+                baseTimeUs + framesRead * 1_000_000L / audioSampleRate;
+            if (stopping) {
+              encoder.queueInputBuffer(
+                  inputIndex, 0, 0, presentationTimeUs, MediaCodec.BUFFER_FLAG_END_OF_STREAM);
+              inputDone = true;
+            } else {
+              final int read = record.read(input, input.capacity());
+              final int size = Math.max(read, 0);
+              framesRead += size / 2;
+              encoder.queueInputBuffer(inputIndex, 0, size, presentationTimeUs, 0);
+            }
+          }
+        }
+        if (!drain(encoder, info, false)) {
+          break;
+        }
+      }
+    } catch (IllegalStateException | IOException e) {
+      Log.e(TAG, "recordAudio | " + e.getMessage());
+      failure = e;
+    } finally {
+      try {
+        record.stop();
+      } catch (IllegalStateException e) {
+        // The microphone was never started.
+      }
+    }
+  }
+
+  /**
+   * Writes the next output buffer of an encoder, if there is one.
+   *
+   * @return false once the encoder reached the end of the stream.
+   */
+  private boolean drain(
+      @NonNull MediaCodec encoder, @NonNull MediaCodec.BufferInfo info, boolean video)
+      throws IOException {
+    final int index = encoder.dequeueOutputBuffer(info, DEQUEUE_TIMEOUT_US);
+    if (index == MediaCodec.INFO_OUTPUT_FORMAT_CHANGED) {
+      addTrack(encoder.getOutputFormat(), video);
+      return true;
+    }
+    if (index < 0) {
+      // Stop waiting when the encoder does not output its end of stream in time.
+      return !stopping || SystemClock.uptimeMillis() - stopTimeMs < STOP_TIMEOUT_MS;
+    }
+    final boolean endOfStream = (info.flags & MediaCodec.BUFFER_FLAG_END_OF_STREAM) != 0;
+    if ((info.flags & MediaCodec.BUFFER_FLAG_CODEC_CONFIG) == 0 && info.size > 0) {
+      final ByteBuffer output = encoder.getOutputBuffer(index);
+      output.position(info.offset);
+      output.limit(info.offset + info.size);
+      writeSample(output, info, video);
+    }
+    encoder.releaseOutputBuffer(index, false);
+    return !endOfStream;
+  }
+
+  @VisibleForTesting
+  void addTrack(@NonNull MediaFormat format, boolean video) throws IOException {
+    synchronized (lock) {
+      if (writer == null) {
+        return;
+      }
+      if (video) {
+        videoFormat = format;
+        videoTrackIndex = writer.addTrack(format);
+      } else {
+        audioFormat = format;
+        audioTrackIndex = writer.addTrack(format);
+      }
+      if (videoTrackIndex >= 0 && (audioEncoder == null || audioTrackIndex >= 0)) {
+        writer.start();
+        writerStarted = true;
+        for (PendingSample sample : pendingSamples) {
+          writeSampleLocked(sample.data, sample.info, sample.video);
+        }
+        pendingSamples.clear();
+      }
+    }
+    finishCompletedSegment();
+  }
+
+  @VisibleForTesting
+  void writeSample(@NonNull ByteBuffer data, @NonNull MediaCodec.BufferInfo info, boolean video)
+      throws IOException {
+    if (video) {
+      updateVideoTimeOffset(info.presentationTimeUs);
+    }
+    synchronized (lock) {
+      if (writer == null) {
+        return;
+      }
+      if (!writerStarted) {
+        pendingSamples.add(new PendingSample(data, info, video));
+        return;
+      }
+      writeSampleLocked(data, info, video);
+    }
+    finishCompletedSegment();
+  }
+
+  private void writeSampleLocked(
+      @NonNull ByteBuffer data, @NonNull MediaCodec.BufferInfo info, boolean video)
+      throws IOException {
+    final long presentationTimeUs =
+        video ? toRecordingTimeUs(info.presentationTimeUs) : info.presentationTimeUs;
+    if (presentationTimeUs < startTimeUs) {
+      return;
+    }
+    final long adjustedTimeUs = adjustForPauses(presentationTimeUs);
+    if (adjustedTimeUs < 0) {
+      return;
+    }
+    final boolean keyFrame = (info.flags & MediaCodec.BUFFER_FLAG_KEY_FRAME) != 0;
+    if (video && awaitingKeyFrame) {
+      if (!keyFrame) {
+        return;
+      }
+      awaitingKeyFrame = false;
+      writtenKeyFrame = true;
+    }
+    if (!writtenKeyFrame) {
+      // Audio starts with the first video frame.
+      return;
+    }
+    if (video) {
+      requestFragmentKeyFrameLocked(adjustedTimeUs, keyFrame);
+      startSegmentIfFullLocked(adjustedTimeUs, keyFrame);
+      lastVideoTimeUs = adjustedTimeUs;
+    }
+    final MediaCodec.BufferInfo adjustedInfo = new MediaCodec.BufferInfo();
+    adjustedInfo.set(data.position(), data.remaining(), adjustedTimeUs, info.flags);
+    writer.writeSampleData(video ? videoTrackIndex : audioTrackIndex, data, adjustedInfo);
+    segmentSizeBytes += info.size;
+    writtenSample = true;
+  }
+
+  /**
+   * Requests a key frame once the current fragment of a fragmented MP4 file reaches {@link
+   * FragmentedMp4Muxer#FRAGMENT_DURATION_US}, since fragments only end at key frames. Otherwise,
+   * with a longer key frame interval, a crash would lose a whole interval of video.
+   */
+  private void requestFragmentKeyFrameLocked(long timeUs, boolean keyFrame) {
+    if (!options.fragmented) {
+      return;
+    }
+    if (keyFrame) {
+      fragmentStartTimeUs = timeUs;
+      fragmentKeyFrameRequested = false;
+      return;
+    }
+    if (fragmentStartTimeUs >= 0
+        && !fragmentKeyFrameRequested
+        && timeUs - fragmentStartTimeUs >= FragmentedMp4Muxer.FRAGMENT_DURATION_US) {
+      requestKeyFrame();
+      fragmentKeyFrameRequested = true;
+    }
+  }
+
+  /**
+   * Starts the next segment at a video frame, when the current segment is full and the frame is a
+   * key frame. Otherwise, a key frame is requested as soon as the segment is full.
+   *
+   * <p>The current segment is left in {@link #completedSegment}, to be completed by {@link
+   * #finishCompletedSegment()} once the lock is released.
+   */
+  private void startSegmentIfFullLocked(long timeUs, boolean keyFrame) throws IOException {
+    if (segmentStartTimeUs < 0) {
+      segmentStartTimeUs = timeUs;
+      return;
+    }
+    final SegmentOptions options = segmentOptions;
+    if (options == null || segmentListener == null) {
+      return;
+    }
+    final boolean full =
+        (options.maxDurationUs > 0 && timeUs - segmentStartTimeUs >= options.maxDurationUs)
+            || (options.maxSizeBytes > 0 && segmentSizeBytes >= options.maxSizeBytes);
+    if (!full) {
+      return;
+    }
+    if (!keyFrame) {
+      if (!segmentKeyFrameRequested) {
+        requestKeyFrame();
+        segmentKeyFrameRequested = true;
+      }
+      return;
+    }
+    final String nextPath = segmentListener.createSegmentPath();
+    completedSegment = new CompletedSegment(writer, outputFilePath, timeUs - segmentStartTimeUs);
+    outputFilePath = nextPath;
+    writer = createWriter(outputFilePath);
+    videoTrackIndex = writer.addTrack(videoFormat);
+    if (audioFormat != null) {
+      audioTrackIndex = writer.addTrack(audioFormat);
+    }
+    writer.start();
+    segmentStartTimeUs = timeUs;
+    segmentSizeBytes = 0;
+    segmentKeyFrameRequested = false;
+  }
+
+  /**
+   * Stops the writer of the segment left by {@link #startSegmentIfFullLocked(long, boolean)} and
+   * completes it. It is called without holding the lock, so that flushing the file to disk does
+   * not block the encoder threads.
+   */
+  private void finishCompletedSegment() throws IOException {
+    final CompletedSegment segment;
+    synchronized (lock) {
+      segment = completedSegment;
+      completedSegment = null;
+    }
+    if (segment == null) {
+      return;
+    }
+    try {
+      segment.writer.stop();
+    } finally {
+      segment.writer.release();
+    }
+    completeSegment(segment.path, segment.durationUs);
+  }
+
+  /** Notifies the listener that a segment is complete, and deletes the oldest ones. */
+  private void completeSegment(@NonNull String path, long durationUs) {
+    final SegmentListener listener;
+    final List<String> deletedPaths = new ArrayList<>();
+    synchronized (lock) {
+      listener = segmentListener;
+      completedSegments.add(path);
+      final int maxSegmentCount = segmentOptions.maxSegmentCount;
+      while (maxSegmentCount > 0 && completedSegments.size() > maxSegmentCount) {
+        deletedPaths.add(completedSegments.poll());
+      }
+    }
+    listener.onSegmentReady(path, durationUs, new File(path).length());
+    for (String deletedPath : deletedPaths) {
+      if (!new File(deletedPath).delete()) {
+        Log.w(TAG, "completeSegment | could not delete " + deletedPath);
+      }
+    }
+  }
+
+  /**
+   * Returns the time of a sample in the recorded video, which leaves out the pauses, or -1 when
+   * the sample was encoded while paused.
+   */
+  @VisibleForTesting
+  long adjustForPauses(long presentationTimeUs) {
+    if (pauseStartTimeUs >= 0 && presentationTimeUs >= pauseStartTimeUs) {
+      return -1;
+    }
+    long pausedUs = 0;
+    for (long[] pause : pauses) {
+      if (presentationTimeUs >= pause[1]) {
+        pausedUs += pause[1] - pause[0];
+      } else if (presentationTimeUs >= pause[0]) {
+        return -1;
+      }
+    }
+    return presentationTimeUs - pausedUs;
+  }
+
+  private static final class CompletedSegment {
+    @NonNull final SampleWriter writer;
+    @NonNull final String path;
+    final long durationUs;
+
+    CompletedSegment(@NonNull SampleWriter writer, @NonNull String path, long durationUs) {
+      this.writer = writer;
+      this.path = path;
+      this.durationUs = durationUs;
+    }
+  }
+
+  private static final class PendingSample {
+    @NonNull final ByteBuffer data;
+    @NonNull final MediaCodec.BufferInfo info;
+    final boolean video;
+
+    PendingSample(@NonNull ByteBuffer data, @NonNull MediaCodec.BufferInfo info, boolean video) {
+      this.data = ByteBuffer.allocate(data.remaining());
+      this.data.put(data.duplicate());
+      this.data.flip();
+      this.info = new MediaCodec.BufferInfo();
+      this.info.set(0, info.size, info.presentationTimeUs, info.flags);
+      this.video = video;
+    }
+  }
+
+  /** Writes a regular MP4 file, whose sample tables are only written when it is stopped. */
+  private static final class MediaMuxerSampleWriter implements SampleWriter {
+    @NonNull private final MediaMuxer muxer;
+
+    MediaMuxerSampleWriter(@NonNull String outputFilePath, int orientationHint)
+        throws IOException {
+      muxer = new MediaMuxer(outputFilePath, MediaMuxer.OutputFormat.MUXER_OUTPUT_MPEG_4);
+      muxer.setOrientationHint(orientationHint);
+    }
+
+    @Override
+    public int addTrack(@NonNull MediaFormat format) {
+      return muxer.addTrack(format);
+    }
+
+    @Override
+    public void start() {
+      muxer.start();
+    }
+
+    @Override
+    public void writeSampleData(
+        int trackIndex, @NonNull ByteBuffer data, @NonNull MediaCodec.BufferInfo info) {
+      muxer.writeSampleData(trackIndex, data, info);
+    }
+
+    @Override
+    public void stop() {
+      muxer.stop();
+    }
+
+    @Override
+    public void release() {
+      muxer.release();
+    }
+  }
+
+  /** Writes a fragmented MP4 file with {@link FragmentedMp4Muxer}. */
+  private static final class FragmentedSampleWriter implements SampleWriter {
+    @NonNull private final RandomAccessFile file;
+    @NonNull private final FragmentedMp4Muxer muxer;
+
+    FragmentedSampleWriter(@NonNull String outputFilePath, int orientationHint)
+        throws IOException {
+      file = new RandomAccessFile(outputFilePath, "rw");
+      file.setLength(0);
+      muxer = new FragmentedMp4Muxer(file.getChannel(), orientationHint);
+    }
+
+    @Override
+    public int addTrack(@NonNull MediaFormat format) {
+      final String mimeType = format.getString(MediaFormat.KEY_MIME);
+      if (mimeType.startsWith("video/")) {
+        final List<ByteBuffer> codecConfig = new ArrayList<>();
+        codecConfig.add(format.getByteBuffer("csd-0"));
+        if (format.containsKey("csd-1")) {
+          codecConfig.add(format.getByteBuffer("csd-1"));
+        }
+        return muxer.addVideoTrack(
+            mimeType,
+            format.getInteger(MediaFormat.KEY_WIDTH),
+            format.getInteger(MediaFormat.KEY_HEIGHT),
+            codecConfig);
+      }
+      return muxer.addAudioTrack(
+          format.getInteger(MediaFormat.KEY_SAMPLE_RATE),
+          format.getInteger(MediaFormat.KEY_CHANNEL_COUNT),
+          format.getByteBuffer("csd-0"));
+    }
+
+    @Override
+    public void start() throws IOException {
+      muxer.start();
+    }
+
+    @Override
+    public void writeSampleData(
+        int trackIndex, @NonNull ByteBuffer data, @NonNull MediaCodec.BufferInfo info)
+        throws IOException {
+      muxer.writeSampleData(
+          trackIndex,
+          data,
+          info.presentationTimeUs,
+          (info.flags & MediaCodec.BUFFER_FLAG_KEY_FRAME) != 0);
+    }
+
+    @Override
+    public void stop() throws IOException {
+      muxer.stop();
+      // The file is complete, make sure it survives a crash.
+      file.getChannel().force(true);
+    }
+
+    @Override
+    public void release() {
+      try {
+        file.close();
+      } catch (IOException e) {
+        Log.w(TAG, "release | " + e.getMessage());
+      }
+    }
+  }
+}
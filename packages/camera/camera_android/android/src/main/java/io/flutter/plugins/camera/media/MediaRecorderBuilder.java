@@ -164,4 +164,76 @@ public class MediaRecorderBuilder {
 
     return mediaRecorder;
   }
+
+  /**
+   * Builds a {@link MediaCodecRecorder} recording with the same profile and parameters as the
+   * {@link MediaRecorder} returned by {@link #build()}.
+   *
+   * @param options how the video is encoded.
+   * @param sensorTimestampRealtime whether the camera timestamps frames with the realtime clock.
+   * @return a prepared recorder.
+   * @throws IOException when an encoder could not be created or the file could not be opened.
+   */
+  @NonNull
+  public MediaCodecRecorder buildMediaCodecRecorder(
+      @NonNull MediaCodecRecorder.Options options, boolean sensorTimestampRealtime)
+      throws IOException, NullPointerException, IndexOutOfBoundsException {
+    final int width;
+    final int height;
+    final int profileFps;
+    final int profileVideoBitrate;
+    final int profileAudioBitrate;
+    final int audioSampleRate;
+    if (SdkCapabilityChecker.supportsEncoderProfiles() && encoderProfiles != null) {
+      EncoderProfiles.VideoProfile videoProfile = encoderProfiles.getVideoProfiles().get(0);
+      width = videoProfile.getWidth();
+      height = videoProfile.getHeight();
+      profileFps = videoProfile.getFrameRate();
+      profileVideoBitrate = videoProfile.getBitrate();
+      if (enableAudio) {
+        EncoderProfiles.AudioProfile audioProfile = encoderProfiles.getAudioProfiles().get(0);
+        profileAudioBitrate = audioProfile.getBitrate();
+        audioSampleRate = audioProfile.getSampleRate();
+      } else {
+        profileAudioBitrate = 0;
+        audioSampleRate = 0;
+      }
+    } else if (camcorderProfile != null) {
+      width = camcorderProfile.videoFrameWidth;
+      height = camcorderProfile.videoFrameHeight;
+      profileFps = camcorderProfile.videoFrameRate;
+      profileVideoBitrate = camcorderProfile.videoBitRate;
+      profileAudioBitrate = camcorderProfile.audioBitRate;
+      audioSampleRate = camcorderProfile.audioSampleRate;
+    } else {
+      throw new NullPointerException("No recording profile.");
+    }
+
+    MediaCodecRecorder recorder =
+        new MediaCodecRecorder(
+            parameters.outputFilePath,
+            options,
+            width,
+            height,
+            (parameters.fps != null && parameters.fps.intValue() > 0)
+                ? parameters.fps
+                : profileFps,
+            (parameters.videoBitrate != null && parameters.videoBitrate.intValue() > 0)
+                ? parameters.videoBitrate
+                : profileVideoBitrate,
+            enableAudio,
+            audioSampleRate,
+            (parameters.audioBitrate != null && parameters.audioBitrate.intValue() > 0)
+                ? parameters.audioBitrate
+                : profileAudioBitrate,
+            mediaOrientation,
+            sensorTimestampRealtime);
+    try {
+      recorder.prepare();
+    } catch (IOException | RuntimeException e) {
+      recorder.release();
+      throw e;
+    }
+    return recorder;
+  }
 }
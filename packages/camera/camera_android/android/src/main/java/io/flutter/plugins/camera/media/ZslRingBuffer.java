@@ -0,0 +1,188 @@
+// Copyright 2013 The Flutter Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package io.flutter.plugins.camera.media;
+
+import android.graphics.ImageFormat;
+import android.hardware.camera2.TotalCaptureResult;
+import android.media.Image;
+import android.media.ImageReader;
+import android.os.Handler;
+import android.view.Surface;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.VisibleForTesting;
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.TreeMap;
+
+/**
+ * Keeps the most recent full resolution frames of the preview session, so that a picture can be
+ * taken from a frame that was already captured when the shutter was pressed.
+ *
+ * <p>Frames are YUV_420_888 images that stay acquired from the {@link ImageReader} while they are
+ * in the ring. Once the ring is full, the oldest frame is closed to make room for the next one.
+ *
+ * <p>The capture results of recent frames are kept as well, keyed by sensor timestamp, since a
+ * frame can only be reprocessed into a picture together with the result it was captured with.
+ */
+public class ZslRingBuffer implements ImageReader.OnImageAvailableListener {
+  /** The number of frames kept by default. */
+  public static final int DEFAULT_CAPACITY = 3;
+
+  private final ImageReader imageReader;
+  private final int capacity;
+  private final ArrayDeque<Image> frames = new ArrayDeque<>();
+  private final TreeMap<Long, TotalCaptureResult> results = new TreeMap<>();
+
+  /**
+   * Creates a new instance of the {@link ZslRingBuffer}.
+   *
+   * @param imageReader the YUV image reader the frames are acquired from. It must allow at least
+   *     {@code capacity + 1} acquired images, one of which can be held by a picture being saved.
+   * @param capacity the number of frames to keep.
+   */
+  @VisibleForTesting
+  public ZslRingBuffer(@NonNull ImageReader imageReader, int capacity) {
+    this.imageReader = imageReader;
+    this.capacity = capacity;
+  }
+
+  /**
+   * Creates a new instance of the {@link ZslRingBuffer}.
+   *
+   * @param width the frame width, usually the still capture width.
+   * @param height the frame height, usually the still capture height.
+   * @param capacity the number of frames to keep.
+   */
+  public ZslRingBuffer(int width, int height, int capacity) {
+    this(ImageReader.newInstance(width, height, ImageFormat.YUV_420_888, capacity + 1), capacity);
+  }
+
+  /** Returns the surface the preview session should also render to. */
+  @NonNull
+  public Surface getSurface() {
+    return imageReader.getSurface();
+  }
+
+  /** Returns the width of the frames. */
+  public int getWidth() {
+    return imageReader.getWidth();
+  }
+
+  /** Returns the height of the frames. */
+  public int getHeight() {
+    return imageReader.getHeight();
+  }
+
+  /**
+   * Starts keeping the frames rendered to {@link #getSurface()}.
+   *
+   * @param handler is generally the background handler of the camera.
+   */
+  public void start(@NonNull Handler handler) {
+    imageReader.setOnImageAvailableListener(this, handler);
+  }
+
+  @Override
+  public void onImageAvailable(@NonNull ImageReader reader) {
+    synchronized (this) {
+      // Make room first, so that the next image can always be acquired.
+      while (frames.size() >= capacity) {
+        frames.removeFirst().close();
+      }
+    }
+    final Image image;
+    try {
+      image = reader.acquireNextImage();
+    } catch (IllegalStateException e) {
+      // All images are acquired, because a picture is still being saved from one of them.
+      return;
+    }
+    if (image == null) {
+      return;
+    }
+    synchronized (this) {
+      frames.addLast(image);
+    }
+  }
+
+  /**
+   * Removes the frame whose sensor timestamp is nearest to {@code timestampNanos} from the ring.
+   *
+   * @param timestampNanos the timestamp to look for, or {@link Long#MAX_VALUE} for the newest
+   *     frame.
+   * @return the frame, which the caller must close, or null when the ring is empty.
+   */
+  @Nullable
+  public synchronized Image takeNearest(long timestampNanos) {
+    Image nearest = null;
+    long nearestDistance = Long.MAX_VALUE;
+    for (Image frame : frames) {
+      final long distance = Math.abs(timestampNanos - frame.getTimestamp());
+      if (nearest == null || distance <= nearestDistance) {
+        nearest = frame;
+        nearestDistance = distance;
+      }
+    }
+    if (nearest != null) {
+      frames.remove(nearest);
+    }
+    return nearest;
+  }
+
+  /**
+   * Keeps the capture result of a frame, which may arrive before or after the frame itself.
+   *
+   * <p>Results are kept for twice as many frames as the ring holds, the oldest being dropped
+   * first.
+   *
+   * @param sensorTimestampNanos the sensor timestamp of the result, which matches the timestamp of
+   *     its frame.
+   * @param result the capture result.
+   */
+  public synchronized void addResult(
+      long sensorTimestampNanos, @NonNull TotalCaptureResult result) {
+    results.put(sensorTimestampNanos, result);
+    while (results.size() > capacity * 2) {
+      results.pollFirstEntry();
+    }
+  }
+
+  /**
+   * Removes the capture result of the frame with the given timestamp.
+   *
+   * @param timestampNanos the timestamp of the frame.
+   * @return the result, or null when it was not kept.
+   */
+  @Nullable
+  public synchronized TotalCaptureResult takeResult(long timestampNanos) {
+    return results.remove(timestampNanos);
+  }
+
+  /** Returns the number of frames currently kept. */
+  public synchronized int getFrameCount() {
+    return frames.size();
+  }
+
+  /**
+   * Closes all kept frames and drops their results, for example when the session they belong to is
+   * replaced.
+   */
+  public synchronized void clear() {
+    final Iterator<Image> iterator = frames.iterator();
+    while (iterator.hasNext()) {
+      iterator.next().close();
+      iterator.remove();
+    }
+    results.clear();
+  }
+
+  /** Closes all kept frames and the image reader. */
+  public void close() {
+    imageReader.setOnImageAvailableListener(null, null);
+    clear();
+    imageReader.close();
+  }
+}
@@ -0,0 +1,194 @@
+// Copyright 2013 The Flutter Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package io.flutter.plugins.camera.types;
+
+import android.os.SystemClock;
+import androidx.annotation.NonNull;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Records how long each stage of the capture pipeline takes, so that latency between sensor
+ * exposure and Dart receipt can be broken down.
+ *
+ * <p>Recording is disabled by default and every record call is a no-op until {@link
+ * #setEnabled(boolean)} is called. Each stage keeps its most recent {@link #MAX_SAMPLES} durations,
+ * from which percentiles are computed on demand.
+ *
+ * <p>All times are in the {@link SystemClock#elapsedRealtimeNanos()} timebase, which is also the
+ * timebase of sensor timestamps when the camera reports a realtime timestamp source.
+ */
+public class CaptureTimings {
+  /** Sensor start of exposure until the capture result is received. */
+  public static final String STAGE_SENSOR_TO_RESULT = "capture.sensorToResult";
+  /** Sensor start of exposure until an image stream frame is available. */
+  public static final String STAGE_SENSOR_TO_IMAGE_AVAILABLE = "imageStream.sensorToAvailable";
+  /** Conversion and copying of an image stream frame on the background thread. */
+  public static final String STAGE_CONVERSION = "imageStream.conversion";
+  /** Waiting for the main thread once an image stream frame has been prepared. */
+  public static final String STAGE_POST_TO_MAIN = "imageStream.postToMain";
+  /** Handing an image stream frame to the engine on the main thread. */
+  public static final String STAGE_DELIVERY = "imageStream.delivery";
+  /** Sensor start of exposure until an image stream frame has been handed to the engine. */
+  public static final String STAGE_SENSOR_TO_DELIVERY = "imageStream.sensorToDelivery";
+  /** Waiting for auto focus to lock before taking a picture. */
+  public static final String STAGE_FOCUS_LOCK = "takePicture.focusLock";
+  /** Waiting for the auto exposure precapture sequence before taking a picture. */
+  public static final String STAGE_PRECAPTURE = "takePicture.precapture";
+  /** Sending the still capture request until the JPEG image is available. */
+  public static final String STAGE_STILL_CAPTURE = "takePicture.stillCapture";
+  /** Writing the JPEG image to its file. */
+  public static final String STAGE_JPEG_WRITE = "takePicture.jpegWrite";
+  /** The whole picture capture, from the request until the file has been written. */
+  public static final String STAGE_TAKE_PICTURE = "takePicture.total";
+  /** Opening a camera until its preview is running, for example when switching lenses. */
+  public static final String STAGE_OPEN = "camera.open";
+  /** Like {@link #STAGE_OPEN}, for a camera that was pre-opened before it was switched to. */
+  public static final String STAGE_OPEN_PREWARMED = "camera.openPrewarmed";
+
+  /**
+   * Waiting for the main thread to deliver a batch of camera events and results to Dart. Its
+   * sample count is the number of messages posted to the main thread.
+   */
+  public static final String STAGE_MAIN_THREAD_QUEUE = "dartMessenger.mainThreadQueue";
+
+  /** The number of most recent samples kept per stage. */
+  public static final int MAX_SAMPLES = 512;
+
+  private final Map<String, Stage> stages = new LinkedHashMap<>();
+  private volatile boolean enabled;
+  private volatile boolean sensorTimestampRealtime;
+
+  /** Returns the current time in the timebase used by this class. */
+  public static long now() {
+    return SystemClock.elapsedRealtimeNanos();
+  }
+
+  /** Returns whether timings are being recorded. */
+  public boolean isEnabled() {
+    return enabled;
+  }
+
+  /**
+   * Enables or disables recording. Enabling discards previously recorded timings.
+   *
+   * @param enabled whether timings should be recorded.
+   */
+  public synchronized void setEnabled(boolean enabled) {
+    if (enabled && !this.enabled) {
+      stages.clear();
+    }
+    this.enabled = enabled;
+  }
+
+  /**
+   * Sets whether sensor timestamps share the {@link SystemClock#elapsedRealtimeNanos()} timebase.
+   *
+   * <p>Stages measured from a sensor timestamp are only recorded when they do.
+   *
+   * @param sensorTimestampRealtime true when the camera reports a realtime timestamp source.
+   */
+  public void setSensorTimestampRealtime(boolean sensorTimestampRealtime) {
+    this.sensorTimestampRealtime = sensorTimestampRealtime;
+  }
+
+  /**
+   * Records the duration of a stage.
+   *
+   * @param stage the stage name, usually one of the {@code STAGE_} constants.
+   * @param startNanos when the stage started, as returned by {@link #now()}.
+   * @param endNanos when the stage ended, as returned by {@link #now()}.
+   */
+  public void record(@NonNull String stage, long startNanos, long endNanos) {
+    if (!enabled || startNanos <= 0 || endNanos < startNanos) {
+      return;
+    }
+    synchronized (this) {
+      Stage samples = stages.get(stage);
+      if (samples == null) {
+        samples = new Stage();
+        stages.put(stage, samples);
+      }
+      samples.add(endNanos - startNanos);
+    }
+  }
+
+  /**
+   * Records the duration of a stage that started at the sensor start of exposure.
+   *
+   * @param stage the stage name, usually one of the {@code STAGE_} constants.
+   * @param sensorTimestampNanos the sensor timestamp of the frame.
+   * @param endNanos when the stage ended, as returned by {@link #now()}.
+   */
+  public void recordSinceSensor(@NonNull String stage, long sensorTimestampNanos, long endNanos) {
+    if (sensorTimestampRealtime) {
+      record(stage, sensorTimestampNanos, endNanos);
+    }
+  }
+
+  /** Returns the percentiles of every stage with samples, in the order stages were first seen. */
+  @NonNull
+  public synchronized List<StageSummary> getSummaries() {
+    final List<StageSummary> summaries = new ArrayList<>(stages.size());
+    for (Map.Entry<String, Stage> entry : stages.entrySet()) {
+      summaries.add(entry.getValue().summarize(entry.getKey()));
+    }
+    return summaries;
+  }
+
+  /** Latency percentiles of one stage. */
+  public static final class StageSummary {
+    @NonNull public final String stage;
+    public final long sampleCount;
+    public final double p50Millis;
+    public final double p95Millis;
+    public final double p99Millis;
+
+    StageSummary(
+        @NonNull String stage,
+        long sampleCount,
+        double p50Millis,
+        double p95Millis,
+        double p99Millis) {
+      this.stage = stage;
+      this.sampleCount = sampleCount;
+      this.p50Millis = p50Millis;
+      this.p95Millis = p95Millis;
+      this.p99Millis = p99Millis;
+    }
+  }
+
+  /** A ring of the most recent durations of a stage. */
+  private static final class Stage {
+    private final long[] samples = new long[MAX_SAMPLES];
+    private long sampleCount;
+
+    void add(long durationNanos) {
+      samples[(int) (sampleCount % MAX_SAMPLES)] = durationNanos;
+      sampleCount++;
+    }
+
+    @NonNull
+    StageSummary summarize(@NonNull String stage) {
+      final long[] sorted = Arrays.copyOf(samples, (int) Math.min(sampleCount, MAX_SAMPLES));
+      Arrays.sort(sorted);
+      return new StageSummary(
+          stage,
+          sampleCount,
+          percentileMillis(sorted, 50),
+          percentileMillis(sorted, 95),
+          percentileMillis(sorted, 99));
+    }
+
+    private static double percentileMillis(@NonNull long[] sorted, int percentile) {
+      // Nearest-rank percentile.
+      final int rank = (int) Math.ceil(percentile / 100.0 * sorted.length);
+      return sorted[Math.max(rank, 1) - 1] / 1e6;
+    }
+  }
+}
@@ -4,18 +4,22 @@
 
 package io.flutter.plugins.camera;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertThrows;
 import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
 
 import android.app.Activity;
 import android.hardware.camera2.CameraAccessException;
 import androidx.lifecycle.LifecycleObserver;
 import io.flutter.plugin.common.BinaryMessenger;
+import io.flutter.plugins.camera.types.CaptureTimings;
 import io.flutter.view.TextureRegistry;
+import java.util.List;
 import org.junit.Before;
 import org.junit.Test;
 
@@ -68,4 +72,26 @@ public class CameraApiImplTest {
 
     verify(mockCamera, times(1)).resumePreview();
   }
+
+  @Test
+  public void setTimingInstrumentationEnabled_enablesCameraTimings() {
+    handler.setTimingInstrumentationEnabled(true);
+
+    verify(mockCamera, times(1)).setTimingInstrumentationEnabled(true);
+  }
+
+  @Test
+  public void getStageTimings_returnsCameraTimingSummaries() {
+    CaptureTimings timings = new CaptureTimings();
+    timings.setEnabled(true);
+    timings.record(CaptureTimings.STAGE_PRECAPTURE, 1000000L, 3000000L);
+    when(mockCamera.getCaptureTimings()).thenReturn(timings);
+
+    List<Messages.PlatformStageTiming> result = handler.getStageTimings();
+
+    assertEquals(1, result.size());
+    assertEquals(CaptureTimings.STAGE_PRECAPTURE, result.get(0).getStage());
+    assertEquals(Long.valueOf(1), result.get(0).getSampleCount());
+    assertEquals(2.0, result.get(0).getP50Millis(), 1e-9);
+  }
 }
@@ -17,6 +17,7 @@ import android.hardware.camera2.CameraCaptureSession;
 import android.hardware.camera2.CaptureRequest;
 import android.hardware.camera2.CaptureResult;
 import android.hardware.camera2.TotalCaptureResult;
+import io.flutter.plugins.camera.media.ZslRingBuffer;
 import io.flutter.plugins.camera.types.CameraCaptureProperties;
 import io.flutter.plugins.camera.types.CaptureTimeoutsWrapper;
 import org.junit.Before;
@@ -70,6 +71,19 @@ public class CameraCaptureCallbackTest {
     verify(mockCaptureProps, times(1)).setLastSensorSensitivity(3);
   }
 
+  @Test
+  public void onCaptureCompleted_keepsResultInZslRingBuffer() {
+    ZslRingBuffer mockZslRingBuffer = mock(ZslRingBuffer.class);
+    cameraCaptureCallback.setZslRingBuffer(mockZslRingBuffer);
+    TotalCaptureResult mockResult = mock(TotalCaptureResult.class);
+    when(mockResult.get(CaptureResult.SENSOR_TIMESTAMP)).thenReturn(42L);
+
+    cameraCaptureCallback.onCaptureCompleted(
+        mock(CameraCaptureSession.class), mock(CaptureRequest.class), mockResult);
+
+    verify(mockZslRingBuffer, times(1)).addResult(42L, mockResult);
+  }
+
   @Test
   public void onCaptureCompleted_checksBothAutoFocusAndAutoExposure() {
     CameraCaptureSession mockSession = mock(CameraCaptureSession.class);
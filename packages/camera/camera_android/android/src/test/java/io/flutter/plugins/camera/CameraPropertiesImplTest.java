@@ -13,10 +13,12 @@ import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import android.graphics.ImageFormat;
 import android.graphics.Rect;
 import android.hardware.camera2.CameraAccessException;
 import android.hardware.camera2.CameraCharacteristics;
 import android.hardware.camera2.CameraManager;
+import android.hardware.camera2.params.StreamConfigurationMap;
 import android.util.Range;
 import android.util.Rational;
 import android.util.Size;
@@ -279,6 +281,18 @@ public class CameraPropertiesImplTest {
     assertEquals(actualOrientation, expectedOrientation);
   }
 
+  @Test
+  public void getSensorInfoTimestampSourceTest() {
+    int expectedSource = CameraCharacteristics.SENSOR_INFO_TIMESTAMP_SOURCE_REALTIME;
+    when(mockCharacteristics.get(CameraCharacteristics.SENSOR_INFO_TIMESTAMP_SOURCE))
+        .thenReturn(expectedSource);
+
+    Integer actualSource = cameraProperties.getSensorInfoTimestampSource();
+
+    verify(mockCharacteristics, times(1)).get(CameraCharacteristics.SENSOR_INFO_TIMESTAMP_SOURCE);
+    assertEquals(actualSource.intValue(), expectedSource);
+  }
+
   @Test
   public void getHardwareLevelTest() {
     int expectedLevel = 42;
@@ -304,4 +318,29 @@ public class CameraPropertiesImplTest {
         .get(CameraCharacteristics.NOISE_REDUCTION_AVAILABLE_NOISE_REDUCTION_MODES);
     assertEquals(actualReductionModes, expectedReductionModes);
   }
+
+  @Test
+  public void getAvailableCapabilitiesTest() {
+    int[] expectedCapabilities = new int[] {0, 7};
+    when(mockCharacteristics.get(CameraCharacteristics.REQUEST_AVAILABLE_CAPABILITIES))
+        .thenReturn(expectedCapabilities);
+
+    int[] actualCapabilities = cameraProperties.getAvailableCapabilities();
+
+    verify(mockCharacteristics, times(1)).get(CameraCharacteristics.REQUEST_AVAILABLE_CAPABILITIES);
+    assertEquals(actualCapabilities, expectedCapabilities);
+  }
+
+  @Test
+  public void getReprocessingInputSizesTest() {
+    Size[] expectedSizes = new Size[] {mock(Size.class)};
+    StreamConfigurationMap mockMap = mock(StreamConfigurationMap.class);
+    when(mockMap.getInputSizes(ImageFormat.YUV_420_888)).thenReturn(expectedSizes);
+    when(mockCharacteristics.get(CameraCharacteristics.SCALER_STREAM_CONFIGURATION_MAP))
+        .thenReturn(mockMap);
+
+    Size[] actualSizes = cameraProperties.getReprocessingInputSizes(ImageFormat.YUV_420_888);
+
+    assertEquals(actualSizes, expectedSizes);
+  }
 }
@@ -0,0 +1,215 @@
+// Copyright 2013 The Flutter Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package io.flutter.plugins.camera;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.mockStatic;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import android.graphics.ImageFormat;
+import android.hardware.camera2.CameraAccessException;
+import android.hardware.camera2.CameraDevice;
+import android.hardware.camera2.CameraManager;
+import android.media.ImageReader;
+import android.os.Handler;
+import android.os.Build;
+import android.os.HandlerThread;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.MockedStatic;
+
+public class CameraSessionManagerTest {
+  private MockedStatic<Camera.HandlerThreadFactory> mockHandlerThreadFactory;
+  private MockedStatic<Camera.HandlerFactory> mockHandlerFactory;
+  private HandlerThread mockHandlerThread;
+  private Handler mockHandler;
+  private CameraManager mockCameraManager;
+  private CameraSessionManager sessionManager;
+
+  @Before
+  public void before() {
+    mockHandlerThreadFactory = mockStatic(Camera.HandlerThreadFactory.class);
+    mockHandlerFactory = mockStatic(Camera.HandlerFactory.class);
+    mockHandlerThread = mock(HandlerThread.class);
+    mockHandler = mock(Handler.class);
+    // Run posted callbacks right away.
+    when(mockHandler.post(any()))
+        .thenAnswer(
+            invocation -> {
+              ((Runnable) invocation.getArgument(0)).run();
+              return true;
+            });
+    mockHandlerThreadFactory
+        .when(() -> Camera.HandlerThreadFactory.create(any()))
+        .thenReturn(mockHandlerThread);
+    mockHandlerFactory.when(() -> Camera.HandlerFactory.create(any())).thenReturn(mockHandler);
+    mockCameraManager = mock(CameraManager.class);
+    sessionManager = new CameraSessionManager();
+  }
+
+  @After
+  public void after() {
+    mockHandlerThreadFactory.close();
+    mockHandlerFactory.close();
+    SdkCapabilityChecker.SDK_VERSION = Build.VERSION.SDK_INT;
+  }
+
+  private CameraDevice.StateCallback prewarm(String cameraName) throws CameraAccessException {
+    sessionManager.prewarm(mockCameraManager, cameraName, null);
+    final ArgumentCaptor<CameraDevice.StateCallback> callbackCaptor =
+        ArgumentCaptor.forClass(CameraDevice.StateCallback.class);
+    verify(mockCameraManager).openCamera(eq(cameraName), callbackCaptor.capture(), any());
+    return callbackCaptor.getValue();
+  }
+
+  @Test
+  public void getBackgroundHandler_startsThreadOnce() {
+    assertSame(mockHandler, sessionManager.getBackgroundHandler());
+    assertSame(mockHandler, sessionManager.getBackgroundHandler());
+
+    verify(mockHandlerThread, times(1)).start();
+  }
+
+  @Test
+  public void prewarm_doesNothingWhileAnotherCameraIsOpenBeforeApi30()
+      throws CameraAccessException {
+    SdkCapabilityChecker.SDK_VERSION = Build.VERSION_CODES.Q;
+
+    sessionManager.prewarm(mockCameraManager, "1", "0");
+
+    verify(mockCameraManager, never()).openCamera(any(), any(), any(Handler.class));
+    assertFalse(sessionManager.isPrewarmed("1"));
+  }
+
+  @Test
+  public void prewarm_doesNothingWhenCamerasCannotBeOpenedConcurrently()
+      throws CameraAccessException {
+    SdkCapabilityChecker.SDK_VERSION = Build.VERSION_CODES.R;
+    when(mockCameraManager.getConcurrentCameraIds())
+        .thenReturn(Collections.singleton(new HashSet<>(Arrays.asList("0", "2"))));
+
+    sessionManager.prewarm(mockCameraManager, "1", "0");
+    sessionManager.prewarm(mockCameraManager, "0", "0");
+
+    verify(mockCameraManager, never()).openCamera(any(), any(), any(Handler.class));
+    assertFalse(sessionManager.isPrewarmed("1"));
+  }
+
+  @Test
+  public void prewarm_opensCameraThatCanBeOpenedConcurrently() throws CameraAccessException {
+    SdkCapabilityChecker.SDK_VERSION = Build.VERSION_CODES.R;
+    when(mockCameraManager.getConcurrentCameraIds())
+        .thenReturn(Collections.singleton(new HashSet<>(Arrays.asList("0", "1"))));
+
+    sessionManager.prewarm(mockCameraManager, "1", "0");
+
+    verify(mockCameraManager).openCamera(eq("1"), any(), any(Handler.class));
+    assertTrue(sessionManager.isPrewarmed("1"));
+  }
+
+  @Test
+  public void openCamera_reusesPrewarmedCamera() throws CameraAccessException {
+    final CameraDevice mockDevice = mock(CameraDevice.class);
+    final CameraDevice.StateCallback mockCallback = mock(CameraDevice.StateCallback.class);
+    prewarm("1").onOpened(mockDevice);
+
+    assertTrue(sessionManager.isPrewarmed("1"));
+    sessionManager.openCamera(mockCameraManager, "1", mockCallback, mockHandler);
+
+    verify(mockCameraManager, times(1)).openCamera(any(), any(), any(Handler.class));
+    verify(mockCallback).onOpened(mockDevice);
+    verify(mockDevice, never()).close();
+    assertFalse(sessionManager.isPrewarmed("1"));
+  }
+
+  @Test
+  public void openCamera_forwardsOpeningOfCameraStillBeingPrewarmed()
+      throws CameraAccessException {
+    final CameraDevice mockDevice = mock(CameraDevice.class);
+    final CameraDevice.StateCallback mockCallback = mock(CameraDevice.StateCallback.class);
+    final CameraDevice.StateCallback warmCallback = prewarm("1");
+
+    sessionManager.openCamera(mockCameraManager, "1", mockCallback, mockHandler);
+    verify(mockCallback, never()).onOpened(any());
+    warmCallback.onOpened(mockDevice);
+    warmCallback.onError(mockDevice, CameraDevice.StateCallback.ERROR_CAMERA_DEVICE);
+
+    verify(mockCallback).onOpened(mockDevice);
+    verify(mockCallback).onError(mockDevice, CameraDevice.StateCallback.ERROR_CAMERA_DEVICE);
+  }
+
+  @Test
+  public void openCamera_closesPrewarmedCameraOfAnotherLens() throws CameraAccessException {
+    final CameraDevice mockDevice = mock(CameraDevice.class);
+    final CameraDevice.StateCallback mockCallback = mock(CameraDevice.StateCallback.class);
+    prewarm("1").onOpened(mockDevice);
+
+    sessionManager.openCamera(mockCameraManager, "0", mockCallback, mockHandler);
+
+    verify(mockDevice).close();
+    verify(mockCameraManager).openCamera("0", mockCallback, mockHandler);
+    verify(mockCallback, never()).onOpened(any());
+  }
+
+  @Test
+  public void openCamera_opensCameraAgainWhenPrewarmingFailed() throws CameraAccessException {
+    final CameraDevice mockDevice = mock(CameraDevice.class);
+    final CameraDevice.StateCallback mockCallback = mock(CameraDevice.StateCallback.class);
+    prewarm("1").onError(mockDevice, CameraDevice.StateCallback.ERROR_MAX_CAMERAS_IN_USE);
+
+    assertFalse(sessionManager.isPrewarmed("1"));
+    sessionManager.openCamera(mockCameraManager, "1", mockCallback, mockHandler);
+
+    verify(mockDevice).close();
+    verify(mockCameraManager).openCamera("1", mockCallback, mockHandler);
+    verify(mockCallback, never()).onError(any(), anyInt());
+  }
+
+  @Test
+  public void takePictureReader_reusesParkedReaderOfSameSize() {
+    final ImageReader mockReader = mock(ImageReader.class);
+    when(mockReader.getWidth()).thenReturn(640);
+    when(mockReader.getHeight()).thenReturn(480);
+    when(mockReader.getImageFormat()).thenReturn(ImageFormat.JPEG);
+    when(mockReader.getMaxImages()).thenReturn(10);
+    sessionManager.recyclePictureReader(mockReader);
+
+    assertNull(sessionManager.takePictureReader(1280, 720, ImageFormat.JPEG, 10));
+    assertNull(sessionManager.takePictureReader(640, 480, ImageFormat.JPEG, 11));
+    assertSame(mockReader, sessionManager.takePictureReader(640, 480, ImageFormat.JPEG, 10));
+    assertNull(sessionManager.takePictureReader(640, 480, ImageFormat.JPEG, 10));
+    verify(mockReader).setOnImageAvailableListener(null, null);
+    verify(mockReader, never()).close();
+  }
+
+  @Test
+  public void release_closesPrewarmedCameraParkedReaderAndThread() throws CameraAccessException {
+    final CameraDevice mockDevice = mock(CameraDevice.class);
+    final ImageReader mockReader = mock(ImageReader.class);
+    prewarm("1").onOpened(mockDevice);
+    sessionManager.recyclePictureReader(mockReader);
+
+    sessionManager.release();
+
+    verify(mockDevice).close();
+    verify(mockReader).close();
+    verify(mockHandlerThread).quitSafely();
+  }
+}
@@ -7,6 +7,7 @@ package io.flutter.plugins.camera;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
@@ -17,9 +18,12 @@ import android.content.Context;
 import android.graphics.ImageFormat;
 import android.graphics.SurfaceTexture;
 import android.hardware.camera2.*;
+import android.hardware.camera2.params.InputConfiguration;
 import android.hardware.camera2.params.SessionConfiguration;
+import android.media.Image;
 import android.media.CamcorderProfile;
 import android.media.ImageReader;
+import android.media.ImageWriter;
 import android.media.MediaRecorder;
 import android.os.Build;
 import android.os.Handler;
@@ -52,18 +56,23 @@ import io.flutter.plugins.camera.features.sensororientation.DeviceOrientationMan
 import io.flutter.plugins.camera.features.sensororientation.SensorOrientationFeature;
 import io.flutter.plugins.camera.features.zoomlevel.ZoomLevelFeature;
 import io.flutter.plugins.camera.media.ImageStreamReader;
+import io.flutter.plugins.camera.media.MediaCodecRecorder;
+import io.flutter.plugins.camera.media.ZslRingBuffer;
 import io.flutter.view.TextureRegistry;
 import java.io.Closeable;
 import java.io.File;
 import java.io.IOException;
+import java.nio.file.Files;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
+import org.mockito.ArgumentCaptor;
 import org.mockito.ArgumentMatcher;
 import org.mockito.InOrder;
 import org.mockito.MockedConstruction;
@@ -132,6 +141,29 @@ class FakeCameraDeviceWrapper implements CameraDeviceWrapper {
     }
   }
 
+  @Override
+  public void createReprocessableCaptureSession(
+      @NonNull InputConfiguration inputConfig,
+      @NonNull List<Surface> outputs,
+      @NonNull CameraCaptureSession.StateCallback callback,
+      @Nullable Handler handler) {
+    if (session != null) {
+      callback.onConfigured(session);
+    }
+  }
+
+  @NonNull
+  @Override
+  public CaptureRequest.Builder createReprocessCaptureRequest(
+      @NonNull TotalCaptureResult inputResult) {
+    return captureRequests.remove(0);
+  }
+
+  @Override
+  public boolean isSessionConfigurationSupported(@NonNull SessionConfiguration config) {
+    return true;
+  }
+
   @Override
   public void close() {}
 }
@@ -277,6 +309,26 @@ public class CameraTest {
         .sendCameraInitializedEvent(any(), any(), any(), any(), any(), any());
   }
 
+  @Test
+  public void open_reusesPictureImageReaderOfSameSize() throws CameraAccessException {
+    // Both the mocked reader and the mocked size are 0x0.
+    final ImageReader mockImageReader = mock(ImageReader.class);
+    final Size mockSize = mock(Size.class);
+    camera.pictureImageReader = mockImageReader;
+    final CameraManager mockCameraManager = mock(CameraManager.class);
+    when(mockActivity.getSystemService(Context.CAMERA_SERVICE)).thenReturn(mockCameraManager);
+    ResolutionFeature resolutionFeature = mockCameraFeatureFactory.mockResolutionFeature;
+    when(resolutionFeature.checkIsSupported()).thenReturn(true);
+    when(resolutionFeature.getPreviewSize()).thenReturn(mockSize);
+    when(resolutionFeature.getCaptureSize()).thenReturn(mockSize);
+
+    camera.open(ImageFormat.JPEG);
+
+    assertEquals(mockImageReader, camera.pictureImageReader);
+    verify(mockImageReader, never()).close();
+    verify(mockCameraManager).openCamera(eq("1"), any(), any(Handler.class));
+  }
+
   @Test
   public void shouldNotImplementLifecycleObserverInterface() {
     Class<Camera> cameraClass = Camera.class;
@@ -722,6 +774,20 @@ public class CameraTest {
     verify(mockMediaRecorder, times(1)).resume();
   }
 
+  @Test
+  public void pauseAndResumeVideoRecording_useMediaCodecRecorderOnAnyApiLevel() {
+    MediaCodecRecorder mockMediaCodecRecorder = mock(MediaCodecRecorder.class);
+    camera.mediaCodecRecorder = mockMediaCodecRecorder;
+    camera.recordingVideo = true;
+    SdkCapabilityChecker.SDK_VERSION = 23;
+
+    camera.pauseVideoRecording();
+    camera.resumeVideoRecording();
+
+    verify(mockMediaCodecRecorder, times(1)).pause();
+    verify(mockMediaCodecRecorder, times(1)).resume();
+  }
+
   @Test
   public void setDescriptionWhileRecording_errorsWhenUnsupported() {
     MediaRecorder mockMediaRecorder = mock(MediaRecorder.class);
@@ -737,6 +803,16 @@ public class CameraTest {
         () -> camera.setDescriptionWhileRecording(newCameraProperties));
   }
 
+  @Test
+  public void getDroppedVideoFrameCount_includesFramesDroppedByVideoRenderer() {
+    VideoRenderer mockVideoRenderer = mock(VideoRenderer.class);
+    when(mockVideoRenderer.getDroppedFrameCount()).thenReturn(2L);
+
+    assertEquals(0L, camera.getDroppedVideoFrameCount());
+    camera.videoRenderer = mockVideoRenderer;
+    assertEquals(2L, camera.getDroppedVideoFrameCount());
+  }
+
   @Test
   public void setDescriptionWhileRecording_succeedsWhenSupported() {
     MediaRecorder mockMediaRecorder = mock(MediaRecorder.class);
@@ -1005,6 +1081,168 @@ public class CameraTest {
     assertThrows(Messages.FlutterError.class, () -> camera.setFocusMode(FocusMode.locked));
   }
 
+  @Test
+  public void setZeroShutterLagEnabled_throwsWithoutYuvReprocessing() {
+    SdkCapabilityChecker.SDK_VERSION = Build.VERSION_CODES.M;
+    when(mockCameraProperties.getAvailableCapabilities())
+        .thenReturn(
+            new int[] {CameraMetadata.REQUEST_AVAILABLE_CAPABILITIES_BACKWARD_COMPATIBLE});
+
+    assertThrows(Messages.FlutterError.class, () -> camera.setZeroShutterLagEnabled(true));
+    // Disabling is always allowed.
+    camera.setZeroShutterLagEnabled(false);
+  }
+
+  @Test
+  public void setZeroShutterLagEnabled_throwsBeforeReprocessingIsAvailable() {
+    SdkCapabilityChecker.SDK_VERSION = Build.VERSION_CODES.LOLLIPOP_MR1;
+    when(mockCameraProperties.getAvailableCapabilities())
+        .thenReturn(new int[] {CameraMetadata.REQUEST_AVAILABLE_CAPABILITIES_YUV_REPROCESSING});
+
+    assertThrows(Messages.FlutterError.class, () -> camera.setZeroShutterLagEnabled(true));
+  }
+
+  @Test
+  public void setZeroShutterLagEnabled_acceptsYuvReprocessing() {
+    SdkCapabilityChecker.SDK_VERSION = Build.VERSION_CODES.M;
+    when(mockCameraProperties.getAvailableCapabilities())
+        .thenReturn(new int[] {CameraMetadata.REQUEST_AVAILABLE_CAPABILITIES_YUV_REPROCESSING});
+
+    camera.setZeroShutterLagEnabled(true);
+  }
+
+  @Test
+  public void startPreview_fallsBackToRegularCapturesWhenZslSessionIsUnsupported()
+      throws InterruptedException, CameraAccessException {
+    camera = spy(camera);
+    doReturn(false).when(camera).isZeroShutterLagSessionSupported();
+    CaptureRequest.Builder mockRequestBuilder = mock(CaptureRequest.Builder.class);
+    ArrayList<CaptureRequest.Builder> mockRequestBuilders = new ArrayList<>();
+    mockRequestBuilders.add(mockRequestBuilder);
+    camera.cameraDevice = new FakeCameraDeviceWrapper(mockRequestBuilders);
+    ImageReader mockPictureImageReader = mock(ImageReader.class);
+    when(mockPictureImageReader.getSurface()).thenReturn(mock(Surface.class));
+    camera.pictureImageReader = mockPictureImageReader;
+    ZslRingBuffer mockZslRingBuffer = mock(ZslRingBuffer.class);
+    Surface mockZslSurface = mock(Surface.class);
+    when(mockZslRingBuffer.getSurface()).thenReturn(mockZslSurface);
+    camera.zslRingBuffer = mockZslRingBuffer;
+    when(mockCameraFeatureFactory.mockResolutionFeature.getPreviewSize())
+        .thenReturn(mock(Size.class));
+
+    camera.startPreview(null);
+
+    verify(mockZslRingBuffer).close();
+    assertNull(camera.zslRingBuffer);
+    verify(mockRequestBuilder, never()).addTarget(mockZslSurface);
+  }
+
+  @Test
+  public void takePictureBurst_shouldCallErrorOnResultForInvalidCount() {
+    @SuppressWarnings("unchecked")
+    Messages.Result<List<String>> mockResult = mock(Messages.Result.class);
+
+    camera.takePictureBurst(Camera.MAX_BURST_SIZE + 1, mockResult);
+
+    verify(mockResult, never()).success(any());
+    verify(mockResult, times(1))
+        .error(
+            argThat(
+                new FlutterErrorMatcher(
+                    "invalidBurstCount", "The burst count must be between 1 and 10.", null)));
+  }
+
+  @Test
+  public void takePictureBurst_shouldCallErrorOnResultWithoutPictureImageReader() {
+    @SuppressWarnings("unchecked")
+    Messages.Result<List<String>> mockResult = mock(Messages.Result.class);
+    camera.cameraDevice = new FakeCameraDeviceWrapper(new ArrayList<>());
+    camera.pictureImageReader = null;
+
+    camera.takePictureBurst(3, mockResult);
+
+    verify(mockResult, never()).success(any());
+    verify(mockResult, times(1))
+        .error(argThat(new FlutterErrorMatcher("cameraAccess", "Camera is closed.", null)));
+  }
+
+  @Test
+  public void takePictureBurst_savesEveryPictureOfTheBurst()
+      throws CameraAccessException, IOException {
+    final int count = 3;
+    final File cacheDir = Files.createTempDirectory("burst").toFile();
+    Context mockContext = mock(Context.class);
+    when(mockContext.getCacheDir()).thenReturn(cacheDir);
+    when(mockActivity.getApplicationContext()).thenReturn(mockContext);
+    Camera burstCamera =
+        new Camera(
+            mockActivity,
+            camera.flutterTexture,
+            mockCameraFeatureFactory,
+            mockDartMessenger,
+            mockCameraProperties,
+            new Camera.VideoCaptureSettings(ResolutionPreset.high, false));
+    when(mockCameraFeatureFactory.mockSensorOrientationFeature.getDeviceOrientationManager())
+        .thenReturn(mock(DeviceOrientationManager.class));
+    CaptureRequest.Builder mockStillBuilder = mock(CaptureRequest.Builder.class);
+    when(mockStillBuilder.build()).thenReturn(mock(CaptureRequest.class));
+    ArrayList<CaptureRequest.Builder> mockRequestBuilders = new ArrayList<>();
+    mockRequestBuilders.add(mockStillBuilder);
+    burstCamera.cameraDevice = new FakeCameraDeviceWrapper(mockRequestBuilders);
+    burstCamera.captureSession = mockCaptureSession;
+    burstCamera.previewRequestBuilder = mockPreviewRequestBuilder;
+    ImageReader mockPictureImageReader = mock(ImageReader.class);
+    when(mockPictureImageReader.getSurface()).thenReturn(mock(Surface.class));
+    when(mockPictureImageReader.acquireNextImage())
+        .thenReturn(mock(Image.class), mock(Image.class), mock(Image.class), null);
+    burstCamera.pictureImageReader = mockPictureImageReader;
+    // Every frame of the burst is delivered before any picture has been saved.
+    when(mockCaptureSession.captureBurst(any(), any(), any()))
+        .thenAnswer(
+            invocation -> {
+              ((ImageReader.OnImageAvailableListener) invocation.getArgument(1))
+                  .onImageAvailable(mockPictureImageReader);
+              return 0;
+            });
+    @SuppressWarnings("unchecked")
+    Messages.Result<List<String>> mockResult = mock(Messages.Result.class);
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    ArgumentCaptor<List<String>> pathsCaptor = ArgumentCaptor.forClass((Class) List.class);
+
+    try (MockedConstruction<ImageSaver> mockImageSaver =
+        Mockito.mockConstruction(
+            ImageSaver.class,
+            (mock, context) -> {
+              final File file = (File) context.arguments().get(1);
+              final ImageSaver.Callback callback = (ImageSaver.Callback) context.arguments().get(2);
+              doAnswer(
+                      invocation -> {
+                        callback.onComplete(file.getAbsolutePath());
+                        return null;
+                      })
+                  .when(mock)
+                  .run();
+            })) {
+      burstCamera.takePictureBurst(count, mockResult);
+
+      verify(mockDartMessenger, timeout(5000)).finish(eq(mockResult), pathsCaptor.capture());
+      assertEquals(count, mockImageSaver.constructed().size());
+    } finally {
+      for (File file : Objects.requireNonNull(cacheDir.listFiles())) {
+        file.delete();
+      }
+      cacheDir.delete();
+    }
+
+    final List<String> paths = pathsCaptor.getValue();
+    assertEquals(count, paths.size());
+    assertEquals(count, new HashSet<>(paths).size());
+    for (String path : paths) {
+      assertEquals(cacheDir, new File(path).getParentFile());
+    }
+    verify(mockResult, never()).error(any());
+  }
+
   @Test
   public void setExposureOffset_shouldUpdateExposureOffsetFeature() {
     ExposureOffsetFeature mockExposureOffsetFeature =
@@ -1216,6 +1454,22 @@ public class CameraTest {
     verify(mockCaptureSession).close();
   }
 
+  @Test
+  public void close_closesZslRingBufferAndImageWriter() {
+    SdkCapabilityChecker.SDK_VERSION = Build.VERSION_CODES.M;
+    ZslRingBuffer mockZslRingBuffer = mock(ZslRingBuffer.class);
+    camera.zslRingBuffer = mockZslRingBuffer;
+    ImageWriter mockImageWriter = mock(ImageWriter.class);
+    camera.zslImageWriter = mockImageWriter;
+
+    camera.close();
+
+    verify(mockZslRingBuffer).close();
+    assertNull(camera.zslRingBuffer);
+    verify(mockImageWriter).close();
+    assertNull(camera.zslImageWriter);
+  }
+
   @Test
   public void close_doesNotCloseCaptureSessionWhenCameraDeviceNonNull() {
     ArrayList<CaptureRequest.Builder> mockRequestBuilders = new ArrayList<>();
@@ -1344,6 +1598,146 @@ public class CameraTest {
     }
   }
 
+  @Test
+  public void close_doesNotResetMediaRecorderReleasedForMediaCodecRecording()
+      throws InterruptedException, IOException, CameraAccessException {
+    final Activity mockActivity = mock(Activity.class);
+    final TextureRegistry.SurfaceTextureEntry mockFlutterTexture =
+        mock(TextureRegistry.SurfaceTextureEntry.class);
+    final Camera.VideoCaptureSettings parameters =
+        new Camera.VideoCaptureSettings(ResolutionPreset.high, false, 15, 200000, 32000);
+
+    when(mockCameraProperties.getCameraName()).thenReturn("1");
+    final Context mockApplicationContext = mock(Context.class);
+    when(mockActivity.getApplicationContext()).thenReturn(mockApplicationContext);
+
+    try (final MockedStatic<File> mockFile = mockStatic(File.class);
+        final MockedConstruction<MediaRecorder> mockMediaRecorder =
+            Mockito.mockConstruction(MediaRecorder.class);
+        final MockedConstruction<MediaCodecRecorder> mockMediaCodecRecorder =
+            Mockito.mockConstruction(MediaCodecRecorder.class)) {
+      mockFile
+          .when(() -> File.createTempFile(any(), any(), any()))
+          .thenReturn(new File("/tmp/file.mp4"));
+
+      final Camera camera =
+          spy(
+              new Camera(
+                  mockActivity,
+                  mockFlutterTexture,
+                  mockCameraFeatureFactory,
+                  mockDartMessenger,
+                  mockCameraProperties,
+                  parameters));
+
+      final CamcorderProfile mockProfileLegacy = mock(CamcorderProfile.class);
+      when(camera.getRecordingProfileLegacy()).thenReturn(mockProfileLegacy);
+
+      final SensorOrientationFeature mockSensorOrientationFeature =
+          mockCameraFeatureFactory.createSensorOrientationFeature(mockCameraProperties, null, null);
+      when(mockSensorOrientationFeature.getDeviceOrientationManager())
+          .thenReturn(mock(DeviceOrientationManager.class));
+
+      final ArrayList<CaptureRequest.Builder> mockRequestBuilders = new ArrayList<>();
+      mockRequestBuilders.add(mock(CaptureRequest.Builder.class));
+      mockRequestBuilders.add(mock(CaptureRequest.Builder.class));
+      camera.captureSession = mockCaptureSession;
+      camera.previewRequestBuilder = mockPreviewRequestBuilder;
+      camera.pictureImageReader = mock(ImageReader.class);
+      camera.cameraDevice = new FakeCameraDeviceWrapper(mockRequestBuilders, mockCaptureSession);
+      when(camera.flutterTexture.surfaceTexture()).thenReturn(mock(SurfaceTexture.class));
+      when(mockCameraFeatureFactory.mockResolutionFeature.getPreviewSize())
+          .thenReturn(mock(Size.class));
+
+      camera.startVideoRecording(null);
+      camera.stopVideoRecording();
+
+      camera.setVideoEncoderOptions(MediaCodecRecorder.Options.DEFAULT);
+      camera.setVideoSegmentOptions(new MediaCodecRecorder.SegmentOptions(1000000, 0, 0));
+      camera.startVideoRecording(null);
+
+      assertEquals(1, mockMediaRecorder.constructed().size());
+      assertEquals(1, mockMediaCodecRecorder.constructed().size());
+      assertNull(camera.mediaRecorder);
+      assertEquals(mockMediaCodecRecorder.constructed().get(0), camera.mediaCodecRecorder);
+
+      camera.close();
+
+      final MediaRecorder firstRecorder = mockMediaRecorder.constructed().get(0);
+      final InOrder inOrder = inOrder(firstRecorder);
+      inOrder.verify(firstRecorder).reset();
+      inOrder.verify(firstRecorder).release();
+      verify(firstRecorder, times(1)).reset();
+      verify(mockMediaCodecRecorder.constructed().get(0)).release();
+    }
+  }
+
+  @Test
+  public void stopVideoRecording_throwsWhenMediaCodecRecorderFails()
+      throws InterruptedException, IOException, CameraAccessException {
+    final Activity mockActivity = mock(Activity.class);
+    final TextureRegistry.SurfaceTextureEntry mockFlutterTexture =
+        mock(TextureRegistry.SurfaceTextureEntry.class);
+    final Camera.VideoCaptureSettings parameters =
+        new Camera.VideoCaptureSettings(ResolutionPreset.high, false, 15, 200000, 32000);
+
+    when(mockCameraProperties.getCameraName()).thenReturn("1");
+    when(mockActivity.getApplicationContext()).thenReturn(mock(Context.class));
+
+    try (final MockedStatic<File> mockFile = mockStatic(File.class);
+        final MockedConstruction<MediaCodecRecorder> mockMediaCodecRecorder =
+            Mockito.mockConstruction(
+                MediaCodecRecorder.class,
+                (mock, context) ->
+                    doThrow(new IllegalStateException("No video was recorded."))
+                        .when(mock)
+                        .stop())) {
+      mockFile
+          .when(() -> File.createTempFile(any(), any(), any()))
+          .thenReturn(new File("/tmp/file.mp4"));
+
+      final Camera camera =
+          spy(
+              new Camera(
+                  mockActivity,
+                  mockFlutterTexture,
+                  mockCameraFeatureFactory,
+                  mockDartMessenger,
+                  mockCameraProperties,
+                  parameters));
+
+      final CamcorderProfile mockProfileLegacy = mock(CamcorderProfile.class);
+      when(camera.getRecordingProfileLegacy()).thenReturn(mockProfileLegacy);
+
+      final SensorOrientationFeature mockSensorOrientationFeature =
+          mockCameraFeatureFactory.createSensorOrientationFeature(mockCameraProperties, null, null);
+      when(mockSensorOrientationFeature.getDeviceOrientationManager())
+          .thenReturn(mock(DeviceOrientationManager.class));
+
+      final ArrayList<CaptureRequest.Builder> mockRequestBuilders = new ArrayList<>();
+      mockRequestBuilders.add(mock(CaptureRequest.Builder.class));
+      mockRequestBuilders.add(mock(CaptureRequest.Builder.class));
+      camera.captureSession = mockCaptureSession;
+      camera.previewRequestBuilder = mockPreviewRequestBuilder;
+      camera.pictureImageReader = mock(ImageReader.class);
+      camera.cameraDevice = new FakeCameraDeviceWrapper(mockRequestBuilders, mockCaptureSession);
+      when(camera.flutterTexture.surfaceTexture()).thenReturn(mock(SurfaceTexture.class));
+      when(mockCameraFeatureFactory.mockResolutionFeature.getPreviewSize())
+          .thenReturn(mock(Size.class));
+
+      camera.setVideoEncoderOptions(MediaCodecRecorder.Options.DEFAULT);
+      camera.startVideoRecording(null);
+
+      final Messages.FlutterError error =
+          assertThrows(Messages.FlutterError.class, camera::stopVideoRecording);
+
+      assertEquals("videoRecordingFailed", error.code);
+      assertEquals("No video was recorded.", error.getMessage());
+      assertNull(camera.mediaCodecRecorder);
+      verify(mockMediaCodecRecorder.constructed().get(0)).release();
+    }
+  }
+
   @Test
   public void pausePreview_doesNotCallStopRepeatingWhenCameraClosed() throws CameraAccessException {
     ArrayList<CaptureRequest.Builder> mockRequestBuilders = new ArrayList<>();
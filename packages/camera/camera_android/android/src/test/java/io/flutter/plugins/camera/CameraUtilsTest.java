@@ -8,6 +8,8 @@ import static org.junit.Assert.assertEquals;
 import static org.mockito.Mockito.any;
 import static org.mockito.Mockito.anyString;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import android.app.Activity;
@@ -23,10 +25,16 @@ import io.flutter.plugins.camera.features.exposurelock.ExposureMode;
 import io.flutter.plugins.camera.features.flash.FlashMode;
 import io.flutter.plugins.camera.features.resolution.ResolutionPreset;
 import java.util.List;
+import org.junit.Before;
 import org.junit.Test;
 
 public class CameraUtilsTest {
 
+  @Before
+  public void before() {
+    CameraCharacteristicsCache.getInstance().invalidate();
+  }
+
   @Test
   public void getAvailableCameras_retrievesValidCameras()
       throws CameraAccessException, NumberFormatException {
@@ -63,6 +71,33 @@ public class CameraUtilsTest {
         availableCameras.get(1).getLensDirection(), Messages.PlatformCameraLensDirection.EXTERNAL);
   }
 
+  @Test
+  public void getAvailableCameras_queriesCameraServiceOnce() throws CameraAccessException {
+    final Activity mockActivity = mock(Activity.class);
+    final CameraManager mockCameraManager = mock(CameraManager.class);
+    final CameraCharacteristics mockCameraCharacteristics = mock(CameraCharacteristics.class);
+    when(mockActivity.getSystemService(Context.CAMERA_SERVICE)).thenReturn(mockCameraManager);
+    when(mockCameraManager.getCameraIdList()).thenReturn(new String[] {"0"});
+    when(mockCameraManager.getCameraCharacteristics("0")).thenReturn(mockCameraCharacteristics);
+    // The sensor orientation and lens facing are read for every call.
+    when(mockCameraCharacteristics.get(any()))
+        .thenReturn(90, CameraMetadata.LENS_FACING_BACK, 90, CameraMetadata.LENS_FACING_BACK);
+
+    CameraUtils.getAvailableCameras(mockActivity);
+    List<Messages.PlatformCameraDescription> availableCameras =
+        CameraUtils.getAvailableCameras(mockActivity);
+
+    assertEquals(1, availableCameras.size());
+    assertEquals("0", availableCameras.get(0).getName());
+    verify(mockCameraManager, times(1)).getCameraIdList();
+    verify(mockCameraManager, times(1)).getCameraCharacteristics("0");
+
+    CameraCharacteristicsCache.getInstance().invalidate();
+    CameraUtils.getAvailableCameras(mockActivity);
+
+    verify(mockCameraManager, times(2)).getCameraIdList();
+  }
+
   @Test
   public void orientationToPigeonTest() {
     assertEquals(
@@ -6,8 +6,12 @@ package io.flutter.plugins.camera;
 
 import static org.junit.Assert.assertEquals;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 
 import android.os.Handler;
 import io.flutter.embedding.engine.systemchannels.PlatformChannel;
@@ -21,13 +25,14 @@ import org.mockito.invocation.InvocationOnMock;
 
 public class DartMessengerTest {
 
+  private Handler mockHandler;
   private DartMessenger dartMessenger;
   private Messages.CameraGlobalEventApi mockGlobalEventApi;
   private Messages.CameraEventApi mockEventApi;
 
   @Before
   public void setUp() {
-    Handler mockHandler = mock(Handler.class);
+    mockHandler = mock(Handler.class);
     doAnswer(
             (InvocationOnMock invocation) -> {
               Runnable r = invocation.getArgument(0);
@@ -38,6 +43,16 @@ public class DartMessengerTest {
             })
         .when(mockHandler)
         .post(any(Runnable.class));
+    doAnswer(
+            (InvocationOnMock invocation) -> {
+              Runnable r = invocation.getArgument(0);
+              if (r != null) {
+                r.run();
+              }
+              return true;
+            })
+        .when(mockHandler)
+        .postDelayed(any(Runnable.class), anyLong());
     mockGlobalEventApi = mock(Messages.CameraGlobalEventApi.class);
     mockEventApi = mock(Messages.CameraEventApi.class);
     dartMessenger = new DartMessenger(mockHandler, mockGlobalEventApi, mockEventApi);
@@ -100,6 +115,13 @@ public class DartMessengerTest {
     assertEquals(1, calls.get(0).intValue());
   }
 
+  @Test
+  public void sendVideoSegmentReadyEvent_includesPathDurationAndSize() {
+    dartMessenger.sendVideoSegmentReadyEvent("/tmp/REC1.mp4", 10000, 2048);
+
+    verify(mockEventApi).videoSegmentReady(eq("/tmp/REC1.mp4"), eq(10000L), eq(2048L), any());
+  }
+
   @Test
   public void sendDeviceOrientationChangedEvent() {
     final List<Messages.PlatformDeviceOrientation> eventsList = new ArrayList<>();
@@ -116,4 +138,58 @@ public class DartMessengerTest {
     assertEquals(1, eventsList.size());
     assertEquals(Messages.PlatformDeviceOrientation.PORTRAIT_UP, eventsList.get(0));
   }
+
+  @Test
+  public void sendDeviceOrientationChangedEvent_skipsUnchangedOrientation() {
+    dartMessenger.sendDeviceOrientationChangeEvent(PlatformChannel.DeviceOrientation.PORTRAIT_UP);
+    dartMessenger.sendDeviceOrientationChangeEvent(PlatformChannel.DeviceOrientation.PORTRAIT_UP);
+    dartMessenger.sendDeviceOrientationChangeEvent(
+        PlatformChannel.DeviceOrientation.LANDSCAPE_LEFT);
+
+    verify(mockGlobalEventApi, times(1))
+        .deviceOrientationChanged(eq(Messages.PlatformDeviceOrientation.PORTRAIT_UP), any());
+    verify(mockGlobalEventApi, times(1))
+        .deviceOrientationChanged(eq(Messages.PlatformDeviceOrientation.LANDSCAPE_LEFT), any());
+  }
+
+  @Test
+  public void finish_batchesResultsSentBeforeTheMainThreadRuns() {
+    final List<Runnable> posted = new ArrayList<>();
+    Handler queueingHandler = mock(Handler.class);
+    doAnswer(
+            (InvocationOnMock invocation) -> {
+              posted.add(invocation.getArgument(0));
+              return true;
+            })
+        .when(queueingHandler)
+        .post(any(Runnable.class));
+    DartMessenger batchingMessenger =
+        new DartMessenger(queueingHandler, mockGlobalEventApi, mockEventApi);
+    final List<String> results = new ArrayList<>();
+    Messages.Result<String> result =
+        new Messages.Result<String>() {
+          @Override
+          public void success(String value) {
+            results.add(value);
+          }
+
+          @Override
+          public void error(Throwable error) {}
+        };
+
+    batchingMessenger.finish(result, "first");
+    batchingMessenger.sendCameraClosingEvent();
+    batchingMessenger.finish(result, "second");
+
+    assertEquals(1, posted.size());
+    posted.get(0).run();
+    assertEquals(2, results.size());
+    assertEquals("first", results.get(0));
+    assertEquals("second", results.get(1));
+    verify(mockEventApi).closed(any());
+
+    batchingMessenger.finish(result, "third");
+
+    assertEquals(2, posted.size());
+  }
 }
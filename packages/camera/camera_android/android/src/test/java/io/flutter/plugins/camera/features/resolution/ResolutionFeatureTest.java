@@ -12,6 +12,7 @@ import static org.mockito.Mockito.any;
 import static org.mockito.Mockito.anyInt;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.mockStatic;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.when;
 
 import android.media.CamcorderProfile;
@@ -39,6 +40,7 @@ public class ResolutionFeatureTest {
   @Before
   @SuppressWarnings("deprecation")
   public void beforeLegacy() {
+    ResolutionFeature.clearProfileCache();
     mockedStaticProfile = mockStatic(CamcorderProfile.class);
     mockProfileLowLegacy = mock(CamcorderProfile.class);
     CamcorderProfile mockProfileLegacy = mock(CamcorderProfile.class);
@@ -227,6 +229,39 @@ public class ResolutionFeatureTest {
             1, ResolutionPreset.max));
   }
 
+  @Config(maxSdk = 30)
+  @SuppressWarnings("deprecation")
+  @Test
+  public void getBestAvailableCamcorderProfileForResolutionPresetLegacy_shouldCacheProfile() {
+    ResolutionFeature.getBestAvailableCamcorderProfileForResolutionPresetLegacy(
+        1, ResolutionPreset.high);
+    ResolutionFeature.getBestAvailableCamcorderProfileForResolutionPresetLegacy(
+        1, ResolutionPreset.high);
+
+    mockedStaticProfile.verify(
+        () -> CamcorderProfile.get(1, CamcorderProfile.QUALITY_720P), times(1));
+
+    ResolutionFeature.clearProfileCache();
+    ResolutionFeature.getBestAvailableCamcorderProfileForResolutionPresetLegacy(
+        1, ResolutionPreset.high);
+
+    mockedStaticProfile.verify(
+        () -> CamcorderProfile.get(1, CamcorderProfile.QUALITY_720P), times(2));
+  }
+
+  @Config(minSdk = 31)
+  @Test
+  public void getBestAvailableCamcorderProfileForResolutionPreset_shouldCacheProfiles() {
+    before();
+    ResolutionFeature.getBestAvailableCamcorderProfileForResolutionPreset(
+        1, ResolutionPreset.high);
+    ResolutionFeature.getBestAvailableCamcorderProfileForResolutionPreset(
+        1, ResolutionPreset.high);
+
+    mockedStaticProfile.verify(
+        () -> CamcorderProfile.getAll("1", CamcorderProfile.QUALITY_720P), times(1));
+  }
+
   @Config(maxSdk = 30)
   @SuppressWarnings("deprecation")
   @Test
@@ -0,0 +1,247 @@
+// Copyright 2013 The Flutter Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package io.flutter.plugins.camera.media;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertThrows;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class FragmentedMp4MuxerTest {
+  private static final byte[] SPS = {0, 0, 0, 1, 0x67, 0x64, 0, 0x1f, 1};
+  private static final byte[] PPS = {0, 0, 0, 1, 0x68, 1, 2};
+
+  private File file;
+  private RandomAccessFile randomAccessFile;
+  private FragmentedMp4Muxer muxer;
+  private int videoTrack;
+  private int audioTrack;
+
+  @Before
+  public void before() throws IOException {
+    file = File.createTempFile("REC", ".mp4");
+    randomAccessFile = new RandomAccessFile(file, "rw");
+    muxer = new FragmentedMp4Muxer(randomAccessFile.getChannel(), 90);
+    videoTrack =
+        muxer.addVideoTrack(
+            "video/avc", 640, 480, Arrays.asList(ByteBuffer.wrap(SPS), ByteBuffer.wrap(PPS)));
+    audioTrack = muxer.addAudioTrack(44100, 1, ByteBuffer.wrap(new byte[] {0x12, 0x08}));
+  }
+
+  @After
+  public void after() throws IOException {
+    randomAccessFile.close();
+    file.delete();
+  }
+
+  private void writeVideoFrame(int index, boolean keyFrame) throws IOException {
+    muxer.writeSampleData(
+        videoTrack,
+        ByteBuffer.wrap(new byte[] {0, 0, 0, 1, 0x65, (byte) index}),
+        index * 100_000L,
+        keyFrame);
+  }
+
+  /** Returns the types of the top level boxes of the file. */
+  private List<String> readTopLevelBoxes() throws IOException {
+    final ByteBuffer data = ByteBuffer.wrap(Files.readAllBytes(file.toPath()));
+    final List<String> types = new ArrayList<>();
+    while (data.remaining() >= 8) {
+      final int start = data.position();
+      final int size = data.getInt();
+      final byte[] type = new byte[4];
+      data.get(type);
+      types.add(new String(type, StandardCharsets.US_ASCII));
+      data.position(start + size);
+    }
+    assertEquals(0, data.remaining());
+    return types;
+  }
+
+  /** Returns the positions of the boxes of a type among the boxes between start and end. */
+  private static List<Integer> findBoxes(ByteBuffer data, int start, int end, String type) {
+    final List<Integer> positions = new ArrayList<>();
+    int position = start;
+    while (position + 8 <= end) {
+      final byte[] boxType = new byte[4];
+      for (int i = 0; i < boxType.length; i++) {
+        boxType[i] = data.get(position + 4 + i);
+      }
+      if (type.equals(new String(boxType, StandardCharsets.US_ASCII))) {
+        positions.add(position);
+      }
+      position += data.getInt(position);
+    }
+    return positions;
+  }
+
+  /** Returns the positions of the child boxes of a type of the box at a position. */
+  private static List<Integer> findChildBoxes(ByteBuffer data, int box, String type) {
+    return findBoxes(data, box + 8, box + data.getInt(box), type);
+  }
+
+  /**
+   * Asserts the header and the sample table of a track fragment whose samples all have the same
+   * size, and returns the offset of its samples from the start of the moof box.
+   */
+  private static int assertTrackFragment(
+      ByteBuffer data,
+      int traf,
+      int trackId,
+      long decodeTime,
+      int sampleSize,
+      int[] durations,
+      boolean[] sync) {
+    final int tfhd = findChildBoxes(data, traf, "tfhd").get(0);
+    assertEquals(trackId, data.getInt(tfhd + 12));
+    final int tfdt = findChildBoxes(data, traf, "tfdt").get(0);
+    assertEquals(decodeTime, data.getLong(tfdt + 12));
+    final int trun = findChildBoxes(data, traf, "trun").get(0);
+    assertEquals(durations.length, data.getInt(trun + 12));
+    for (int i = 0; i < durations.length; i++) {
+      final int entry = trun + 20 + i * 12;
+      assertEquals("duration of sample " + i, durations[i], data.getInt(entry));
+      assertEquals("size of sample " + i, sampleSize, data.getInt(entry + 4));
+      assertEquals(
+          "flags of sample " + i,
+          sync[i]
+              ? FragmentedMp4Muxer.SAMPLE_FLAGS_SYNC
+              : FragmentedMp4Muxer.SAMPLE_FLAGS_NON_SYNC,
+          data.getInt(entry + 8));
+    }
+    return data.getInt(trun + 16);
+  }
+
+  private static int[] repeat(int value, int count) {
+    final int[] values = new int[count];
+    Arrays.fill(values, value);
+    return values;
+  }
+
+  private static boolean[] keyFrames(int first, int count) {
+    final boolean[] sync = new boolean[count];
+    for (int i = 0; i < count; i++) {
+      sync[i] = (first + i) % 5 == 0;
+    }
+    return sync;
+  }
+
+  private static boolean[] allSync(int count) {
+    final boolean[] sync = new boolean[count];
+    Arrays.fill(sync, true);
+    return sync;
+  }
+
+  @Test
+  public void writesHeaderThenOneFragmentPerSecondStartingAtKeyFrames() throws IOException {
+    muxer.start();
+    for (int i = 0; i < 25; i++) {
+      writeVideoFrame(i, i % 5 == 0);
+      muxer.writeSampleData(
+          audioTrack, ByteBuffer.wrap(new byte[] {1, 2, 3}), i * 100_000L + 50_000L, false);
+    }
+    muxer.stop();
+
+    // Fragments are cut at the key frames at 1s and 2s, the last one is written by stop().
+    assertEquals(
+        Arrays.asList("ftyp", "moov", "moof", "mdat", "moof", "mdat", "moof", "mdat"),
+        readTopLevelBoxes());
+  }
+
+  @Test
+  public void writesTimesSizesAndFlagsOfSamplesInFragments() throws IOException {
+    muxer.start();
+    for (int i = 0; i < 15; i++) {
+      writeVideoFrame(i, i % 5 == 0);
+      muxer.writeSampleData(
+          audioTrack, ByteBuffer.wrap(new byte[] {1, 2, 3}), i * 100_000L + 50_000L, false);
+    }
+    muxer.stop();
+
+    final ByteBuffer data = ByteBuffer.wrap(Files.readAllBytes(file.toPath()));
+    final List<Integer> moofs = findBoxes(data, 0, data.limit(), "moof");
+    assertEquals(2, moofs.size());
+
+    // The first fragment ends before the key frame at 1s. The audio sample before it is kept for
+    // the next fragment, as its duration is not known yet. 100ms are 9000 video and 4410 audio
+    // units, and the audio starts 50ms after the video.
+    final int moof1 = moofs.get(0);
+    final List<Integer> trafs1 = findChildBoxes(data, moof1, "traf");
+    assertEquals(2, trafs1.size());
+    final int videoOffset1 =
+        assertTrackFragment(data, trafs1.get(0), 1, 0, 6, repeat(9000, 10), keyFrames(0, 10));
+    final int audioOffset1 =
+        assertTrackFragment(data, trafs1.get(1), 2, 2205, 3, repeat(4410, 9), allSync(9));
+    assertEquals(videoOffset1 + 10 * 6, audioOffset1);
+    assertArrayEquals(
+        new byte[] {0, 0, 0, 2, 0x65, 0},
+        Arrays.copyOfRange(data.array(), moof1 + videoOffset1, moof1 + videoOffset1 + 6));
+    assertArrayEquals(
+        new byte[] {1, 2, 3},
+        Arrays.copyOfRange(data.array(), moof1 + audioOffset1, moof1 + audioOffset1 + 3));
+
+    // The last samples, whose duration cannot be derived from the next sample, get the duration
+    // of the previous video sample and of one AAC frame.
+    final int moof2 = moofs.get(1);
+    final List<Integer> trafs2 = findChildBoxes(data, moof2, "traf");
+    assertEquals(2, trafs2.size());
+    final int videoOffset2 =
+        assertTrackFragment(data, trafs2.get(0), 1, 90000, 6, repeat(9000, 5), keyFrames(10, 5));
+    assertTrackFragment(
+        data,
+        trafs2.get(1),
+        2,
+        41895,
+        3,
+        new int[] {4410, 4410, 4410, 4410, 4410, 1024},
+        allSync(6));
+    assertArrayEquals(
+        new byte[] {0, 0, 0, 2, 0x65, 10},
+        Arrays.copyOfRange(data.array(), moof2 + videoOffset2, moof2 + videoOffset2 + 6));
+  }
+
+  @Test
+  public void dropsSamplesBeforeFirstVideoKeyFrame() throws IOException {
+    muxer.start();
+    muxer.writeSampleData(audioTrack, ByteBuffer.wrap(new byte[] {1}), 0, false);
+    writeVideoFrame(0, false);
+    muxer.stop();
+
+    assertEquals(Arrays.asList("ftyp", "moov"), readTopLevelBoxes());
+  }
+
+  @Test
+  public void annexBToLengthPrefixed_replacesStartCodesWithLengths() {
+    final byte[] annexB = {0, 0, 0, 1, 0x65, 1, 2, 0, 0, 1, 0x41, 3};
+
+    assertArrayEquals(
+        new byte[] {0, 0, 0, 3, 0x65, 1, 2, 0, 0, 0, 2, 0x41, 3},
+        FragmentedMp4Muxer.annexBToLengthPrefixed(ByteBuffer.wrap(annexB)));
+  }
+
+  @Test
+  public void addVideoTrack_throwsWithoutParameterSets() throws IOException {
+    final FragmentedMp4Muxer otherMuxer =
+        new FragmentedMp4Muxer(randomAccessFile.getChannel(), 0);
+
+    assertThrows(
+        IllegalArgumentException.class,
+        () ->
+            otherMuxer.addVideoTrack(
+                "video/avc", 640, 480, Arrays.asList(ByteBuffer.wrap(SPS))));
+  }
+}
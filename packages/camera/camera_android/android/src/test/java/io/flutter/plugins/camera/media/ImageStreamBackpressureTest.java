@@ -0,0 +1,98 @@
+// Copyright 2013 The Flutter Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package io.flutter.plugins.camera.media;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import android.os.Handler;
+import java.util.List;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+
+public class ImageStreamBackpressureTest {
+  @Test
+  public void tryAdmit_unboundedAdmitsEveryFrame() {
+    ImageStreamBackpressure backpressure = new ImageStreamBackpressure();
+    Handler mockHandler = mock(Handler.class);
+
+    for (int i = 0; i < 10; i++) {
+      assertTrue(backpressure.tryAdmit());
+      backpressure.submit(mockHandler, mock(ImageStreamBackpressure.PendingFrame.class));
+    }
+
+    assertEquals(10, backpressure.getQueueDepth());
+    assertEquals(0, backpressure.getDroppedFrameCount());
+  }
+
+  @Test
+  public void tryAdmit_boundedQueueDropsFramesWhenFull() {
+    ImageStreamBackpressure backpressure =
+        new ImageStreamBackpressure(ImageStreamBackpressure.Policy.BOUNDED_QUEUE, 2);
+    Handler mockHandler = mock(Handler.class);
+
+    assertTrue(backpressure.tryAdmit());
+    backpressure.submit(mockHandler, mock(ImageStreamBackpressure.PendingFrame.class));
+    assertTrue(backpressure.tryAdmit());
+    backpressure.submit(mockHandler, mock(ImageStreamBackpressure.PendingFrame.class));
+    assertFalse(backpressure.tryAdmit());
+
+    assertEquals(2, backpressure.getQueueDepth());
+    assertEquals(1, backpressure.getDroppedFrameCount());
+
+    ArgumentCaptor<Runnable> runnableCaptor = ArgumentCaptor.forClass(Runnable.class);
+    verify(mockHandler, times(2)).post(runnableCaptor.capture());
+    runnableCaptor.getAllValues().get(0).run();
+
+    assertEquals(1, backpressure.getQueueDepth());
+    assertTrue(backpressure.tryAdmit());
+  }
+
+  @Test
+  public void tryAdmit_everyNthFrameAdmitsOneFrameInN() {
+    ImageStreamBackpressure backpressure =
+        new ImageStreamBackpressure(ImageStreamBackpressure.Policy.EVERY_NTH_FRAME, 3);
+
+    int admitted = 0;
+    for (int i = 0; i < 9; i++) {
+      if (backpressure.tryAdmit()) {
+        admitted++;
+      }
+    }
+
+    assertEquals(3, admitted);
+    assertEquals(6, backpressure.getDroppedFrameCount());
+  }
+
+  @Test
+  public void submit_latestOnlyReplacesWaitingFrame() {
+    ImageStreamBackpressure backpressure =
+        new ImageStreamBackpressure(ImageStreamBackpressure.Policy.LATEST_ONLY, 1);
+    Handler mockHandler = mock(Handler.class);
+    ImageStreamBackpressure.PendingFrame first = mock(ImageStreamBackpressure.PendingFrame.class);
+    ImageStreamBackpressure.PendingFrame second = mock(ImageStreamBackpressure.PendingFrame.class);
+
+    assertTrue(backpressure.tryAdmit());
+    backpressure.submit(mockHandler, first);
+    assertTrue(backpressure.tryAdmit());
+    backpressure.submit(mockHandler, second);
+
+    ArgumentCaptor<Runnable> runnableCaptor = ArgumentCaptor.forClass(Runnable.class);
+    verify(mockHandler, times(1)).post(runnableCaptor.capture());
+    List<Runnable> runnables = runnableCaptor.getAllValues();
+    runnables.get(0).run();
+
+    verify(first).discard();
+    verify(first, never()).deliver();
+    verify(second).deliver();
+    assertEquals(1, backpressure.getDroppedFrameCount());
+    assertEquals(0, backpressure.getQueueDepth());
+  }
+}
@@ -0,0 +1,106 @@
+// Copyright 2013 The Flutter Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package io.flutter.plugins.camera.media;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+import android.graphics.ImageFormat;
+import org.junit.Test;
+
+public class ImageStreamBufferPoolTest {
+  @Test
+  public void acquire_reusesReleasedFrameWithSameKey() {
+    ImageStreamBufferPool pool = new ImageStreamBufferPool();
+
+    ImageStreamBufferPool.Frame first = pool.acquire(640, 480, ImageFormat.YUV_420_888);
+    byte[] firstBytes = first.getPlaneBytes(0, 100);
+    pool.release(first);
+
+    ImageStreamBufferPool.Frame second = pool.acquire(640, 480, ImageFormat.YUV_420_888);
+    byte[] secondBytes = second.getPlaneBytes(0, 100);
+
+    assertSame(first, second);
+    assertSame(firstBytes, secondBytes);
+    assertEquals(1, pool.getFrameAllocationCount());
+    assertEquals(1, pool.getBufferAllocationCount());
+    assertEquals(100, pool.getAllocatedBytes());
+    assertEquals(1, pool.getReuseCount());
+  }
+
+  @Test
+  public void acquire_allocatesWhenAllFramesAreInFlight() {
+    ImageStreamBufferPool pool = new ImageStreamBufferPool();
+
+    ImageStreamBufferPool.Frame first = pool.acquire(640, 480, ImageFormat.YUV_420_888);
+    ImageStreamBufferPool.Frame second = pool.acquire(640, 480, ImageFormat.YUV_420_888);
+
+    assertNotSame(first, second);
+    assertEquals(2, pool.getFrameAllocationCount());
+    assertEquals(0, pool.getReuseCount());
+  }
+
+  @Test
+  public void acquire_dropsPooledFramesWhenKeyChanges() {
+    ImageStreamBufferPool pool = new ImageStreamBufferPool();
+
+    ImageStreamBufferPool.Frame first = pool.acquire(640, 480, ImageFormat.YUV_420_888);
+    pool.release(first);
+    ImageStreamBufferPool.Frame second = pool.acquire(1280, 720, ImageFormat.YUV_420_888);
+
+    assertNotSame(first, second);
+    assertEquals(2, pool.getFrameAllocationCount());
+    assertEquals(0, pool.getPooledFrameCount());
+  }
+
+  @Test
+  public void release_ignoresFramesOfStaleKey() {
+    ImageStreamBufferPool pool = new ImageStreamBufferPool();
+
+    ImageStreamBufferPool.Frame stale = pool.acquire(640, 480, ImageFormat.YUV_420_888);
+    pool.acquire(1280, 720, ImageFormat.YUV_420_888);
+    pool.release(stale);
+
+    assertEquals(0, pool.getPooledFrameCount());
+  }
+
+  @Test
+  public void release_keepsAtMostCapacityFrames() {
+    ImageStreamBufferPool pool = new ImageStreamBufferPool(1);
+
+    ImageStreamBufferPool.Frame first = pool.acquire(640, 480, ImageFormat.YUV_420_888);
+    ImageStreamBufferPool.Frame second = pool.acquire(640, 480, ImageFormat.YUV_420_888);
+    pool.release(first);
+    pool.release(second);
+
+    assertEquals(1, pool.getPooledFrameCount());
+  }
+
+  @Test
+  public void getPlaneBytes_reallocatesWhenSizeChanges() {
+    ImageStreamBufferPool pool = new ImageStreamBufferPool();
+
+    ImageStreamBufferPool.Frame frame = pool.acquire(640, 480, ImageFormat.JPEG);
+    byte[] first = frame.getPlaneBytes(0, 100);
+    byte[] second = frame.getPlaneBytes(0, 200);
+
+    assertNotSame(first, second);
+    assertEquals(200, second.length);
+    assertEquals(2, pool.getBufferAllocationCount());
+    assertEquals(300, pool.getAllocatedBytes());
+  }
+
+  @Test
+  public void getPlanes_returnsRequestedNumberOfReusedMaps() {
+    ImageStreamBufferPool pool = new ImageStreamBufferPool();
+
+    ImageStreamBufferPool.Frame frame = pool.acquire(640, 480, ImageFormat.YUV_420_888);
+    Object firstPlane = frame.getPlanes(3).get(0);
+
+    assertEquals(1, frame.getPlanes(1).size());
+    assertSame(firstPlane, frame.getPlanes(3).get(0));
+  }
+}
@@ -0,0 +1,87 @@
+// Copyright 2013 The Flutter Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package io.flutter.plugins.camera.media;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import io.flutter.plugin.common.StandardMethodCodec;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.junit.Test;
+
+public class ImageStreamMessageEncoderTest {
+  private static Object decode(ByteBuffer message) {
+    ByteBuffer envelope = message.duplicate();
+    envelope.flip();
+    return StandardMethodCodec.INSTANCE.decodeEnvelope(envelope);
+  }
+
+  @Test
+  public void encodeSuccessEnvelope_matchesStandardMethodCodec() {
+    byte[] planeBytes = new byte[300];
+    for (int i = 0; i < planeBytes.length; i++) {
+      planeBytes[i] = (byte) i;
+    }
+    Map<String, Object> plane = new HashMap<>();
+    plane.put("bytesPerRow", 20);
+    plane.put("bytesPerPixel", 1);
+    plane.put("bytes", ByteBuffer.wrap(planeBytes));
+    List<Object> planes = new ArrayList<>();
+    planes.add(plane);
+    Map<String, Object> event = new HashMap<>();
+    event.put("planes", planes);
+    event.put("width", 20);
+    event.put("format", 35);
+    event.put("lensAperture", 1.8f);
+    event.put("sensorExposureTime", 10000000L);
+    event.put("sensorSensitivity", null);
+
+    ImageStreamMessageEncoder encoder = new ImageStreamMessageEncoder();
+    ByteBuffer message = encoder.encodeSuccessEnvelope(event);
+
+    assertTrue(message.isDirect());
+    @SuppressWarnings("unchecked")
+    Map<String, Object> decoded = (Map<String, Object>) decode(message);
+    assertEquals(20, decoded.get("width"));
+    assertEquals(35, decoded.get("format"));
+    assertEquals(1.8, (Double) decoded.get("lensAperture"), 1e-6);
+    assertEquals(10000000L, decoded.get("sensorExposureTime"));
+    assertTrue(decoded.containsKey("sensorSensitivity"));
+    @SuppressWarnings("unchecked")
+    Map<String, Object> decodedPlane =
+        (Map<String, Object>) ((List<Object>) decoded.get("planes")).get(0);
+    assertEquals(20, decodedPlane.get("bytesPerRow"));
+    assertArrayEquals(planeBytes, (byte[]) decodedPlane.get("bytes"));
+    assertEquals(planeBytes.length, encoder.getCopiedByteCount());
+  }
+
+  @Test
+  public void encodeSuccessEnvelope_doesNotConsumeSourceBuffer() {
+    ByteBuffer source = ByteBuffer.allocate(16);
+    ImageStreamMessageEncoder encoder = new ImageStreamMessageEncoder();
+
+    encoder.encodeSuccessEnvelope(source);
+
+    assertEquals(0, source.position());
+  }
+
+  @Test
+  public void release_reusesMessageBuffers() {
+    ImageStreamMessageEncoder encoder = new ImageStreamMessageEncoder();
+    ByteBuffer first = encoder.encodeSuccessEnvelope(new byte[1000]);
+    encoder.release(first);
+
+    ByteBuffer second = encoder.encodeSuccessEnvelope(new byte[500]);
+
+    assertSame(first, second);
+    assertArrayEquals(new byte[500], (byte[]) decode(second));
+  }
+}
@@ -0,0 +1,155 @@
+// Copyright 2013 The Flutter Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package io.flutter.plugins.camera.media;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import android.graphics.PixelFormat;
+import android.media.Image;
+import java.nio.ByteBuffer;
+import java.util.HashMap;
+import java.util.Map;
+import org.junit.Test;
+
+public class ImageStreamProcessorTest {
+  private static final int WIDTH = 64;
+  private static final int HEIGHT = 48;
+  private static final int ROW_STRIDE = 80;
+
+  /** Creates YUV planes where Y(x, y) = 4 * y + x and all chroma values are neutral. */
+  private static Image.Plane[] createPlanes() {
+    ByteBuffer yBuffer = ByteBuffer.allocate(ROW_STRIDE * (HEIGHT - 1) + WIDTH);
+    for (int row = 0; row < HEIGHT; row++) {
+      for (int col = 0; col < WIDTH; col++) {
+        yBuffer.put(row * ROW_STRIDE + col, (byte) (row * 4 + col));
+      }
+    }
+    int chromaSize = ROW_STRIDE * (HEIGHT / 2 - 1) + WIDTH - 1;
+    ByteBuffer uBuffer = ByteBuffer.allocate(chromaSize);
+    ByteBuffer vBuffer = ByteBuffer.allocate(chromaSize);
+    for (int i = 0; i < chromaSize; i++) {
+      uBuffer.put(i, (byte) 128);
+      vBuffer.put(i, (byte) 128);
+    }
+
+    Image.Plane planeY = mock(Image.Plane.class);
+    Image.Plane planeU = mock(Image.Plane.class);
+    Image.Plane planeV = mock(Image.Plane.class);
+    when(planeY.getBuffer()).thenReturn(yBuffer);
+    when(planeY.getRowStride()).thenReturn(ROW_STRIDE);
+    when(planeY.getPixelStride()).thenReturn(1);
+    when(planeU.getBuffer()).thenReturn(uBuffer);
+    when(planeU.getRowStride()).thenReturn(ROW_STRIDE);
+    when(planeU.getPixelStride()).thenReturn(2);
+    when(planeV.getBuffer()).thenReturn(vBuffer);
+    when(planeV.getRowStride()).thenReturn(ROW_STRIDE);
+    when(planeV.getPixelStride()).thenReturn(2);
+    return new Image.Plane[] {planeY, planeU, planeV};
+  }
+
+  @Test
+  public void process_cropsAndDownscalesLuminanceByIntegerFactor() {
+    ImageStreamProcessor processor =
+        new ImageStreamProcessor(
+            new ImageStreamProcessor.Config(
+                10,
+                6,
+                32,
+                24,
+                0,
+                0,
+                2,
+                ImageStreamProcessor.Scaling.NEAREST,
+                ImageStreamProcessor.OutputFormat.LUMINANCE));
+
+    byte[] result = processor.process(createPlanes(), WIDTH, HEIGHT, null);
+
+    assertEquals(16, processor.getOutputWidth());
+    assertEquals(12, processor.getOutputHeight());
+    assertEquals(16 * 12, result.length);
+    byte[] expected = new byte[16 * 12];
+    for (int row = 0; row < 12; row++) {
+      for (int col = 0; col < 16; col++) {
+        expected[row * 16 + col] = (byte) ((6 + row * 2) * 4 + 10 + col * 2);
+      }
+    }
+    assertArrayEquals(expected, result);
+  }
+
+  @Test
+  public void process_convertsToRgbaWithBilinearScaling() {
+    ImageStreamProcessor processor =
+        new ImageStreamProcessor(
+            new ImageStreamProcessor.Config(
+                0,
+                0,
+                0,
+                0,
+                32,
+                0,
+                1,
+                ImageStreamProcessor.Scaling.BILINEAR,
+                ImageStreamProcessor.OutputFormat.RGBA));
+
+    byte[] result = processor.process(createPlanes(), WIDTH, HEIGHT, null);
+
+    // The aspect ratio is kept when only the target width is given.
+    assertEquals(32, processor.getOutputWidth());
+    assertEquals(24, processor.getOutputHeight());
+    assertEquals(PixelFormat.RGBA_8888, processor.getOutputImageFormat());
+    // The first output pixel averages Y values 0, 1, 4 and 5. Neutral chroma gives gray.
+    assertEquals(3, result[0] & 0xFF);
+    assertEquals(3, result[1] & 0xFF);
+    assertEquals(3, result[2] & 0xFF);
+    assertEquals(255, result[3] & 0xFF);
+  }
+
+  @Test
+  public void process_writesIntoReusableBufferOfMatchingSize() {
+    ImageStreamProcessor processor =
+        new ImageStreamProcessor(
+            new ImageStreamProcessor.Config(
+                0,
+                0,
+                0,
+                0,
+                16,
+                12,
+                1,
+                ImageStreamProcessor.Scaling.NEAREST,
+                ImageStreamProcessor.OutputFormat.LUMINANCE));
+    byte[] reusable = new byte[16 * 12];
+
+    assertSame(reusable, processor.process(createPlanes(), WIDTH, HEIGHT, reusable));
+  }
+
+  @Test
+  public void configFromMap_parsesAllValues() {
+    Map<String, Object> map = new HashMap<>();
+    map.put("cropLeft", 10);
+    map.put("cropTop", 20L);
+    map.put("cropWidth", 30);
+    map.put("cropHeight", 40);
+    map.put("targetWidth", 15);
+    map.put("scaling", "bilinear");
+    map.put("output", "rgba");
+
+    ImageStreamProcessor.Config config = ImageStreamProcessor.Config.fromMap(map);
+
+    assertEquals(10, config.cropLeft);
+    assertEquals(20, config.cropTop);
+    assertEquals(30, config.cropWidth);
+    assertEquals(40, config.cropHeight);
+    assertEquals(15, config.targetWidth);
+    assertEquals(0, config.targetHeight);
+    assertEquals(1, config.downscaleFactor);
+    assertEquals(ImageStreamProcessor.Scaling.BILINEAR, config.scaling);
+    assertEquals(ImageStreamProcessor.OutputFormat.RGBA, config.outputFormat);
+  }
+}
@@ -5,22 +5,29 @@
 package io.flutter.plugins.camera.media;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import android.graphics.ImageFormat;
 import android.media.Image;
 import android.media.ImageReader;
+import android.os.Looper;
+import io.flutter.plugin.common.BinaryMessenger;
 import io.flutter.plugin.common.EventChannel;
 import io.flutter.plugins.camera.types.CameraCaptureProperties;
 import java.nio.ByteBuffer;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.robolectric.RobolectricTestRunner;
+import org.robolectric.Shadows;
 
 @RunWith(RobolectricTestRunner.class)
 public class ImageStreamReaderTest {
@@ -162,4 +169,102 @@ public class ImageStreamReaderTest {
     // Make sure we processed the frame with parsePlanesForYuvOrJpeg
     verify(mockImageStreamReaderUtils, never()).yuv420ThreePlanesToNV21(any(), anyInt(), anyInt());
   }
+
+  @Test
+  public void applyOptions_createsBufferPoolOnlyWhenRecycling() {
+    ImageStreamReader imageStreamReader =
+        new ImageStreamReader(
+            mock(ImageReader.class), ImageFormat.YUV_420_888, mock(ImageStreamReaderUtils.class));
+
+    imageStreamReader.applyOptions(
+        new ImageStreamOptions.Builder().setRecycleBuffers(true).build());
+    assertNotNull(imageStreamReader.getBufferPool());
+
+    imageStreamReader.applyOptions(ImageStreamOptions.DEFAULT);
+    assertNull(imageStreamReader.getBufferPool());
+  }
+
+  /** Once Dart has received a frame, its buffers should be reused for the next frame. */
+  @Test
+  public void onImageAvailable_reusesBuffersWhenRecycling() {
+    ImageStreamReader imageStreamReader =
+        new ImageStreamReader(
+            mock(ImageReader.class), ImageFormat.YUV_420_888, mock(ImageStreamReaderUtils.class));
+    imageStreamReader.applyOptions(
+        new ImageStreamOptions.Builder().setRecycleBuffers(true).build());
+    ImageStreamBufferPool pool = imageStreamReader.getBufferPool();
+
+    CameraCaptureProperties mockCaptureProps = mock(CameraCaptureProperties.class);
+    EventChannel.EventSink mockEventSink = mock(EventChannel.EventSink.class);
+
+    imageStreamReader.onImageAvailable(createYuvImage(), mockCaptureProps, mockEventSink);
+    Shadows.shadowOf(Looper.getMainLooper()).idle();
+    imageStreamReader.onImageAvailable(createYuvImage(), mockCaptureProps, mockEventSink);
+    Shadows.shadowOf(Looper.getMainLooper()).idle();
+
+    verify(mockEventSink, times(2)).success(any());
+    assertEquals(1, pool.getFrameAllocationCount());
+    assertEquals(3, pool.getBufferAllocationCount());
+    assertEquals(1, pool.getReuseCount());
+  }
+
+  /** With direct buffers, planes should be copied once, straight into the outgoing message. */
+  @Test
+  public void onImageAvailable_sendsDirectBuffersThroughMessenger() {
+    ImageStreamReader imageStreamReader =
+        new ImageStreamReader(
+            mock(ImageReader.class), ImageFormat.YUV_420_888, mock(ImageStreamReaderUtils.class));
+    BinaryMessenger mockMessenger = mock(BinaryMessenger.class);
+    imageStreamReader.setBinaryMessenger(mockMessenger, "imageStream");
+    imageStreamReader.applyOptions(new ImageStreamOptions.Builder().setDirectBuffers(true).build());
+
+    CameraCaptureProperties mockCaptureProps = mock(CameraCaptureProperties.class);
+    EventChannel.EventSink mockEventSink = mock(EventChannel.EventSink.class);
+
+    imageStreamReader.onImageAvailable(createYuvImage(), mockCaptureProps, mockEventSink);
+    Shadows.shadowOf(Looper.getMainLooper()).idle();
+
+    verify(mockMessenger).send(eq("imageStream"), any(ByteBuffer.class));
+    verify(mockEventSink, never()).success(any());
+    assertEquals(160 * 120 + 2 * (160 * 60 - 1), imageStreamReader.getCopiedByteCount());
+  }
+
+  /** Without direct buffers, each plane byte is copied three times before reaching the engine. */
+  @Test
+  public void onImageAvailable_countsEventSinkCopies() {
+    ImageStreamReader imageStreamReader =
+        new ImageStreamReader(
+            mock(ImageReader.class), ImageFormat.YUV_420_888, mock(ImageStreamReaderUtils.class));
+
+    imageStreamReader.onImageAvailable(
+        createYuvImage(),
+        mock(CameraCaptureProperties.class),
+        mock(EventChannel.EventSink.class));
+
+    assertEquals(3L * (160 * 120 + 2 * (160 * 60 - 1)), imageStreamReader.getCopiedByteCount());
+  }
+
+  private static Image createYuvImage() {
+    Image mockImage = mock(Image.class);
+    when(mockImage.getWidth()).thenReturn(160);
+    when(mockImage.getHeight()).thenReturn(120);
+    when(mockImage.getFormat()).thenReturn(ImageFormat.YUV_420_888);
+
+    Image.Plane planeY = mock(Image.Plane.class);
+    Image.Plane planeU = mock(Image.Plane.class);
+    Image.Plane planeV = mock(Image.Plane.class);
+    when(planeY.getBuffer()).thenReturn(ByteBuffer.allocate(160 * 120));
+    when(planeY.getRowStride()).thenReturn(160);
+    when(planeY.getPixelStride()).thenReturn(1);
+    when(planeU.getBuffer()).thenReturn(ByteBuffer.allocate(160 * 60 - 1));
+    when(planeV.getBuffer()).thenReturn(ByteBuffer.allocate(160 * 60 - 1));
+    when(planeU.getRowStride()).thenReturn(160);
+    when(planeV.getRowStride()).thenReturn(160);
+    when(planeU.getPixelStride()).thenReturn(2);
+    when(planeV.getPixelStride()).thenReturn(2);
+
+    Image.Plane[] planes = {planeY, planeU, planeV};
+    when(mockImage.getPlanes()).thenReturn(planes);
+    return mockImage;
+  }
 }
@@ -0,0 +1,125 @@
+// Copyright 2013 The Flutter Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package io.flutter.plugins.camera.media;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assume.assumeTrue;
+
+import android.media.Image;
+import java.nio.ByteBuffer;
+import java.util.Locale;
+import java.util.Random;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Benchmarks the YUV_420_888 to NV21 conversion on synthetic 1080p planes with the stride layouts
+ * commonly produced by camera HALs.
+ *
+ * <p>The benchmarks are skipped by the unit test run, and run with {@code ./gradlew
+ * testDebugUnitTest -PcameraBenchmark --tests '*BenchmarkTest'}. Each layout is checked against a
+ * per-pixel reference conversion, which is the layout-agnostic loop the converter used before the
+ * bulk copy paths were added, and fails if the conversion is not at least {@link #MIN_SPEEDUP}
+ * times faster than the reference.
+ */
+public class ImageStreamReaderUtilsBenchmarkTest {
+  private static final int WIDTH = 1920;
+  private static final int HEIGHT = 1080;
+  private static final int WARM_UP_ITERATIONS = 5;
+  private static final int ITERATIONS = 20;
+  private static final double MIN_SPEEDUP = 2;
+
+  @Before
+  public void setUp() {
+    assumeTrue(Boolean.getBoolean("cameraBenchmark"));
+  }
+
+  @Test
+  public void benchmarkSemiPlanarChroma() {
+    runBenchmark("semi-planar", 0, 2);
+  }
+
+  @Test
+  public void benchmarkPaddedSemiPlanarChroma() {
+    runBenchmark("padded semi-planar", 128, 2);
+  }
+
+  @Test
+  public void benchmarkPlanarChroma() {
+    runBenchmark("planar", 0, 1);
+  }
+
+  @Test
+  public void benchmarkPaddedPlanarChroma() {
+    runBenchmark("padded planar", 64, 1);
+  }
+
+  private static void runBenchmark(String layout, int padding, int chromaPixelStride) {
+    Image.Plane[] planes =
+        ImageStreamReaderUtilsTest.createPlanes(
+            WIDTH, HEIGHT, padding, chromaPixelStride, new Random(0));
+    ImageStreamReaderUtils imageStreamReaderUtils = new ImageStreamReaderUtils();
+    byte[] out = new byte[ImageStreamReaderUtils.getNv21Size(WIDTH, HEIGHT)];
+    byte[] referenceOut = new byte[out.length];
+
+    for (int i = 0; i < WARM_UP_ITERATIONS; i++) {
+      imageStreamReaderUtils.yuv420ThreePlanesToNV21(planes, WIDTH, HEIGHT, out);
+      referenceYuv420ThreePlanesToNV21(planes, referenceOut);
+    }
+
+    long start = System.nanoTime();
+    for (int i = 0; i < ITERATIONS; i++) {
+      imageStreamReaderUtils.yuv420ThreePlanesToNV21(planes, WIDTH, HEIGHT, out);
+    }
+    long convertNanos = System.nanoTime() - start;
+
+    start = System.nanoTime();
+    for (int i = 0; i < ITERATIONS; i++) {
+      referenceYuv420ThreePlanesToNV21(planes, referenceOut);
+    }
+    long referenceNanos = System.nanoTime() - start;
+
+    assertArrayEquals(referenceOut, out);
+    String timings =
+        String.format(
+            Locale.ENGLISH,
+            "yuv420ThreePlanesToNV21 %dx%d %s: %.2f ms/frame (per-pixel reference: %.2f ms/frame)",
+            WIDTH,
+            HEIGHT,
+            layout,
+            convertNanos / (ITERATIONS * 1e6),
+            referenceNanos / (ITERATIONS * 1e6));
+    System.out.println(timings);
+    assertTrue(timings, convertNanos * MIN_SPEEDUP <= referenceNanos);
+  }
+
+  /** Unpacks every plane one byte at a time, regardless of its layout. */
+  private static void referenceYuv420ThreePlanesToNV21(Image.Plane[] planes, byte[] out) {
+    int imageSize = WIDTH * HEIGHT;
+    referenceUnpackPlane(planes[0], out, 0, 1);
+    referenceUnpackPlane(planes[1], out, imageSize + 1, 2);
+    referenceUnpackPlane(planes[2], out, imageSize, 2);
+  }
+
+  private static void referenceUnpackPlane(
+      Image.Plane plane, byte[] out, int offset, int pixelStride) {
+    ByteBuffer buffer = plane.getBuffer();
+    int rowStride = plane.getRowStride();
+    int inputPixelStride = plane.getPixelStride();
+    int numRow = (buffer.limit() + rowStride - 1) / rowStride;
+    int numCol = WIDTH / (HEIGHT / numRow);
+
+    int outputPos = offset;
+    for (int row = 0; row < numRow; row++) {
+      int inputPos = row * rowStride;
+      for (int col = 0; col < numCol; col++) {
+        out[outputPos] = buffer.get(inputPos);
+        outputPos += pixelStride;
+        inputPos += inputPixelStride;
+      }
+    }
+  }
+}
@@ -10,6 +10,7 @@ import static org.mockito.Mockito.when;
 import android.graphics.ImageFormat;
 import android.media.Image;
 import java.nio.ByteBuffer;
+import java.util.Random;
 import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
@@ -96,4 +97,115 @@ public class ImageStreamReaderUtilsTest {
         ((long) imageWidth * imageHeight) + (2 * ((long) (imageWidth / 2) * (imageHeight / 2))),
         result.limit());
   }
+
+  /**
+   * Creates YUV planes filled with pseudo-random data.
+   *
+   * @param padding the number of padding bytes at the end of each row.
+   * @param chromaPixelStride 2 for semi-planar chroma (the common layout), 1 for planar chroma.
+   */
+  static Image.Plane[] createPlanes(
+      int imageWidth, int imageHeight, int padding, int chromaPixelStride, Random random) {
+    int rowStride = imageWidth + padding;
+    ByteBuffer yBuffer = ByteBuffer.allocateDirect(rowStride * (imageHeight - 1) + imageWidth);
+    int chromaRowStride = chromaPixelStride == 2 ? rowStride : imageWidth / 2 + padding / 2;
+    int chromaSize =
+        chromaRowStride * (imageHeight / 2 - 1) + (imageWidth / 2 - 1) * chromaPixelStride + 1;
+    ByteBuffer uBuffer = ByteBuffer.allocateDirect(chromaSize);
+    ByteBuffer vBuffer = ByteBuffer.allocateDirect(chromaSize);
+    fill(yBuffer, random);
+    fill(uBuffer, random);
+    fill(vBuffer, random);
+
+    Image.Plane planeY = mock(Image.Plane.class);
+    Image.Plane planeU = mock(Image.Plane.class);
+    Image.Plane planeV = mock(Image.Plane.class);
+    when(planeY.getBuffer()).thenReturn(yBuffer);
+    when(planeY.getRowStride()).thenReturn(rowStride);
+    when(planeY.getPixelStride()).thenReturn(1);
+    when(planeU.getBuffer()).thenReturn(uBuffer);
+    when(planeU.getRowStride()).thenReturn(chromaRowStride);
+    when(planeU.getPixelStride()).thenReturn(chromaPixelStride);
+    when(planeV.getBuffer()).thenReturn(vBuffer);
+    when(planeV.getRowStride()).thenReturn(chromaRowStride);
+    when(planeV.getPixelStride()).thenReturn(chromaPixelStride);
+    return new Image.Plane[] {planeY, planeU, planeV};
+  }
+
+  private static void fill(ByteBuffer buffer, Random random) {
+    for (int i = 0; i < buffer.limit(); i++) {
+      buffer.put(i, (byte) random.nextInt());
+    }
+  }
+
+  /** Builds the expected NV21 image by reading the planes one pixel at a time. */
+  static byte[] referenceNv21(Image.Plane[] planes, int imageWidth, int imageHeight) {
+    byte[] out = new byte[imageWidth * imageHeight * 3 / 2];
+    int imageSize = imageWidth * imageHeight;
+    for (int row = 0; row < imageHeight; row++) {
+      for (int col = 0; col < imageWidth; col++) {
+        out[row * imageWidth + col] =
+            planes[0].getBuffer().get(row * planes[0].getRowStride() + col);
+      }
+    }
+    int uRowStride = planes[1].getRowStride();
+    int uvPixelStride = planes[1].getPixelStride();
+    int outputPos = imageSize;
+    for (int row = 0; row < imageHeight / 2; row++) {
+      for (int col = 0; col < imageWidth / 2; col++) {
+        int inputPos = row * uRowStride + col * uvPixelStride;
+        out[outputPos++] = planes[2].getBuffer().get(inputPos);
+        out[outputPos++] = planes[1].getBuffer().get(inputPos);
+      }
+    }
+    return out;
+  }
+
+  @Test
+  public void yuv420ThreePlanesToNV21_convertsSemiPlanarChroma() {
+    Image.Plane[] planes = createPlanes(160, 120, 0, 2, new Random(1));
+
+    ByteBuffer result = imageStreamReaderUtils.yuv420ThreePlanesToNV21(planes, 160, 120);
+
+    Assert.assertArrayEquals(referenceNv21(planes, 160, 120), result.array());
+  }
+
+  @Test
+  public void yuv420ThreePlanesToNV21_convertsPaddedSemiPlanarChroma() {
+    Image.Plane[] planes = createPlanes(160, 120, 32, 2, new Random(2));
+
+    ByteBuffer result = imageStreamReaderUtils.yuv420ThreePlanesToNV21(planes, 160, 120);
+
+    Assert.assertArrayEquals(referenceNv21(planes, 160, 120), result.array());
+  }
+
+  @Test
+  public void yuv420ThreePlanesToNV21_convertsPlanarChroma() {
+    Image.Plane[] planes = createPlanes(160, 120, 0, 1, new Random(3));
+
+    ByteBuffer result = imageStreamReaderUtils.yuv420ThreePlanesToNV21(planes, 160, 120);
+
+    Assert.assertArrayEquals(referenceNv21(planes, 160, 120), result.array());
+  }
+
+  @Test
+  public void yuv420ThreePlanesToNV21_convertsPaddedPlanarChroma() {
+    Image.Plane[] planes = createPlanes(160, 120, 16, 1, new Random(4));
+
+    ByteBuffer result = imageStreamReaderUtils.yuv420ThreePlanesToNV21(planes, 160, 120);
+
+    Assert.assertArrayEquals(referenceNv21(planes, 160, 120), result.array());
+  }
+
+  @Test
+  public void yuv420ThreePlanesToNV21_writesIntoReusableBuffer() {
+    Image.Plane[] planes = createPlanes(160, 120, 16, 2, new Random(5));
+    byte[] reusable = new byte[ImageStreamReaderUtils.getNv21Size(160, 120)];
+
+    ByteBuffer result =
+        imageStreamReaderUtils.yuv420ThreePlanesToNV21(planes, 160, 120, reusable);
+
+    Assert.assertSame(reusable, result.array());
+    Assert.assertArrayEquals(referenceNv21(planes, 160, 120), reusable);
+  }
 }
@@ -0,0 +1,317 @@
+// Copyright 2013 The Flutter Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package io.flutter.plugins.camera.media;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.mockStatic;
+
+import android.media.MediaCodec;
+import android.media.MediaFormat;
+import android.os.SystemClock;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.MockedStatic;
+
+public class MediaCodecRecorderTest {
+  private MockedStatic<SystemClock> mockedSystemClock;
+  private final List<File> files = new ArrayList<>();
+  private final List<FakeSampleWriter> writers = new ArrayList<>();
+  private final List<String> readyPaths = new ArrayList<>();
+  private final List<Long> readyDurationsUs = new ArrayList<>();
+  private int keyFrameRequestCount;
+
+  @Before
+  public void before() {
+    mockedSystemClock = mockStatic(SystemClock.class);
+  }
+
+  @After
+  public void after() {
+    mockedSystemClock.close();
+    for (File file : files) {
+      file.delete();
+    }
+  }
+
+  /** Records the calls of the recorder instead of writing a file. */
+  private static class FakeSampleWriter implements MediaCodecRecorder.SampleWriter {
+    int sampleCount;
+    boolean started;
+    boolean stopped;
+    boolean released;
+
+    @Override
+    public int addTrack(@NonNull MediaFormat format) {
+      return 0;
+    }
+
+    @Override
+    public void start() {
+      started = true;
+    }
+
+    @Override
+    public void writeSampleData(
+        int trackIndex, @NonNull ByteBuffer data, @NonNull MediaCodec.BufferInfo info) {
+      sampleCount++;
+    }
+
+    @Override
+    public void stop() {
+      stopped = true;
+    }
+
+    @Override
+    public void release() {
+      released = true;
+    }
+  }
+
+  private File createFile() throws IOException {
+    final File file = File.createTempFile("REC", ".mp4");
+    files.add(file);
+    return file;
+  }
+
+  /** Returns a started recorder writing segments with fake writers. */
+  private MediaCodecRecorder startSegmentedRecorder(
+      @Nullable MediaCodecRecorder.SegmentOptions options)
+      throws IOException {
+    final MediaCodecRecorder recorder =
+        new MediaCodecRecorder(
+            createFile().getAbsolutePath(),
+            MediaCodecRecorder.Options.DEFAULT,
+            640,
+            480,
+            30,
+            1000000,
+            false,
+            0,
+            0,
+            0,
+            true) {
+          @NonNull
+          @Override
+          SampleWriter createWriter(@NonNull String path) {
+            final FakeSampleWriter writer = new FakeSampleWriter();
+            writers.add(writer);
+            return writer;
+          }
+
+          @Override
+          void requestKeyFrame() {
+            keyFrameRequestCount++;
+          }
+        };
+    recorder.setSegmentation(
+        options,
+        new MediaCodecRecorder.SegmentListener() {
+          @NonNull
+          @Override
+          public String createSegmentPath() throws IOException {
+            return createFile().getAbsolutePath();
+          }
+
+          @Override
+          public void onSegmentReady(@NonNull String path, long durationUs, long sizeBytes) {
+            readyPaths.add(path);
+            readyDurationsUs.add(durationUs);
+          }
+        });
+    recorder.openWriter();
+    recorder.addTrack(mock(MediaFormat.class), true);
+    recorder.start();
+    return recorder;
+  }
+
+  private static void writeVideoFrame(
+      MediaCodecRecorder recorder, long timeUs, boolean keyFrame, int size) throws IOException {
+    final MediaCodec.BufferInfo info = new MediaCodec.BufferInfo();
+    info.presentationTimeUs = timeUs;
+    info.size = size;
+    info.flags = keyFrame ? MediaCodec.BUFFER_FLAG_KEY_FRAME : 0;
+    recorder.writeSample(ByteBuffer.allocate(size), info, true);
+  }
+
+  private void setNowUs(long nowUs) {
+    mockedSystemClock.when(SystemClock::elapsedRealtimeNanos).thenReturn(nowUs * 1000);
+  }
+
+  private static MediaCodecRecorder createRecorder(boolean sensorTimestampRealtime) {
+    return new MediaCodecRecorder(
+        "/tmp/file.mp4",
+        MediaCodecRecorder.Options.DEFAULT,
+        640,
+        480,
+        30,
+        1000000,
+        false,
+        0,
+        0,
+        0,
+        sensorTimestampRealtime);
+  }
+
+  @Test
+  public void adjustForPauses_leavesOutPauses() {
+    final MediaCodecRecorder recorder = createRecorder(true);
+    setNowUs(1000);
+    recorder.pause();
+    setNowUs(3000);
+    recorder.resume();
+    setNowUs(4000);
+    recorder.pause();
+    setNowUs(4500);
+    recorder.resume();
+
+    assertEquals(500, recorder.adjustForPauses(500));
+    assertEquals(-1, recorder.adjustForPauses(2000));
+    assertEquals(1500, recorder.adjustForPauses(3500));
+    assertEquals(-1, recorder.adjustForPauses(4200));
+    assertEquals(2500, recorder.adjustForPauses(5000));
+  }
+
+  @Test
+  public void adjustForPauses_dropsSamplesOfOngoingPause() {
+    final MediaCodecRecorder recorder = createRecorder(true);
+    setNowUs(1000);
+    recorder.pause();
+
+    assertEquals(900, recorder.adjustForPauses(900));
+    assertEquals(-1, recorder.adjustForPauses(1500));
+  }
+
+  @Test
+  public void toRecordingTimeUs_keepsRealtimeVideoTimestamps() {
+    final MediaCodecRecorder recorder = createRecorder(true);
+    setNowUs(1_000_000);
+    recorder.updateVideoTimeOffset(5_000_000);
+
+    assertEquals(5_000_000, recorder.toRecordingTimeUs(5_000_000));
+  }
+
+  @Test
+  public void toRecordingTimeUs_alignsVideoTimestampsOfUnknownTimebase() {
+    final MediaCodecRecorder recorder = createRecorder(false);
+    setNowUs(1_000_000);
+    recorder.updateVideoTimeOffset(5_000_000);
+
+    assertEquals(1_000_000, recorder.toRecordingTimeUs(5_000_000));
+
+    // This frame was output sooner after it was captured, which gives a closer estimate.
+    setNowUs(1_100_000);
+    recorder.updateVideoTimeOffset(5_120_000);
+    // This one was output later, which does not change the estimate.
+    setNowUs(1_200_000);
+    recorder.updateVideoTimeOffset(5_210_000);
+
+    assertEquals(1_100_000, recorder.toRecordingTimeUs(5_120_000));
+    assertEquals(1_190_000, recorder.toRecordingTimeUs(5_210_000));
+  }
+
+  @Test
+  public void writeSample_startsNextSegmentAtKeyFrameAfterMaxDuration() throws IOException {
+    final MediaCodecRecorder recorder =
+        startSegmentedRecorder(new MediaCodecRecorder.SegmentOptions(1_000_000, 0, 0));
+
+    writeVideoFrame(recorder, 0, true, 10);
+    writeVideoFrame(recorder, 500_000, false, 10);
+    // The segment is full, but the next one has to start with a key frame.
+    writeVideoFrame(recorder, 1_000_000, false, 10);
+
+    assertEquals(1, writers.size());
+    assertEquals(0, readyPaths.size());
+
+    writeVideoFrame(recorder, 1_200_000, true, 10);
+
+    assertEquals(2, writers.size());
+    assertEquals(3, writers.get(0).sampleCount);
+    assertTrue(writers.get(0).stopped);
+    assertTrue(writers.get(0).released);
+    assertTrue(writers.get(1).started);
+    assertEquals(1, writers.get(1).sampleCount);
+    assertEquals(1, readyPaths.size());
+    assertEquals(Long.valueOf(1_200_000), readyDurationsUs.get(0));
+  }
+
+  @Test
+  public void writeSample_startsNextSegmentAtKeyFrameAfterMaxSize() throws IOException {
+    final MediaCodecRecorder recorder =
+        startSegmentedRecorder(new MediaCodecRecorder.SegmentOptions(0, 100, 0));
+
+    writeVideoFrame(recorder, 0, true, 60);
+    writeVideoFrame(recorder, 100_000, true, 60);
+
+    assertEquals(1, writers.size());
+
+    writeVideoFrame(recorder, 200_000, true, 60);
+
+    assertEquals(2, writers.size());
+    assertEquals(2, writers.get(0).sampleCount);
+    assertEquals(Long.valueOf(200_000), readyDurationsUs.get(0));
+  }
+
+  @Test
+  public void writeSample_requestsKeyFrameOnceFragmentReachesItsDuration() throws IOException {
+    final MediaCodecRecorder recorder = startSegmentedRecorder(null);
+    // start() requests the first key frame.
+    keyFrameRequestCount = 0;
+
+    writeVideoFrame(recorder, 0, true, 10);
+    writeVideoFrame(recorder, 900_000, false, 10);
+
+    assertEquals(0, keyFrameRequestCount);
+
+    writeVideoFrame(recorder, 1_000_000, false, 10);
+    writeVideoFrame(recorder, 1_100_000, false, 10);
+
+    assertEquals(1, keyFrameRequestCount);
+
+    writeVideoFrame(recorder, 1_200_000, true, 10);
+    writeVideoFrame(recorder, 2_100_000, false, 10);
+
+    assertEquals(1, keyFrameRequestCount);
+
+    writeVideoFrame(recorder, 2_200_000, false, 10);
+
+    assertEquals(2, keyFrameRequestCount);
+  }
+
+  @Test
+  public void stop_completesLastSegmentAndKeepsMaxSegmentCount() throws IOException {
+    final MediaCodecRecorder recorder =
+        startSegmentedRecorder(new MediaCodecRecorder.SegmentOptions(100_000, 0, 2));
+
+    for (int i = 0; i < 5; i++) {
+      writeVideoFrame(recorder, i * 100_000L, true, 10);
+    }
+
+    assertEquals(4, readyPaths.size());
+    assertFalse(new File(readyPaths.get(0)).exists());
+    assertFalse(new File(readyPaths.get(1)).exists());
+    assertTrue(new File(readyPaths.get(2)).exists());
+    assertTrue(new File(readyPaths.get(3)).exists());
+
+    recorder.stop();
+
+    assertEquals(5, readyPaths.size());
+    assertEquals(recorder.getOutputFilePath(), readyPaths.get(4));
+    assertTrue(writers.get(4).stopped);
+    assertFalse(new File(readyPaths.get(2)).exists());
+    assertTrue(new File(readyPaths.get(3)).exists());
+    assertTrue(new File(readyPaths.get(4)).exists());
+  }
+}
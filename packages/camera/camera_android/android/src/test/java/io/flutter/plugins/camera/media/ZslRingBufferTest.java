@@ -0,0 +1,137 @@
+// Copyright 2013 The Flutter Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package io.flutter.plugins.camera.media;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import android.hardware.camera2.TotalCaptureResult;
+import android.media.Image;
+import android.media.ImageReader;
+import org.junit.Before;
+import org.junit.Test;
+
+public class ZslRingBufferTest {
+  private ImageReader mockImageReader;
+  private ZslRingBuffer ringBuffer;
+
+  @Before
+  public void before() {
+    mockImageReader = mock(ImageReader.class);
+    ringBuffer = new ZslRingBuffer(mockImageReader, 2);
+  }
+
+  private Image addFrame(long timestamp) {
+    Image mockImage = mock(Image.class);
+    when(mockImage.getTimestamp()).thenReturn(timestamp);
+    when(mockImageReader.acquireNextImage()).thenReturn(mockImage);
+    ringBuffer.onImageAvailable(mockImageReader);
+    return mockImage;
+  }
+
+  @Test
+  public void onImageAvailable_closesOldestFrameWhenFull() {
+    Image first = addFrame(100);
+    Image second = addFrame(200);
+    Image third = addFrame(300);
+
+    assertEquals(2, ringBuffer.getFrameCount());
+    verify(first).close();
+    verify(second, never()).close();
+    verify(third, never()).close();
+  }
+
+  @Test
+  public void onImageAvailable_ignoresUnavailableImage() {
+    when(mockImageReader.acquireNextImage()).thenThrow(new IllegalStateException());
+
+    ringBuffer.onImageAvailable(mockImageReader);
+
+    assertEquals(0, ringBuffer.getFrameCount());
+  }
+
+  @Test
+  public void takeNearest_returnsFrameNearestToTimestamp() {
+    Image first = addFrame(100);
+    Image second = addFrame(200);
+
+    assertSame(first, ringBuffer.takeNearest(130));
+    assertEquals(1, ringBuffer.getFrameCount());
+    verify(first, never()).close();
+    assertSame(second, ringBuffer.takeNearest(130));
+    assertNull(ringBuffer.takeNearest(130));
+  }
+
+  @Test
+  public void takeNearest_prefersNewestFrame() {
+    addFrame(100);
+    Image second = addFrame(200);
+
+    assertSame(second, ringBuffer.takeNearest(150));
+  }
+
+  @Test
+  public void takeNearest_returnsNewestFrameForMaxValue() {
+    addFrame(100);
+    Image second = addFrame(200);
+
+    assertSame(second, ringBuffer.takeNearest(Long.MAX_VALUE));
+  }
+
+  @Test
+  public void takeResult_returnsResultWithFrameTimestamp() {
+    TotalCaptureResult first = mock(TotalCaptureResult.class);
+    TotalCaptureResult second = mock(TotalCaptureResult.class);
+    ringBuffer.addResult(100, first);
+    ringBuffer.addResult(200, second);
+
+    assertSame(second, ringBuffer.takeResult(200));
+    assertNull(ringBuffer.takeResult(200));
+    assertNull(ringBuffer.takeResult(150));
+    assertSame(first, ringBuffer.takeResult(100));
+  }
+
+  @Test
+  public void addResult_dropsOldestResultsBeyondTwiceTheCapacity() {
+    for (long timestamp = 100; timestamp <= 500; timestamp += 100) {
+      ringBuffer.addResult(timestamp, mock(TotalCaptureResult.class));
+    }
+
+    assertNull(ringBuffer.takeResult(100));
+    assertNotNull(ringBuffer.takeResult(200));
+    assertNotNull(ringBuffer.takeResult(500));
+  }
+
+  @Test
+  public void clear_closesAllFramesAndDropsResults() {
+    Image first = addFrame(100);
+    Image second = addFrame(200);
+    ringBuffer.addResult(100, mock(TotalCaptureResult.class));
+
+    ringBuffer.clear();
+
+    assertEquals(0, ringBuffer.getFrameCount());
+    assertNull(ringBuffer.takeResult(100));
+    verify(first).close();
+    verify(second).close();
+  }
+
+  @Test
+  public void close_closesFramesAndImageReader() {
+    Image first = addFrame(100);
+
+    ringBuffer.close();
+
+    verify(first).close();
+    verify(mockImageReader).setOnImageAvailableListener(null, null);
+    verify(mockImageReader).close();
+  }
+}
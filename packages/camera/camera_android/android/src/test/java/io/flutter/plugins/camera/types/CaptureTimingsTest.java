@@ -0,0 +1,85 @@
+// Copyright 2013 The Flutter Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package io.flutter.plugins.camera.types;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.List;
+import org.junit.Test;
+
+public class CaptureTimingsTest {
+  private static final long MILLIS = 1000000L;
+
+  @Test
+  public void record_isIgnoredWhileDisabled() {
+    CaptureTimings timings = new CaptureTimings();
+
+    timings.record(CaptureTimings.STAGE_CONVERSION, MILLIS, 2 * MILLIS);
+
+    assertTrue(timings.getSummaries().isEmpty());
+  }
+
+  @Test
+  public void getSummaries_computesNearestRankPercentiles() {
+    CaptureTimings timings = new CaptureTimings();
+    timings.setEnabled(true);
+
+    for (int i = 1; i <= 100; i++) {
+      timings.record(CaptureTimings.STAGE_CONVERSION, MILLIS, MILLIS + i * MILLIS);
+    }
+
+    List<CaptureTimings.StageSummary> summaries = timings.getSummaries();
+    assertEquals(1, summaries.size());
+    CaptureTimings.StageSummary summary = summaries.get(0);
+    assertEquals(CaptureTimings.STAGE_CONVERSION, summary.stage);
+    assertEquals(100, summary.sampleCount);
+    assertEquals(50.0, summary.p50Millis, 1e-9);
+    assertEquals(95.0, summary.p95Millis, 1e-9);
+    assertEquals(99.0, summary.p99Millis, 1e-9);
+  }
+
+  @Test
+  public void getSummaries_onlyKeepsMostRecentSamples() {
+    CaptureTimings timings = new CaptureTimings();
+    timings.setEnabled(true);
+
+    for (int i = 0; i < CaptureTimings.MAX_SAMPLES; i++) {
+      timings.record(CaptureTimings.STAGE_DELIVERY, MILLIS, 101 * MILLIS);
+    }
+    for (int i = 0; i < CaptureTimings.MAX_SAMPLES; i++) {
+      timings.record(CaptureTimings.STAGE_DELIVERY, MILLIS, 2 * MILLIS);
+    }
+
+    CaptureTimings.StageSummary summary = timings.getSummaries().get(0);
+    assertEquals(2L * CaptureTimings.MAX_SAMPLES, summary.sampleCount);
+    assertEquals(1.0, summary.p99Millis, 1e-9);
+  }
+
+  @Test
+  public void recordSinceSensor_requiresRealtimeTimestamps() {
+    CaptureTimings timings = new CaptureTimings();
+    timings.setEnabled(true);
+
+    timings.recordSinceSensor(CaptureTimings.STAGE_SENSOR_TO_RESULT, MILLIS, 5 * MILLIS);
+    assertTrue(timings.getSummaries().isEmpty());
+
+    timings.setSensorTimestampRealtime(true);
+    timings.recordSinceSensor(CaptureTimings.STAGE_SENSOR_TO_RESULT, MILLIS, 5 * MILLIS);
+    assertEquals(4.0, timings.getSummaries().get(0).p50Millis, 1e-9);
+  }
+
+  @Test
+  public void setEnabled_discardsPreviousTimings() {
+    CaptureTimings timings = new CaptureTimings();
+    timings.setEnabled(true);
+    timings.record(CaptureTimings.STAGE_JPEG_WRITE, MILLIS, 2 * MILLIS);
+
+    timings.setEnabled(false);
+    timings.setEnabled(true);
+
+    assertTrue(timings.getSummaries().isEmpty());
+  }
+}
@@ -57,6 +57,10 @@ class AndroidCamera extends CameraPlatform {
   // The stream to receive frames from the native code.
   StreamSubscription<dynamic>? _platformImageStreamSubscription;
 
+  // The arguments of the listen call of the native image stream, set from the
+  // options of the last call to onStreamedFrameAvailable.
+  Map<String, Object?>? _imageStreamListenArguments;
+
   // The stream for vending frames to platform interface clients.
   StreamController<CameraImageData>? _frameStreamController;
 
@@ -234,6 +238,9 @@ class AndroidCamera extends CameraPlatform {
   @override
   Stream<CameraImageData> onStreamedFrameAvailable(int cameraId,
       {CameraImageStreamOptions? options}) {
+    _imageStreamListenArguments = options is AndroidCameraImageStreamOptions
+        ? options.toListenArguments()
+        : null;
     _installStreamController(onListen: _onFrameStreamListen);
     return _frameStreamController!.stream;
   }
@@ -261,8 +268,9 @@ class AndroidCamera extends CameraPlatform {
   void _startStreamListener() {
     const EventChannel cameraEventChannel =
         EventChannel('plugins.flutter.io/camera_android/imageStream');
-    _platformImageStreamSubscription =
-        cameraEventChannel.receiveBroadcastStream().listen((dynamic imageData) {
+    _platformImageStreamSubscription = cameraEventChannel
+        .receiveBroadcastStream(_imageStreamListenArguments)
+        .listen((dynamic imageData) {
       _frameStreamController!
           .add(cameraImageFromPlatformData(imageData as Map<dynamic, dynamic>));
     });
@@ -363,12 +371,359 @@ class AndroidCamera extends CameraPlatform {
     await _hostApi.setDescriptionWhileRecording(description.name);
   }
 
+  /// Enables or disables per-frame timing instrumentation of the capture
+  /// pipeline.
+  ///
+  /// Enabling it discards the timings recorded so far.
+  Future<void> setTimingInstrumentationEnabled(int cameraId, bool enabled) =>
+      _hostApi.setTimingInstrumentationEnabled(enabled);
+
+  /// Returns the latency percentiles of each capture pipeline stage recorded
+  /// since timing instrumentation was enabled.
+  Future<List<CameraStageTiming>> getStageTimings(int cameraId) async {
+    final List<PlatformStageTiming> timings = await _hostApi.getStageTimings();
+    return timings
+        .map((PlatformStageTiming timing) => CameraStageTiming(
+              stage: timing.stage,
+              sampleCount: timing.sampleCount,
+              p50: _millisToDuration(timing.p50Millis),
+              p95: _millisToDuration(timing.p95Millis),
+              p99: _millisToDuration(timing.p99Millis),
+            ))
+        .toList();
+  }
+
+  static Duration _millisToDuration(double millis) =>
+      Duration(microseconds: (millis * 1000).round());
+
+  /// Takes [count] pictures with a single burst request, without running the
+  /// focus and exposure sequences between them.
+  ///
+  /// The pictures are returned in capture order. At most 10 pictures can be
+  /// taken at once.
+  Future<List<XFile>> takePictureBurst(int cameraId, int count) async {
+    final List<String> paths = await _hostApi.takePictureBurst(count);
+    return paths.map((String path) => XFile(path)).toList();
+  }
+
+  /// Enables or disables zero shutter lag pictures.
+  ///
+  /// While enabled, the camera keeps its most recent full resolution frames
+  /// and [takePicture] reprocesses the one nearest to the call into a JPEG
+  /// picture instead of running a new capture, unless the flash has to fire.
+  /// It requires a camera that can reprocess YUV frames and takes effect the
+  /// next time the camera is initialized. Regular captures are used when the
+  /// camera does not support zero shutter lag with the selected resolution.
+  Future<void> setZeroShutterLagEnabled(int cameraId, bool enabled) =>
+      _hostApi.setZeroShutterLagEnabled(enabled);
+
+  /// Sets how pictures are written to their files.
+  ///
+  /// When [syncToStorage] is true, the picture is flushed to storage before
+  /// [takePicture] completes, so that it survives a power loss right after.
+  /// [exifAttributes] are added to every picture, keyed by EXIF tag name such
+  /// as `Artist` or `UserComment`.
+  Future<void> setPictureSaveOptions(
+    int cameraId, {
+    bool syncToStorage = false,
+    Map<String, String> exifAttributes = const <String, String>{},
+  }) =>
+      _hostApi.setPictureSaveOptions(syncToStorage, exifAttributes);
+
+  /// Starts opening the camera described by [description] ahead of time.
+  ///
+  /// Creating and initializing that camera next then reuses the opened device
+  /// and only configures a new capture session. Pre-opening a camera closes
+  /// any other camera pre-opened before.
+  ///
+  /// Most devices can only open one camera at a time, and opening a second
+  /// one would disconnect the camera in use. So while another camera is open,
+  /// this does nothing unless the device reports that it can stream from both
+  /// cameras at once, which requires Android 11 (API 30) or later.
+  Future<void> prewarmCamera(CameraDescription description) =>
+      _hostApi.prewarmCamera(description.name);
+
+  /// Returns the number of video frames dropped while recording the current or
+  /// last video.
+  ///
+  /// Frames can only be dropped after [setDescriptionWhileRecording], when the
+  /// frames of the new camera are rotated before they are recorded.
+  Future<int> getDroppedVideoFrameCount(int cameraId) =>
+      _hostApi.getDroppedVideoFrameCount();
+
+  /// Sets how the next videos are encoded.
+  ///
+  /// By default, videos are recorded with the platform MediaRecorder. When
+  /// [useMediaCodec] is true, they are encoded with the hardware encoders
+  /// instead, which gives control over the encoding:
+  ///
+  /// * [preferHevc] encodes with H.265 when the device has an H.265 encoder,
+  ///   for smaller files at the same quality.
+  /// * [constantBitrate] encodes at a constant instead of a variable bitrate,
+  ///   when the encoder supports it.
+  /// * [keyFrameIntervalSeconds] is the interval between key frames.
+  /// * [fragmented] writes a fragmented MP4 file, so that only the last second
+  ///   of video is lost if the app is killed while recording. A key frame is
+  ///   requested every second for this, even with a longer
+  ///   [keyFrameIntervalSeconds].
+  Future<void> setVideoEncoderOptions(
+    int cameraId, {
+    bool useMediaCodec = false,
+    bool preferHevc = true,
+    bool constantBitrate = false,
+    int keyFrameIntervalSeconds = 1,
+    bool fragmented = true,
+  }) =>
+      _hostApi.setVideoEncoderOptions(useMediaCodec, preferHevc,
+          constantBitrate, keyFrameIntervalSeconds, fragmented);
+
+  /// Sets whether the next videos are split into segment files.
+  ///
+  /// When [segmented] is true, videos are recorded with the hardware encoders,
+  /// as set by [setVideoEncoderOptions], and a new segment file is started at
+  /// the first key frame after [maxDuration] or [maxSizeBytes] is reached. No
+  /// frame is dropped between segments. Each complete segment is reported by
+  /// [onVideoSegmentReady] while recording continues, and
+  /// [stopVideoRecording] returns the last one.
+  ///
+  /// When [maxSegmentCount] is set, only that many complete segments are kept
+  /// on disk, older ones are deleted. This keeps a rolling buffer of the last
+  /// minutes of video, to be copied when an event of interest happens.
+  Future<void> setVideoSegmentOptions(
+    int cameraId, {
+    bool segmented = true,
+    Duration? maxDuration,
+    int? maxSizeBytes,
+    int? maxSegmentCount,
+  }) =>
+      _hostApi.setVideoSegmentOptions(
+          segmented,
+          maxDuration?.inMilliseconds ?? 0,
+          maxSizeBytes ?? 0,
+          maxSegmentCount ?? 0);
+
+  /// The segments of the video being recorded, as they are completed.
+  ///
+  /// Only emits when segmented recording is enabled with
+  /// [setVideoSegmentOptions].
+  Stream<VideoSegmentReadyEvent> onVideoSegmentReady(int cameraId) {
+    return _cameraEvents(cameraId).whereType<VideoSegmentReadyEvent>();
+  }
+
   @override
   Widget buildPreview(int cameraId) {
     return Texture(textureId: cameraId);
   }
 }
 
+/// How frames of an image stream are dropped when Dart does not keep up with
+/// the camera.
+enum AndroidImageStreamBackpressure {
+  /// Every frame is sent, however far behind Dart falls.
+  unbounded,
+
+  /// Only the most recent frame waits to be sent, older ones are dropped.
+  latestOnly,
+
+  /// Up to [AndroidCameraImageStreamOptions.backpressureLimit] frames wait to
+  /// be sent, and newer frames are dropped while the queue is full, keeping
+  /// the queued ones.
+  boundedQueue,
+
+  /// Only one frame out of every
+  /// [AndroidCameraImageStreamOptions.backpressureLimit] frames is sent.
+  everyNthFrame,
+}
+
+/// How [AndroidImageStreamProcessing] resamples frames.
+enum AndroidImageStreamScaling {
+  /// Nearest neighbor sampling, the fastest.
+  nearest,
+
+  /// Bilinear interpolation, smoother when downscaling.
+  bilinear,
+}
+
+/// The format of frames processed by [AndroidImageStreamProcessing].
+enum AndroidImageStreamOutputFormat {
+  /// A single plane of 8-bit luminance.
+  luminance,
+
+  /// A single plane of 8-bit RGBA pixels.
+  rgba,
+}
+
+/// Native processing applied to YUV frames before they are sent to Dart, so
+/// that only the pixels Dart needs are copied across.
+///
+/// Zero values leave the corresponding setting unset: the crop defaults to the
+/// whole frame, and the output size to the cropped size.
+@immutable
+class AndroidImageStreamProcessing {
+  /// Creates processing options.
+  const AndroidImageStreamProcessing({
+    this.cropLeft = 0,
+    this.cropTop = 0,
+    this.cropWidth = 0,
+    this.cropHeight = 0,
+    this.targetWidth = 0,
+    this.targetHeight = 0,
+    this.downscaleFactor = 0,
+    this.scaling = AndroidImageStreamScaling.nearest,
+    this.output = AndroidImageStreamOutputFormat.luminance,
+  });
+
+  /// The left edge of the cropped region, in pixels.
+  final int cropLeft;
+
+  /// The top edge of the cropped region, in pixels.
+  final int cropTop;
+
+  /// The width of the cropped region, in pixels.
+  final int cropWidth;
+
+  /// The height of the cropped region, in pixels.
+  final int cropHeight;
+
+  /// The width frames are scaled to.
+  final int targetWidth;
+
+  /// The height frames are scaled to.
+  final int targetHeight;
+
+  /// The integer factor frames are downscaled by, when no target size is set.
+  final int downscaleFactor;
+
+  /// How frames are resampled.
+  final AndroidImageStreamScaling scaling;
+
+  /// The format of the processed frames.
+  final AndroidImageStreamOutputFormat output;
+
+  Map<String, Object?> _toMap() => <String, Object?>{
+        'cropLeft': cropLeft,
+        'cropTop': cropTop,
+        'cropWidth': cropWidth,
+        'cropHeight': cropHeight,
+        'targetWidth': targetWidth,
+        'targetHeight': targetHeight,
+        'downscaleFactor': downscaleFactor,
+        'scaling': scaling.name,
+        'output': output.name,
+      };
+}
+
+/// Android specific options of [AndroidCamera.onStreamedFrameAvailable].
+///
+/// The default values stream frames as when no options are given.
+class AndroidCameraImageStreamOptions extends CameraImageStreamOptions {
+  /// Creates image stream options.
+  AndroidCameraImageStreamOptions({
+    this.recycleBuffers = false,
+    this.backpressure = AndroidImageStreamBackpressure.unbounded,
+    this.backpressureLimit = 1,
+    this.processing,
+    this.directBuffers = false,
+  }) : assert(backpressureLimit > 0);
+
+  /// Whether the native frame buffers are reused between frames instead of
+  /// being allocated for every frame.
+  final bool recycleBuffers;
+
+  /// How frames are dropped when Dart does not keep up with the camera.
+  final AndroidImageStreamBackpressure backpressure;
+
+  /// The queue size of [AndroidImageStreamBackpressure.boundedQueue], or the
+  /// frame interval of [AndroidImageStreamBackpressure.everyNthFrame].
+  final int backpressureLimit;
+
+  /// The native processing applied to frames, or null to send them as-is.
+  final AndroidImageStreamProcessing? processing;
+
+  /// Whether frames are encoded natively straight into the outgoing message,
+  /// saving the copies made by the platform channel codec.
+  final bool directBuffers;
+
+  /// The arguments of the listen call of the native image stream.
+  @visibleForTesting
+  Map<String, Object?> toListenArguments() => <String, Object?>{
+        'recycleBuffers': recycleBuffers,
+        'backpressure': backpressure.name,
+        'backpressureLimit': backpressureLimit,
+        if (processing != null) 'processing': processing!._toMap(),
+        'directBuffers': directBuffers,
+      };
+}
+
+/// Latency percentiles of one stage of the Android capture pipeline.
+///
+/// Returned by [AndroidCamera.getStageTimings] once timing instrumentation has
+/// been enabled with [AndroidCamera.setTimingInstrumentationEnabled].
+@immutable
+class CameraStageTiming {
+  /// Creates a new timing summary.
+  const CameraStageTiming({
+    required this.stage,
+    required this.sampleCount,
+    required this.p50,
+    required this.p95,
+    required this.p99,
+  });
+
+  /// The stage name, for example `imageStream.conversion` or
+  /// `takePicture.precapture`.
+  final String stage;
+
+  /// The number of samples recorded for the stage.
+  ///
+  /// Percentiles only cover the most recent samples.
+  final int sampleCount;
+
+  /// The median duration of the stage.
+  final Duration p50;
+
+  /// The 95th percentile duration of the stage.
+  final Duration p95;
+
+  /// The 99th percentile duration of the stage.
+  final Duration p99;
+
+  @override
+  String toString() => 'CameraStageTiming($stage, samples: $sampleCount, '
+      'p50: $p50, p95: $p95, p99: $p99)';
+}
+
+/// An event fired when a segment of the video being recorded is complete.
+///
+/// See [AndroidCamera.setVideoSegmentOptions].
+@immutable
+class VideoSegmentReadyEvent extends CameraEvent {
+  /// Creates a new segment event for the camera with the given ID.
+  const VideoSegmentReadyEvent(
+      super.cameraId, this.path, this.duration, this.sizeBytes);
+
+  /// The path of the segment file.
+  final String path;
+
+  /// The duration of the segment.
+  final Duration duration;
+
+  /// The size of the segment file in bytes.
+  final int sizeBytes;
+
+  @override
+  bool operator ==(Object other) =>
+      identical(this, other) ||
+      super == other &&
+          other is VideoSegmentReadyEvent &&
+          path == other.path &&
+          duration == other.duration &&
+          sizeBytes == other.sizeBytes;
+
+  @override
+  int get hashCode => Object.hash(super.hashCode, path, duration, sizeBytes);
+}
+
 /// Handles callbacks from the platform host that are not camera-specific.
 @visibleForTesting
 class HostDeviceMessageHandler implements CameraGlobalEventApi {
@@ -426,4 +781,10 @@ class HostCameraMessageHandler implements CameraEventApi {
   void closed() {
     cameraEventStreamController.add(CameraClosingEvent(cameraId));
   }
+
+  @override
+  void videoSegmentReady(String path, int durationMillis, int sizeBytes) {
+    cameraEventStreamController.add(VideoSegmentReadyEvent(
+        cameraId, path, Duration(milliseconds: durationMillis), sizeBytes));
+  }
 }
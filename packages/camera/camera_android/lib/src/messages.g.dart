@@ -252,6 +252,48 @@ class PlatformMediaSettings {
   }
 }
 
+/// Latency percentiles of one stage of the capture pipeline.
+class PlatformStageTiming {
+  PlatformStageTiming({
+    required this.stage,
+    required this.sampleCount,
+    required this.p50Millis,
+    required this.p95Millis,
+    required this.p99Millis,
+  });
+
+  String stage;
+
+  int sampleCount;
+
+  double p50Millis;
+
+  double p95Millis;
+
+  double p99Millis;
+
+  Object encode() {
+    return <Object?>[
+      stage,
+      sampleCount,
+      p50Millis,
+      p95Millis,
+      p99Millis,
+    ];
+  }
+
+  static PlatformStageTiming decode(Object result) {
+    result as List<Object?>;
+    return PlatformStageTiming(
+      stage: result[0]! as String,
+      sampleCount: result[1]! as int,
+      p50Millis: result[2]! as double,
+      p95Millis: result[3]! as double,
+      p99Millis: result[4]! as double,
+    );
+  }
+}
+
 class _PigeonCodec extends StandardMessageCodec {
   const _PigeonCodec();
   @override
@@ -295,6 +337,9 @@ class _PigeonCodec extends StandardMessageCodec {
     } else if (value is PlatformMediaSettings) {
       buffer.putUint8(140);
       writeValue(buffer, value.encode());
+    } else if (value is PlatformStageTiming) {
+      buffer.putUint8(141);
+      writeValue(buffer, value.encode());
     } else {
       super.writeValue(buffer, value);
     }
@@ -334,6 +379,8 @@ class _PigeonCodec extends StandardMessageCodec {
         return PlatformPoint.decode(readValue(buffer)!);
       case 140:
         return PlatformMediaSettings.decode(readValue(buffer)!);
+      case 141:
+        return PlatformStageTiming.decode(readValue(buffer)!);
       default:
         return super.readValueOfType(type, buffer);
     }
@@ -1117,6 +1164,289 @@ class CameraApi {
       return;
     }
   }
+
+  /// Enables or disables per-frame timing instrumentation of the capture
+  /// pipeline.
+  ///
+  /// Enabling it discards the timings recorded so far.
+  Future<void> setTimingInstrumentationEnabled(bool enabled) async {
+    final String pigeonVar_channelName =
+        'dev.flutter.pigeon.camera_android.CameraApi.setTimingInstrumentationEnabled$pigeonVar_messageChannelSuffix';
+    final BasicMessageChannel<Object?> pigeonVar_channel =
+        BasicMessageChannel<Object?>(
+      pigeonVar_channelName,
+      pigeonChannelCodec,
+      binaryMessenger: pigeonVar_binaryMessenger,
+    );
+    final List<Object?>? pigeonVar_replyList =
+        await pigeonVar_channel.send(<Object?>[enabled]) as List<Object?>?;
+    if (pigeonVar_replyList == null) {
+      throw _createConnectionError(pigeonVar_channelName);
+    } else if (pigeonVar_replyList.length > 1) {
+      throw PlatformException(
+        code: pigeonVar_replyList[0]! as String,
+        message: pigeonVar_replyList[1] as String?,
+        details: pigeonVar_replyList[2],
+      );
+    } else {
+      return;
+    }
+  }
+
+  /// Returns the latency percentiles of each capture pipeline stage recorded
+  /// since instrumentation was enabled.
+  Future<List<PlatformStageTiming>> getStageTimings() async {
+    final String pigeonVar_channelName =
+        'dev.flutter.pigeon.camera_android.CameraApi.getStageTimings$pigeonVar_messageChannelSuffix';
+    final BasicMessageChannel<Object?> pigeonVar_channel =
+        BasicMessageChannel<Object?>(
+      pigeonVar_channelName,
+      pigeonChannelCodec,
+      binaryMessenger: pigeonVar_binaryMessenger,
+    );
+    final List<Object?>? pigeonVar_replyList =
+        await pigeonVar_channel.send(null) as List<Object?>?;
+    if (pigeonVar_replyList == null) {
+      throw _createConnectionError(pigeonVar_channelName);
+    } else if (pigeonVar_replyList.length > 1) {
+      throw PlatformException(
+        code: pigeonVar_replyList[0]! as String,
+        message: pigeonVar_replyList[1] as String?,
+        details: pigeonVar_replyList[2],
+      );
+    } else if (pigeonVar_replyList[0] == null) {
+      throw PlatformException(
+        code: 'null-error',
+        message: 'Host platform returned null value for non-null return value.',
+      );
+    } else {
+      return (pigeonVar_replyList[0] as List<Object?>?)!
+          .cast<PlatformStageTiming>();
+    }
+  }
+
+  /// Takes [count] pictures with a single burst request and returns the paths
+  /// of the resulting files in capture order.
+  Future<List<String>> takePictureBurst(int count) async {
+    final String pigeonVar_channelName =
+        'dev.flutter.pigeon.camera_android.CameraApi.takePictureBurst$pigeonVar_messageChannelSuffix';
+    final BasicMessageChannel<Object?> pigeonVar_channel =
+        BasicMessageChannel<Object?>(
+      pigeonVar_channelName,
+      pigeonChannelCodec,
+      binaryMessenger: pigeonVar_binaryMessenger,
+    );
+    final List<Object?>? pigeonVar_replyList =
+        await pigeonVar_channel.send(<Object?>[count]) as List<Object?>?;
+    if (pigeonVar_replyList == null) {
+      throw _createConnectionError(pigeonVar_channelName);
+    } else if (pigeonVar_replyList.length > 1) {
+      throw PlatformException(
+        code: pigeonVar_replyList[0]! as String,
+        message: pigeonVar_replyList[1] as String?,
+        details: pigeonVar_replyList[2],
+      );
+    } else if (pigeonVar_replyList[0] == null) {
+      throw PlatformException(
+        code: 'null-error',
+        message: 'Host platform returned null value for non-null return value.',
+      );
+    } else {
+      return (pigeonVar_replyList[0] as List<Object?>?)!.cast<String>();
+    }
+  }
+
+  /// Enables or disables zero shutter lag pictures.
+  ///
+  /// The change takes effect the next time the camera is initialized.
+  Future<void> setZeroShutterLagEnabled(bool enabled) async {
+    final String pigeonVar_channelName =
+        'dev.flutter.pigeon.camera_android.CameraApi.setZeroShutterLagEnabled$pigeonVar_messageChannelSuffix';
+    final BasicMessageChannel<Object?> pigeonVar_channel =
+        BasicMessageChannel<Object?>(
+      pigeonVar_channelName,
+      pigeonChannelCodec,
+      binaryMessenger: pigeonVar_binaryMessenger,
+    );
+    final List<Object?>? pigeonVar_replyList =
+        await pigeonVar_channel.send(<Object?>[enabled]) as List<Object?>?;
+    if (pigeonVar_replyList == null) {
+      throw _createConnectionError(pigeonVar_channelName);
+    } else if (pigeonVar_replyList.length > 1) {
+      throw PlatformException(
+        code: pigeonVar_replyList[0]! as String,
+        message: pigeonVar_replyList[1] as String?,
+        details: pigeonVar_replyList[2],
+      );
+    } else {
+      return;
+    }
+  }
+
+  /// Sets how pictures are written to their files.
+  ///
+  /// When [syncToStorage] is true, the file data is flushed to storage before
+  /// the picture is returned. [exifAttributes] are added to every picture.
+  Future<void> setPictureSaveOptions(
+      bool syncToStorage, Map<String, String> exifAttributes) async {
+    final String pigeonVar_channelName =
+        'dev.flutter.pigeon.camera_android.CameraApi.setPictureSaveOptions$pigeonVar_messageChannelSuffix';
+    final BasicMessageChannel<Object?> pigeonVar_channel =
+        BasicMessageChannel<Object?>(
+      pigeonVar_channelName,
+      pigeonChannelCodec,
+      binaryMessenger: pigeonVar_binaryMessenger,
+    );
+    final List<Object?>? pigeonVar_replyList = await pigeonVar_channel
+        .send(<Object?>[syncToStorage, exifAttributes]) as List<Object?>?;
+    if (pigeonVar_replyList == null) {
+      throw _createConnectionError(pigeonVar_channelName);
+    } else if (pigeonVar_replyList.length > 1) {
+      throw PlatformException(
+        code: pigeonVar_replyList[0]! as String,
+        message: pigeonVar_replyList[1] as String?,
+        details: pigeonVar_replyList[2],
+      );
+    } else {
+      return;
+    }
+  }
+  /// Starts opening the camera with the given name ahead of time, so that
+  /// switching to it only has to configure a new capture session.
+  ///
+  /// While another camera is open, this does nothing unless the device can
+  /// stream from both cameras at once.
+  Future<void> prewarmCamera(String cameraName) async {
+    final String pigeonVar_channelName =
+        'dev.flutter.pigeon.camera_android.CameraApi.prewarmCamera$pigeonVar_messageChannelSuffix';
+    final BasicMessageChannel<Object?> pigeonVar_channel =
+        BasicMessageChannel<Object?>(
+      pigeonVar_channelName,
+      pigeonChannelCodec,
+      binaryMessenger: pigeonVar_binaryMessenger,
+    );
+    final List<Object?>? pigeonVar_replyList =
+        await pigeonVar_channel.send(<Object?>[cameraName]) as List<Object?>?;
+    if (pigeonVar_replyList == null) {
+      throw _createConnectionError(pigeonVar_channelName);
+    } else if (pigeonVar_replyList.length > 1) {
+      throw PlatformException(
+        code: pigeonVar_replyList[0]! as String,
+        message: pigeonVar_replyList[1] as String?,
+        details: pigeonVar_replyList[2],
+      );
+    } else {
+      return;
+    }
+  }
+  /// Returns the number of video frames dropped while recording the current or
+  /// last video after switching cameras.
+  Future<int> getDroppedVideoFrameCount() async {
+    final String pigeonVar_channelName =
+        'dev.flutter.pigeon.camera_android.CameraApi.getDroppedVideoFrameCount$pigeonVar_messageChannelSuffix';
+    final BasicMessageChannel<Object?> pigeonVar_channel =
+        BasicMessageChannel<Object?>(
+      pigeonVar_channelName,
+      pigeonChannelCodec,
+      binaryMessenger: pigeonVar_binaryMessenger,
+    );
+    final List<Object?>? pigeonVar_replyList =
+        await pigeonVar_channel.send(null) as List<Object?>?;
+    if (pigeonVar_replyList == null) {
+      throw _createConnectionError(pigeonVar_channelName);
+    } else if (pigeonVar_replyList.length > 1) {
+      throw PlatformException(
+        code: pigeonVar_replyList[0]! as String,
+        message: pigeonVar_replyList[1] as String?,
+        details: pigeonVar_replyList[2],
+      );
+    } else if (pigeonVar_replyList[0] == null) {
+      throw PlatformException(
+        code: 'null-error',
+        message: 'Host platform returned null value for non-null return value.',
+      );
+    } else {
+      return (pigeonVar_replyList[0] as int?)!;
+    }
+  }
+
+  /// Sets how the next videos are encoded.
+  ///
+  /// When [useMediaCodec] is false, videos are recorded with a MediaRecorder
+  /// and the other options are ignored. Otherwise they are encoded with H.265
+  /// when [preferHevc] is true and the device supports it, at a constant
+  /// bitrate when [constantBitrate] is true, with a key frame every
+  /// [keyFrameIntervalSeconds], and written as a fragmented MP4 file when
+  /// [fragmented] is true.
+  Future<void> setVideoEncoderOptions(
+      bool useMediaCodec,
+      bool preferHevc,
+      bool constantBitrate,
+      int keyFrameIntervalSeconds,
+      bool fragmented) async {
+    final String pigeonVar_channelName =
+        'dev.flutter.pigeon.camera_android.CameraApi.setVideoEncoderOptions$pigeonVar_messageChannelSuffix';
+    final BasicMessageChannel<Object?> pigeonVar_channel =
+        BasicMessageChannel<Object?>(
+      pigeonVar_channelName,
+      pigeonChannelCodec,
+      binaryMessenger: pigeonVar_binaryMessenger,
+    );
+    final List<Object?>? pigeonVar_replyList =
+        await pigeonVar_channel.send(<Object?>[
+      useMediaCodec,
+      preferHevc,
+      constantBitrate,
+      keyFrameIntervalSeconds,
+      fragmented
+    ]) as List<Object?>?;
+    if (pigeonVar_replyList == null) {
+      throw _createConnectionError(pigeonVar_channelName);
+    } else if (pigeonVar_replyList.length > 1) {
+      throw PlatformException(
+        code: pigeonVar_replyList[0]! as String,
+        message: pigeonVar_replyList[1] as String?,
+        details: pigeonVar_replyList[2],
+      );
+    } else {
+      return;
+    }
+  }
+
+  /// Sets whether the next videos are split into segment files.
+  ///
+  /// When [segmented] is true, a new segment is started at the first key frame
+  /// after [maxDurationMillis] or [maxSizeBytes] is reached, and only the last
+  /// [maxSegmentCount] complete segments are kept. A value of 0 means no limit.
+  Future<void> setVideoSegmentOptions(bool segmented, int maxDurationMillis,
+      int maxSizeBytes, int maxSegmentCount) async {
+    final String pigeonVar_channelName =
+        'dev.flutter.pigeon.camera_android.CameraApi.setVideoSegmentOptions$pigeonVar_messageChannelSuffix';
+    final BasicMessageChannel<Object?> pigeonVar_channel =
+        BasicMessageChannel<Object?>(
+      pigeonVar_channelName,
+      pigeonChannelCodec,
+      binaryMessenger: pigeonVar_binaryMessenger,
+    );
+    final List<Object?>? pigeonVar_replyList =
+        await pigeonVar_channel.send(<Object?>[
+      segmented,
+      maxDurationMillis,
+      maxSizeBytes,
+      maxSegmentCount
+    ]) as List<Object?>?;
+    if (pigeonVar_replyList == null) {
+      throw _createConnectionError(pigeonVar_channelName);
+    } else if (pigeonVar_replyList.length > 1) {
+      throw PlatformException(
+        code: pigeonVar_replyList[0]! as String,
+        message: pigeonVar_replyList[1] as String?,
+        details: pigeonVar_replyList[2],
+      );
+    } else {
+      return;
+    }
+  }
 }
 
 /// Handles calls from native side to Dart that are not camera-specific.
@@ -1179,6 +1509,9 @@ abstract class CameraEventApi {
   /// Called when the camera closes.
   void closed();
 
+  /// Called when a segment of the video being recorded is complete.
+  void videoSegmentReady(String path, int durationMillis, int sizeBytes);
+
   static void setUp(
     CameraEventApi? api, {
     BinaryMessenger? binaryMessenger,
@@ -1268,5 +1601,41 @@ abstract class CameraEventApi {
         });
       }
     }
+    {
+      final BasicMessageChannel<
+          Object?> pigeonVar_channel = BasicMessageChannel<
+              Object?>(
+          'dev.flutter.pigeon.camera_android.CameraEventApi.videoSegmentReady$messageChannelSuffix',
+          pigeonChannelCodec,
+          binaryMessenger: binaryMessenger);
+      if (api == null) {
+        pigeonVar_channel.setMessageHandler(null);
+      } else {
+        pigeonVar_channel.setMessageHandler((Object? message) async {
+          assert(message != null,
+              'Argument for dev.flutter.pigeon.camera_android.CameraEventApi.videoSegmentReady was null.');
+          final List<Object?> args = (message as List<Object?>?)!;
+          final String? arg_path = (args[0] as String?);
+          assert(arg_path != null,
+              'Argument for dev.flutter.pigeon.camera_android.CameraEventApi.videoSegmentReady was null, expected non-null String.');
+          final int? arg_durationMillis = (args[1] as int?);
+          assert(arg_durationMillis != null,
+              'Argument for dev.flutter.pigeon.camera_android.CameraEventApi.videoSegmentReady was null, expected non-null int.');
+          final int? arg_sizeBytes = (args[2] as int?);
+          assert(arg_sizeBytes != null,
+              'Argument for dev.flutter.pigeon.camera_android.CameraEventApi.videoSegmentReady was null, expected non-null int.');
+          try {
+            api.videoSegmentReady(
+                arg_path!, arg_durationMillis!, arg_sizeBytes!);
+            return wrapResponse(empty: true);
+          } on PlatformException catch (e) {
+            return wrapResponse(error: e);
+          } catch (e) {
+            return wrapResponse(
+                error: PlatformException(code: 'error', message: e.toString()));
+          }
+        });
+      }
+    }
   }
 }
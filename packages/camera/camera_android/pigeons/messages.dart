@@ -122,6 +122,23 @@ enum PlatformFlashMode {
   torch,
 }
 
+/// Latency percentiles of one stage of the capture pipeline.
+class PlatformStageTiming {
+  PlatformStageTiming({
+    required this.stage,
+    required this.sampleCount,
+    required this.p50Millis,
+    required this.p95Millis,
+    required this.p99Millis,
+  });
+
+  final String stage;
+  final int sampleCount;
+  final double p50Millis;
+  final double p95Millis;
+  final double p99Millis;
+}
+
 /// Handles calls from Dart to the native side.
 @HostApi()
 abstract class CameraApi {
@@ -225,6 +242,63 @@ abstract class CameraApi {
   ///
   /// This should be called only while video recording is active.
   void setDescriptionWhileRecording(String description);
+
+  /// Enables or disables per-frame timing instrumentation of the capture
+  /// pipeline.
+  ///
+  /// Enabling it discards the timings recorded so far.
+  void setTimingInstrumentationEnabled(bool enabled);
+
+  /// Returns the latency percentiles of each capture pipeline stage recorded
+  /// since instrumentation was enabled.
+  List<PlatformStageTiming> getStageTimings();
+
+  /// Takes [count] pictures with a single burst request and returns the paths
+  /// of the resulting files in capture order.
+  @async
+  List<String> takePictureBurst(int count);
+
+  /// Enables or disables zero shutter lag pictures.
+  ///
+  /// The change takes effect the next time the camera is initialized.
+  void setZeroShutterLagEnabled(bool enabled);
+
+  /// Sets how pictures are written to their files.
+  ///
+  /// When [syncToStorage] is true, the file data is flushed to storage before
+  /// the picture is returned. [exifAttributes] are added to every picture.
+  void setPictureSaveOptions(
+      bool syncToStorage, Map<String, String> exifAttributes);
+
+  /// Starts opening the camera with the given name ahead of time, so that
+  /// switching to it only has to configure a new capture session.
+  ///
+  /// While another camera is open, this does nothing unless the device can
+  /// stream from both cameras at once.
+  void prewarmCamera(String cameraName);
+
+  /// Returns the number of video frames dropped while recording the current or
+  /// last video after switching cameras.
+  int getDroppedVideoFrameCount();
+
+  /// Sets how the next videos are encoded.
+  ///
+  /// When [useMediaCodec] is false, videos are recorded with a MediaRecorder
+  /// and the other options are ignored. Otherwise they are encoded with H.265
+  /// when [preferHevc] is true and the device supports it, at a constant
+  /// bitrate when [constantBitrate] is true, with a key frame every
+  /// [keyFrameIntervalSeconds], and written as a fragmented MP4 file when
+  /// [fragmented] is true.
+  void setVideoEncoderOptions(bool useMediaCodec, bool preferHevc,
+      bool constantBitrate, int keyFrameIntervalSeconds, bool fragmented);
+
+  /// Sets whether the next videos are split into segment files.
+  ///
+  /// When [segmented] is true, a new segment is started at the first key frame
+  /// after [maxDurationMillis] or [maxSizeBytes] is reached, and only the last
+  /// [maxSegmentCount] complete segments are kept. A value of 0 means no limit.
+  void setVideoSegmentOptions(bool segmented, int maxDurationMillis,
+      int maxSizeBytes, int maxSegmentCount);
 }
 
 /// Handles calls from native side to Dart that are not camera-specific.
@@ -245,4 +319,7 @@ abstract class CameraEventApi {
 
   /// Called when the camera closes.
   void closed();
+
+  /// Called when a segment of the video being recorded is complete.
+  void videoSegmentReady(String path, int durationMillis, int sizeBytes);
 }
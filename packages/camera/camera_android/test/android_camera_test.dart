@@ -318,6 +318,27 @@ void main() {
       await streamQueue.cancel();
     });
 
+    test('Should receive video segment ready events', () async {
+      // Act
+      final Stream<VideoSegmentReadyEvent> eventStream =
+          camera.onVideoSegmentReady(cameraId);
+      final StreamQueue<VideoSegmentReadyEvent> streamQueue =
+          StreamQueue<VideoSegmentReadyEvent>(eventStream);
+
+      // Emit test events
+      camera.hostCameraHandlers[cameraId]!
+          .videoSegmentReady('/tmp/REC1.mp4', 10000, 2048);
+
+      // Assert
+      expect(
+          await streamQueue.next,
+          VideoSegmentReadyEvent(cameraId, '/tmp/REC1.mp4',
+              const Duration(seconds: 10), 2048));
+
+      // Clean up
+      await streamQueue.cancel();
+    });
+
     test('Should receive camera error events', () async {
       // Act
       final Stream<CameraErrorEvent> errorStream =
@@ -533,6 +554,125 @@ void main() {
           .called(1);
     });
 
+    test('Should enable timing instrumentation', () async {
+      // Arrange
+      // Act
+      await camera.setTimingInstrumentationEnabled(cameraId, true);
+
+      // Assert
+      verify(mockCameraApi.setTimingInstrumentationEnabled(true)).called(1);
+    });
+
+    test('Should get the stage timings', () async {
+      // Arrange
+      when(mockCameraApi.getStageTimings())
+          .thenAnswer((_) async => <PlatformStageTiming>[
+                PlatformStageTiming(
+                    stage: 'imageStream.conversion',
+                    sampleCount: 30,
+                    p50Millis: 1.5,
+                    p95Millis: 3,
+                    p99Millis: 4.25),
+              ]);
+
+      // Act
+      final List<CameraStageTiming> timings =
+          await camera.getStageTimings(cameraId);
+
+      // Assert
+      expect(timings.length, 1);
+      expect(timings[0].stage, 'imageStream.conversion');
+      expect(timings[0].sampleCount, 30);
+      expect(timings[0].p50, const Duration(microseconds: 1500));
+      expect(timings[0].p95, const Duration(milliseconds: 3));
+      expect(timings[0].p99, const Duration(microseconds: 4250));
+    });
+
+    test('Should take a burst of pictures', () async {
+      // Arrange
+      when(mockCameraApi.takePictureBurst(2)).thenAnswer(
+          (_) async => <String>['/test/path1.jpg', '/test/path2.jpg']);
+
+      // Act
+      final List<XFile> files = await camera.takePictureBurst(cameraId, 2);
+
+      // Assert
+      expect(files.map((XFile file) => file.path),
+          <String>['/test/path1.jpg', '/test/path2.jpg']);
+    });
+
+    test('Should enable zero shutter lag', () async {
+      // Arrange
+      // Act
+      await camera.setZeroShutterLagEnabled(cameraId, true);
+
+      // Assert
+      verify(mockCameraApi.setZeroShutterLagEnabled(true)).called(1);
+    });
+
+    test('Should set the picture save options', () async {
+      // Arrange
+      // Act
+      await camera.setPictureSaveOptions(cameraId,
+          syncToStorage: true,
+          exifAttributes: <String, String>{'Artist': 'Flutter'});
+
+      // Assert
+      verify(mockCameraApi.setPictureSaveOptions(
+          true, <String, String>{'Artist': 'Flutter'})).called(1);
+    });
+
+    test('Should prewarm the camera', () async {
+      // Arrange
+      const CameraDescription description = CameraDescription(
+          name: 'front',
+          lensDirection: CameraLensDirection.front,
+          sensorOrientation: 270);
+
+      // Act
+      await camera.prewarmCamera(description);
+
+      // Assert
+      verify(mockCameraApi.prewarmCamera('front')).called(1);
+    });
+
+    test('Should get the dropped video frame count', () async {
+      // Arrange
+      when(mockCameraApi.getDroppedVideoFrameCount())
+          .thenAnswer((_) async => 3);
+
+      // Act
+      final int droppedFrameCount =
+          await camera.getDroppedVideoFrameCount(cameraId);
+
+      // Assert
+      expect(droppedFrameCount, 3);
+      verify(mockCameraApi.getDroppedVideoFrameCount()).called(1);
+    });
+
+    test('Should set the video segment options', () async {
+      // Arrange
+      // Act
+      await camera.setVideoSegmentOptions(cameraId,
+          maxDuration: const Duration(seconds: 30), maxSegmentCount: 4);
+
+      // Assert
+      verify(mockCameraApi.setVideoSegmentOptions(true, 30000, 0, 4)).called(1);
+    });
+
+    test('Should set the video encoder options', () async {
+      // Arrange
+      // Act
+      await camera.setVideoEncoderOptions(cameraId,
+          useMediaCodec: true,
+          constantBitrate: true,
+          keyFrameIntervalSeconds: 2);
+
+      // Assert
+      verify(mockCameraApi.setVideoEncoderOptions(true, true, true, 2, true))
+          .called(1);
+    });
+
     test('Should set the flash mode', () async {
       // Arrange
       // Act
@@ -743,6 +883,86 @@ void main() {
       await subscription.cancel();
     });
 
+    test('Should pass image stream options as listen arguments', () async {
+      final List<MethodCall> imageStreamCalls = <MethodCall>[];
+      TestDefaultBinaryMessengerBinding.instance.defaultBinaryMessenger
+          .setMockMethodCallHandler(
+              const MethodChannel('plugins.flutter.io/camera_android/imageStream'),
+              (MethodCall call) async {
+        imageStreamCalls.add(call);
+        return null;
+      });
+
+      final StreamSubscription<CameraImageData> subscription = camera
+          .onStreamedFrameAvailable(cameraId,
+              options: AndroidCameraImageStreamOptions(
+                recycleBuffers: true,
+                backpressure: AndroidImageStreamBackpressure.boundedQueue,
+                backpressureLimit: 3,
+                processing: const AndroidImageStreamProcessing(
+                  cropWidth: 320,
+                  cropHeight: 240,
+                  downscaleFactor: 2,
+                  scaling: AndroidImageStreamScaling.bilinear,
+                  output: AndroidImageStreamOutputFormat.rgba,
+                ),
+                directBuffers: true,
+              ))
+          .listen((CameraImageData imageData) {});
+      await Future<void>.delayed(Duration.zero);
+
+      final MethodCall listen = imageStreamCalls
+          .firstWhere((MethodCall call) => call.method == 'listen');
+      final Map<Object?, Object?> arguments =
+          listen.arguments as Map<Object?, Object?>;
+      expect(arguments['recycleBuffers'], true);
+      expect(arguments['backpressure'], 'boundedQueue');
+      expect(arguments['backpressureLimit'], 3);
+      expect(arguments['directBuffers'], true);
+      final Map<Object?, Object?> processing =
+          arguments['processing']! as Map<Object?, Object?>;
+      expect(processing['cropWidth'], 320);
+      expect(processing['cropHeight'], 240);
+      expect(processing['downscaleFactor'], 2);
+      expect(processing['scaling'], 'bilinear');
+      expect(processing['output'], 'rgba');
+
+      await subscription.cancel();
+      TestDefaultBinaryMessengerBinding.instance.defaultBinaryMessenger
+          .setMockMethodCallHandler(
+              const MethodChannel('plugins.flutter.io/camera_android/imageStream'),
+              null);
+    });
+
+    test('Should listen without arguments when no options are given',
+        () async {
+      final List<MethodCall> imageStreamCalls = <MethodCall>[];
+      TestDefaultBinaryMessengerBinding.instance.defaultBinaryMessenger
+          .setMockMethodCallHandler(
+              const MethodChannel('plugins.flutter.io/camera_android/imageStream'),
+              (MethodCall call) async {
+        imageStreamCalls.add(call);
+        return null;
+      });
+
+      final StreamSubscription<CameraImageData> subscription = camera
+          .onStreamedFrameAvailable(cameraId)
+          .listen((CameraImageData imageData) {});
+      await Future<void>.delayed(Duration.zero);
+
+      expect(
+          imageStreamCalls
+              .firstWhere((MethodCall call) => call.method == 'listen')
+              .arguments,
+          isNull);
+
+      await subscription.cancel();
+      TestDefaultBinaryMessengerBinding.instance.defaultBinaryMessenger
+          .setMockMethodCallHandler(
+              const MethodChannel('plugins.flutter.io/camera_android/imageStream'),
+              null);
+    });
+
     test('Should stop streaming', () async {
       // Arrange
       // Act
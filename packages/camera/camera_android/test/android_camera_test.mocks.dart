@@ -365,4 +365,131 @@ class MockCameraApi extends _i1.Mock implements _i2.CameraApi {
         returnValue: _i4.Future<void>.value(),
         returnValueForMissingStub: _i4.Future<void>.value(),
       ) as _i4.Future<void>);
+
+  @override
+  _i4.Future<void> setTimingInstrumentationEnabled(bool? enabled) =>
+      (super.noSuchMethod(
+        Invocation.method(
+          #setTimingInstrumentationEnabled,
+          [enabled],
+        ),
+        returnValue: _i4.Future<void>.value(),
+        returnValueForMissingStub: _i4.Future<void>.value(),
+      ) as _i4.Future<void>);
+
+  @override
+  _i4.Future<List<_i2.PlatformStageTiming>> getStageTimings() =>
+      (super.noSuchMethod(
+        Invocation.method(
+          #getStageTimings,
+          [],
+        ),
+        returnValue: _i4.Future<List<_i2.PlatformStageTiming>>.value(
+            <_i2.PlatformStageTiming>[]),
+        returnValueForMissingStub:
+            _i4.Future<List<_i2.PlatformStageTiming>>.value(
+                <_i2.PlatformStageTiming>[]),
+      ) as _i4.Future<List<_i2.PlatformStageTiming>>);
+
+  @override
+  _i4.Future<List<String>> takePictureBurst(int? count) => (super.noSuchMethod(
+        Invocation.method(
+          #takePictureBurst,
+          [count],
+        ),
+        returnValue: _i4.Future<List<String>>.value(<String>[]),
+        returnValueForMissingStub: _i4.Future<List<String>>.value(<String>[]),
+      ) as _i4.Future<List<String>>);
+
+  @override
+  _i4.Future<void> setZeroShutterLagEnabled(bool? enabled) =>
+      (super.noSuchMethod(
+        Invocation.method(
+          #setZeroShutterLagEnabled,
+          [enabled],
+        ),
+        returnValue: _i4.Future<void>.value(),
+        returnValueForMissingStub: _i4.Future<void>.value(),
+      ) as _i4.Future<void>);
+
+  @override
+  _i4.Future<void> setPictureSaveOptions(
+    bool? syncToStorage,
+    Map<String, String>? exifAttributes,
+  ) =>
+      (super.noSuchMethod(
+        Invocation.method(
+          #setPictureSaveOptions,
+          [
+            syncToStorage,
+            exifAttributes,
+          ],
+        ),
+        returnValue: _i4.Future<void>.value(),
+        returnValueForMissingStub: _i4.Future<void>.value(),
+      ) as _i4.Future<void>);
+
+  @override
+  _i4.Future<void> prewarmCamera(String? cameraName) => (super.noSuchMethod(
+        Invocation.method(
+          #prewarmCamera,
+          [cameraName],
+        ),
+        returnValue: _i4.Future<void>.value(),
+        returnValueForMissingStub: _i4.Future<void>.value(),
+      ) as _i4.Future<void>);
+
+  @override
+  _i4.Future<int> getDroppedVideoFrameCount() => (super.noSuchMethod(
+        Invocation.method(
+          #getDroppedVideoFrameCount,
+          [],
+        ),
+        returnValue: _i4.Future<int>.value(0),
+        returnValueForMissingStub: _i4.Future<int>.value(0),
+      ) as _i4.Future<int>);
+
+  @override
+  _i4.Future<void> setVideoEncoderOptions(
+    bool? useMediaCodec,
+    bool? preferHevc,
+    bool? constantBitrate,
+    int? keyFrameIntervalSeconds,
+    bool? fragmented,
+  ) =>
+      (super.noSuchMethod(
+        Invocation.method(
+          #setVideoEncoderOptions,
+          [
+            useMediaCodec,
+            preferHevc,
+            constantBitrate,
+            keyFrameIntervalSeconds,
+            fragmented,
+          ],
+        ),
+        returnValue: _i4.Future<void>.value(),
+        returnValueForMissingStub: _i4.Future<void>.value(),
+      ) as _i4.Future<void>);
+
+  @override
+  _i4.Future<void> setVideoSegmentOptions(
+    bool? segmented,
+    int? maxDurationMillis,
+    int? maxSizeBytes,
+    int? maxSegmentCount,
+  ) =>
+      (super.noSuchMethod(
+        Invocation.method(
+          #setVideoSegmentOptions,
+          [
+            segmented,
+            maxDurationMillis,
+            maxSizeBytes,
+            maxSegmentCount,
+          ],
+        ),
+        returnValue: _i4.Future<void>.value(),
+        returnValueForMissingStub: _i4.Future<void>.value(),
+      ) as _i4.Future<void>);
 }
@@ -4,6 +4,10 @@
 
 package io.flutter.plugins.camerax;
 
+import android.content.Context;
+import android.content.pm.ApplicationInfo;
+import android.content.pm.PackageManager;
+import android.os.Bundle;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 import androidx.annotation.VisibleForTesting;
@@ -13,6 +17,15 @@ import io.flutter.embedding.engine.plugins.activity.ActivityPluginBinding;
 
 /** Platform implementation of the camera_plugin implemented with the CameraX library. */
 public final class CameraAndroidCameraxPlugin implements FlutterPlugin, ActivityAware {
+  /**
+   * The name of the {@code meta-data} element of the {@code application} element of the app
+   * manifest that makes the plugin warm up the camera when it is attached to the engine if its
+   * value is {@code true}.
+   *
+   * <p>See {@link #warmUp}.
+   */
+  public static final String WARM_UP_META_DATA = "io.flutter.plugins.camerax.WARM_UP";
+
   private FlutterPluginBinding pluginBinding;
   @VisibleForTesting @Nullable ProxyApiRegistrar proxyApiRegistrar;
 
@@ -33,6 +46,42 @@ public final class CameraAndroidCameraxPlugin implements FlutterPlugin, Activity
             binding.getApplicationContext(),
             binding.getTextureRegistry());
     proxyApiRegistrar.setUp();
+
+    if (isWarmUpEnabled(binding.getApplicationContext())) {
+      warmUp();
+    }
+  }
+
+  /**
+   * Starts initializing the camera provider, enumerating the cameras and creating the surface of
+   * the first preview in the background, so that the first camera preview is shown sooner.
+   *
+   * <p>This is opt-in because it uses the camera service before the app shows a camera. Call it
+   * from the main thread after the plugin is attached to the engine, or set {@link
+   * #WARM_UP_META_DATA} to warm up when the plugin is attached. The surface of the first preview is
+   * released if no preview uses it shortly after warming up, or when the activity is detached.
+   */
+  public void warmUp() {
+    if (proxyApiRegistrar != null) {
+      proxyApiRegistrar.getCameraWarmUp().start();
+    }
+  }
+
+  @SuppressWarnings("deprecation") // getApplicationInfo(String, ApplicationInfoFlags) is API 33+.
+  private static boolean isWarmUpEnabled(@NonNull Context context) {
+    final PackageManager packageManager = context.getPackageManager();
+    if (packageManager == null) {
+      return false;
+    }
+    try {
+      final ApplicationInfo applicationInfo =
+          packageManager.getApplicationInfo(
+              context.getPackageName(), PackageManager.GET_META_DATA);
+      final Bundle metaData = applicationInfo.metaData;
+      return metaData != null && metaData.getBoolean(WARM_UP_META_DATA, false);
+    } catch (PackageManager.NameNotFoundException e) {
+      return false;
+    }
   }
 
   @Override
@@ -40,7 +89,9 @@ public final class CameraAndroidCameraxPlugin implements FlutterPlugin, Activity
     if (proxyApiRegistrar != null) {
       proxyApiRegistrar.setIgnoreCallsToDart(true);
       proxyApiRegistrar.tearDown();
+      proxyApiRegistrar.getCameraWarmUp().release();
       proxyApiRegistrar.getInstanceManager().stopFinalizationListener();
+      proxyApiRegistrar.getExecutors().shutdown();
       proxyApiRegistrar = null;
     }
   }
@@ -80,6 +131,8 @@ public final class CameraAndroidCameraxPlugin implements FlutterPlugin, Activity
     if (proxyApiRegistrar != null) {
       proxyApiRegistrar.setContext(pluginBinding.getApplicationContext());
       proxyApiRegistrar.setPermissionsRegistry(null);
+      // The camera screen the warm up was for is gone, so its preview surface is not kept.
+      proxyApiRegistrar.getCameraWarmUp().release();
     }
   }
 }
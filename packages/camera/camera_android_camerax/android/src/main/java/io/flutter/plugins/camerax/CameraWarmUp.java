@@ -0,0 +1,139 @@
+// Copyright 2013 The Flutter Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package io.flutter.plugins.camerax;
+
+import android.hardware.camera2.CameraCharacteristics;
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.OptIn;
+import androidx.annotation.VisibleForTesting;
+import androidx.camera.camera2.interop.Camera2CameraInfo;
+import androidx.camera.camera2.interop.ExperimentalCamera2Interop;
+import androidx.camera.core.CameraInfo;
+import androidx.camera.lifecycle.ProcessCameraProvider;
+import androidx.core.content.ContextCompat;
+import com.google.common.util.concurrent.ListenableFuture;
+import io.flutter.view.TextureRegistry;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Does the work needed before the first camera preview can be shown ahead of the first call from
+ * Dart, so that it is not on the critical path of the first camera screen of an app.
+ *
+ * <p>Warming up initializes the {@link ProcessCameraProvider}, which enumerates the cameras of the
+ * device, reads the characteristics of every camera, which CameraX caches for later lookups, and
+ * creates the {@link TextureRegistry.SurfaceProducer} of the first preview, which is released if
+ * no preview uses it within {@link #UNUSED_SURFACE_PRODUCER_TIMEOUT_MILLIS}. Every method is called
+ * on the main thread.
+ */
+class CameraWarmUp {
+  private static final String TAG = "CameraWarmUp";
+
+  /** How long the surface producer created while warming up is kept for the first preview. */
+  @VisibleForTesting static final long UNUSED_SURFACE_PRODUCER_TIMEOUT_MILLIS = 10000;
+
+  @NonNull private final ProxyApiRegistrar pigeonRegistrar;
+  @NonNull private final Handler handler = new Handler(Looper.getMainLooper());
+  @NonNull private final Runnable releaseSurfaceProducerRunnable = this::releaseSurfaceProducer;
+  @Nullable private ListenableFuture<ProcessCameraProvider> processCameraProviderFuture;
+  @Nullable private List<CameraInfo> availableCameraInfos;
+  @Nullable private TextureRegistry.SurfaceProducer surfaceProducer;
+  private boolean isStarted;
+
+  CameraWarmUp(@NonNull ProxyApiRegistrar pigeonRegistrar) {
+    this.pigeonRegistrar = pigeonRegistrar;
+  }
+
+  /**
+   * Returns the future of the {@link ProcessCameraProvider}, which is only requested once, so that
+   * the provider initialized by {@link #start} is reused.
+   */
+  @NonNull
+  ListenableFuture<ProcessCameraProvider> getProcessCameraProvider() {
+    if (processCameraProviderFuture == null) {
+      processCameraProviderFuture = ProcessCameraProvider.getInstance(pigeonRegistrar.getContext());
+    }
+    return processCameraProviderFuture;
+  }
+
+  /** Starts warming up the camera. Calls after the first one do nothing. */
+  void start() {
+    if (isStarted) {
+      return;
+    }
+    isStarted = true;
+
+    surfaceProducer = pigeonRegistrar.getTextureRegistry().createSurfaceProducer();
+    handler.postDelayed(releaseSurfaceProducerRunnable, UNUSED_SURFACE_PRODUCER_TIMEOUT_MILLIS);
+    final ListenableFuture<ProcessCameraProvider> future = getProcessCameraProvider();
+    future.addListener(
+        () -> {
+          try {
+            onProcessCameraProviderAvailable(future.get());
+          } catch (InterruptedException | ExecutionException e) {
+            // The error is reported again when Dart requests the provider.
+            Log.w(TAG, "Failed to initialize ProcessCameraProvider: " + e);
+          }
+        },
+        ContextCompat.getMainExecutor(pigeonRegistrar.getContext()));
+  }
+
+  @OptIn(markerClass = ExperimentalCamera2Interop.class)
+  private void onProcessCameraProviderAvailable(@NonNull ProcessCameraProvider provider) {
+    final List<CameraInfo> cameraInfos = provider.getAvailableCameraInfos();
+    for (CameraInfo cameraInfo : cameraInfos) {
+      final Camera2CameraInfo camera2CameraInfo = Camera2CameraInfo.from(cameraInfo);
+      camera2CameraInfo.getCameraCharacteristic(CameraCharacteristics.SENSOR_ORIENTATION);
+      camera2CameraInfo.getCameraCharacteristic(
+          CameraCharacteristics.INFO_SUPPORTED_HARDWARE_LEVEL);
+    }
+    availableCameraInfos = cameraInfos;
+  }
+
+  /**
+   * Returns the cameras enumerated while warming up and forgets them, or null if they have not been
+   * enumerated, so that only the first lookup, which is on the critical path, is served from the
+   * cache and later lookups see cameras that are connected or disconnected.
+   */
+  @Nullable
+  List<CameraInfo> takeAvailableCameraInfos() {
+    final List<CameraInfo> cameraInfos = availableCameraInfos;
+    availableCameraInfos = null;
+    return cameraInfos;
+  }
+
+  /**
+   * Returns the {@link TextureRegistry.SurfaceProducer} created while warming up, or null if it has
+   * not been created or has already been taken.
+   */
+  @Nullable
+  TextureRegistry.SurfaceProducer takeSurfaceProducer() {
+    handler.removeCallbacks(releaseSurfaceProducerRunnable);
+    final TextureRegistry.SurfaceProducer producer = surfaceProducer;
+    surfaceProducer = null;
+    return producer;
+  }
+
+  /**
+   * Releases the {@link TextureRegistry.SurfaceProducer} created while warming up if unused and
+   * forgets the enumerated cameras, such as when the activity that would show the camera is
+   * detached.
+   */
+  void release() {
+    releaseSurfaceProducer();
+    availableCameraInfos = null;
+  }
+
+  private void releaseSurfaceProducer() {
+    final TextureRegistry.SurfaceProducer producer = takeSurfaceProducer();
+    if (producer != null) {
+      producer.release();
+    }
+  }
+}
@@ -0,0 +1,100 @@
+// Copyright 2013 The Flutter Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package io.flutter.plugins.camerax;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.VisibleForTesting;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Background executors shared by the proxy APIs of a {@link ProxyApiRegistrar}.
+ *
+ * <p>Each pool is bounded to a fixed number of threads, which are only started when work is
+ * submitted and stop once they have been idle for {@link #KEEP_ALIVE_SECONDS}, so that the number
+ * of threads does not grow with the number of captures or surface requests.
+ */
+class CameraXExecutors {
+  /** The name of the pool that receives the results of picture captures. */
+  static final String CAPTURE = "capture";
+
+  /** The name of the pool that receives the results of surfaces provided to the camera. */
+  static final String SURFACE = "surface";
+
+  /** The name of the pool that image analyzers run on. */
+  static final String ANALYSIS = "analysis";
+
+  @VisibleForTesting static final int CAPTURE_THREADS = 2;
+  @VisibleForTesting static final int SURFACE_THREADS = 1;
+  @VisibleForTesting static final int ANALYSIS_THREADS = 1;
+  @VisibleForTesting static final long KEEP_ALIVE_SECONDS = 10;
+
+  @NonNull private final ThreadPoolExecutor captureExecutor = createPool(CAPTURE, CAPTURE_THREADS);
+  @NonNull private final ThreadPoolExecutor surfaceExecutor = createPool(SURFACE, SURFACE_THREADS);
+
+  @NonNull
+  private final ThreadPoolExecutor analysisExecutor = createPool(ANALYSIS, ANALYSIS_THREADS);
+
+  @NonNull
+  private static ThreadPoolExecutor createPool(@NonNull String name, int threads) {
+    final AtomicInteger threadCount = new AtomicInteger();
+    final ThreadFactory threadFactory =
+        runnable -> new Thread(runnable, "CameraX-" + name + "-" + threadCount.incrementAndGet());
+    final ThreadPoolExecutor executor =
+        new ThreadPoolExecutor(
+            threads,
+            threads,
+            KEEP_ALIVE_SECONDS,
+            TimeUnit.SECONDS,
+            new LinkedBlockingQueue<>(),
+            threadFactory);
+    executor.allowCoreThreadTimeOut(true);
+    return executor;
+  }
+
+  /** Returns the executor that picture capture callbacks, such as file I/O results, run on. */
+  @NonNull
+  Executor getCaptureExecutor() {
+    return captureExecutor;
+  }
+
+  /** Returns the executor that results of surfaces provided to the camera are handled on. */
+  @NonNull
+  Executor getSurfaceExecutor() {
+    return surfaceExecutor;
+  }
+
+  /** Returns the executor that image analyzers run on. */
+  @NonNull
+  Executor getAnalysisExecutor() {
+    return analysisExecutor;
+  }
+
+  /** Returns the number of threads currently alive in each pool, keyed by pool name. */
+  @NonNull
+  Map<String, Long> getThreadCounts() {
+    final Map<String, Long> threadCounts = new LinkedHashMap<>();
+    threadCounts.put(CAPTURE, (long) captureExecutor.getPoolSize());
+    threadCounts.put(SURFACE, (long) surfaceExecutor.getPoolSize());
+    threadCounts.put(ANALYSIS, (long) analysisExecutor.getPoolSize());
+    return threadCounts;
+  }
+
+  /**
+   * Stops accepting new work and lets the threads of every pool finish once their queued work is
+   * done.
+   */
+  void shutdown() {
+    captureExecutor.shutdown();
+    surfaceExecutor.shutdown();
+    analysisExecutor.shutdown();
+  }
+}
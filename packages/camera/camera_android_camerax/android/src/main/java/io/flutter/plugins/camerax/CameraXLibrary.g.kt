@@ -2548,6 +2548,28 @@ abstract class PigeonApiSystemServicesManager(
       suffix: String
   ): String
 
+  /**
+   * Returns the number of threads currently alive in each of the background executors shared by
+   * the plugin, keyed by executor name.
+   */
+  abstract fun getExecutorThreadCounts(pigeon_instance: SystemServicesManager): Map<String, Long>
+
+  /**
+   * Returns counters describing the native instances shared with Dart and how quickly released
+   * instances are reported back to Dart.
+   */
+  abstract fun getInstanceManagerStatistics(
+      pigeon_instance: SystemServicesManager
+  ): Map<String, Long>
+
+  /**
+   * Returns the frame rates measured for the camera output and the image stream, with the number
+   * of frames delivered and dropped, keyed by name.
+   */
+  abstract fun getFrameRateStatistics(
+      pigeon_instance: SystemServicesManager
+  ): Map<String, Double>
+
   companion object {
     @Suppress("LocalVariableName")
     fun setUpMessageHandlers(
@@ -2629,6 +2651,72 @@ abstract class PigeonApiSystemServicesManager(
           channel.setMessageHandler(null)
         }
       }
+      run {
+        val channel =
+            BasicMessageChannel<Any?>(
+                binaryMessenger,
+                "dev.flutter.pigeon.camera_android_camerax.SystemServicesManager.getExecutorThreadCounts",
+                codec)
+        if (api != null) {
+          channel.setMessageHandler { message, reply ->
+            val args = message as List<Any?>
+            val pigeon_instanceArg = args[0] as SystemServicesManager
+            val wrapped: List<Any?> =
+                try {
+                  listOf(api.getExecutorThreadCounts(pigeon_instanceArg))
+                } catch (exception: Throwable) {
+                  CameraXLibraryPigeonUtils.wrapError(exception)
+                }
+            reply.reply(wrapped)
+          }
+        } else {
+          channel.setMessageHandler(null)
+        }
+      }
+      run {
+        val channel =
+            BasicMessageChannel<Any?>(
+                binaryMessenger,
+                "dev.flutter.pigeon.camera_android_camerax.SystemServicesManager.getInstanceManagerStatistics",
+                codec)
+        if (api != null) {
+          channel.setMessageHandler { message, reply ->
+            val args = message as List<Any?>
+            val pigeon_instanceArg = args[0] as SystemServicesManager
+            val wrapped: List<Any?> =
+                try {
+                  listOf(api.getInstanceManagerStatistics(pigeon_instanceArg))
+                } catch (exception: Throwable) {
+                  CameraXLibraryPigeonUtils.wrapError(exception)
+                }
+            reply.reply(wrapped)
+          }
+        } else {
+          channel.setMessageHandler(null)
+        }
+      }
+      run {
+        val channel =
+            BasicMessageChannel<Any?>(
+                binaryMessenger,
+                "dev.flutter.pigeon.camera_android_camerax.SystemServicesManager.getFrameRateStatistics",
+                codec)
+        if (api != null) {
+          channel.setMessageHandler { message, reply ->
+            val args = message as List<Any?>
+            val pigeon_instanceArg = args[0] as SystemServicesManager
+            val wrapped: List<Any?> =
+                try {
+                  listOf(api.getFrameRateStatistics(pigeon_instanceArg))
+                } catch (exception: Throwable) {
+                  CameraXLibraryPigeonUtils.wrapError(exception)
+                }
+            reply.reply(wrapped)
+          }
+        } else {
+          channel.setMessageHandler(null)
+        }
+      }
     }
   }
 
@@ -2932,7 +3020,8 @@ abstract class PigeonApiDeviceOrientationManager(
 abstract class PigeonApiPreview(open val pigeonRegistrar: CameraXLibraryPigeonProxyApiRegistrar) {
   abstract fun pigeon_defaultConstructor(
       resolutionSelector: androidx.camera.core.resolutionselector.ResolutionSelector?,
-      targetRotation: Long?
+      targetRotation: Long?,
+      targetFrameRate: Long?
   ): androidx.camera.core.Preview
 
   abstract fun resolutionSelector(
@@ -2988,10 +3077,12 @@ abstract class PigeonApiPreview(open val pigeonRegistrar: CameraXLibraryPigeonPr
             val resolutionSelectorArg =
                 args[1] as androidx.camera.core.resolutionselector.ResolutionSelector?
             val targetRotationArg = args[2] as Long?
+            val targetFrameRateArg = args[3] as Long?
             val wrapped: List<Any?> =
                 try {
                   api.pigeonRegistrar.instanceManager.addDartCreatedInstance(
-                      api.pigeon_defaultConstructor(resolutionSelectorArg, targetRotationArg),
+                      api.pigeon_defaultConstructor(
+                          resolutionSelectorArg, targetRotationArg, targetFrameRateArg),
                       pigeon_identifierArg)
                   listOf(null)
                 } catch (exception: Throwable) {
@@ -3172,7 +3263,8 @@ abstract class PigeonApiVideoCapture(
 ) {
   /** Create a `VideoCapture` associated with the given `VideoOutput`. */
   abstract fun withOutput(
-      videoOutput: androidx.camera.video.VideoOutput
+      videoOutput: androidx.camera.video.VideoOutput,
+      targetFrameRate: Long?
   ): androidx.camera.video.VideoCapture<*>
 
   /** Gets the VideoOutput associated with this VideoCapture. */
@@ -3201,10 +3293,11 @@ abstract class PigeonApiVideoCapture(
             val args = message as List<Any?>
             val pigeon_identifierArg = args[0] as Long
             val videoOutputArg = args[1] as androidx.camera.video.VideoOutput
+            val targetFrameRateArg = args[2] as Long?
             val wrapped: List<Any?> =
                 try {
                   api.pigeonRegistrar.instanceManager.addDartCreatedInstance(
-                      api.withOutput(videoOutputArg), pigeon_identifierArg)
+                      api.withOutput(videoOutputArg, targetFrameRateArg), pigeon_identifierArg)
                   listOf(null)
                 } catch (exception: Throwable) {
                   CameraXLibraryPigeonUtils.wrapError(exception)
@@ -3924,6 +4017,19 @@ abstract class PigeonApiImageCapture(
       callback: (Result<String>) -> Unit
   )
 
+  /**
+   * Captures a new still image and returns its JPEG bytes instead of saving it to a file.
+   *
+   * When `jpegQuality` or `maxSize` is set, the image is decoded, scaled down so that neither side
+   * is longer than `maxSize`, rotated upright and encoded again at `jpegQuality`.
+   */
+  abstract fun takePictureToMemory(
+      pigeon_instance: androidx.camera.core.ImageCapture,
+      jpegQuality: Long?,
+      maxSize: Long?,
+      callback: (Result<ByteArray>) -> Unit
+  )
+
   /** Sets the desired rotation of the output image. */
   abstract fun setTargetRotation(pigeon_instance: androidx.camera.core.ImageCapture, rotation: Long)
 
@@ -4009,6 +4115,33 @@ abstract class PigeonApiImageCapture(
           channel.setMessageHandler(null)
         }
       }
+      run {
+        val channel =
+            BasicMessageChannel<Any?>(
+                binaryMessenger,
+                "dev.flutter.pigeon.camera_android_camerax.ImageCapture.takePictureToMemory",
+                codec)
+        if (api != null) {
+          channel.setMessageHandler { message, reply ->
+            val args = message as List<Any?>
+            val pigeon_instanceArg = args[0] as androidx.camera.core.ImageCapture
+            val jpegQualityArg = args[1] as Long?
+            val maxSizeArg = args[2] as Long?
+            api.takePictureToMemory(pigeon_instanceArg, jpegQualityArg, maxSizeArg) {
+                result: Result<ByteArray> ->
+              val error = result.exceptionOrNull()
+              if (error != null) {
+                reply.reply(CameraXLibraryPigeonUtils.wrapError(error))
+              } else {
+                val data = result.getOrNull()
+                reply.reply(CameraXLibraryPigeonUtils.wrapResult(data))
+              }
+            }
+          }
+        } else {
+          channel.setMessageHandler(null)
+        }
+      }
       run {
         val channel =
             BasicMessageChannel<Any?>(
@@ -4771,6 +4904,17 @@ abstract class PigeonApiImageAnalysis(
       analyzer: androidx.camera.core.ImageAnalysis.Analyzer
   )
 
+  /**
+   * Sets an analyzer to receive every image packed into a single message on a background thread,
+   * with at most [maxFramesInFlight] images waiting to be analyzed.
+   */
+  abstract fun setFrameAnalyzer(
+      pigeon_instance: androidx.camera.core.ImageAnalysis,
+      analyzer: androidx.camera.core.ImageAnalysis.Analyzer,
+      maxFramesInFlight: Long,
+      targetFrameRate: Long?
+  )
+
   /** Removes a previously set analyzer. */
   abstract fun clearAnalyzer(pigeon_instance: androidx.camera.core.ImageAnalysis)
 
@@ -4836,6 +4980,33 @@ abstract class PigeonApiImageAnalysis(
           channel.setMessageHandler(null)
         }
       }
+      run {
+        val channel =
+            BasicMessageChannel<Any?>(
+                binaryMessenger,
+                "dev.flutter.pigeon.camera_android_camerax.ImageAnalysis.setFrameAnalyzer",
+                codec)
+        if (api != null) {
+          channel.setMessageHandler { message, reply ->
+            val args = message as List<Any?>
+            val pigeon_instanceArg = args[0] as androidx.camera.core.ImageAnalysis
+            val analyzerArg = args[1] as androidx.camera.core.ImageAnalysis.Analyzer
+            val maxFramesInFlightArg = args[2] as Long
+            val targetFrameRateArg = args[3] as Long?
+            val wrapped: List<Any?> =
+                try {
+                  api.setFrameAnalyzer(
+                      pigeon_instanceArg, analyzerArg, maxFramesInFlightArg, targetFrameRateArg)
+                  listOf(null)
+                } catch (exception: Throwable) {
+                  CameraXLibraryPigeonUtils.wrapError(exception)
+                }
+            reply.reply(wrapped)
+          }
+        } else {
+          channel.setMessageHandler(null)
+        }
+      }
       run {
         val channel =
             BasicMessageChannel<Any?>(
@@ -5017,6 +5188,38 @@ abstract class PigeonApiAnalyzer(open val pigeonRegistrar: CameraXLibraryPigeonP
       }
     }
   }
+
+  /**
+   * Analyzes an image packed into [frame] by an analyzer set with
+   * `ImageAnalysis.setFrameAnalyzer`.
+   */
+  fun analyzeFrame(
+      pigeon_instanceArg: androidx.camera.core.ImageAnalysis.Analyzer,
+      frameArg: ByteArray,
+      callback: (Result<Unit>) -> Unit
+  ) {
+    if (pigeonRegistrar.ignoreCallsToDart) {
+      callback(
+          Result.failure(
+              CameraXError("ignore-calls-error", "Calls to Dart are being ignored.", "")))
+      return
+    }
+    val binaryMessenger = pigeonRegistrar.binaryMessenger
+    val codec = pigeonRegistrar.codec
+    val channelName = "dev.flutter.pigeon.camera_android_camerax.Analyzer.analyzeFrame"
+    val channel = BasicMessageChannel<Any?>(binaryMessenger, channelName, codec)
+    channel.send(listOf(pigeon_instanceArg, frameArg)) {
+      if (it is List<*>) {
+        if (it.size > 1) {
+          callback(Result.failure(CameraXError(it[0] as String, it[1] as String, it[2] as String?)))
+        } else {
+          callback(Result.success(Unit))
+        }
+      } else {
+        callback(Result.failure(CameraXLibraryPigeonUtils.createConnectionError(channelName)))
+      }
+    }
+  }
 }
 /**
  * Error that the camera has encountered.
@@ -0,0 +1,175 @@
+// Copyright 2013 The Flutter Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package io.flutter.plugins.camerax;
+
+import android.hardware.camera2.CameraCaptureSession;
+import android.hardware.camera2.CaptureRequest;
+import android.hardware.camera2.TotalCaptureResult;
+import androidx.annotation.NonNull;
+import androidx.annotation.VisibleForTesting;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the frame rate of the streams of a camera, so that it can be checked whether one use
+ * case, such as image analysis, slows down another, such as video recording.
+ *
+ * <p>The frame rate of a stream is measured over windows of at least {@link #WINDOW_NANOS}, and the
+ * rate of the last complete window is reported. Frames can be recorded from any thread.
+ */
+class FrameRateMonitor {
+  /** The name of the stream of frames produced by the camera for the preview. */
+  static final String PREVIEW = "preview";
+
+  /** The name of the stream of frames produced by the camera for the video recording. */
+  static final String VIDEO = "video";
+
+  /** The name of the stream of packed images sent to Dart. */
+  static final String IMAGE_STREAM = "imageStream";
+
+  @VisibleForTesting static final long WINDOW_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+  private static class Counter {
+    long frames;
+    long droppedFrames;
+    long windowStartNanos = -1;
+    long framesInWindow;
+    double frameRate;
+    long startNanos = -1;
+    long timeToFirstFrameNanos = -1;
+  }
+
+  @NonNull private final Map<String, Counter> counters = new LinkedHashMap<>();
+
+  /** Records that a frame of {@code stream} was delivered at {@code timestampNanos}. */
+  synchronized void onFrame(@NonNull String stream, long timestampNanos) {
+    final Counter counter = getCounter(stream);
+    counter.frames++;
+    if (counter.startNanos >= 0 && counter.timeToFirstFrameNanos < 0) {
+      counter.timeToFirstFrameNanos = timestampNanos - counter.startNanos;
+    }
+    if (counter.windowStartNanos < 0) {
+      counter.windowStartNanos = timestampNanos;
+      return;
+    }
+    counter.framesInWindow++;
+    final long elapsedNanos = timestampNanos - counter.windowStartNanos;
+    if (elapsedNanos >= WINDOW_NANOS) {
+      counter.frameRate =
+          counter.framesInWindow * (double) TimeUnit.SECONDS.toNanos(1) / elapsedNanos;
+      counter.windowStartNanos = timestampNanos;
+      counter.framesInWindow = 0;
+    }
+  }
+
+  /**
+   * Records that the first frame of {@code stream} since it was last started was delivered at
+   * {@code timestampNanos}, without counting it towards the frame rate.
+   */
+  synchronized void onFirstFrame(@NonNull String stream, long timestampNanos) {
+    final Counter counter = getCounter(stream);
+    if (counter.startNanos >= 0 && counter.timeToFirstFrameNanos < 0) {
+      counter.timeToFirstFrameNanos = timestampNanos - counter.startNanos;
+    }
+  }
+
+  /**
+   * Records that {@code stream} was started at {@code timestampNanos}, so that the time until its
+   * next frame is measured.
+   */
+  synchronized void onStreamStarted(@NonNull String stream, long timestampNanos) {
+    final Counter counter = getCounter(stream);
+    counter.startNanos = timestampNanos;
+    counter.timeToFirstFrameNanos = -1;
+  }
+
+  /**
+   * Returns a capture callback that records a frame of {@code stream} for every completed capture.
+   *
+   * <p>This is meant to be set as the session capture callback of the use case producing {@code
+   * stream}, which is called for the captures that use case receives frames from.
+   */
+  @NonNull
+  CameraCaptureSession.CaptureCallback createCaptureCallback(@NonNull String stream) {
+    return new CameraCaptureSession.CaptureCallback() {
+      @Override
+      public void onCaptureCompleted(
+          @NonNull CameraCaptureSession session,
+          @NonNull CaptureRequest request,
+          @NonNull TotalCaptureResult result) {
+        onFrame(stream, System.nanoTime());
+      }
+    };
+  }
+
+  /**
+   * Returns a capture callback that only records the first completed capture of {@code stream}, as
+   * with {@link #onFirstFrame(String, long)}.
+   *
+   * <p>This measures the time to the first frame of a use case whose frame rate is not measured,
+   * at the cost of a callback that returns immediately for the next captures.
+   */
+  @NonNull
+  CameraCaptureSession.CaptureCallback createFirstFrameCallback(@NonNull String stream) {
+    return new CameraCaptureSession.CaptureCallback() {
+      private volatile boolean recorded;
+
+      @Override
+      public void onCaptureCompleted(
+          @NonNull CameraCaptureSession session,
+          @NonNull CaptureRequest request,
+          @NonNull TotalCaptureResult result) {
+        if (!recorded) {
+          recorded = true;
+          onFirstFrame(stream, System.nanoTime());
+        }
+      }
+    };
+  }
+
+  /** Records that a frame of {@code stream} was dropped instead of being delivered. */
+  synchronized void onFrameDropped(@NonNull String stream) {
+    getCounter(stream).droppedFrames++;
+  }
+
+  /**
+   * Returns the frame rate, number of delivered frames and number of dropped frames of each stream
+   * with a delivered or dropped frame, keyed by the stream name followed by {@code .frameRate},
+   * {@code .frames} and {@code .dropped}.
+   *
+   * <p>For streams whose first frame since they were last started has been delivered, the time to
+   * that frame in milliseconds is also returned, keyed by the stream name followed by {@code
+   * .timeToFirstFrameMillis}.
+   */
+  @NonNull
+  synchronized Map<String, Double> getStatistics() {
+    final Map<String, Double> statistics = new LinkedHashMap<>();
+    for (Map.Entry<String, Counter> entry : counters.entrySet()) {
+      final Counter counter = entry.getValue();
+      if (counter.frames > 0 || counter.droppedFrames > 0) {
+        statistics.put(entry.getKey() + ".frameRate", counter.frameRate);
+        statistics.put(entry.getKey() + ".frames", (double) counter.frames);
+        statistics.put(entry.getKey() + ".dropped", (double) counter.droppedFrames);
+      }
+      if (counter.timeToFirstFrameNanos >= 0) {
+        statistics.put(
+            entry.getKey() + ".timeToFirstFrameMillis",
+            counter.timeToFirstFrameNanos / (double) TimeUnit.MILLISECONDS.toNanos(1));
+      }
+    }
+    return statistics;
+  }
+
+  @NonNull
+  private Counter getCounter(@NonNull String stream) {
+    Counter counter = counters.get(stream);
+    if (counter == null) {
+      counter = new Counter();
+      counters.put(stream, counter);
+    }
+    return counter;
+  }
+}
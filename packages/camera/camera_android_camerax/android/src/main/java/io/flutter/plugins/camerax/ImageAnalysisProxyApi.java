@@ -52,6 +52,23 @@ class ImageAnalysisProxyApi extends PigeonApiImageAnalysis {
         ContextCompat.getMainExecutor(getPigeonRegistrar().getContext()), analyzer);
   }
 
+  @Override
+  public void setFrameAnalyzer(
+      ImageAnalysis pigeonInstance,
+      @NonNull ImageAnalysis.Analyzer analyzer,
+      long maxFramesInFlight,
+      @Nullable Long targetFrameRate) {
+    // Packed images do not create instances for Dart, so the default interval to clear finalized
+    // weak references is kept.
+    pigeonInstance.setAnalyzer(
+        getPigeonRegistrar().getExecutors().getAnalysisExecutor(),
+        new PackedFrameAnalyzer(
+            new AnalyzerProxyApi(getPigeonRegistrar()),
+            analyzer,
+            (int) maxFramesInFlight,
+            targetFrameRate == null ? 0 : targetFrameRate.intValue()));
+  }
+
   @Override
   public void clearAnalyzer(ImageAnalysis pigeonInstance) {
     pigeonInstance.clearAnalyzer();
@@ -4,14 +4,22 @@
 
 package io.flutter.plugins.camerax;
 
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+import android.graphics.ImageFormat;
+import android.graphics.Matrix;
+import android.util.Size;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
+import androidx.annotation.VisibleForTesting;
 import androidx.camera.core.ImageCapture;
 import androidx.camera.core.ImageCaptureException;
+import androidx.camera.core.ImageProxy;
 import androidx.camera.core.resolutionselector.ResolutionSelector;
+import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.IOException;
-import java.util.concurrent.Executors;
+import java.nio.ByteBuffer;
 import kotlin.Result;
 import kotlin.Unit;
 import kotlin.jvm.functions.Function1;
@@ -24,6 +32,7 @@ import kotlin.jvm.functions.Function1;
 class ImageCaptureProxyApi extends PigeonApiImageCapture {
   static final String TEMPORARY_FILE_NAME = "CAP";
   static final String JPG_FILE_TYPE = ".jpg";
+  @VisibleForTesting static final int DEFAULT_JPEG_QUALITY = 95;
 
   ImageCaptureProxyApi(@NonNull ProxyApiRegistrar pigeonRegistrar) {
     super(pigeonRegistrar);
@@ -101,7 +110,23 @@ class ImageCaptureProxyApi extends PigeonApiImageCapture {
         createOnImageSavedCallback(temporaryCaptureFile, callback);
 
     pigeonInstance.takePicture(
-        outputFileOptions, Executors.newSingleThreadExecutor(), onImageSavedCallback);
+        outputFileOptions,
+        getPigeonRegistrar().getExecutors().getCaptureExecutor(),
+        onImageSavedCallback);
+  }
+
+  @Override
+  public void takePictureToMemory(
+      @NonNull ImageCapture pigeonInstance,
+      @Nullable Long jpegQuality,
+      @Nullable Long maxSize,
+      @NonNull Function1<? super Result<byte[]>, Unit> callback) {
+    pigeonInstance.takePicture(
+        getPigeonRegistrar().getExecutors().getCaptureExecutor(),
+        createOnImageCapturedCallback(
+            jpegQuality == null ? null : jpegQuality.intValue(),
+            maxSize == null ? null : maxSize.intValue(),
+            callback));
   }
 
   @Override
@@ -134,4 +159,106 @@ class ImageCaptureProxyApi extends PigeonApiImageCapture {
       }
     };
   }
+
+  @NonNull
+  ImageCapture.OnImageCapturedCallback createOnImageCapturedCallback(
+      @Nullable Integer jpegQuality,
+      @Nullable Integer maxSize,
+      @NonNull Function1<? super Result<byte[]>, Unit> callback) {
+    return new ImageCapture.OnImageCapturedCallback() {
+      @Override
+      public void onCaptureSuccess(@NonNull ImageProxy image) {
+        final byte[] bytes;
+        try {
+          bytes = toJpegBytes(image, jpegQuality, maxSize);
+        } catch (RuntimeException e) {
+          ResultCompat.failure(e, callback);
+          return;
+        } finally {
+          image.close();
+        }
+        ResultCompat.success(bytes, callback);
+      }
+
+      @Override
+      public void onError(@NonNull ImageCaptureException exception) {
+        ResultCompat.failure(exception, callback);
+      }
+    };
+  }
+
+  /**
+   * Returns the JPEG bytes of {@code image}, which is captured as a JPEG.
+   *
+   * <p>The bytes produced by the camera, which keep the orientation in their Exif metadata, are
+   * returned as is unless {@code jpegQuality} or {@code maxSize} is set. Otherwise the image is
+   * decoded, scaled down and rotated upright, since the Exif metadata is lost, and encoded again.
+   */
+  @NonNull
+  @VisibleForTesting
+  static byte[] toJpegBytes(
+      @NonNull ImageProxy image, @Nullable Integer jpegQuality, @Nullable Integer maxSize) {
+    if (image.getFormat() != ImageFormat.JPEG) {
+      throw new IllegalStateException("Captured image is not a JPEG: " + image.getFormat());
+    }
+    final ByteBuffer buffer = image.getPlanes()[0].getBuffer();
+    final byte[] bytes = new byte[buffer.remaining()];
+    buffer.get(bytes);
+    if (jpegQuality == null && maxSize == null) {
+      return bytes;
+    }
+
+    final BitmapFactory.Options options = new BitmapFactory.Options();
+    options.inJustDecodeBounds = true;
+    BitmapFactory.decodeByteArray(bytes, 0, bytes.length, options);
+    final Size scaledSize = getScaledSize(new Size(options.outWidth, options.outHeight), maxSize);
+    // Decoding at a power of two sample size that keeps the image at least as large as the scaled
+    // size avoids allocating the full resolution image only to scale it down.
+    options.inJustDecodeBounds = false;
+    options.inSampleSize = 1;
+    while (options.outWidth / (options.inSampleSize * 2) >= scaledSize.getWidth()
+        && options.outHeight / (options.inSampleSize * 2) >= scaledSize.getHeight()) {
+      options.inSampleSize *= 2;
+    }
+    final Bitmap decoded = BitmapFactory.decodeByteArray(bytes, 0, bytes.length, options);
+    if (decoded == null) {
+      throw new IllegalStateException("Captured image could not be decoded.");
+    }
+
+    final Matrix matrix = new Matrix();
+    matrix.postScale(
+        scaledSize.getWidth() / (float) decoded.getWidth(),
+        scaledSize.getHeight() / (float) decoded.getHeight());
+    matrix.postRotate(image.getImageInfo().getRotationDegrees());
+    final Bitmap transformed =
+        Bitmap.createBitmap(decoded, 0, 0, decoded.getWidth(), decoded.getHeight(), matrix, true);
+
+    final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+    transformed.compress(
+        Bitmap.CompressFormat.JPEG,
+        jpegQuality == null ? DEFAULT_JPEG_QUALITY : Math.max(0, Math.min(100, jpegQuality)),
+        outputStream);
+    if (transformed != decoded) {
+      transformed.recycle();
+    }
+    decoded.recycle();
+    return outputStream.toByteArray();
+  }
+
+  /**
+   * Returns {@code size} scaled down, keeping its aspect ratio, so that neither side is longer than
+   * {@code maxSize}, or {@code size} if it already fits or {@code maxSize} is null.
+   */
+  @NonNull
+  @VisibleForTesting
+  static Size getScaledSize(@NonNull Size size, @Nullable Integer maxSize) {
+    final int longestSide = Math.max(size.getWidth(), size.getHeight());
+    if (maxSize == null || maxSize <= 0 || longestSide <= maxSize) {
+      return size;
+    }
+    final double scale = maxSize / (double) longestSide;
+    return new Size(
+        Math.max(1, (int) Math.round(size.getWidth() * scale)),
+        Math.max(1, (int) Math.round(size.getHeight() * scale)));
+  }
 }
@@ -7,7 +7,8 @@ package io.flutter.plugins.camerax;
 import androidx.annotation.NonNull;
 import androidx.camera.core.ImageProxy;
 import androidx.camera.core.ImageProxy.PlaneProxy;
-import java.util.Arrays;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
 import java.util.List;
 
 /**
@@ -35,14 +36,50 @@ class ImageProxyProxyApi extends PigeonApiImageProxy {
     return pigeonInstance.getHeight();
   }
 
+  /**
+   * Returns new instances wrapping the planes of the image on every call.
+   *
+   * <p>Planes are released as soon as Dart is done with them, so an instance must not be sent to
+   * Dart again after that. The image returns the same planes every time, so they are wrapped.
+   */
   @NonNull
   @Override
   public List<PlaneProxy> getPlanes(ImageProxy pigeonInstance) {
-    return Arrays.asList(pigeonInstance.getPlanes());
+    final PlaneProxy[] planes = pigeonInstance.getPlanes();
+    final List<PlaneProxy> wrappedPlanes = new ArrayList<>(planes.length);
+    for (PlaneProxy plane : planes) {
+      wrappedPlanes.add(new PlaneProxyWrapper(plane));
+    }
+    return wrappedPlanes;
   }
 
   @Override
   public void close(ImageProxy pigeonInstance) {
     pigeonInstance.close();
   }
+
+  /** A {@link PlaneProxy} delegating to a plane of an image. */
+  private static final class PlaneProxyWrapper implements PlaneProxy {
+    @NonNull private final PlaneProxy plane;
+
+    PlaneProxyWrapper(@NonNull PlaneProxy plane) {
+      this.plane = plane;
+    }
+
+    @Override
+    public int getRowStride() {
+      return plane.getRowStride();
+    }
+
+    @Override
+    public int getPixelStride() {
+      return plane.getPixelStride();
+    }
+
+    @NonNull
+    @Override
+    public ByteBuffer getBuffer() {
+      return plane.getBuffer();
+    }
+  }
 }
@@ -0,0 +1,288 @@
+// Copyright 2013 The Flutter Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package io.flutter.plugins.camerax;
+
+import android.os.Handler;
+import android.os.Looper;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.VisibleForTesting;
+import io.flutter.plugin.common.BinaryMessenger;
+import io.flutter.plugin.common.StandardMessageCodec;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * {@link BinaryMessenger} that reports the native instances released by the generated {@link
+ * CameraXLibraryPigeonInstanceManager} to Dart in batches.
+ *
+ * <p>The instance manager sends a {@code removeStrongReference} message to Dart for every garbage
+ * collected instance. These messages are collected while the main thread releases instances and
+ * sent in a single message, handled by {@code setUpInstanceManagerBatching} in Dart.
+ *
+ * <p>Instances of the types added with {@link #addEphemeralType(Class)} are reported as released as
+ * soon as Dart removes its strong reference to them, instead of once they are garbage collected.
+ *
+ * <p>Every other message is passed to the wrapped messenger unchanged. The instance manager
+ * messages are only sent and received on the main thread.
+ */
+class InstanceManagerMessenger implements BinaryMessenger {
+  private static final String INSTANCE_MANAGER_CHANNEL_PREFIX =
+      "dev.flutter.pigeon.camera_android_camerax.PigeonInternalInstanceManager.";
+
+  @VisibleForTesting
+  static final String REMOVE_STRONG_REFERENCE_CHANNEL =
+      INSTANCE_MANAGER_CHANNEL_PREFIX + "removeStrongReference";
+
+  private static final String CLEAR_CHANNEL = INSTANCE_MANAGER_CHANNEL_PREFIX + "clear";
+
+  @VisibleForTesting
+  static final String REMOVE_STRONG_REFERENCES_CHANNEL =
+      "plugins.flutter.io/camera_android_camerax/removeStrongReferences";
+
+  /** Key of {@link #getStatistics()} for the number of identifiers reported to Dart. */
+  static final String RELEASED_COUNT = "releasedCount";
+
+  /** Key of {@link #getStatistics()} for the number of messages the identifiers were sent in. */
+  static final String RELEASE_BATCH_COUNT = "releaseBatchCount";
+
+  /**
+   * Key of {@link #getStatistics()} for the number of identifiers reported before their instance
+   * was garbage collected.
+   */
+  static final String EPHEMERAL_RELEASED_COUNT = "ephemeralReleasedCount";
+
+  /**
+   * Key of {@link #getStatistics()} for the average time, in microseconds, between an instance
+   * being released and its identifier being sent to Dart.
+   */
+  static final String AVERAGE_RELEASE_LATENCY_MICROS = "averageReleaseLatencyMicros";
+
+  /** Key of {@link #getStatistics()} for the longest of the averaged latencies, in microseconds. */
+  static final String MAX_RELEASE_LATENCY_MICROS = "maxReleaseLatencyMicros";
+
+  private static final StandardMessageCodec codec = StandardMessageCodec.INSTANCE;
+
+  @NonNull private final BinaryMessenger messenger;
+  @NonNull private final Handler handler = new Handler(Looper.getMainLooper());
+  @NonNull private final Runnable sendReleasedIdentifiersRunnable = this::sendReleasedIdentifiers;
+  @Nullable private CameraXLibraryPigeonInstanceManager instanceManager;
+  @NonNull private final List<Class<?>> ephemeralTypes = new ArrayList<>();
+
+  // Identifiers waiting to be sent, with when they were released and the reply expected by the
+  // instance manager, if any.
+  @NonNull private final List<ReleasedIdentifier> releasedIdentifiers = new ArrayList<>();
+  // Identifiers of ephemeral instances already reported, which are skipped once the instance
+  // manager reports them after the instance is garbage collected.
+  @NonNull private final Set<Long> ephemeralIdentifiers = new HashSet<>();
+
+  private long releasedCount;
+  private long releaseBatchCount;
+  private long ephemeralReleasedCount;
+  private long totalReleaseLatencyNanos;
+  private long maxReleaseLatencyNanos;
+
+  private static final class ReleasedIdentifier {
+    final long identifier;
+    final long releasedNanos;
+    @Nullable final BinaryReply reply;
+
+    ReleasedIdentifier(long identifier, long releasedNanos, @Nullable BinaryReply reply) {
+      this.identifier = identifier;
+      this.releasedNanos = releasedNanos;
+      this.reply = reply;
+    }
+  }
+
+  InstanceManagerMessenger(@NonNull BinaryMessenger messenger) {
+    this.messenger = messenger;
+  }
+
+  /** Sets the instance manager whose messages are sent and received by this messenger. */
+  void setInstanceManager(@NonNull CameraXLibraryPigeonInstanceManager instanceManager) {
+    this.instanceManager = instanceManager;
+  }
+
+  /**
+   * Adds {@code type} to the types whose instances are reported as released as soon as Dart
+   * removes its strong reference to them.
+   *
+   * <p>This is meant for short-lived instances created at a high rate, such as camera frames, that
+   * are not sent to Dart more than once.
+   */
+  void addEphemeralType(@NonNull Class<?> type) {
+    if (!ephemeralTypes.contains(type)) {
+      ephemeralTypes.add(type);
+    }
+  }
+
+  /**
+   * Returns counters describing how quickly released instances are reported to Dart, keyed by the
+   * constants of this class.
+   */
+  @NonNull
+  Map<String, Long> getStatistics() {
+    final Map<String, Long> statistics = new LinkedHashMap<>();
+    statistics.put(RELEASED_COUNT, releasedCount);
+    statistics.put(RELEASE_BATCH_COUNT, releaseBatchCount);
+    statistics.put(EPHEMERAL_RELEASED_COUNT, ephemeralReleasedCount);
+    statistics.put(
+        AVERAGE_RELEASE_LATENCY_MICROS,
+        releasedCount == 0 ? 0 : totalReleaseLatencyNanos / releasedCount / 1000);
+    statistics.put(MAX_RELEASE_LATENCY_MICROS, maxReleaseLatencyNanos / 1000);
+    return statistics;
+  }
+
+  @Override
+  public void send(@NonNull String channel, @Nullable ByteBuffer message) {
+    send(channel, message, null);
+  }
+
+  @Override
+  public void send(
+      @NonNull String channel, @Nullable ByteBuffer message, @Nullable BinaryReply callback) {
+    if (!REMOVE_STRONG_REFERENCE_CHANNEL.equals(channel) || message == null) {
+      messenger.send(channel, message, callback);
+      return;
+    }
+    final long identifier = decodeIdentifier(message);
+    if (ephemeralIdentifiers.remove(identifier)) {
+      if (callback != null) {
+        final ByteBuffer reply = codec.encodeMessage(Collections.emptyList());
+        reply.rewind();
+        callback.reply(reply);
+      }
+      return;
+    }
+    addReleasedIdentifier(new ReleasedIdentifier(identifier, System.nanoTime(), callback));
+  }
+
+  @Override
+  public void setMessageHandler(@NonNull String channel, @Nullable BinaryMessageHandler handler) {
+    messenger.setMessageHandler(channel, wrapMessageHandler(channel, handler));
+  }
+
+  @Override
+  public void setMessageHandler(
+      @NonNull String channel,
+      @Nullable BinaryMessageHandler handler,
+      @Nullable TaskQueue taskQueue) {
+    messenger.setMessageHandler(channel, wrapMessageHandler(channel, handler), taskQueue);
+  }
+
+  @NonNull
+  @Override
+  public TaskQueue makeBackgroundTaskQueue(@NonNull TaskQueueOptions options) {
+    return messenger.makeBackgroundTaskQueue(options);
+  }
+
+  @Override
+  public void enableBufferingIncomingMessages() {
+    messenger.enableBufferingIncomingMessages();
+  }
+
+  @Override
+  public void disableBufferingIncomingMessages() {
+    messenger.disableBufferingIncomingMessages();
+  }
+
+  @Nullable
+  private BinaryMessageHandler wrapMessageHandler(
+      @NonNull String channel, @Nullable BinaryMessageHandler handler) {
+    if (handler == null) {
+      return null;
+    }
+    if (REMOVE_STRONG_REFERENCE_CHANNEL.equals(channel)) {
+      return (message, reply) -> {
+        final long identifier = decodeIdentifier(message);
+        final boolean ephemeral = isEphemeral(identifier);
+        handler.onMessage(message, reply);
+        if (ephemeral) {
+          ephemeralIdentifiers.add(identifier);
+          ephemeralReleasedCount++;
+          addReleasedIdentifier(new ReleasedIdentifier(identifier, System.nanoTime(), null));
+        }
+      };
+    }
+    if (CLEAR_CHANNEL.equals(channel)) {
+      return (message, reply) -> {
+        // Instances that were cleared are never reported as garbage collected.
+        ephemeralIdentifiers.clear();
+        handler.onMessage(message, reply);
+      };
+    }
+    return handler;
+  }
+
+  private boolean isEphemeral(long identifier) {
+    if (instanceManager == null || ephemeralTypes.isEmpty()) {
+      return false;
+    }
+    final Object instance = instanceManager.getInstance(identifier);
+    for (Class<?> type : ephemeralTypes) {
+      if (type.isInstance(instance)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private void addReleasedIdentifier(@NonNull ReleasedIdentifier releasedIdentifier) {
+    if (releasedIdentifiers.isEmpty()) {
+      // Sent once the instances released by the current task are collected.
+      handler.post(sendReleasedIdentifiersRunnable);
+    }
+    releasedIdentifiers.add(releasedIdentifier);
+  }
+
+  private void sendReleasedIdentifiers() {
+    if (releasedIdentifiers.isEmpty()) {
+      return;
+    }
+    final List<ReleasedIdentifier> batch = new ArrayList<>(releasedIdentifiers);
+    releasedIdentifiers.clear();
+    final List<Long> identifiers = new ArrayList<>(batch.size());
+    final long now = System.nanoTime();
+    for (ReleasedIdentifier releasedIdentifier : batch) {
+      identifiers.add(releasedIdentifier.identifier);
+      final long latencyNanos = now - releasedIdentifier.releasedNanos;
+      totalReleaseLatencyNanos += latencyNanos;
+      maxReleaseLatencyNanos = Math.max(maxReleaseLatencyNanos, latencyNanos);
+    }
+    releasedCount += batch.size();
+    releaseBatchCount++;
+    messenger.send(
+        REMOVE_STRONG_REFERENCES_CHANNEL,
+        codec.encodeMessage(identifiers),
+        reply -> {
+          for (ReleasedIdentifier releasedIdentifier : batch) {
+            if (reply == null) {
+              // Dart does not handle batches, so each identifier is sent on its own.
+              messenger.send(
+                  REMOVE_STRONG_REFERENCE_CHANNEL,
+                  codec.encodeMessage(Collections.singletonList(releasedIdentifier.identifier)),
+                  releasedIdentifier.reply);
+            } else if (releasedIdentifier.reply != null) {
+              releasedIdentifier.reply.reply(reply.duplicate());
+            }
+          }
+        });
+  }
+
+  // Reads the identifier without moving the position of `message`, which is at its end when it is
+  // sent and at its start when it is received.
+  private static long decodeIdentifier(@NonNull ByteBuffer message) {
+    final ByteBuffer buffer = message.duplicate();
+    buffer.rewind();
+    final List<?> arguments = (List<?>) codec.decodeMessage(buffer);
+    return ((Number) arguments.get(0)).longValue();
+  }
+}
@@ -0,0 +1,190 @@
+// Copyright 2013 The Flutter Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package io.flutter.plugins.camerax;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.VisibleForTesting;
+import androidx.camera.core.ImageAnalysis;
+import androidx.camera.core.ImageProxy;
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Implementation of {@link ImageAnalysis.Analyzer} that packs each image into a single message for
+ * an {@link ImageAnalysis.Analyzer} created by Dart, instead of sending the image and reading each
+ * of its properties and planes with separate messages.
+ *
+ * <p>Images are copied into reused buffers on the thread the analyzer runs on and closed as soon as
+ * they are copied. Images received while {@code maxFramesInFlight} packed images are waiting to be
+ * analyzed by Dart are closed without being sent. When a {@code targetFrameRate} is set, images
+ * received before the next image is due are also closed without being copied.
+ *
+ * <p>A packed image starts with a header of little-endian 32-bit integers: the image format, width,
+ * height and number of planes, followed by the row stride, pixel stride and size in bytes of each
+ * plane. The bytes of the planes follow the header, in order.
+ */
+class PackedFrameAnalyzer implements ImageAnalysis.Analyzer {
+  @VisibleForTesting static final int HEADER_SIZE = 4 * 4;
+  @VisibleForTesting static final int PLANE_HEADER_SIZE = 3 * 4;
+
+  @NonNull private final AnalyzerProxyApi api;
+  @NonNull private final ImageAnalysis.Analyzer dartAnalyzer;
+  private final int maxFramesInFlight;
+  private final long frameIntervalNanos;
+  private final AtomicInteger framesInFlight = new AtomicInteger();
+  // Timestamp from which the next image is sent when a target frame rate is set. Only accessed on
+  // the thread the analyzer runs on.
+  private long nextFrameTimestampNanos = Long.MIN_VALUE;
+  // Buffers of packed images that have been sent, guarded by itself.
+  private final ArrayDeque<byte[]> freeBuffers = new ArrayDeque<>();
+
+  /**
+   * Creates an analyzer that sends packed images to {@code dartAnalyzer}.
+   *
+   * <p>{@code targetFrameRate} is the maximum number of images sent per second, or 0 to send every
+   * image.
+   */
+  PackedFrameAnalyzer(
+      @NonNull AnalyzerProxyApi api,
+      @NonNull ImageAnalysis.Analyzer dartAnalyzer,
+      int maxFramesInFlight,
+      int targetFrameRate) {
+    this.api = api;
+    this.dartAnalyzer = dartAnalyzer;
+    this.maxFramesInFlight = Math.max(1, maxFramesInFlight);
+    this.frameIntervalNanos =
+        targetFrameRate > 0 ? TimeUnit.SECONDS.toNanos(1) / targetFrameRate : 0;
+  }
+
+  @Override
+  public void analyze(@NonNull ImageProxy image) {
+    if (frameIntervalNanos > 0 && !isFrameDue(image.getImageInfo().getTimestamp())) {
+      image.close();
+      return;
+    }
+
+    final FrameRateMonitor frameRateMonitor = api.getPigeonRegistrar().getFrameRateMonitor();
+    if (framesInFlight.incrementAndGet() > maxFramesInFlight) {
+      framesInFlight.decrementAndGet();
+      frameRateMonitor.onFrameDropped(FrameRateMonitor.IMAGE_STREAM);
+      image.close();
+      return;
+    }
+    frameRateMonitor.onFrame(FrameRateMonitor.IMAGE_STREAM, System.nanoTime());
+
+    final byte[] frame;
+    try {
+      frame = pack(image, obtainBuffer(getPackedSize(image)));
+    } finally {
+      image.close();
+    }
+
+    api.getPigeonRegistrar()
+        .runOnMainThread(
+            new ProxyApiRegistrar.FlutterMethodRunnable() {
+              @Override
+              public void run() {
+                api.analyzeFrame(
+                    dartAnalyzer,
+                    frame,
+                    ResultCompat.asCompatCallback(
+                        result -> {
+                          framesInFlight.decrementAndGet();
+                          if (result.isFailure()) {
+                            onFailure(
+                                "Analyzer.analyzeFrame",
+                                Objects.requireNonNull(result.exceptionOrNull()));
+                          }
+                          return null;
+                        }));
+                // The frame has been encoded into the message by now, so its buffer can be reused.
+                recycleBuffer(frame);
+              }
+            });
+  }
+
+  private boolean isFrameDue(long timestampNanos) {
+    if (nextFrameTimestampNanos == Long.MIN_VALUE) {
+      nextFrameTimestampNanos = timestampNanos + frameIntervalNanos;
+      return true;
+    }
+    // Image timestamps jitter, so images that arrive slightly early are still sent.
+    if (timestampNanos < nextFrameTimestampNanos - frameIntervalNanos / 4) {
+      return false;
+    }
+    // Images due late move the next one back by at most half an interval, so the target frame rate
+    // is kept on average without sending images in bursts after a stall.
+    nextFrameTimestampNanos =
+        Math.max(nextFrameTimestampNanos, timestampNanos - frameIntervalNanos / 2)
+            + frameIntervalNanos;
+    return true;
+  }
+
+  /** Returns the number of bytes needed to pack {@code image}. */
+  @VisibleForTesting
+  static int getPackedSize(@NonNull ImageProxy image) {
+    final ImageProxy.PlaneProxy[] planes = image.getPlanes();
+    int size = HEADER_SIZE;
+    for (ImageProxy.PlaneProxy plane : planes) {
+      size += PLANE_HEADER_SIZE + plane.getBuffer().remaining();
+    }
+    return size;
+  }
+
+  /** Packs {@code image} into {@code frame}, which is {@link #getPackedSize} bytes long. */
+  @NonNull
+  @VisibleForTesting
+  static byte[] pack(@NonNull ImageProxy image, @NonNull byte[] frame) {
+    final ImageProxy.PlaneProxy[] planes = image.getPlanes();
+    int offset = 0;
+    offset = putInt(frame, offset, image.getFormat());
+    offset = putInt(frame, offset, image.getWidth());
+    offset = putInt(frame, offset, image.getHeight());
+    offset = putInt(frame, offset, planes.length);
+    for (ImageProxy.PlaneProxy plane : planes) {
+      offset = putInt(frame, offset, plane.getRowStride());
+      offset = putInt(frame, offset, plane.getPixelStride());
+      offset = putInt(frame, offset, plane.getBuffer().remaining());
+    }
+    for (ImageProxy.PlaneProxy plane : planes) {
+      final ByteBuffer buffer = plane.getBuffer();
+      final int length = buffer.remaining();
+      buffer.get(frame, offset, length);
+      offset += length;
+    }
+    return frame;
+  }
+
+  private static int putInt(@NonNull byte[] frame, int offset, int value) {
+    frame[offset] = (byte) value;
+    frame[offset + 1] = (byte) (value >> 8);
+    frame[offset + 2] = (byte) (value >> 16);
+    frame[offset + 3] = (byte) (value >> 24);
+    return offset + 4;
+  }
+
+  @NonNull
+  private byte[] obtainBuffer(int size) {
+    @Nullable final byte[] buffer;
+    synchronized (freeBuffers) {
+      buffer = freeBuffers.poll();
+    }
+    // The image size only changes when the analysis resolution changes, so buffers are almost
+    // always reused.
+    return buffer != null && buffer.length == size ? buffer : new byte[size];
+  }
+
+  private void recycleBuffer(@NonNull byte[] buffer) {
+    synchronized (freeBuffers) {
+      if (freeBuffers.size() < maxFramesInFlight) {
+        freeBuffers.add(buffer);
+      }
+    }
+  }
+}
@@ -4,9 +4,14 @@
 
 package io.flutter.plugins.camerax;
 
+import android.hardware.camera2.CameraCaptureSession;
+import android.util.Range;
 import android.view.Surface;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
+import androidx.annotation.OptIn;
+import androidx.camera.camera2.interop.Camera2Interop;
+import androidx.camera.camera2.interop.ExperimentalCamera2Interop;
 import androidx.camera.core.Preview;
 import androidx.camera.core.ResolutionInfo;
 import androidx.camera.core.SurfaceRequest;
@@ -14,7 +19,6 @@ import androidx.camera.core.resolutionselector.ResolutionSelector;
 import io.flutter.view.TextureRegistry;
 import java.util.HashMap;
 import java.util.Map;
-import java.util.concurrent.Executors;
 
 /**
  * ProxyApi implementation for {@link Preview}. This class may handle instantiating native object
@@ -35,10 +39,13 @@ class PreviewProxyApi extends PigeonApiPreview {
     return (ProxyApiRegistrar) super.getPigeonRegistrar();
   }
 
+  @OptIn(markerClass = ExperimentalCamera2Interop.class)
   @NonNull
   @Override
   public Preview pigeon_defaultConstructor(
-      @Nullable ResolutionSelector resolutionSelector, @Nullable Long targetRotation) {
+      @Nullable ResolutionSelector resolutionSelector,
+      @Nullable Long targetRotation,
+      @Nullable Long targetFrameRate) {
     final Preview.Builder builder = new Preview.Builder();
     if (targetRotation != null) {
       builder.setTargetRotation(targetRotation.intValue());
@@ -46,14 +53,33 @@ class PreviewProxyApi extends PigeonApiPreview {
     if (resolutionSelector != null) {
       builder.setResolutionSelector(resolutionSelector);
     }
+    final FrameRateMonitor frameRateMonitor = getPigeonRegistrar().getFrameRateMonitor();
+    // The time to the first frame is measured from the creation of the preview to the completion
+    // of its first capture, which includes opening the camera and configuring its session but
+    // not drawing the frame.
+    frameRateMonitor.onStreamStarted(FrameRateMonitor.PREVIEW, System.nanoTime());
+    final CameraCaptureSession.CaptureCallback captureCallback;
+    if (targetFrameRate != null) {
+      final int frameRate = targetFrameRate.intValue();
+      builder.setTargetFrameRate(new Range<>(frameRate, frameRate));
+      captureCallback = frameRateMonitor.createCaptureCallback(FrameRateMonitor.PREVIEW);
+    } else {
+      // The frame rate is only measured when a target is requested, so that the other previews
+      // only record their first frame.
+      captureCallback = frameRateMonitor.createFirstFrameCallback(FrameRateMonitor.PREVIEW);
+    }
+    new Camera2Interop.Extender<>(builder).setSessionCaptureCallback(captureCallback);
     return builder.build();
   }
 
   @Override
   public long setSurfaceProvider(
       @NonNull Preview pigeonInstance, @NonNull SystemServicesManager systemServicesManager) {
-    final TextureRegistry.SurfaceProducer surfaceProducer =
-        getPigeonRegistrar().getTextureRegistry().createSurfaceProducer();
+    TextureRegistry.SurfaceProducer surfaceProducer =
+        getPigeonRegistrar().getCameraWarmUp().takeSurfaceProducer();
+    if (surfaceProducer == null) {
+      surfaceProducer = getPigeonRegistrar().getTextureRegistry().createSurfaceProducer();
+    }
     final Preview.SurfaceProvider surfaceProvider =
         createSurfaceProvider(surfaceProducer, systemServicesManager);
 
@@ -124,7 +150,7 @@ class PreviewProxyApi extends PigeonApiPreview {
       Surface flutterSurface = surfaceProducer.getSurface();
       request.provideSurface(
           flutterSurface,
-          Executors.newSingleThreadExecutor(),
+          getPigeonRegistrar().getExecutors().getSurfaceExecutor(),
           (result) -> {
             // See
             // https://developer.android.com/reference/androidx/camera/core/SurfaceRequest.Result
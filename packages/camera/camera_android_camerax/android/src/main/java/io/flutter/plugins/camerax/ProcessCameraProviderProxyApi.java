@@ -39,7 +39,7 @@ class ProcessCameraProviderProxyApi extends PigeonApiProcessCameraProvider {
   public void getInstance(
       @NonNull Function1<? super Result<ProcessCameraProvider>, Unit> callback) {
     final ListenableFuture<ProcessCameraProvider> processCameraProviderFuture =
-        ProcessCameraProvider.getInstance(getPigeonRegistrar().getContext());
+        getPigeonRegistrar().getCameraWarmUp().getProcessCameraProvider();
 
     processCameraProviderFuture.addListener(
         () -> {
@@ -56,6 +56,11 @@ class ProcessCameraProviderProxyApi extends PigeonApiProcessCameraProvider {
   @NonNull
   @Override
   public List<CameraInfo> getAvailableCameraInfos(ProcessCameraProvider pigeonInstance) {
+    final List<CameraInfo> cameraInfos =
+        getPigeonRegistrar().getCameraWarmUp().takeAvailableCameraInfos();
+    if (cameraInfos != null) {
+      return cameraInfos;
+    }
     return pigeonInstance.getAvailableCameraInfos();
   }
 
@@ -15,6 +15,7 @@ import android.view.WindowManager;
 import androidx.annotation.ChecksSdkIntAtLeast;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
+import androidx.camera.core.ImageProxy;
 import androidx.lifecycle.LifecycleOwner;
 import io.flutter.plugin.common.BinaryMessenger;
 import io.flutter.view.TextureRegistry;
@@ -29,6 +30,15 @@ public class ProxyApiRegistrar extends CameraXLibraryPigeonProxyApiRegistrar {
 
   @Nullable private CameraPermissionsManager.PermissionsRegistry permissionsRegistry;
 
+  // Background executors shared by every proxy API, shut down when the plugin is detached.
+  @NonNull private final CameraXExecutors executors = new CameraXExecutors();
+
+  // Frame rates of the camera streams, shared by the proxy APIs that produce frames.
+  @NonNull private final FrameRateMonitor frameRateMonitor = new FrameRateMonitor();
+
+  // Work done ahead of the first camera screen when the app opts in to warming up the camera.
+  @NonNull private final CameraWarmUp cameraWarmUp = new CameraWarmUp(this);
+
   /**
    * Handles errors received from calling a method from host->Dart.
    *
@@ -62,13 +72,30 @@ public class ProxyApiRegistrar extends CameraXLibraryPigeonProxyApiRegistrar {
   // PreviewProxyApi maintains a state to track SurfaceProducers provided by the Flutter engine.
   @Nullable private PreviewProxyApi previewProxyApi;
 
+  @NonNull private final InstanceManagerMessenger instanceManagerMessenger;
+
   public ProxyApiRegistrar(
       @NonNull BinaryMessenger binaryMessenger,
       @NonNull Context context,
       @NonNull TextureRegistry textureRegistry) {
-    super(binaryMessenger);
+    this(new InstanceManagerMessenger(binaryMessenger), context, textureRegistry);
+  }
+
+  private ProxyApiRegistrar(
+      @NonNull InstanceManagerMessenger instanceManagerMessenger,
+      @NonNull Context context,
+      @NonNull TextureRegistry textureRegistry) {
+    super(instanceManagerMessenger);
+    this.instanceManagerMessenger = instanceManagerMessenger;
     this.context = context;
     this.textureRegistry = textureRegistry;
+
+    instanceManagerMessenger.setInstanceManager(getInstanceManager());
+    // A new image and planes are sent to Dart for every analyzed frame, so they are released as
+    // soon as Dart is done with them instead of waiting for them to be garbage collected. This
+    // relies on each instance being sent once, which is why getPlanes() wraps the planes anew.
+    instanceManagerMessenger.addEphemeralType(ImageProxy.class);
+    instanceManagerMessenger.addEphemeralType(ImageProxy.PlaneProxy.class);
   }
 
   // Interface for an injectable SDK version checker.
@@ -87,6 +114,11 @@ public class ProxyApiRegistrar extends CameraXLibraryPigeonProxyApiRegistrar {
     }
   }
 
+  @NonNull
+  InstanceManagerMessenger getInstanceManagerMessenger() {
+    return instanceManagerMessenger;
+  }
+
   @NonNull
   public Context getContext() {
     return context;
@@ -136,6 +168,21 @@ public class ProxyApiRegistrar extends CameraXLibraryPigeonProxyApiRegistrar {
     return textureRegistry;
   }
 
+  @NonNull
+  CameraXExecutors getExecutors() {
+    return executors;
+  }
+
+  @NonNull
+  FrameRateMonitor getFrameRateMonitor() {
+    return frameRateMonitor;
+  }
+
+  @NonNull
+  CameraWarmUp getCameraWarmUp() {
+    return cameraWarmUp;
+  }
+
   long getDefaultClearFinalizedWeakReferencesInterval() {
     return 3000;
   }
@@ -8,6 +8,7 @@ import android.content.Context;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 import java.io.IOException;
+import java.util.Map;
 import java.util.Objects;
 import kotlin.Result;
 import kotlin.Unit;
@@ -107,4 +108,24 @@ public class SystemServicesManagerProxyApi extends PigeonApiSystemServicesManage
               "SystemServicesHostApiImpl.getTempFilePath encountered an exception: " + e, e));
     }
   }
+
+  @NonNull
+  @Override
+  public Map<String, Long> getExecutorThreadCounts(
+      @NonNull SystemServicesManager pigeonInstance) {
+    return getPigeonRegistrar().getExecutors().getThreadCounts();
+  }
+
+  @NonNull
+  @Override
+  public Map<String, Long> getInstanceManagerStatistics(
+      @NonNull SystemServicesManager pigeonInstance) {
+    return getPigeonRegistrar().getInstanceManagerMessenger().getStatistics();
+  }
+
+  @NonNull
+  @Override
+  public Map<String, Double> getFrameRateStatistics(@NonNull SystemServicesManager pigeonInstance) {
+    return getPigeonRegistrar().getFrameRateMonitor().getStatistics();
+  }
 }
@@ -4,7 +4,12 @@
 
 package io.flutter.plugins.camerax;
 
+import android.util.Range;
 import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.OptIn;
+import androidx.camera.camera2.interop.Camera2Interop;
+import androidx.camera.camera2.interop.ExperimentalCamera2Interop;
 import androidx.camera.video.VideoCapture;
 import androidx.camera.video.VideoOutput;
 
@@ -20,8 +25,28 @@ class VideoCaptureProxyApi extends PigeonApiVideoCapture {
 
   @NonNull
   @Override
-  public VideoCapture<?> withOutput(@NonNull VideoOutput videoOutput) {
-    return VideoCapture.withOutput(videoOutput);
+  public ProxyApiRegistrar getPigeonRegistrar() {
+    return (ProxyApiRegistrar) super.getPigeonRegistrar();
+  }
+
+  @OptIn(markerClass = ExperimentalCamera2Interop.class)
+  @NonNull
+  @Override
+  public VideoCapture<?> withOutput(
+      @NonNull VideoOutput videoOutput, @Nullable Long targetFrameRate) {
+    if (targetFrameRate == null) {
+      return VideoCapture.withOutput(videoOutput);
+    }
+    final int frameRate = targetFrameRate.intValue();
+    final VideoCapture.Builder<VideoOutput> builder =
+        new VideoCapture.Builder<>(videoOutput)
+            .setTargetFrameRate(new Range<>(frameRate, frameRate));
+    new Camera2Interop.Extender<>(builder)
+        .setSessionCaptureCallback(
+            getPigeonRegistrar()
+                .getFrameRateMonitor()
+                .createCaptureCallback(FrameRateMonitor.VIDEO));
+    return builder.build();
   }
 
   @NonNull
@@ -0,0 +1,179 @@
+// Copyright 2013 The Flutter Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package io.flutter.plugins.camerax;
+
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.robolectric.Shadows.shadowOf;
+
+import android.hardware.camera2.CameraCharacteristics;
+import android.os.Looper;
+import androidx.annotation.NonNull;
+import androidx.camera.camera2.interop.Camera2CameraInfo;
+import androidx.camera.core.CameraInfo;
+import androidx.camera.lifecycle.ProcessCameraProvider;
+import androidx.core.content.ContextCompat;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import io.flutter.view.TextureRegistry;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.MockedStatic;
+import org.mockito.Mockito;
+import org.mockito.stubbing.Answer;
+import org.robolectric.RobolectricTestRunner;
+
+@RunWith(RobolectricTestRunner.class)
+public class CameraWarmUpTest {
+  private final TextureRegistry mockTextureRegistry = mock(TextureRegistry.class);
+  private final ProxyApiRegistrar registrar =
+      new TestProxyApiRegistrar() {
+        @NonNull
+        @Override
+        TextureRegistry getTextureRegistry() {
+          return mockTextureRegistry;
+        }
+      };
+
+  @Test
+  public void start_cachesCameraInfosAndCreatesSurfaceProducer() {
+    final CameraWarmUp warmUp = registrar.getCameraWarmUp();
+    final ProcessCameraProvider mockProvider = mock(ProcessCameraProvider.class);
+    final CameraInfo mockCameraInfo = mock(CameraInfo.class);
+    final Camera2CameraInfo mockCamera2CameraInfo = mock(Camera2CameraInfo.class);
+    final List<CameraInfo> cameraInfos = Collections.singletonList(mockCameraInfo);
+    final TextureRegistry.SurfaceProducer mockSurfaceProducer =
+        mock(TextureRegistry.SurfaceProducer.class);
+    when(mockProvider.getAvailableCameraInfos()).thenReturn(cameraInfos);
+    when(mockTextureRegistry.createSurfaceProducer()).thenReturn(mockSurfaceProducer);
+
+    try (MockedStatic<ProcessCameraProvider> mockedProcessCameraProvider =
+            Mockito.mockStatic(ProcessCameraProvider.class);
+        MockedStatic<ContextCompat> mockedContextCompat = Mockito.mockStatic(ContextCompat.class);
+        MockedStatic<Camera2CameraInfo> mockedCamera2CameraInfo =
+            Mockito.mockStatic(Camera2CameraInfo.class)) {
+      mockedProcessCameraProvider
+          .when(() -> ProcessCameraProvider.getInstance(any()))
+          .thenAnswer(
+              (Answer<ListenableFuture<ProcessCameraProvider>>)
+                  invocation -> Futures.immediateFuture(mockProvider));
+      mockedContextCompat
+          .when(() -> ContextCompat.getMainExecutor(any()))
+          .thenAnswer((Answer<Executor>) invocation -> Runnable::run);
+      mockedCamera2CameraInfo
+          .when(() -> Camera2CameraInfo.from(mockCameraInfo))
+          .thenAnswer((Answer<Camera2CameraInfo>) invocation -> mockCamera2CameraInfo);
+
+      warmUp.start();
+      warmUp.start();
+
+      verify(mockTextureRegistry, times(1)).createSurfaceProducer();
+      verify(mockCamera2CameraInfo)
+          .getCameraCharacteristic(CameraCharacteristics.SENSOR_ORIENTATION);
+      assertSame(cameraInfos, warmUp.takeAvailableCameraInfos());
+      assertNull(warmUp.takeAvailableCameraInfos());
+      assertSame(mockSurfaceProducer, warmUp.takeSurfaceProducer());
+      assertNull(warmUp.takeSurfaceProducer());
+      mockedProcessCameraProvider.verify(
+          () -> ProcessCameraProvider.getInstance(any()), times(1));
+    }
+  }
+
+  @Test
+  public void getProcessCameraProvider_requestsProviderOnce() {
+    final CameraWarmUp warmUp = registrar.getCameraWarmUp();
+    final ListenableFuture<ProcessCameraProvider> future =
+        Futures.immediateFuture(mock(ProcessCameraProvider.class));
+
+    try (MockedStatic<ProcessCameraProvider> mockedProcessCameraProvider =
+        Mockito.mockStatic(ProcessCameraProvider.class)) {
+      mockedProcessCameraProvider
+          .when(() -> ProcessCameraProvider.getInstance(any()))
+          .thenAnswer((Answer<ListenableFuture<ProcessCameraProvider>>) invocation -> future);
+
+      assertSame(future, warmUp.getProcessCameraProvider());
+      assertSame(future, warmUp.getProcessCameraProvider());
+      mockedProcessCameraProvider.verify(
+          () -> ProcessCameraProvider.getInstance(any()), times(1));
+    }
+  }
+
+  /** Starts warming up with a camera provider that fails to initialize. */
+  private void startWithoutCameraProvider(CameraWarmUp warmUp) {
+    try (MockedStatic<ProcessCameraProvider> mockedProcessCameraProvider =
+            Mockito.mockStatic(ProcessCameraProvider.class);
+        MockedStatic<ContextCompat> mockedContextCompat = Mockito.mockStatic(ContextCompat.class)) {
+      mockedProcessCameraProvider
+          .when(() -> ProcessCameraProvider.getInstance(any()))
+          .thenAnswer(
+              (Answer<ListenableFuture<ProcessCameraProvider>>)
+                  invocation -> Futures.immediateFailedFuture(new IllegalStateException()));
+      mockedContextCompat
+          .when(() -> ContextCompat.getMainExecutor(any()))
+          .thenAnswer((Answer<Executor>) invocation -> Runnable::run);
+
+      warmUp.start();
+    }
+  }
+
+  @Test
+  public void start_releasesSurfaceProducerNotTakenBeforeTimeout() {
+    final CameraWarmUp warmUp = registrar.getCameraWarmUp();
+    final TextureRegistry.SurfaceProducer mockSurfaceProducer =
+        mock(TextureRegistry.SurfaceProducer.class);
+    when(mockTextureRegistry.createSurfaceProducer()).thenReturn(mockSurfaceProducer);
+
+    startWithoutCameraProvider(warmUp);
+    shadowOf(Looper.getMainLooper())
+        .idleFor(CameraWarmUp.UNUSED_SURFACE_PRODUCER_TIMEOUT_MILLIS - 1, TimeUnit.MILLISECONDS);
+
+    verify(mockSurfaceProducer, never()).release();
+
+    shadowOf(Looper.getMainLooper()).idleFor(1, TimeUnit.MILLISECONDS);
+
+    verify(mockSurfaceProducer).release();
+    assertNull(warmUp.takeSurfaceProducer());
+  }
+
+  @Test
+  public void takeSurfaceProducer_keepsTakenSurfaceProducerAfterTimeout() {
+    final CameraWarmUp warmUp = registrar.getCameraWarmUp();
+    final TextureRegistry.SurfaceProducer mockSurfaceProducer =
+        mock(TextureRegistry.SurfaceProducer.class);
+    when(mockTextureRegistry.createSurfaceProducer()).thenReturn(mockSurfaceProducer);
+
+    startWithoutCameraProvider(warmUp);
+    assertSame(mockSurfaceProducer, warmUp.takeSurfaceProducer());
+    shadowOf(Looper.getMainLooper())
+        .idleFor(CameraWarmUp.UNUSED_SURFACE_PRODUCER_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+
+    verify(mockSurfaceProducer, never()).release();
+  }
+
+  @Test
+  public void release_releasesUnusedSurfaceProducer() {
+    final CameraWarmUp warmUp = registrar.getCameraWarmUp();
+    final TextureRegistry.SurfaceProducer mockSurfaceProducer =
+        mock(TextureRegistry.SurfaceProducer.class);
+    when(mockTextureRegistry.createSurfaceProducer()).thenReturn(mockSurfaceProducer);
+
+    startWithoutCameraProvider(warmUp);
+    warmUp.release();
+
+    verify(mockSurfaceProducer).release();
+    assertNull(warmUp.takeAvailableCameraInfos());
+    assertNull(warmUp.takeSurfaceProducer());
+  }
+}
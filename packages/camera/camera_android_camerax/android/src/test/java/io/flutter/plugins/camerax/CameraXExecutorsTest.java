@@ -0,0 +1,89 @@
+// Copyright 2013 The Flutter Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package io.flutter.plugins.camerax;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import org.junit.After;
+import org.junit.Test;
+
+public class CameraXExecutorsTest {
+  private final CameraXExecutors executors = new CameraXExecutors();
+
+  @After
+  public void tearDown() {
+    executors.shutdown();
+  }
+
+  @Test
+  public void getCaptureExecutor_doesNotStartMoreThreadsAfterManyCaptures()
+      throws InterruptedException {
+    final int captureCount = 10000;
+    final Executor executor = executors.getCaptureExecutor();
+    final CountDownLatch latch = new CountDownLatch(captureCount);
+    final Set<Thread> threads = Collections.synchronizedSet(new HashSet<>());
+
+    for (int i = 0; i < captureCount; i++) {
+      executor.execute(
+          () -> {
+            threads.add(Thread.currentThread());
+            latch.countDown();
+          });
+    }
+
+    assertTrue(latch.await(10, TimeUnit.SECONDS));
+    assertTrue(threads.size() <= CameraXExecutors.CAPTURE_THREADS);
+    assertTrue(
+        executors.getThreadCounts().get(CameraXExecutors.CAPTURE)
+            <= CameraXExecutors.CAPTURE_THREADS);
+  }
+
+  @Test
+  public void getSurfaceExecutor_runsEveryRequestOnTheSameThread() throws InterruptedException {
+    final int requestCount = 1000;
+    final Executor executor = executors.getSurfaceExecutor();
+    final CountDownLatch latch = new CountDownLatch(requestCount);
+    final Set<Thread> threads = Collections.synchronizedSet(new HashSet<>());
+
+    for (int i = 0; i < requestCount; i++) {
+      executor.execute(
+          () -> {
+            threads.add(Thread.currentThread());
+            latch.countDown();
+          });
+    }
+
+    assertTrue(latch.await(10, TimeUnit.SECONDS));
+    assertEquals(1, threads.size());
+  }
+
+  @Test
+  public void getThreadCounts_reportsEveryPoolWithoutStartingThreads() {
+    final Map<String, Long> threadCounts = executors.getThreadCounts();
+
+    assertEquals(3, threadCounts.size());
+    assertEquals(Long.valueOf(0), threadCounts.get(CameraXExecutors.CAPTURE));
+    assertEquals(Long.valueOf(0), threadCounts.get(CameraXExecutors.SURFACE));
+    assertEquals(Long.valueOf(0), threadCounts.get(CameraXExecutors.ANALYSIS));
+  }
+
+  @Test
+  public void shutdown_rejectsNewWork() {
+    executors.shutdown();
+
+    assertThrows(
+        RejectedExecutionException.class, () -> executors.getCaptureExecutor().execute(() -> {}));
+  }
+}
@@ -0,0 +1,118 @@
+// Copyright 2013 The Flutter Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package io.flutter.plugins.camerax;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+
+import android.hardware.camera2.CameraCaptureSession;
+import android.hardware.camera2.CaptureRequest;
+import android.hardware.camera2.TotalCaptureResult;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.junit.Test;
+
+public class FrameRateMonitorTest {
+  private final FrameRateMonitor monitor = new FrameRateMonitor();
+
+  @Test
+  public void onFrame_measuresFrameRateOverEachWindow() {
+    for (int i = 0; i <= 30; i++) {
+      monitor.onFrame(FrameRateMonitor.PREVIEW, i * TimeUnit.SECONDS.toNanos(1) / 30);
+    }
+
+    final Map<String, Double> statistics = monitor.getStatistics();
+
+    assertEquals(30.0, statistics.get("preview.frameRate"), 0.01);
+    assertEquals(31.0, statistics.get("preview.frames"), 0);
+    assertEquals(0.0, statistics.get("preview.dropped"), 0);
+  }
+
+  @Test
+  public void onFrame_reportsNoFrameRateBeforeTheFirstWindowEnds() {
+    monitor.onFrame(FrameRateMonitor.IMAGE_STREAM, 0);
+    monitor.onFrame(FrameRateMonitor.IMAGE_STREAM, FrameRateMonitor.WINDOW_NANOS / 2);
+
+    assertEquals(0.0, monitor.getStatistics().get("imageStream.frameRate"), 0);
+  }
+
+  @Test
+  public void onStreamStarted_measuresTimeToFirstFrame() {
+    final long startNanos = TimeUnit.SECONDS.toNanos(5);
+    monitor.onFrame(FrameRateMonitor.PREVIEW, 0);
+    monitor.onStreamStarted(FrameRateMonitor.PREVIEW, startNanos);
+
+    assertFalse(monitor.getStatistics().containsKey("preview.timeToFirstFrameMillis"));
+
+    monitor.onFrame(FrameRateMonitor.PREVIEW, startNanos + TimeUnit.MILLISECONDS.toNanos(250));
+    monitor.onFrame(FrameRateMonitor.PREVIEW, startNanos + TimeUnit.MILLISECONDS.toNanos(300));
+
+    assertEquals(250.0, monitor.getStatistics().get("preview.timeToFirstFrameMillis"), 0);
+  }
+
+  @Test
+  public void createCaptureCallback_recordsFrameOfStreamForEveryCompletedCapture() {
+    final CameraCaptureSession.CaptureCallback callback =
+        monitor.createCaptureCallback(FrameRateMonitor.VIDEO);
+
+    callback.onCaptureCompleted(
+        mock(CameraCaptureSession.class),
+        mock(CaptureRequest.class),
+        mock(TotalCaptureResult.class));
+    callback.onCaptureCompleted(
+        mock(CameraCaptureSession.class),
+        mock(CaptureRequest.class),
+        mock(TotalCaptureResult.class));
+
+    final Map<String, Double> statistics = monitor.getStatistics();
+    assertEquals(2.0, statistics.get("video.frames"), 0);
+    assertFalse(statistics.containsKey("preview.frames"));
+  }
+
+  @Test
+  public void createFirstFrameCallback_recordsOnlyTimeToFirstFrame() {
+    monitor.onStreamStarted(FrameRateMonitor.PREVIEW, System.nanoTime());
+    final CameraCaptureSession.CaptureCallback callback =
+        monitor.createFirstFrameCallback(FrameRateMonitor.PREVIEW);
+
+    callback.onCaptureCompleted(
+        mock(CameraCaptureSession.class),
+        mock(CaptureRequest.class),
+        mock(TotalCaptureResult.class));
+    final double timeToFirstFrameMillis =
+        monitor.getStatistics().get("preview.timeToFirstFrameMillis");
+    callback.onCaptureCompleted(
+        mock(CameraCaptureSession.class),
+        mock(CaptureRequest.class),
+        mock(TotalCaptureResult.class));
+
+    final Map<String, Double> statistics = monitor.getStatistics();
+    assertEquals(1, statistics.size());
+    assertEquals(timeToFirstFrameMillis, statistics.get("preview.timeToFirstFrameMillis"), 0);
+  }
+
+  @Test
+  public void onFrameDropped_countsDroppedFramesOfEachStream() {
+    monitor.onFrame(FrameRateMonitor.PREVIEW, 0);
+    monitor.onFrameDropped(FrameRateMonitor.IMAGE_STREAM);
+    monitor.onFrameDropped(FrameRateMonitor.IMAGE_STREAM);
+
+    final Map<String, Double> statistics = monitor.getStatistics();
+
+    assertEquals(6, statistics.size());
+    assertEquals(0.0, statistics.get("preview.dropped"), 0);
+    assertEquals(2.0, statistics.get("imageStream.dropped"), 0);
+    assertEquals(0.0, statistics.get("imageStream.frames"), 0);
+  }
+
+  @Test
+  public void getStatistics_isEmptyBeforeAnyFrame() {
+    monitor.onStreamStarted(FrameRateMonitor.PREVIEW, 0);
+
+    assertTrue(monitor.getStatistics().isEmpty());
+  }
+}
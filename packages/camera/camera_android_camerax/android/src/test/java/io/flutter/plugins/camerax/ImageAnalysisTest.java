@@ -7,6 +7,7 @@ package io.flutter.plugins.camerax;
 import static org.junit.Assert.assertEquals;
 import static org.mockito.Mockito.any;
 import static org.mockito.Mockito.eq;
+import static org.mockito.Mockito.isA;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -70,6 +71,19 @@ public class ImageAnalysisTest {
     }
   }
 
+  @Test
+  public void setFrameAnalyzer_setsPackedFrameAnalyzerOnAnalysisExecutor() {
+    final TestProxyApiRegistrar registrar = new TestProxyApiRegistrar();
+    final PigeonApiImageAnalysis api = registrar.getPigeonApiImageAnalysis();
+
+    final ImageAnalysis instance = mock(ImageAnalysis.class);
+    api.setFrameAnalyzer(instance, mock(Analyzer.class), 2, null);
+
+    verify(instance)
+        .setAnalyzer(
+            eq(registrar.getExecutors().getAnalysisExecutor()), isA(PackedFrameAnalyzer.class));
+  }
+
   @Test
   public void clearAnalyzer_makesCallToClearAnalyzerOnExpectedImageAnalysisInstance() {
     final PigeonApiImageAnalysis api = new TestProxyApiRegistrar().getPigeonApiImageAnalysis();
@@ -4,8 +4,11 @@
 
 package io.flutter.plugins.camerax;
 
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.mockStatic;
 import static org.mockito.Mockito.verify;
@@ -13,21 +16,34 @@ import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 
 import android.content.Context;
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.ImageFormat;
+import android.graphics.Paint;
+import android.util.Size;
 import android.view.Surface;
 import androidx.annotation.NonNull;
 import androidx.camera.core.ImageCapture;
 import androidx.camera.core.ImageCaptureException;
+import androidx.camera.core.ImageInfo;
+import androidx.camera.core.ImageProxy;
 import androidx.camera.core.resolutionselector.ResolutionSelector;
+import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.IOException;
+import java.nio.ByteBuffer;
 import java.util.concurrent.Executor;
 import kotlin.Result;
 import kotlin.Unit;
 import kotlin.jvm.functions.Function1;
 import org.junit.Test;
 import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.MockedStatic;
 import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.GraphicsMode;
 
 @RunWith(RobolectricTestRunner.class)
 public class ImageCaptureTest {
@@ -76,6 +92,8 @@ public class ImageCaptureTest {
     final File mockOutputDir = mock(File.class);
     when(mockContext.getCacheDir()).thenReturn(mockOutputDir);
     when(mockApiRegistrar.getContext()).thenReturn(mockContext);
+    final CameraXExecutors executors = new CameraXExecutors();
+    when(mockApiRegistrar.getExecutors()).thenReturn(executors);
 
     final String filename = "myFile.jpg";
     final ImageCaptureProxyApi api =
@@ -123,7 +141,7 @@ public class ImageCaptureTest {
       verify(instance)
           .takePicture(
               any(ImageCapture.OutputFileOptions.class),
-              any(Executor.class),
+              eq(executors.getCaptureExecutor()),
               any(ImageCapture.OnImageSavedCallback.class));
       assertEquals(result[0], filename);
     }
@@ -174,6 +192,8 @@ public class ImageCaptureTest {
     when(mockContext.getCacheDir()).thenReturn(mockOutputDir);
     when(mockApiRegistrar.getContext()).thenReturn(mockContext);
 
+    when(mockApiRegistrar.getExecutors()).thenReturn(new CameraXExecutors());
+
     final ImageCaptureException captureException = mock(ImageCaptureException.class);
     final ImageCaptureProxyApi api =
         new ImageCaptureProxyApi(mockApiRegistrar) {
@@ -224,6 +244,137 @@ public class ImageCaptureTest {
     }
   }
 
+  @Test
+  public void takePictureToMemory_sendsCapturedJpegBytesAndClosesImage() {
+    final PigeonApiImageCapture api = new TestProxyApiRegistrar().getPigeonApiImageCapture();
+    final ImageCapture instance = mock(ImageCapture.class);
+    final byte[] jpegBytes = {1, 2, 3, 4};
+    final ImageProxy mockImage = mockJpegImage(jpegBytes);
+
+    final byte[][] result = {null};
+    api.takePictureToMemory(
+        instance,
+        null,
+        null,
+        ResultCompat.asCompatCallback(
+            reply -> {
+              result[0] = reply.getOrNull();
+              return null;
+            }));
+
+    final ArgumentCaptor<ImageCapture.OnImageCapturedCallback> callbackCaptor =
+        ArgumentCaptor.forClass(ImageCapture.OnImageCapturedCallback.class);
+    verify(instance).takePicture(any(Executor.class), callbackCaptor.capture());
+    callbackCaptor.getValue().onCaptureSuccess(mockImage);
+
+    assertArrayEquals(jpegBytes, result[0]);
+    verify(mockImage).close();
+  }
+
+  @Test
+  public void takePictureToMemory_sendsErrorAndClosesImageWhenImageIsNotJpeg() {
+    final PigeonApiImageCapture api = new TestProxyApiRegistrar().getPigeonApiImageCapture();
+    final ImageCapture instance = mock(ImageCapture.class);
+    final ImageProxy mockImage = mock(ImageProxy.class);
+    when(mockImage.getFormat()).thenReturn(ImageFormat.YUV_420_888);
+
+    final Throwable[] result = {null};
+    api.takePictureToMemory(
+        instance,
+        90L,
+        null,
+        ResultCompat.asCompatCallback(
+            reply -> {
+              result[0] = reply.exceptionOrNull();
+              return null;
+            }));
+
+    final ArgumentCaptor<ImageCapture.OnImageCapturedCallback> callbackCaptor =
+        ArgumentCaptor.forClass(ImageCapture.OnImageCapturedCallback.class);
+    verify(instance).takePicture(any(Executor.class), callbackCaptor.capture());
+    callbackCaptor.getValue().onCaptureSuccess(mockImage);
+
+    assertTrue(result[0] instanceof IllegalStateException);
+    verify(mockImage).close();
+  }
+
+  @Test
+  public void takePictureToMemory_sendsCaptureError() {
+    final PigeonApiImageCapture api = new TestProxyApiRegistrar().getPigeonApiImageCapture();
+    final ImageCapture instance = mock(ImageCapture.class);
+    final ImageCaptureException captureException = mock(ImageCaptureException.class);
+
+    final Throwable[] result = {null};
+    api.takePictureToMemory(
+        instance,
+        null,
+        1024L,
+        ResultCompat.asCompatCallback(
+            reply -> {
+              result[0] = reply.exceptionOrNull();
+              return null;
+            }));
+
+    final ArgumentCaptor<ImageCapture.OnImageCapturedCallback> callbackCaptor =
+        ArgumentCaptor.forClass(ImageCapture.OnImageCapturedCallback.class);
+    verify(instance).takePicture(any(Executor.class), callbackCaptor.capture());
+    callbackCaptor.getValue().onError(captureException);
+
+    assertEquals(captureException, result[0]);
+  }
+
+  @Test
+  public void getScaledSize_scalesLongestSideDownToMaxSize() {
+    assertEquals(
+        new Size(1024, 768), ImageCaptureProxyApi.getScaledSize(new Size(4000, 3000), 1024));
+    assertEquals(
+        new Size(768, 1024), ImageCaptureProxyApi.getScaledSize(new Size(3000, 4000), 1024));
+    assertEquals(
+        new Size(640, 480), ImageCaptureProxyApi.getScaledSize(new Size(640, 480), 1024));
+    assertEquals(
+        new Size(4000, 3000), ImageCaptureProxyApi.getScaledSize(new Size(4000, 3000), null));
+  }
+
+  @GraphicsMode(GraphicsMode.Mode.NATIVE)
+  @Test
+  public void toJpegBytes_scalesAndRotatesRealJpegUpright() {
+    // A landscape image that is red on its left half and blue on its right half.
+    final Bitmap bitmap = Bitmap.createBitmap(400, 200, Bitmap.Config.ARGB_8888);
+    final Canvas canvas = new Canvas(bitmap);
+    final Paint paint = new Paint();
+    paint.setColor(Color.RED);
+    canvas.drawRect(0, 0, 200, 200, paint);
+    paint.setColor(Color.BLUE);
+    canvas.drawRect(200, 0, 400, 200, paint);
+    final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+    bitmap.compress(Bitmap.CompressFormat.JPEG, 100, outputStream);
+
+    final ImageProxy mockImage = mockJpegImage(outputStream.toByteArray());
+    final ImageInfo mockImageInfo = mock(ImageInfo.class);
+    when(mockImageInfo.getRotationDegrees()).thenReturn(90);
+    when(mockImage.getImageInfo()).thenReturn(mockImageInfo);
+
+    final byte[] bytes = ImageCaptureProxyApi.toJpegBytes(mockImage, 90, 100);
+    final Bitmap result = BitmapFactory.decodeByteArray(bytes, 0, bytes.length);
+
+    // Scaled down to 100x50 and rotated clockwise, which moves the left half to the top.
+    assertEquals(50, result.getWidth());
+    assertEquals(100, result.getHeight());
+    final int top = result.getPixel(25, 10);
+    final int bottom = result.getPixel(25, 90);
+    assertTrue(Color.red(top) > 200 && Color.blue(top) < 50);
+    assertTrue(Color.blue(bottom) > 200 && Color.red(bottom) < 50);
+  }
+
+  private static ImageProxy mockJpegImage(byte[] jpegBytes) {
+    final ImageProxy mockImage = mock(ImageProxy.class);
+    final ImageProxy.PlaneProxy mockPlane = mock(ImageProxy.PlaneProxy.class);
+    when(mockImage.getFormat()).thenReturn(ImageFormat.JPEG);
+    when(mockImage.getPlanes()).thenReturn(new ImageProxy.PlaneProxy[] {mockPlane});
+    when(mockPlane.getBuffer()).thenReturn(ByteBuffer.wrap(jpegBytes));
+    return mockImage;
+  }
+
   @Test
   public void setTargetRotation_makesCallToSetTargetRotation() {
     final PigeonApiImageCapture api = new TestProxyApiRegistrar().getPigeonApiImageCapture();
@@ -5,13 +5,13 @@
 package io.flutter.plugins.camerax;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import androidx.camera.core.ImageProxy;
 import androidx.camera.core.ImageProxy.PlaneProxy;
-import java.util.Collections;
 import java.util.List;
 import org.junit.Test;
 
@@ -54,10 +54,33 @@ public class ImageProxyTest {
     final PigeonApiImageProxy api = new TestProxyApiRegistrar().getPigeonApiImageProxy();
 
     final ImageProxy instance = mock(ImageProxy.class);
-    final List<PlaneProxy> value = Collections.singletonList(mock(PlaneProxy.class));
-    when(instance.getPlanes()).thenReturn(value.toArray(new PlaneProxy[] {}));
+    final PlaneProxy plane = mock(PlaneProxy.class);
+    when(plane.getRowStride()).thenReturn(2);
+    when(instance.getPlanes()).thenReturn(new PlaneProxy[] {plane});
 
-    assertEquals(value, api.getPlanes(instance));
+    final List<PlaneProxy> planes = api.getPlanes(instance);
+
+    assertEquals(1, planes.size());
+    assertEquals(2, planes.get(0).getRowStride());
+  }
+
+  @Test
+  public void getPlanes_returnsNewInstancesOnEveryCall() {
+    final PigeonApiImageProxy api = new TestProxyApiRegistrar().getPigeonApiImageProxy();
+
+    final ImageProxy instance = mock(ImageProxy.class);
+    final PlaneProxy plane = mock(PlaneProxy.class);
+    when(plane.getPixelStride()).thenReturn(1);
+    when(instance.getPlanes()).thenReturn(new PlaneProxy[] {plane});
+
+    final PlaneProxy firstPlane = api.getPlanes(instance).get(0);
+    final PlaneProxy secondPlane = api.getPlanes(instance).get(0);
+
+    // Planes are released as soon as Dart is done with them, so a plane sent to Dart twice could
+    // be released while Dart still uses it.
+    assertNotSame(firstPlane, secondPlane);
+    assertEquals(1, firstPlane.getPixelStride());
+    assertEquals(1, secondPlane.getPixelStride());
   }
 
   @Test
@@ -0,0 +1,177 @@
+// Copyright 2013 The Flutter Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package io.flutter.plugins.camerax;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.robolectric.Shadows.shadowOf;
+
+import android.os.Looper;
+import io.flutter.plugin.common.BinaryMessenger;
+import io.flutter.plugin.common.StandardMessageCodec;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import org.junit.After;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.robolectric.RobolectricTestRunner;
+
+@RunWith(RobolectricTestRunner.class)
+public class InstanceManagerMessengerTest {
+  private final BinaryMessenger mockBinaryMessenger = mock(BinaryMessenger.class);
+  private final InstanceManagerMessenger messenger =
+      new InstanceManagerMessenger(mockBinaryMessenger);
+  private final CameraXLibraryPigeonInstanceManager instanceManager =
+      CameraXLibraryPigeonInstanceManager.Companion.create(identifier -> {});
+
+  private static class Frame {}
+
+  @After
+  public void tearDown() {
+    instanceManager.stopFinalizationListener();
+  }
+
+  // Messages are sent with their position at the end of the message.
+  private static ByteBuffer encodeIdentifier(long identifier) {
+    return StandardMessageCodec.INSTANCE.encodeMessage(Collections.singletonList(identifier));
+  }
+
+  // Messages are received with their position at the start of the message.
+  private static ByteBuffer receiveIdentifier(long identifier) {
+    final ByteBuffer message = encodeIdentifier(identifier);
+    message.rewind();
+    return message;
+  }
+
+  private static Object decode(ByteBuffer message) {
+    message.rewind();
+    return StandardMessageCodec.INSTANCE.decodeMessage(message);
+  }
+
+  /** Returns the reply callback of the only batch sent to Dart, after checking its identifiers. */
+  private BinaryMessenger.BinaryReply verifyBatchSent(List<Long> identifiers) {
+    final ArgumentCaptor<ByteBuffer> messageCaptor = ArgumentCaptor.forClass(ByteBuffer.class);
+    final ArgumentCaptor<BinaryMessenger.BinaryReply> replyCaptor =
+        ArgumentCaptor.forClass(BinaryMessenger.BinaryReply.class);
+    verify(mockBinaryMessenger)
+        .send(
+            eq(InstanceManagerMessenger.REMOVE_STRONG_REFERENCES_CHANNEL),
+            messageCaptor.capture(),
+            replyCaptor.capture());
+    assertEquals(identifiers, decode(messageCaptor.getValue()));
+    return replyCaptor.getValue();
+  }
+
+  @Test
+  public void send_sendsRemoveStrongReferenceMessagesInOneBatch() {
+    final List<Object> replies = new ArrayList<>();
+
+    messenger.send(
+        InstanceManagerMessenger.REMOVE_STRONG_REFERENCE_CHANNEL,
+        encodeIdentifier(65536),
+        reply -> replies.add(decode(reply)));
+    messenger.send(
+        InstanceManagerMessenger.REMOVE_STRONG_REFERENCE_CHANNEL,
+        encodeIdentifier(65537),
+        reply -> replies.add(decode(reply)));
+
+    verify(mockBinaryMessenger, never()).send(any(), any(), any());
+
+    shadowOf(Looper.getMainLooper()).idle();
+    verifyBatchSent(Arrays.asList(65536L, 65537L))
+        .reply(StandardMessageCodec.INSTANCE.encodeMessage(Collections.emptyList()));
+
+    assertEquals(Arrays.asList(Collections.emptyList(), Collections.emptyList()), replies);
+    final Map<String, Long> statistics = messenger.getStatistics();
+    assertEquals(Long.valueOf(2), statistics.get(InstanceManagerMessenger.RELEASED_COUNT));
+    assertEquals(Long.valueOf(1), statistics.get(InstanceManagerMessenger.RELEASE_BATCH_COUNT));
+  }
+
+  @Test
+  public void send_sendsEachIdentifierWhenDartDoesNotHandleBatches() {
+    final BinaryMessenger.BinaryReply reply = mock(BinaryMessenger.BinaryReply.class);
+    messenger.send(
+        InstanceManagerMessenger.REMOVE_STRONG_REFERENCE_CHANNEL, encodeIdentifier(65536), reply);
+    messenger.send(
+        InstanceManagerMessenger.REMOVE_STRONG_REFERENCE_CHANNEL, encodeIdentifier(65537), reply);
+
+    shadowOf(Looper.getMainLooper()).idle();
+    verifyBatchSent(Arrays.asList(65536L, 65537L)).reply(null);
+
+    final ArgumentCaptor<ByteBuffer> messageCaptor = ArgumentCaptor.forClass(ByteBuffer.class);
+    verify(mockBinaryMessenger, times(2))
+        .send(
+            eq(InstanceManagerMessenger.REMOVE_STRONG_REFERENCE_CHANNEL),
+            messageCaptor.capture(),
+            eq(reply));
+    assertEquals(Collections.singletonList(65536L), decode(messageCaptor.getAllValues().get(0)));
+    assertEquals(Collections.singletonList(65537L), decode(messageCaptor.getAllValues().get(1)));
+  }
+
+  @Test
+  public void send_passesOtherMessagesUnchanged() {
+    final ByteBuffer message = ByteBuffer.allocateDirect(0);
+    final BinaryMessenger.BinaryReply reply = mock(BinaryMessenger.BinaryReply.class);
+
+    messenger.send("channel", message, reply);
+
+    verify(mockBinaryMessenger).send("channel", message, reply);
+  }
+
+  @Test
+  public void setMessageHandler_releasesEphemeralInstancesOnceDartRemovesThem() {
+    messenger.setInstanceManager(instanceManager);
+    messenger.addEphemeralType(Frame.class);
+    final Frame frame = new Frame();
+    final long identifier = instanceManager.addHostCreatedInstance(frame);
+    final long otherIdentifier = instanceManager.addHostCreatedInstance(new Object());
+
+    final BinaryMessenger.BinaryMessageHandler handler =
+        mock(BinaryMessenger.BinaryMessageHandler.class);
+    messenger.setMessageHandler(InstanceManagerMessenger.REMOVE_STRONG_REFERENCE_CHANNEL, handler);
+    final ArgumentCaptor<BinaryMessenger.BinaryMessageHandler> handlerCaptor =
+        ArgumentCaptor.forClass(BinaryMessenger.BinaryMessageHandler.class);
+    verify(mockBinaryMessenger)
+        .setMessageHandler(
+            eq(InstanceManagerMessenger.REMOVE_STRONG_REFERENCE_CHANNEL), handlerCaptor.capture());
+    final BinaryMessenger.BinaryMessageHandler wrappedHandler = handlerCaptor.getValue();
+    assertNotNull(wrappedHandler);
+
+    final BinaryMessenger.BinaryReply handlerReply = mock(BinaryMessenger.BinaryReply.class);
+    final ByteBuffer message = receiveIdentifier(identifier);
+    wrappedHandler.onMessage(message, handlerReply);
+    wrappedHandler.onMessage(receiveIdentifier(otherIdentifier), handlerReply);
+
+    verify(handler).onMessage(message, handlerReply);
+    shadowOf(Looper.getMainLooper()).idle();
+    verifyBatchSent(Collections.singletonList(identifier));
+    assertEquals(
+        Long.valueOf(1),
+        messenger.getStatistics().get(InstanceManagerMessenger.EPHEMERAL_RELEASED_COUNT));
+
+    // The instance manager reports the frame again once it is garbage collected.
+    final BinaryMessenger.BinaryReply finalizeReply = mock(BinaryMessenger.BinaryReply.class);
+    messenger.send(
+        InstanceManagerMessenger.REMOVE_STRONG_REFERENCE_CHANNEL,
+        encodeIdentifier(identifier),
+        finalizeReply);
+    shadowOf(Looper.getMainLooper()).idle();
+
+    verify(finalizeReply).reply(any());
+    verify(mockBinaryMessenger, times(1))
+        .send(eq(InstanceManagerMessenger.REMOVE_STRONG_REFERENCES_CHANNEL), any(), any());
+  }
+}
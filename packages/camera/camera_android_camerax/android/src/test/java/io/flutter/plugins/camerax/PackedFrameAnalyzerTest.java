@@ -0,0 +1,143 @@
+// Copyright 2013 The Flutter Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package io.flutter.plugins.camerax;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import androidx.camera.core.ImageAnalysis;
+import androidx.camera.core.ImageInfo;
+import androidx.camera.core.ImageProxy;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import kotlin.Unit;
+import org.junit.Test;
+
+public class PackedFrameAnalyzerTest {
+  private static ImageProxy createImage(byte[]... planeBytes) {
+    final ImageProxy image = mock(ImageProxy.class);
+    final ImageProxy.PlaneProxy[] planes = new ImageProxy.PlaneProxy[planeBytes.length];
+    for (int i = 0; i < planeBytes.length; i++) {
+      final ImageProxy.PlaneProxy plane = mock(ImageProxy.PlaneProxy.class);
+      when(plane.getBuffer()).thenReturn(ByteBuffer.wrap(planeBytes[i]));
+      when(plane.getRowStride()).thenReturn(10 + i);
+      when(plane.getPixelStride()).thenReturn(1 + i);
+      planes[i] = plane;
+    }
+    when(image.getPlanes()).thenReturn(planes);
+    when(image.getFormat()).thenReturn(35);
+    when(image.getWidth()).thenReturn(640);
+    when(image.getHeight()).thenReturn(480);
+    return image;
+  }
+
+  @Test
+  public void pack_writesHeaderFollowedByPlaneBytes() {
+    final ImageProxy image = createImage(new byte[] {1, 2, 3}, new byte[] {4, 5});
+
+    final int size = PackedFrameAnalyzer.getPackedSize(image);
+    assertEquals(
+        PackedFrameAnalyzer.HEADER_SIZE + 2 * PackedFrameAnalyzer.PLANE_HEADER_SIZE + 5, size);
+    final byte[] frame = PackedFrameAnalyzer.pack(image, new byte[size]);
+
+    final ByteBuffer packed = ByteBuffer.wrap(frame).order(ByteOrder.LITTLE_ENDIAN);
+    assertEquals(35, packed.getInt());
+    assertEquals(640, packed.getInt());
+    assertEquals(480, packed.getInt());
+    assertEquals(2, packed.getInt());
+    assertEquals(10, packed.getInt());
+    assertEquals(1, packed.getInt());
+    assertEquals(3, packed.getInt());
+    assertEquals(11, packed.getInt());
+    assertEquals(2, packed.getInt());
+    assertEquals(2, packed.getInt());
+    final byte[] planeBytes = new byte[5];
+    packed.get(planeBytes);
+    assertArrayEquals(new byte[] {1, 2, 3, 4, 5}, planeBytes);
+  }
+
+  @Test
+  public void analyze_sendsPackedImageToDartAndClosesImage() {
+    final AnalyzerProxyApi mockApi = mock(AnalyzerProxyApi.class);
+    when(mockApi.getPigeonRegistrar()).thenReturn(new TestProxyApiRegistrar());
+    final ImageAnalysis.Analyzer dartAnalyzer = mock(ImageAnalysis.Analyzer.class);
+
+    final PackedFrameAnalyzer analyzer = new PackedFrameAnalyzer(mockApi, dartAnalyzer, 1, 0);
+    final ImageProxy image = createImage(new byte[] {1, 2, 3});
+    analyzer.analyze(image);
+
+    verify(image).close();
+    verify(mockApi).analyzeFrame(eq(dartAnalyzer), any(byte[].class), any());
+  }
+
+  @Test
+  public void analyze_dropsImagesWhileMaxFramesAreInFlightAndReusesBuffers() {
+    final AnalyzerProxyApi mockApi = mock(AnalyzerProxyApi.class);
+    when(mockApi.getPigeonRegistrar()).thenReturn(new TestProxyApiRegistrar());
+    final List<byte[]> frames = new ArrayList<>();
+    final List<Object> callbacks = new ArrayList<>();
+    doAnswer(
+            invocation -> {
+              frames.add(invocation.getArgument(1));
+              callbacks.add(invocation.getArgument(2));
+              return null;
+            })
+        .when(mockApi)
+        .analyzeFrame(any(), any(byte[].class), any());
+
+    final PackedFrameAnalyzer analyzer =
+        new PackedFrameAnalyzer(mockApi, mock(ImageAnalysis.Analyzer.class), 1, 0);
+    analyzer.analyze(createImage(new byte[] {1, 2, 3}));
+    final ImageProxy droppedImage = createImage(new byte[] {1, 2, 3});
+    analyzer.analyze(droppedImage);
+
+    verify(droppedImage).close();
+    verify(droppedImage, never()).getPlanes();
+    verify(mockApi, times(1)).analyzeFrame(any(), any(byte[].class), any());
+
+    ResultCompat.success(Unit.INSTANCE, callbacks.get(0));
+    analyzer.analyze(createImage(new byte[] {4, 5, 6}));
+
+    assertEquals(2, frames.size());
+    assertSame(frames.get(0), frames.get(1));
+  }
+
+  @Test
+  public void analyze_sendsImagesAtTargetFrameRate() {
+    final AnalyzerProxyApi mockApi = mock(AnalyzerProxyApi.class);
+    final TestProxyApiRegistrar registrar = new TestProxyApiRegistrar();
+    when(mockApi.getPigeonRegistrar()).thenReturn(registrar);
+
+    // 60 images per second analyzed at 20 images per second.
+    final PackedFrameAnalyzer analyzer =
+        new PackedFrameAnalyzer(mockApi, mock(ImageAnalysis.Analyzer.class), 100, 20);
+    final long frameIntervalNanos = TimeUnit.SECONDS.toNanos(1) / 60;
+    for (int i = 0; i < 60; i++) {
+      final ImageProxy image = createImage(new byte[] {1});
+      final ImageInfo imageInfo = mock(ImageInfo.class);
+      when(imageInfo.getTimestamp()).thenReturn(i * frameIntervalNanos);
+      when(image.getImageInfo()).thenReturn(imageInfo);
+      analyzer.analyze(image);
+      verify(image).close();
+    }
+
+    verify(mockApi, times(20)).analyzeFrame(any(), any(byte[].class), any());
+    final Map<String, Double> statistics = registrar.getFrameRateMonitor().getStatistics();
+    assertEquals(Double.valueOf(20), statistics.get(FrameRateMonitor.IMAGE_STREAM + ".frames"));
+  }
+}
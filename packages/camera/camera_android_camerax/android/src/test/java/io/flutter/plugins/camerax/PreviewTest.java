@@ -5,27 +5,37 @@
 package io.flutter.plugins.camerax;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.any;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.mockConstruction;
 import static org.mockito.Mockito.reset;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoMoreInteractions;
 import static org.mockito.Mockito.when;
 
+import android.hardware.camera2.CameraCaptureSession;
+import android.hardware.camera2.CaptureRequest;
+import android.hardware.camera2.TotalCaptureResult;
+import android.util.Range;
 import android.util.Size;
 import android.view.Surface;
 import androidx.annotation.NonNull;
+import androidx.camera.camera2.interop.Camera2Interop;
 import androidx.camera.core.Preview;
 import androidx.camera.core.ResolutionInfo;
 import androidx.camera.core.SurfaceRequest;
 import androidx.camera.core.resolutionselector.ResolutionSelector;
 import androidx.core.util.Consumer;
 import io.flutter.view.TextureRegistry;
+import java.util.Map;
 import java.util.concurrent.Executor;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.mockito.ArgumentCaptor;
+import org.mockito.MockedConstruction;
 import org.robolectric.RobolectricTestRunner;
 
 @RunWith(RobolectricTestRunner.class)
@@ -37,12 +47,79 @@ public class PreviewTest {
     final ResolutionSelector mockResolutionSelector = new ResolutionSelector.Builder().build();
     final long targetResolution = Surface.ROTATION_0;
     final Preview instance =
-        api.pigeon_defaultConstructor(mockResolutionSelector, targetResolution);
+        api.pigeon_defaultConstructor(mockResolutionSelector, targetResolution, null);
 
     assertEquals(instance.getResolutionSelector(), mockResolutionSelector);
     assertEquals(instance.getTargetRotation(), Surface.ROTATION_0);
   }
 
+  @Test
+  public void pigeon_defaultConstructor_setsFixedTargetFrameRate() {
+    final PigeonApiPreview api = new TestProxyApiRegistrar().getPigeonApiPreview();
+
+    final Preview instance = api.pigeon_defaultConstructor(null, null, 24L);
+
+    assertEquals(new Range<>(24, 24), instance.getTargetFrameRate());
+  }
+
+  @SuppressWarnings("rawtypes")
+  @Test
+  public void pigeon_defaultConstructor_measuresFrameRateWithTargetFrameRate() {
+    final TestProxyApiRegistrar proxyApiRegistrar = new TestProxyApiRegistrar();
+    final PigeonApiPreview api = proxyApiRegistrar.getPigeonApiPreview();
+
+    try (MockedConstruction<Camera2Interop.Extender> mockedExtender =
+        mockConstruction(Camera2Interop.Extender.class)) {
+      api.pigeon_defaultConstructor(null, null, 24L);
+
+      assertEquals(1, mockedExtender.constructed().size());
+      final ArgumentCaptor<CameraCaptureSession.CaptureCallback> callbackCaptor =
+          ArgumentCaptor.forClass(CameraCaptureSession.CaptureCallback.class);
+      verify(mockedExtender.constructed().get(0))
+          .setSessionCaptureCallback(callbackCaptor.capture());
+      callbackCaptor
+          .getValue()
+          .onCaptureCompleted(
+              mock(CameraCaptureSession.class),
+              mock(CaptureRequest.class),
+              mock(TotalCaptureResult.class));
+    }
+
+    final Map<String, Double> statistics =
+        proxyApiRegistrar.getFrameRateMonitor().getStatistics();
+    assertEquals(Double.valueOf(1), statistics.get(FrameRateMonitor.PREVIEW + ".frames"));
+    assertTrue(statistics.containsKey(FrameRateMonitor.PREVIEW + ".timeToFirstFrameMillis"));
+  }
+
+  @SuppressWarnings("rawtypes")
+  @Test
+  public void pigeon_defaultConstructor_measuresOnlyTimeToFirstFrameWithoutTargetFrameRate() {
+    final TestProxyApiRegistrar proxyApiRegistrar = new TestProxyApiRegistrar();
+    final PigeonApiPreview api = proxyApiRegistrar.getPigeonApiPreview();
+
+    try (MockedConstruction<Camera2Interop.Extender> mockedExtender =
+        mockConstruction(Camera2Interop.Extender.class)) {
+      api.pigeon_defaultConstructor(null, null, null);
+
+      assertEquals(1, mockedExtender.constructed().size());
+      final ArgumentCaptor<CameraCaptureSession.CaptureCallback> callbackCaptor =
+          ArgumentCaptor.forClass(CameraCaptureSession.CaptureCallback.class);
+      verify(mockedExtender.constructed().get(0))
+          .setSessionCaptureCallback(callbackCaptor.capture());
+      callbackCaptor
+          .getValue()
+          .onCaptureCompleted(
+              mock(CameraCaptureSession.class),
+              mock(CaptureRequest.class),
+              mock(TotalCaptureResult.class));
+    }
+
+    final Map<String, Double> statistics =
+        proxyApiRegistrar.getFrameRateMonitor().getStatistics();
+    assertTrue(statistics.containsKey(FrameRateMonitor.PREVIEW + ".timeToFirstFrameMillis"));
+    assertFalse(statistics.containsKey(FrameRateMonitor.PREVIEW + ".frames"));
+  }
+
   @Test
   public void resolutionSelector_returnsExpectedResolutionSelector() {
     final PigeonApiPreview api = new TestProxyApiRegistrar().getPigeonApiPreview();
@@ -79,6 +156,37 @@ public class PreviewTest {
     verify(instance).setSurfaceProvider(any(Preview.SurfaceProvider.class));
   }
 
+  @Test
+  public void setSurfaceProvider_usesSurfaceProducerCreatedByWarmUp() {
+    final TextureRegistry mockTextureRegistry = mock(TextureRegistry.class);
+    final TextureRegistry.SurfaceProducer mockSurfaceProducer =
+        mock(TextureRegistry.SurfaceProducer.class);
+    final CameraWarmUp mockCameraWarmUp = mock(CameraWarmUp.class);
+    final long textureId = 3;
+    when(mockSurfaceProducer.id()).thenReturn(textureId);
+    when(mockCameraWarmUp.takeSurfaceProducer()).thenReturn(mockSurfaceProducer);
+    final PigeonApiPreview api =
+        new TestProxyApiRegistrar() {
+          @NonNull
+          @Override
+          TextureRegistry getTextureRegistry() {
+            return mockTextureRegistry;
+          }
+
+          @NonNull
+          @Override
+          CameraWarmUp getCameraWarmUp() {
+            return mockCameraWarmUp;
+          }
+        }.getPigeonApiPreview();
+
+    final Preview instance = mock(Preview.class);
+    final SystemServicesManager systemServicesManager = mock(SystemServicesManager.class);
+
+    assertEquals(textureId, api.setSurfaceProvider(instance, systemServicesManager));
+    verifyNoMoreInteractions(mockTextureRegistry);
+  }
+
   @Test
   public void createSurfaceProducer_setsExpectedSurfaceProducerCallback() {
     final TextureRegistry mockTextureRegistry = mock(TextureRegistry.class);
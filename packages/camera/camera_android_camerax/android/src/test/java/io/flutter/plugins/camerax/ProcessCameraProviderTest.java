@@ -13,6 +13,7 @@ import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import androidx.annotation.Nullable;
+import androidx.camera.camera2.interop.Camera2CameraInfo;
 import androidx.camera.core.Camera;
 import androidx.camera.core.CameraInfo;
 import androidx.camera.core.CameraSelector;
@@ -85,6 +86,41 @@ public class ProcessCameraProviderTest {
     assertEquals(value, api.getAvailableCameraInfos(instance));
   }
 
+  @Test
+  public void getAvailableCameraInfos_returnsCameraInfosCachedByWarmUpOnce() {
+    final TestProxyApiRegistrar registrar = new TestProxyApiRegistrar();
+    final PigeonApiProcessCameraProvider api = registrar.getPigeonApiProcessCameraProvider();
+
+    final ProcessCameraProvider instance = mock(ProcessCameraProvider.class);
+    final CameraInfo cameraInfo = mock(CameraInfo.class);
+    final List<CameraInfo> cachedValue = Collections.singletonList(cameraInfo);
+    final List<CameraInfo> value = Collections.singletonList(mock(CameraInfo.class));
+    when(instance.getAvailableCameraInfos()).thenReturn(cachedValue, value);
+
+    try (MockedStatic<ProcessCameraProvider> mockedProcessCameraProvider =
+            Mockito.mockStatic(ProcessCameraProvider.class);
+        MockedStatic<ContextCompat> mockedContextCompat = Mockito.mockStatic(ContextCompat.class);
+        MockedStatic<Camera2CameraInfo> mockedCamera2CameraInfo =
+            Mockito.mockStatic(Camera2CameraInfo.class)) {
+      mockedCamera2CameraInfo
+          .when(() -> Camera2CameraInfo.from(cameraInfo))
+          .thenAnswer((Answer<Camera2CameraInfo>) invocation -> mock(Camera2CameraInfo.class));
+      mockedProcessCameraProvider
+          .when(() -> ProcessCameraProvider.getInstance(any()))
+          .thenAnswer(
+              (Answer<ListenableFuture<ProcessCameraProvider>>)
+                  invocation -> Futures.immediateFuture(instance));
+      mockedContextCompat
+          .when(() -> ContextCompat.getMainExecutor(any()))
+          .thenAnswer((Answer<Executor>) invocation -> Runnable::run);
+
+      registrar.getCameraWarmUp().start();
+    }
+
+    assertEquals(cachedValue, api.getAvailableCameraInfos(instance));
+    assertEquals(value, api.getAvailableCameraInfos(instance));
+  }
+
   @Test
   public void bindToLifecycle_callsBindToLifecycleWithSelectorsAndUseCases() {
     final PigeonApiProcessCameraProvider api =
@@ -20,6 +20,7 @@ import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 import java.io.File;
 import java.io.IOException;
+import java.util.Map;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.mockito.ArgumentCaptor;
@@ -173,4 +174,42 @@ public class SystemServicesTest {
 
     verify(mockApi).onCameraError(eq(instance), eq(errorDescription), any());
   }
+
+  @Test
+  public void getExecutorThreadCounts_returnsThreadCountsOfSharedExecutors() {
+    final TestProxyApiRegistrar proxyApiRegistrar = new TestProxyApiRegistrar();
+    final SystemServicesManagerProxyApi api = proxyApiRegistrar.getPigeonApiSystemServicesManager();
+
+    final SystemServicesManager instance =
+        new SystemServicesManagerProxyApi.SystemServicesManagerImpl(api);
+    final Map<String, Long> threadCounts = api.getExecutorThreadCounts(instance);
+
+    assertEquals(proxyApiRegistrar.getExecutors().getThreadCounts(), threadCounts);
+    assertEquals(3, threadCounts.size());
+  }
+
+  @Test
+  public void getInstanceManagerStatistics_returnsStatisticsOfInstanceManagerMessenger() {
+    final TestProxyApiRegistrar proxyApiRegistrar = new TestProxyApiRegistrar();
+    final SystemServicesManagerProxyApi api = proxyApiRegistrar.getPigeonApiSystemServicesManager();
+
+    final SystemServicesManager instance =
+        new SystemServicesManagerProxyApi.SystemServicesManagerImpl(api);
+    final Map<String, Long> statistics = api.getInstanceManagerStatistics(instance);
+
+    assertEquals(proxyApiRegistrar.getInstanceManagerMessenger().getStatistics(), statistics);
+  }
+
+  @Test
+  public void getFrameRateStatistics_returnsStatisticsOfFrameRateMonitor() {
+    final TestProxyApiRegistrar proxyApiRegistrar = new TestProxyApiRegistrar();
+    final SystemServicesManagerProxyApi api = proxyApiRegistrar.getPigeonApiSystemServicesManager();
+    proxyApiRegistrar.getFrameRateMonitor().onFrame(FrameRateMonitor.PREVIEW, 0);
+
+    final SystemServicesManager instance =
+        new SystemServicesManagerProxyApi.SystemServicesManagerImpl(api);
+    final Map<String, Double> statistics = api.getFrameRateStatistics(instance);
+
+    assertEquals(Double.valueOf(1), statistics.get(FrameRateMonitor.PREVIEW + ".frames"));
+  }
 }
@@ -6,13 +6,21 @@ package io.flutter.plugins.camerax;
 
 import static org.junit.Assert.assertEquals;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.mockConstruction;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import android.hardware.camera2.CameraCaptureSession;
+import android.hardware.camera2.CaptureRequest;
+import android.hardware.camera2.TotalCaptureResult;
+import android.util.Range;
+import androidx.camera.camera2.interop.Camera2Interop;
 import androidx.camera.video.VideoCapture;
 import androidx.camera.video.VideoOutput;
 import org.junit.Test;
 import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.MockedConstruction;
 import org.mockito.MockedStatic;
 import org.mockito.Mockito;
 import org.mockito.stubbing.Answer;
@@ -34,10 +42,50 @@ public class VideoCaptureTest {
           .when(() -> VideoCapture.withOutput(videoOutput))
           .thenAnswer((Answer<VideoCapture>) invocation -> instance);
 
-      assertEquals(api.withOutput(videoOutput), instance);
+      assertEquals(api.withOutput(videoOutput, null), instance);
     }
   }
 
+  @Test
+  public void withOutput_setsFixedTargetFrameRate() {
+    final PigeonApiVideoCapture api = new TestProxyApiRegistrar().getPigeonApiVideoCapture();
+
+    final VideoCapture<?> instance = api.withOutput(mock(VideoOutput.class), 30L);
+
+    assertEquals(new Range<>(30, 30), instance.getTargetFrameRate());
+  }
+
+  @SuppressWarnings("rawtypes")
+  @Test
+  public void withOutput_measuresFrameRateOfVideoWithTargetFrameRate() {
+    final TestProxyApiRegistrar proxyApiRegistrar = new TestProxyApiRegistrar();
+    final PigeonApiVideoCapture api = proxyApiRegistrar.getPigeonApiVideoCapture();
+
+    try (MockedConstruction<Camera2Interop.Extender> mockedExtender =
+        mockConstruction(Camera2Interop.Extender.class)) {
+      api.withOutput(mock(VideoOutput.class), 30L);
+
+      assertEquals(1, mockedExtender.constructed().size());
+      final ArgumentCaptor<CameraCaptureSession.CaptureCallback> callbackCaptor =
+          ArgumentCaptor.forClass(CameraCaptureSession.CaptureCallback.class);
+      verify(mockedExtender.constructed().get(0))
+          .setSessionCaptureCallback(callbackCaptor.capture());
+      callbackCaptor
+          .getValue()
+          .onCaptureCompleted(
+              mock(CameraCaptureSession.class),
+              mock(CaptureRequest.class),
+              mock(TotalCaptureResult.class));
+    }
+
+    assertEquals(
+        Double.valueOf(1),
+        proxyApiRegistrar
+            .getFrameRateMonitor()
+            .getStatistics()
+            .get(FrameRateMonitor.VIDEO + ".frames"));
+  }
+
   @SuppressWarnings("unchecked")
   @Test
   public void getOutput_returnsAssociatedRecorder() {
@@ -4,6 +4,7 @@
 
 import 'dart:async';
 import 'dart:math' show Point;
+import 'dart:typed_data';
 
 import 'package:async/async.dart';
 import 'package:camera_platform_interface/camera_platform_interface.dart';
@@ -174,6 +175,52 @@ class AndroidCameraCameraX extends CameraPlatform {
   @visibleForTesting
   StreamController<CameraImageData>? cameraImageDataStreamController;
 
+  /// Whether images are streamed with [ImageAnalysis.setFrameAnalyzer], which
+  /// packs each image into a single message on a background thread.
+  @visibleForTesting
+  bool packImageStreamFrames = false;
+
+  /// The maximum number of packed images that can be waiting to be added to
+  /// the image stream when [packImageStreamFrames] is true.
+  @visibleForTesting
+  int maxImageStreamFramesInFlight = 1;
+
+  /// The frame rate requested for the preview of cameras created after
+  /// [setUseCaseBudget] is called, or null to let CameraX choose.
+  @visibleForTesting
+  int? previewTargetFrameRate;
+
+  /// The frame rate requested for videos recorded by cameras created after
+  /// [setUseCaseBudget] is called, or null to let CameraX choose.
+  @visibleForTesting
+  int? videoTargetFrameRate;
+
+  /// The maximum rate at which packed images are added to the image stream,
+  /// or null to add every image the camera produces.
+  @visibleForTesting
+  int? imageStreamTargetFrameRate;
+
+  /// The resolution of the image stream of cameras created after
+  /// [setUseCaseBudget] is called, or null to use the resolution preset of
+  /// the camera.
+  @visibleForTesting
+  ResolutionPreset? imageStreamResolutionPreset;
+
+  /// Whether [takePicture] returns the captured JPEG in memory instead of
+  /// saving it to a temporary file.
+  @visibleForTesting
+  bool captureToMemory = false;
+
+  /// The quality that pictures captured in memory are encoded again at, or
+  /// null to keep the JPEG produced by the camera.
+  @visibleForTesting
+  int? inMemoryCaptureJpegQuality;
+
+  /// The maximum length of the sides of pictures captured in memory, or null
+  /// to keep their full resolution.
+  @visibleForTesting
+  int? inMemoryCaptureMaxSize;
+
   /// Constant representing the multi-plane Android YUV 420 image format.
   ///
   /// See https://developer.android.com/reference/android/graphics/ImageFormat#YUV_420_888.
@@ -270,6 +317,7 @@ class AndroidCameraCameraX extends CameraPlatform {
   @override
   Future<List<CameraDescription>> availableCameras() async {
     proxy.setUpGenericsProxy();
+    proxy.setUpInstanceManagerBatchingProxy();
 
     final List<CameraDescription> cameraDescriptions = <CameraDescription>[];
 
@@ -384,6 +432,7 @@ class AndroidCameraCameraX extends CameraPlatform {
     preview = proxy.newPreview(
       resolutionSelector: presetResolutionSelector,
       /* use CameraX default target rotation */ targetRotation: null,
+      targetFrameRate: previewTargetFrameRate,
     );
     final int flutterSurfaceTextureId = await preview!.setSurfaceProvider(
       systemServicesManager,
@@ -399,13 +448,18 @@ class AndroidCameraCameraX extends CameraPlatform {
     // Configure ImageAnalysis instance.
     // Defaults to YUV_420_888 image format.
     imageAnalysis = proxy.newImageAnalysis(
-      resolutionSelector: presetResolutionSelector,
+      resolutionSelector: imageStreamResolutionPreset == null
+          ? presetResolutionSelector
+          : _getResolutionSelectorFromPreset(imageStreamResolutionPreset),
       /* use CameraX default target rotation */ targetRotation: null,
     );
 
     // Configure VideoCapture and Recorder instances.
     recorder = proxy.newRecorder(qualitySelector: presetQualitySelector);
-    videoCapture = proxy.withOutputVideoCapture(videoOutput: recorder!);
+    videoCapture = proxy.withOutputVideoCapture(
+      videoOutput: recorder!,
+      targetFrameRate: videoTargetFrameRate,
+    );
 
     // Bind configured UseCases to ProcessCameraProvider instance & mark Preview
     // instance as bound but not paused. Video capture is bound at first use
@@ -952,7 +1006,8 @@ class AndroidCameraCameraX extends CameraPlatform {
     );
   }
 
-  /// Captures an image and returns the file where it was saved.
+  /// Captures an image and returns the file where it was saved, or the image
+  /// itself if [setInMemoryCapture] was enabled.
   ///
   /// [cameraId] is not used.
   @override
@@ -975,6 +1030,14 @@ class AndroidCameraCameraX extends CameraPlatform {
       );
     }
 
+    if (captureToMemory) {
+      final Uint8List bytes = await imageCapture!.takePictureToMemory(
+        inMemoryCaptureJpegQuality,
+        inMemoryCaptureMaxSize,
+      );
+      return XFile.fromData(bytes, mimeType: 'image/jpeg');
+    }
+
     final String picturePath = await imageCapture!.takePicture();
     return XFile(picturePath);
   }
@@ -1220,6 +1283,104 @@ class AndroidCameraCameraX extends CameraPlatform {
     return cameraImageDataStreamController!.stream;
   }
 
+  /// Sets how images are delivered by the streams returned by
+  /// [onStreamedFrameAvailable] that start being listened to after this call.
+  ///
+  /// When [packFrames] is true, images are analyzed on a background thread
+  /// and each image is sent with all of its planes in a single message, then
+  /// closed. At most [maxFramesInFlight] images can be waiting to be added to
+  /// the stream; images produced while that many are waiting are dropped.
+  void setImageStreamingOptions({
+    bool packFrames = true,
+    int maxFramesInFlight = 1,
+  }) {
+    packImageStreamFrames = packFrames;
+    maxImageStreamFramesInFlight = maxFramesInFlight;
+  }
+
+  /// Sets how the preview, video recording and image stream of cameras created
+  /// after this call share the camera.
+  ///
+  /// [previewFrameRate] and [videoFrameRate] request fixed frame rates from
+  /// the camera. The preview and video are produced by the same camera
+  /// session, so CameraX picks a frame rate supported for both if they differ.
+  /// The frame rates of the preview and the recording are only measured for
+  /// [getFrameRateStatistics] when they are set here.
+  ///
+  /// [imageStreamFrameRate] limits how often packed images (see
+  /// [setImageStreamingOptions]) are added to the image stream, dropping the
+  /// images in between before they are copied, so that analysis does not take
+  /// time away from the preview and the recording. [imageStreamResolution]
+  /// sets the resolution of the image stream independently of the resolution
+  /// of the preview and the recording.
+  ///
+  /// When the device cannot stream to every use case at once, CameraX shares
+  /// a single camera stream between the preview and the recording.
+  void setUseCaseBudget({
+    int? previewFrameRate,
+    int? videoFrameRate,
+    int? imageStreamFrameRate,
+    ResolutionPreset? imageStreamResolution,
+  }) {
+    previewTargetFrameRate = previewFrameRate;
+    videoTargetFrameRate = videoFrameRate;
+    imageStreamTargetFrameRate = imageStreamFrameRate;
+    imageStreamResolutionPreset = imageStreamResolution;
+  }
+
+  /// Sets whether [takePicture] returns pictures in memory instead of saving
+  /// them to temporary files.
+  ///
+  /// When [enabled] is true, [takePicture] returns an [XFile] that holds the
+  /// JPEG bytes of the picture and has no path, which avoids writing the
+  /// picture to a file and reading it back. The JPEG produced by the camera is
+  /// returned as is, unless [jpegQuality] or [maxSize] is set, in which case
+  /// the picture is scaled down so that neither side is longer than [maxSize],
+  /// rotated upright and encoded again at [jpegQuality] on a background thread.
+  void setInMemoryCapture(bool enabled, {int? jpegQuality, int? maxSize}) {
+    captureToMemory = enabled;
+    inMemoryCaptureJpegQuality = jpegQuality;
+    inMemoryCaptureMaxSize = maxSize;
+  }
+
+  /// Returns the number of threads currently alive in each of the background
+  /// executors shared by the plugin, keyed by executor name.
+  ///
+  /// The executors are bounded, so these counts do not grow with the number of
+  /// pictures taken.
+  Future<Map<String, int>> getExecutorThreadCounts() {
+    return systemServicesManager.getExecutorThreadCounts();
+  }
+
+  /// Returns counters describing the native instances shared with Dart, keyed
+  /// by name.
+  ///
+  /// These include the number of released native instances reported to Dart,
+  /// the number of messages they were reported in, and the latency between
+  /// an instance being released and it being reported to Dart.
+  Future<Map<String, int>> getInstanceManagerStatistics() {
+    return systemServicesManager.getInstanceManagerStatistics();
+  }
+
+  /// Returns the frame rates measured over the last second for each use case,
+  /// with the number of frames delivered and dropped, keyed by the name of the
+  /// use case (`preview`, `video` or `imageStream`) followed by `.frameRate`,
+  /// `.frames` or `.dropped`.
+  ///
+  /// The preview and the video recording are only measured for cameras
+  /// created after [setUseCaseBudget] requested a frame rate for them, so
+  /// comparing the two shows whether the image stream causes the recording to
+  /// drop frames.
+  ///
+  /// Once the camera has completed the first capture for the preview of the
+  /// last created camera, measured or not, the time from the creation of the
+  /// preview to that capture is also returned as
+  /// `preview.timeToFirstFrameMillis`. This includes opening the camera and
+  /// configuring its session, but not drawing the frame on screen.
+  Future<Map<String, double>> getFrameRateStatistics() {
+    return systemServicesManager.getFrameRateStatistics();
+  }
+
   // Methods for binding UseCases to the lifecycle of the camera controlled
   // by a ProcessCameraProvider instance:
 
@@ -1262,6 +1423,24 @@ class AndroidCameraCameraX extends CameraPlatform {
     // Create and set Analyzer that can read image data for image streaming.
     final WeakReference<AndroidCameraCameraX> weakThis =
         WeakReference<AndroidCameraCameraX>(this);
+    if (packImageStreamFrames) {
+      await imageAnalysis!.setFrameAnalyzer(
+        proxy.newAnalyzer(
+          // Images are only sent to analyzeFrame by a frame analyzer.
+          analyze: (_, ImageProxy image) => image.close(),
+          analyzeFrame: (_, Uint8List frame) {
+            final AndroidCameraCameraX camera = weakThis.target!;
+            camera.cameraImageDataStreamController!.add(
+              camera._cameraImageDataFromPackedFrame(frame),
+            );
+          },
+        ),
+        maxImageStreamFramesInFlight,
+        imageStreamTargetFrameRate,
+      );
+      return;
+    }
+
     Future<void> analyze(ImageProxy imageProxy) async {
       final List<PlaneProxy> planes = await imageProxy.getPlanes();
       final List<CameraImagePlane> cameraImagePlanes = <CameraImagePlane>[];
@@ -1319,6 +1498,52 @@ class AndroidCameraCameraX extends CameraPlatform {
     await imageAnalysis!.clearAnalyzer();
   }
 
+  /// Returns the image packed into [frame] by an analyzer set with
+  /// [ImageAnalysis.setFrameAnalyzer].
+  ///
+  /// The frame starts with little-endian 32-bit integers: the image format,
+  /// width, height and number of planes, followed by the row stride, pixel
+  /// stride and length of each plane. The bytes of the planes follow in order
+  /// and are returned as views of [frame] rather than copies.
+  CameraImageData _cameraImageDataFromPackedFrame(Uint8List frame) {
+    const int headerLength = 4 * 4;
+    const int planeHeaderLength = 3 * 4;
+    final ByteData header = ByteData.sublistView(frame);
+    final int format = header.getInt32(0, Endian.little);
+    final int width = header.getInt32(4, Endian.little);
+    final int height = header.getInt32(8, Endian.little);
+    final int planeCount = header.getInt32(12, Endian.little);
+
+    final List<CameraImagePlane> planes = <CameraImagePlane>[];
+    int planeOffset = headerLength + planeCount * planeHeaderLength;
+    for (int i = 0; i < planeCount; i++) {
+      final int planeHeaderOffset = headerLength + i * planeHeaderLength;
+      final int length = header.getInt32(planeHeaderOffset + 8, Endian.little);
+      planes.add(
+        CameraImagePlane(
+          bytes: Uint8List.sublistView(
+            frame,
+            planeOffset,
+            planeOffset + length,
+          ),
+          bytesPerRow: header.getInt32(planeHeaderOffset, Endian.little),
+          bytesPerPixel: header.getInt32(planeHeaderOffset + 4, Endian.little),
+        ),
+      );
+      planeOffset += length;
+    }
+
+    return CameraImageData(
+      format: CameraImageFormat(
+        _imageFormatGroupFromPlatformData(format),
+        raw: format,
+      ),
+      planes: planes,
+      height: height,
+      width: width,
+    );
+  }
+
   /// Converts between Android ImageFormat constants and [ImageFormatGroup]s.
   ///
   /// See https://developer.android.com/reference/android/graphics/ImageFormat.
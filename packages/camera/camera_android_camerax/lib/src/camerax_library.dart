@@ -51,6 +51,40 @@ void setUpGenerics({
   );
 }
 
+/// The name of the channel the native `InstanceManagerMessenger` reports
+/// released native instances on, in batches.
+@visibleForTesting
+const String removeStrongReferencesChannelName =
+    'plugins.flutter.io/camera_android_camerax/removeStrongReferences';
+
+/// Handles the batches of released native instances.
+///
+/// The generated native instance manager reports every released instance with
+/// its own `removeStrongReference` message. The native side collects these
+/// messages and sends the identifiers in a single message instead, which are
+/// removed from the instance manager like the generated handler does.
+void setUpInstanceManagerBatching({
+  BinaryMessenger? pigeonBinaryMessenger,
+  camerax.PigeonInstanceManager? pigeonInstanceManager,
+}) {
+  BasicMessageChannel<Object?>(
+    removeStrongReferencesChannelName,
+    const StandardMessageCodec(),
+    binaryMessenger: pigeonBinaryMessenger,
+  ).setMessageHandler((Object? message) async {
+    try {
+      final camerax.PigeonInstanceManager instanceManager =
+          pigeonInstanceManager ?? camerax.PigeonInstanceManager.instance;
+      for (final int identifier in (message! as List<Object?>).cast<int>()) {
+        instanceManager.remove(identifier);
+      }
+      return <Object?>[];
+    } catch (e) {
+      return <Object?>['error', e.toString(), null];
+    }
+  });
+}
+
 /// Handle onto the raw buffer managed by screen compositor.
 ///
 /// See https://developer.android.com/reference/android/view/Surface.html.
@@ -2908,6 +2908,120 @@ class SystemServicesManager extends PigeonInternalProxyApiBaseClass {
     }
   }
 
+  /// Returns the number of threads currently alive in each of the background
+  /// executors shared by the plugin, keyed by executor name.
+  Future<Map<String, int>> getExecutorThreadCounts() async {
+    final _PigeonInternalProxyApiBaseCodec pigeonChannelCodec =
+        _pigeonVar_codecSystemServicesManager;
+    final BinaryMessenger? pigeonVar_binaryMessenger = pigeon_binaryMessenger;
+    const String pigeonVar_channelName =
+        'dev.flutter.pigeon.camera_android_camerax.SystemServicesManager.getExecutorThreadCounts';
+    final BasicMessageChannel<Object?> pigeonVar_channel =
+        BasicMessageChannel<Object?>(
+          pigeonVar_channelName,
+          pigeonChannelCodec,
+          binaryMessenger: pigeonVar_binaryMessenger,
+        );
+    final Future<Object?> pigeonVar_sendFuture = pigeonVar_channel.send(
+      <Object?>[this],
+    );
+    final List<Object?>? pigeonVar_replyList =
+        await pigeonVar_sendFuture as List<Object?>?;
+    if (pigeonVar_replyList == null) {
+      throw _createConnectionError(pigeonVar_channelName);
+    } else if (pigeonVar_replyList.length > 1) {
+      throw PlatformException(
+        code: pigeonVar_replyList[0]! as String,
+        message: pigeonVar_replyList[1] as String?,
+        details: pigeonVar_replyList[2],
+      );
+    } else if (pigeonVar_replyList[0] == null) {
+      throw PlatformException(
+        code: 'null-error',
+        message: 'Host platform returned null value for non-null return value.',
+      );
+    } else {
+      return (pigeonVar_replyList[0] as Map<Object?, Object?>?)!
+          .cast<String, int>();
+    }
+  }
+
+  /// Returns counters describing the native instances shared with Dart and
+  /// how quickly released instances are reported back to Dart.
+  Future<Map<String, int>> getInstanceManagerStatistics() async {
+    final _PigeonInternalProxyApiBaseCodec pigeonChannelCodec =
+        _pigeonVar_codecSystemServicesManager;
+    final BinaryMessenger? pigeonVar_binaryMessenger = pigeon_binaryMessenger;
+    const String pigeonVar_channelName =
+        'dev.flutter.pigeon.camera_android_camerax.SystemServicesManager.getInstanceManagerStatistics';
+    final BasicMessageChannel<Object?> pigeonVar_channel =
+        BasicMessageChannel<Object?>(
+          pigeonVar_channelName,
+          pigeonChannelCodec,
+          binaryMessenger: pigeonVar_binaryMessenger,
+        );
+    final Future<Object?> pigeonVar_sendFuture = pigeonVar_channel.send(
+      <Object?>[this],
+    );
+    final List<Object?>? pigeonVar_replyList =
+        await pigeonVar_sendFuture as List<Object?>?;
+    if (pigeonVar_replyList == null) {
+      throw _createConnectionError(pigeonVar_channelName);
+    } else if (pigeonVar_replyList.length > 1) {
+      throw PlatformException(
+        code: pigeonVar_replyList[0]! as String,
+        message: pigeonVar_replyList[1] as String?,
+        details: pigeonVar_replyList[2],
+      );
+    } else if (pigeonVar_replyList[0] == null) {
+      throw PlatformException(
+        code: 'null-error',
+        message: 'Host platform returned null value for non-null return value.',
+      );
+    } else {
+      return (pigeonVar_replyList[0] as Map<Object?, Object?>?)!
+          .cast<String, int>();
+    }
+  }
+
+  /// Returns the frame rates measured for the camera output and the image
+  /// stream, with the number of frames delivered and dropped, keyed by name.
+  Future<Map<String, double>> getFrameRateStatistics() async {
+    final _PigeonInternalProxyApiBaseCodec pigeonChannelCodec =
+        _pigeonVar_codecSystemServicesManager;
+    final BinaryMessenger? pigeonVar_binaryMessenger = pigeon_binaryMessenger;
+    const String pigeonVar_channelName =
+        'dev.flutter.pigeon.camera_android_camerax.SystemServicesManager.getFrameRateStatistics';
+    final BasicMessageChannel<Object?> pigeonVar_channel =
+        BasicMessageChannel<Object?>(
+          pigeonVar_channelName,
+          pigeonChannelCodec,
+          binaryMessenger: pigeonVar_binaryMessenger,
+        );
+    final Future<Object?> pigeonVar_sendFuture = pigeonVar_channel.send(
+      <Object?>[this],
+    );
+    final List<Object?>? pigeonVar_replyList =
+        await pigeonVar_sendFuture as List<Object?>?;
+    if (pigeonVar_replyList == null) {
+      throw _createConnectionError(pigeonVar_channelName);
+    } else if (pigeonVar_replyList.length > 1) {
+      throw PlatformException(
+        code: pigeonVar_replyList[0]! as String,
+        message: pigeonVar_replyList[1] as String?,
+        details: pigeonVar_replyList[2],
+      );
+    } else if (pigeonVar_replyList[0] == null) {
+      throw PlatformException(
+        code: 'null-error',
+        message: 'Host platform returned null value for non-null return value.',
+      );
+    } else {
+      return (pigeonVar_replyList[0] as Map<Object?, Object?>?)!
+          .cast<String, double>();
+    }
+  }
+
   @override
   SystemServicesManager pigeon_copy() {
     return SystemServicesManager.pigeon_detached(
@@ -3302,6 +3416,7 @@ class Preview extends UseCase {
     super.pigeon_instanceManager,
     this.resolutionSelector,
     int? targetRotation,
+    int? targetFrameRate,
   }) : super.pigeon_detached() {
     final int pigeonVar_instanceIdentifier = pigeon_instanceManager
         .addDartCreatedInstance(this);
@@ -3321,6 +3436,7 @@ class Preview extends UseCase {
         pigeonVar_instanceIdentifier,
         resolutionSelector,
         targetRotation,
+        targetFrameRate,
       ],
     );
     () async {
@@ -3610,6 +3726,7 @@ class VideoCapture extends UseCase {
     super.pigeon_binaryMessenger,
     super.pigeon_instanceManager,
     required VideoOutput videoOutput,
+    int? targetFrameRate,
   }) : super.pigeon_detached() {
     final int pigeonVar_instanceIdentifier = pigeon_instanceManager
         .addDartCreatedInstance(this);
@@ -3625,7 +3742,11 @@ class VideoCapture extends UseCase {
           binaryMessenger: pigeonVar_binaryMessenger,
         );
     final Future<Object?> pigeonVar_sendFuture = pigeonVar_channel.send(
-      <Object?>[pigeonVar_instanceIdentifier, videoOutput],
+      <Object?>[
+        pigeonVar_instanceIdentifier,
+        videoOutput,
+        targetFrameRate,
+      ],
     );
     () async {
       final List<Object?>? pigeonVar_replyList =
@@ -4838,6 +4959,50 @@ class ImageCapture extends UseCase {
     }
   }
 
+  /// Captures a new still image and returns its JPEG bytes instead of saving
+  /// it to a file.
+  ///
+  /// When `jpegQuality` or `maxSize` is set, the image is decoded, scaled down
+  /// so that neither side is longer than `maxSize`, rotated upright and
+  /// encoded again at `jpegQuality`.
+  Future<Uint8List> takePictureToMemory(
+    int? jpegQuality,
+    int? maxSize,
+  ) async {
+    final _PigeonInternalProxyApiBaseCodec pigeonChannelCodec =
+        _pigeonVar_codecImageCapture;
+    final BinaryMessenger? pigeonVar_binaryMessenger = pigeon_binaryMessenger;
+    const String pigeonVar_channelName =
+        'dev.flutter.pigeon.camera_android_camerax.ImageCapture.takePictureToMemory';
+    final BasicMessageChannel<Object?> pigeonVar_channel =
+        BasicMessageChannel<Object?>(
+          pigeonVar_channelName,
+          pigeonChannelCodec,
+          binaryMessenger: pigeonVar_binaryMessenger,
+        );
+    final Future<Object?> pigeonVar_sendFuture = pigeonVar_channel.send(
+      <Object?>[this, jpegQuality, maxSize],
+    );
+    final List<Object?>? pigeonVar_replyList =
+        await pigeonVar_sendFuture as List<Object?>?;
+    if (pigeonVar_replyList == null) {
+      throw _createConnectionError(pigeonVar_channelName);
+    } else if (pigeonVar_replyList.length > 1) {
+      throw PlatformException(
+        code: pigeonVar_replyList[0]! as String,
+        message: pigeonVar_replyList[1] as String?,
+        details: pigeonVar_replyList[2],
+      );
+    } else if (pigeonVar_replyList[0] == null) {
+      throw PlatformException(
+        code: 'null-error',
+        message: 'Host platform returned null value for non-null return value.',
+      );
+    } else {
+      return (pigeonVar_replyList[0] as Uint8List?)!;
+    }
+  }
+
   /// Sets the desired rotation of the output image.
   Future<void> setTargetRotation(int rotation) async {
     final _PigeonInternalProxyApiBaseCodec pigeonChannelCodec =
@@ -6055,6 +6220,47 @@ class ImageAnalysis extends UseCase {
     }
   }
 
+  /// Sets an analyzer to receive every image packed into a single message on
+  /// a background thread, with at most [maxFramesInFlight] images waiting to
+  /// be analyzed.
+  ///
+  /// Images received while that many are waiting are dropped, as are images
+  /// received sooner than `1 / targetFrameRate` seconds after the last image
+  /// that was sent, if [targetFrameRate] is not null.
+  Future<void> setFrameAnalyzer(
+    Analyzer analyzer,
+    int maxFramesInFlight,
+    int? targetFrameRate,
+  ) async {
+    final _PigeonInternalProxyApiBaseCodec pigeonChannelCodec =
+        _pigeonVar_codecImageAnalysis;
+    final BinaryMessenger? pigeonVar_binaryMessenger = pigeon_binaryMessenger;
+    const String pigeonVar_channelName =
+        'dev.flutter.pigeon.camera_android_camerax.ImageAnalysis.setFrameAnalyzer';
+    final BasicMessageChannel<Object?> pigeonVar_channel =
+        BasicMessageChannel<Object?>(
+          pigeonVar_channelName,
+          pigeonChannelCodec,
+          binaryMessenger: pigeonVar_binaryMessenger,
+        );
+    final Future<Object?> pigeonVar_sendFuture = pigeonVar_channel.send(
+      <Object?>[this, analyzer, maxFramesInFlight, targetFrameRate],
+    );
+    final List<Object?>? pigeonVar_replyList =
+        await pigeonVar_sendFuture as List<Object?>?;
+    if (pigeonVar_replyList == null) {
+      throw _createConnectionError(pigeonVar_channelName);
+    } else if (pigeonVar_replyList.length > 1) {
+      throw PlatformException(
+        code: pigeonVar_replyList[0]! as String,
+        message: pigeonVar_replyList[1] as String?,
+        details: pigeonVar_replyList[2],
+      );
+    } else {
+      return;
+    }
+  }
+
   /// Removes a previously set analyzer.
   Future<void> clearAnalyzer() async {
     final _PigeonInternalProxyApiBaseCodec pigeonChannelCodec =
@@ -6135,6 +6341,7 @@ class Analyzer extends PigeonInternalProxyApiBaseClass {
     super.pigeon_binaryMessenger,
     super.pigeon_instanceManager,
     required this.analyze,
+    this.analyzeFrame,
   }) {
     final int pigeonVar_instanceIdentifier = pigeon_instanceManager
         .addDartCreatedInstance(this);
@@ -6178,6 +6385,7 @@ class Analyzer extends PigeonInternalProxyApiBaseClass {
     super.pigeon_binaryMessenger,
     super.pigeon_instanceManager,
     required this.analyze,
+    this.analyzeFrame,
   });
 
   late final _PigeonInternalProxyApiBaseCodec _pigeonVar_codecAnalyzer =
@@ -6204,11 +6412,34 @@ class Analyzer extends PigeonInternalProxyApiBaseClass {
   /// release the associated Native object manually.
   final void Function(Analyzer pigeon_instance, ImageProxy image) analyze;
 
+  /// Analyzes an image packed into [frame] by an analyzer set with
+  /// `ImageAnalysis.setFrameAnalyzer`.
+  ///
+  /// For the associated Native object to be automatically garbage collected,
+  /// it is required that the implementation of this `Function` doesn't have a
+  /// strong reference to the encapsulating class instance. When this `Function`
+  /// references a non-local variable, it is strongly recommended to access it
+  /// with a `WeakReference`:
+  ///
+  /// ```dart
+  /// final WeakReference weakMyVariable = WeakReference(myVariable);
+  /// final Analyzer instance = Analyzer(
+  ///  analyzeFrame: (Analyzer pigeon_instance, ...) {
+  ///    print(weakMyVariable?.target);
+  ///  },
+  /// );
+  /// ```
+  ///
+  /// Alternatively, [PigeonInstanceManager.removeWeakReference] can be used to
+  /// release the associated Native object manually.
+  final void Function(Analyzer pigeon_instance, Uint8List frame)? analyzeFrame;
+
   static void pigeon_setUpMessageHandlers({
     bool pigeon_clearHandlers = false,
     BinaryMessenger? pigeon_binaryMessenger,
     PigeonInstanceManager? pigeon_instanceManager,
     void Function(Analyzer pigeon_instance, ImageProxy image)? analyze,
+    void Function(Analyzer pigeon_instance, Uint8List frame)? analyzeFrame,
   }) {
     final _PigeonInternalProxyApiBaseCodec pigeonChannelCodec =
         _PigeonInternalProxyApiBaseCodec(
@@ -6257,6 +6488,49 @@ class Analyzer extends PigeonInternalProxyApiBaseClass {
         });
       }
     }
+
+    {
+      final BasicMessageChannel<Object?> pigeonVar_channel =
+          BasicMessageChannel<Object?>(
+            'dev.flutter.pigeon.camera_android_camerax.Analyzer.analyzeFrame',
+            pigeonChannelCodec,
+            binaryMessenger: binaryMessenger,
+          );
+      if (pigeon_clearHandlers) {
+        pigeonVar_channel.setMessageHandler(null);
+      } else {
+        pigeonVar_channel.setMessageHandler((Object? message) async {
+          assert(
+            message != null,
+            'Argument for dev.flutter.pigeon.camera_android_camerax.Analyzer.analyzeFrame was null.',
+          );
+          final List<Object?> args = (message as List<Object?>?)!;
+          final Analyzer? arg_pigeon_instance = (args[0] as Analyzer?);
+          assert(
+            arg_pigeon_instance != null,
+            'Argument for dev.flutter.pigeon.camera_android_camerax.Analyzer.analyzeFrame was null, expected non-null Analyzer.',
+          );
+          final Uint8List? arg_frame = (args[1] as Uint8List?);
+          assert(
+            arg_frame != null,
+            'Argument for dev.flutter.pigeon.camera_android_camerax.Analyzer.analyzeFrame was null, expected non-null Uint8List.',
+          );
+          try {
+            (analyzeFrame ?? arg_pigeon_instance!.analyzeFrame)?.call(
+              arg_pigeon_instance!,
+              arg_frame!,
+            );
+            return wrapResponse(empty: true);
+          } on PlatformException catch (e) {
+            return wrapResponse(error: e);
+          } catch (e) {
+            return wrapResponse(
+              error: PlatformException(code: 'error', message: e.toString()),
+            );
+          }
+        });
+      }
+    }
   }
 
   @override
@@ -6265,6 +6539,7 @@ class Analyzer extends PigeonInternalProxyApiBaseClass {
       pigeon_binaryMessenger: pigeon_binaryMessenger,
       pigeon_instanceManager: pigeon_instanceManager,
       analyze: analyze,
+      analyzeFrame: analyzeFrame,
     );
   }
 }
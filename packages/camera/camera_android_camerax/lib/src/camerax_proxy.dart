@@ -21,6 +21,7 @@ class CameraXProxy {
   /// Constructs an [CameraXProxy].
   CameraXProxy({
     this.setUpGenericsProxy = setUpGenerics,
+    this.setUpInstanceManagerBatchingProxy = setUpInstanceManagerBatching,
     this.newCameraSize = CameraSize.new,
     this.newCameraIntegerRange = CameraIntegerRange.new,
     this.newObserver = Observer.new,
@@ -79,6 +80,13 @@ class CameraXProxy {
   })
   setUpGenericsProxy;
 
+  /// Handles the batches of released native instances.
+  final void Function({
+    BinaryMessenger? pigeonBinaryMessenger,
+    PigeonInstanceManager? pigeonInstanceManager,
+  })
+  setUpInstanceManagerBatchingProxy;
+
   /// Constructs [CameraSize].
   final CameraSize Function({
     required int width,
@@ -133,6 +141,7 @@ class CameraXProxy {
   /// Constructs [Preview].
   final Preview Function({
     int? targetRotation,
+    int? targetFrameRate,
     ResolutionSelector? resolutionSelector,
     BinaryMessenger? pigeon_binaryMessenger,
     PigeonInstanceManager? pigeon_instanceManager,
@@ -142,6 +151,7 @@ class CameraXProxy {
   /// Constructs [VideoCapture].
   final VideoCapture Function({
     required VideoOutput videoOutput,
+    int? targetFrameRate,
     BinaryMessenger? pigeon_binaryMessenger,
     PigeonInstanceManager? pigeon_instanceManager,
   })
@@ -215,6 +225,7 @@ class CameraXProxy {
   /// Constructs [Analyzer].
   final Analyzer Function({
     required void Function(Analyzer, ImageProxy) analyze,
+    void Function(Analyzer, Uint8List)? analyzeFrame,
     BinaryMessenger? pigeon_binaryMessenger,
     PigeonInstanceManager? pigeon_instanceManager,
   })
@@ -378,6 +378,18 @@ abstract class SystemServicesManager {
   /// Returns a path to be used to create a temp file in the current cache
   /// directory.
   String getTempFilePath(String prefix, String suffix);
+
+  /// Returns the number of threads currently alive in each of the background
+  /// executors shared by the plugin, keyed by executor name.
+  Map<String, int> getExecutorThreadCounts();
+
+  /// Returns counters describing the native instances shared with Dart and
+  /// how quickly released instances are reported back to Dart.
+  Map<String, int> getInstanceManagerStatistics();
+
+  /// Returns the frame rates measured for the camera output and the image
+  /// stream, with the number of frames delivered and dropped, keyed by name.
+  Map<String, double> getFrameRateStatistics();
 }
 
 /// Contains data when an attempt to retrieve camera permissions fails.
@@ -413,7 +425,9 @@ abstract class DeviceOrientationManager {
   ),
 )
 abstract class Preview extends UseCase {
-  Preview(int? targetRotation);
+  /// [targetFrameRate] requests a fixed frame rate, in frames per second, for
+  /// the preview stream.
+  Preview(int? targetRotation, int? targetFrameRate);
 
   late final ResolutionSelector? resolutionSelector;
 
@@ -452,7 +466,10 @@ abstract class Preview extends UseCase {
 )
 abstract class VideoCapture extends UseCase {
   /// Create a `VideoCapture` associated with the given `VideoOutput`.
-  VideoCapture.withOutput(VideoOutput videoOutput);
+  ///
+  /// [targetFrameRate] requests a fixed frame rate, in frames per second, for
+  /// the recorded video.
+  VideoCapture.withOutput(VideoOutput videoOutput, int? targetFrameRate);
 
   /// Gets the VideoOutput associated with this VideoCapture.
   VideoOutput getOutput();
@@ -589,6 +606,15 @@ abstract class ImageCapture extends UseCase {
   @async
   String takePicture();
 
+  /// Captures a new still image and returns its JPEG bytes instead of saving
+  /// it to a file.
+  ///
+  /// When `jpegQuality` or `maxSize` is set, the image is decoded, scaled down
+  /// so that neither side is longer than `maxSize`, rotated upright and
+  /// encoded again at `jpegQuality`.
+  @async
+  Uint8List takePictureToMemory(int? jpegQuality, int? maxSize);
+
   /// Sets the desired rotation of the output image.
   void setTargetRotation(int rotation);
 }
@@ -796,6 +822,19 @@ abstract class ImageAnalysis extends UseCase {
   /// Sets an analyzer to receive and analyze images.
   void setAnalyzer(Analyzer analyzer);
 
+  /// Sets an analyzer to receive every image packed into a single message on
+  /// a background thread, with at most [maxFramesInFlight] images waiting to
+  /// be analyzed.
+  ///
+  /// Images received while that many are waiting are dropped, as are images
+  /// received sooner than `1 / targetFrameRate` seconds after the last image
+  /// that was sent, if [targetFrameRate] is not null.
+  void setFrameAnalyzer(
+    Analyzer analyzer,
+    int maxFramesInFlight,
+    int? targetFrameRate,
+  );
+
   /// Removes a previously set analyzer.
   void clearAnalyzer();
 
@@ -816,6 +855,10 @@ abstract class Analyzer {
 
   /// Analyzes an image to produce a result.
   late void Function(ImageProxy image) analyze;
+
+  /// Analyzes an image packed into [frame] by an analyzer set with
+  /// `ImageAnalysis.setFrameAnalyzer`.
+  late void Function(Uint8List frame)? analyzeFrame;
 }
 
 /// Code for a `CameraState` error.
@@ -11,7 +11,13 @@ import 'package:camera_android_camerax/src/camerax_library.dart';
 import 'package:camera_android_camerax/src/camerax_proxy.dart';
 import 'package:camera_platform_interface/camera_platform_interface.dart';
 import 'package:flutter/services.dart'
-    show BinaryMessenger, DeviceOrientation, PlatformException, Uint8List;
+    show
+        BinaryMessenger,
+        ByteData,
+        DeviceOrientation,
+        Endian,
+        PlatformException,
+        Uint8List;
 import 'package:flutter_test/flutter_test.dart';
 import 'package:mockito/annotations.dart';
 import 'package:mockito/mockito.dart';
@@ -145,6 +151,7 @@ void main() {
     fromQualitySelector,
     Preview Function({
       int? targetRotation,
+      int? targetFrameRate,
       ResolutionSelector? resolutionSelector,
       // ignore: non_constant_identifier_names
       BinaryMessenger? pigeon_binaryMessenger,
@@ -189,6 +196,7 @@ void main() {
           newPreview ??
           ({
             int? targetRotation,
+            int? targetFrameRate,
             ResolutionSelector? resolutionSelector,
             // ignore: non_constant_identifier_names
             BinaryMessenger? pigeon_binaryMessenger,
@@ -234,6 +242,7 @@ void main() {
       },
       withOutputVideoCapture: ({
         required VideoOutput videoOutput,
+        int? targetFrameRate,
         // ignore: non_constant_identifier_names
         BinaryMessenger? pigeon_binaryMessenger,
         // ignore: non_constant_identifier_names
@@ -805,6 +814,7 @@ void main() {
         },
         newPreview: ({
           int? targetRotation,
+          int? targetFrameRate,
           ResolutionSelector? resolutionSelector,
           // ignore: non_constant_identifier_names
           BinaryMessenger? pigeon_binaryMessenger,
@@ -837,6 +847,7 @@ void main() {
         },
         withOutputVideoCapture: ({
           required VideoOutput videoOutput,
+          int? targetFrameRate,
           // ignore: non_constant_identifier_names
           BinaryMessenger? pigeon_binaryMessenger,
           // ignore: non_constant_identifier_names
@@ -1119,6 +1130,7 @@ void main() {
         },
         newPreview: ({
           int? targetRotation,
+          int? targetFrameRate,
           ResolutionSelector? resolutionSelector,
           // ignore: non_constant_identifier_names
           BinaryMessenger? pigeon_binaryMessenger,
@@ -1151,6 +1163,7 @@ void main() {
         },
         withOutputVideoCapture: ({
           required VideoOutput videoOutput,
+          int? targetFrameRate,
           // ignore: non_constant_identifier_names
           BinaryMessenger? pigeon_binaryMessenger,
           // ignore: non_constant_identifier_names
@@ -1483,6 +1496,78 @@ void main() {
     },
   );
 
+  test(
+    'createCamera applies the frame rates and image stream resolution set by setUseCaseBudget',
+    () async {
+      final AndroidCameraCameraX camera = AndroidCameraCameraX();
+      const CameraDescription testCameraDescription = CameraDescription(
+        name: 'cameraName',
+        lensDirection: CameraLensDirection.back,
+        sensorOrientation: 90,
+      );
+      final MockCamera mockCamera = MockCamera();
+      final MockProcessCameraProvider mockProcessCameraProvider =
+          MockProcessCameraProvider();
+      final MockCameraInfo mockCameraInfo = MockCameraInfo();
+
+      when(
+        mockProcessCameraProvider.bindToLifecycle(any, any),
+      ).thenAnswer((_) async => mockCamera);
+      when(mockCamera.getCameraInfo()).thenAnswer((_) async => mockCameraInfo);
+      when(
+        mockCameraInfo.getCameraState(),
+      ).thenAnswer((_) async => MockLiveCameraState());
+      camera.processCameraProvider = mockProcessCameraProvider;
+
+      int? previewFrameRate;
+      camera.proxy = getProxyForTestingResolutionPreset(
+        mockProcessCameraProvider,
+        newPreview: ({
+          int? targetRotation,
+          int? targetFrameRate,
+          ResolutionSelector? resolutionSelector,
+          // ignore: non_constant_identifier_names
+          BinaryMessenger? pigeon_binaryMessenger,
+          // ignore: non_constant_identifier_names
+          PigeonInstanceManager? pigeon_instanceManager,
+        }) {
+          previewFrameRate = targetFrameRate;
+          final MockPreview mockPreview = MockPreview();
+          when(
+            mockPreview.surfaceProducerHandlesCropAndRotation(),
+          ).thenAnswer((_) async => false);
+          when(mockPreview.resolutionSelector).thenReturn(resolutionSelector);
+          return mockPreview;
+        },
+      );
+
+      camera.setUseCaseBudget(
+        previewFrameRate: 30,
+        videoFrameRate: 30,
+        imageStreamFrameRate: 10,
+        imageStreamResolution: ResolutionPreset.low,
+      );
+      await camera.createCamera(
+        testCameraDescription,
+        ResolutionPreset.veryHigh,
+      );
+
+      expect(previewFrameRate, 30);
+      expect(camera.videoTargetFrameRate, 30);
+      expect(camera.imageStreamTargetFrameRate, 10);
+      final CameraSize? previewSize =
+          await camera.preview!.resolutionSelector!.resolutionStrategy!
+              .getBoundSize();
+      expect(previewSize?.width, 1920);
+      expect(previewSize?.height, 1080);
+      final CameraSize? imageAnalysisSize =
+          await camera.imageAnalysis!.resolutionSelector!.resolutionStrategy!
+              .getBoundSize();
+      expect(imageAnalysisSize?.width, 320);
+      expect(imageAnalysisSize?.height, 240);
+    },
+  );
+
   test(
     'createCamera properly sets filter for resolution preset for non-video capture use cases',
     () async {
@@ -1895,6 +1980,7 @@ void main() {
         mockProcessCameraProvider,
         newPreview: ({
           int? targetRotation,
+          int? targetFrameRate,
           ResolutionSelector? resolutionSelector,
           // ignore: non_constant_identifier_names
           BinaryMessenger? pigeon_binaryMessenger,
@@ -2002,6 +2088,7 @@ void main() {
       newPreview:
           ({
             int? targetRotation,
+            int? targetFrameRate,
             ResolutionSelector? resolutionSelector,
             // ignore: non_constant_identifier_names
             BinaryMessenger? pigeon_binaryMessenger,
@@ -2031,6 +2118,7 @@ void main() {
       withOutputVideoCapture:
           ({
             required VideoOutput videoOutput,
+            int? targetFrameRate,
             // ignore: non_constant_identifier_names
             BinaryMessenger? pigeon_binaryMessenger,
             // ignore: non_constant_identifier_names
@@ -2971,6 +3059,7 @@ void main() {
           },
           newAnalyzer: ({
             required void Function(Analyzer, ImageProxy) analyze,
+            void Function(Analyzer, Uint8List)? analyzeFrame,
             // ignore: non_constant_identifier_names
             BinaryMessenger? pigeon_binaryMessenger,
             // ignore: non_constant_identifier_names
@@ -3487,6 +3576,38 @@ void main() {
     },
   );
 
+  test(
+    'takePicture returns picture in memory when setInMemoryCapture is enabled',
+    () async {
+      final AndroidCameraCameraX camera = AndroidCameraCameraX();
+      final MockProcessCameraProvider mockProcessCameraProvider =
+          MockProcessCameraProvider();
+      final Uint8List testPictureBytes = Uint8List.fromList(<int>[1, 2, 3]);
+
+      // Set directly for test versus calling createCamera.
+      camera.imageCapture = MockImageCapture();
+      camera.processCameraProvider = mockProcessCameraProvider;
+      camera.cameraSelector = MockCameraSelector();
+
+      // Ignore setting target rotation for this test; tested seprately.
+      camera.captureOrientationLocked = true;
+
+      when(
+        mockProcessCameraProvider.isBound(camera.imageCapture),
+      ).thenAnswer((_) async => true);
+      when(
+        camera.imageCapture!.takePictureToMemory(80, 1024),
+      ).thenAnswer((_) async => testPictureBytes);
+
+      camera.setInMemoryCapture(true, jpegQuality: 80, maxSize: 1024);
+      final XFile imageFile = await camera.takePicture(3);
+
+      expect(await imageFile.readAsBytes(), testPictureBytes);
+      expect(imageFile.mimeType, 'image/jpeg');
+      verifyNever(camera.imageCapture!.takePicture());
+    },
+  );
+
   test(
     'takePicture sets ImageCapture target rotation as expected when orientation locked or unlocked',
     () async {
@@ -3855,6 +3976,7 @@ void main() {
       camera.proxy = CameraXProxy(
         newAnalyzer: ({
           required void Function(Analyzer, ImageProxy) analyze,
+          void Function(Analyzer, Uint8List)? analyzeFrame,
           // ignore: non_constant_identifier_names
           BinaryMessenger? pigeon_binaryMessenger,
           // ignore: non_constant_identifier_names
@@ -3915,6 +4037,7 @@ void main() {
       camera.proxy = CameraXProxy(
         newAnalyzer: ({
           required void Function(Analyzer, ImageProxy) analyze,
+          void Function(Analyzer, Uint8List)? analyzeFrame,
           // ignore: non_constant_identifier_names
           BinaryMessenger? pigeon_binaryMessenger,
           // ignore: non_constant_identifier_names
@@ -3989,6 +4112,7 @@ void main() {
       camera.proxy = CameraXProxy(
         newAnalyzer: ({
           required void Function(Analyzer, ImageProxy) analyze,
+          void Function(Analyzer, Uint8List)? analyzeFrame,
           // ignore: non_constant_identifier_names
           BinaryMessenger? pigeon_binaryMessenger,
           // ignore: non_constant_identifier_names
@@ -4079,6 +4203,125 @@ void main() {
     },
   );
 
+  test(
+    'onStreamedFrameAvailable unpacks images sent by a frame analyzer when frames are packed',
+    () async {
+      final AndroidCameraCameraX camera = AndroidCameraCameraX();
+      const int cameraId = 34;
+      final ProcessCameraProvider mockProcessCameraProvider =
+          MockProcessCameraProvider();
+      final CameraSelector mockCameraSelector = MockCameraSelector();
+      final MockImageAnalysis mockImageAnalysis = MockImageAnalysis();
+      final Camera mockCamera = MockCamera();
+      final CameraInfo mockCameraInfo = MockCameraInfo();
+      const int maxFramesInFlight = 3;
+
+      // Tell plugin to create detached Analyzer for testing.
+      camera.proxy = CameraXProxy(
+        newAnalyzer: ({
+          required void Function(Analyzer, ImageProxy) analyze,
+          void Function(Analyzer, Uint8List)? analyzeFrame,
+          // ignore: non_constant_identifier_names
+          BinaryMessenger? pigeon_binaryMessenger,
+          // ignore: non_constant_identifier_names
+          PigeonInstanceManager? pigeon_instanceManager,
+        }) {
+          return Analyzer.pigeon_detached(
+            analyze: analyze,
+            analyzeFrame: analyzeFrame,
+            pigeon_instanceManager: PigeonInstanceManager(
+              onWeakReferenceRemoved: (_) {},
+            ),
+          );
+        },
+        newObserver: <T>({
+          required void Function(Observer<T>, T) onChanged,
+          // ignore: non_constant_identifier_names
+          BinaryMessenger? pigeon_binaryMessenger,
+          // ignore: non_constant_identifier_names
+          PigeonInstanceManager? pigeon_instanceManager,
+        }) {
+          return Observer<T>.detached(
+            onChanged: onChanged,
+            pigeon_instanceManager: PigeonInstanceManager(
+              onWeakReferenceRemoved: (_) {},
+            ),
+          );
+        },
+      );
+
+      // Set directly for test versus calling createCamera.
+      camera.processCameraProvider = mockProcessCameraProvider;
+      camera.cameraSelector = mockCameraSelector;
+      camera.imageAnalysis = mockImageAnalysis;
+      camera.setImageStreamingOptions(maxFramesInFlight: maxFramesInFlight);
+
+      // Ignore setting target rotation for this test; tested seprately.
+      camera.captureOrientationLocked = true;
+
+      when(
+        mockProcessCameraProvider.isBound(mockImageAnalysis),
+      ).thenAnswer((_) async => false);
+      when(
+        mockProcessCameraProvider.bindToLifecycle(mockCameraSelector, <UseCase>[
+          mockImageAnalysis,
+        ]),
+      ).thenAnswer((_) async => mockCamera);
+      when(mockCamera.getCameraInfo()).thenAnswer((_) async => mockCameraInfo);
+      when(
+        mockCameraInfo.getCameraState(),
+      ).thenAnswer((_) async => MockLiveCameraState());
+
+      final Completer<CameraImageData> imageDataCompleter =
+          Completer<CameraImageData>();
+      final StreamSubscription<CameraImageData>
+      onStreamedFrameAvailableSubscription = camera
+          .onStreamedFrameAvailable(cameraId)
+          .listen((CameraImageData imageData) {
+            imageDataCompleter.complete(imageData);
+          });
+
+      await untilCalled(mockImageAnalysis.setFrameAnalyzer(any, any, any));
+      final List<Object?> captured =
+          verify(
+            mockImageAnalysis.setFrameAnalyzer(
+              captureAny,
+              captureAny,
+              captureAny,
+            ),
+          ).captured;
+      expect(captured[1], maxFramesInFlight);
+      expect(captured[2], isNull);
+      verifyNever(mockImageAnalysis.setAnalyzer(any));
+
+      // Two planes: a 3 byte plane and a 2 byte plane.
+      final ByteData frame = ByteData(16 + 2 * 12 + 5);
+      final List<int> header = <int>[35, 200, 100, 2, 58, 1, 3, 29, 2, 2];
+      for (int i = 0; i < header.length; i++) {
+        frame.setInt32(i * 4, header[i], Endian.little);
+      }
+      frame.buffer.asUint8List(40).setAll(0, <int>[1, 2, 3, 4, 5]);
+      (captured[0]! as Analyzer).analyzeFrame!(
+        MockAnalyzer(),
+        frame.buffer.asUint8List(),
+      );
+
+      final CameraImageData imageData = await imageDataCompleter.future;
+      expect(imageData.format.raw, equals(35));
+      expect(imageData.width, equals(200));
+      expect(imageData.height, equals(100));
+      expect(imageData.planes.length, equals(2));
+      expect(imageData.planes[0].bytes, equals(<int>[1, 2, 3]));
+      expect(imageData.planes[0].bytesPerRow, equals(58));
+      expect(imageData.planes[0].bytesPerPixel, equals(1));
+      expect(imageData.planes[1].bytes, equals(<int>[4, 5]));
+      expect(imageData.planes[1].bytesPerRow, equals(29));
+      expect(imageData.planes[1].bytesPerPixel, equals(2));
+
+      await onStreamedFrameAvailableSubscription.cancel();
+    },
+  );
+
   test(
     'onStreamedFrameAvailable returns stream that responds expectedly to being canceled',
     () async {
@@ -4100,6 +4343,7 @@ void main() {
         newAnalyzer:
             ({
               required void Function(Analyzer, ImageProxy) analyze,
+              void Function(Analyzer, Uint8List)? analyzeFrame,
               // ignore: non_constant_identifier_names
               BinaryMessenger? pigeon_binaryMessenger,
               // ignore: non_constant_identifier_names
@@ -4141,6 +4385,7 @@ void main() {
         newAnalyzer:
             ({
               required void Function(Analyzer, ImageProxy) analyze,
+              void Function(Analyzer, Uint8List)? analyzeFrame,
               // ignore: non_constant_identifier_names
               BinaryMessenger? pigeon_binaryMessenger,
               // ignore: non_constant_identifier_names
@@ -6018,6 +6263,7 @@ void main() {
         newAnalyzer:
             ({
               required void Function(Analyzer, ImageProxy) analyze,
+              void Function(Analyzer, Uint8List)? analyzeFrame,
               // ignore: non_constant_identifier_names
               BinaryMessenger? pigeon_binaryMessenger,
               // ignore: non_constant_identifier_names
@@ -6513,6 +6759,7 @@ void main() {
       camera.proxy = CameraXProxy(
         newAnalyzer: ({
           required void Function(Analyzer, ImageProxy) analyze,
+          void Function(Analyzer, Uint8List)? analyzeFrame,
           // ignore: non_constant_identifier_names
           BinaryMessenger? pigeon_binaryMessenger,
           // ignore: non_constant_identifier_names
@@ -6673,6 +6920,7 @@ void main() {
       camera.proxy = CameraXProxy(
         newAnalyzer: ({
           required void Function(Analyzer, ImageProxy) analyze,
+          void Function(Analyzer, Uint8List)? analyzeFrame,
           // ignore: non_constant_identifier_names
           BinaryMessenger? pigeon_binaryMessenger,
           // ignore: non_constant_identifier_names
@@ -6825,6 +7073,7 @@ void main() {
       camera.proxy = CameraXProxy(
         newAnalyzer: ({
           required void Function(Analyzer, ImageProxy) analyze,
+          void Function(Analyzer, Uint8List)? analyzeFrame,
           // ignore: non_constant_identifier_names
           BinaryMessenger? pigeon_binaryMessenger,
           // ignore: non_constant_identifier_names
@@ -6971,6 +7220,107 @@ void main() {
       verifyNoMoreInteractions(camera.camera);
     },
   );
+
+  test(
+    'getExecutorThreadCounts returns the thread counts of the native executors',
+    () async {
+      final AndroidCameraCameraX camera = AndroidCameraCameraX();
+      final MockSystemServicesManager mockSystemServicesManager =
+          MockSystemServicesManager();
+      const Map<String, int> threadCounts = <String, int>{
+        'capture': 2,
+        'surface': 1,
+        'analysis': 0,
+      };
+
+      camera.proxy = CameraXProxy(
+        newSystemServicesManager: ({
+          required void Function(SystemServicesManager, String) onCameraError,
+          // ignore: non_constant_identifier_names
+          BinaryMessenger? pigeon_binaryMessenger,
+          // ignore: non_constant_identifier_names
+          PigeonInstanceManager? pigeon_instanceManager,
+        }) {
+          return mockSystemServicesManager;
+        },
+      );
+      when(
+        mockSystemServicesManager.getExecutorThreadCounts(),
+      ).thenAnswer((_) async => threadCounts);
+
+      expect(await camera.getExecutorThreadCounts(), threadCounts);
+    },
+  );
+
+  test(
+    'getInstanceManagerStatistics returns the statistics of the native instance manager',
+    () async {
+      final AndroidCameraCameraX camera = AndroidCameraCameraX();
+      final MockSystemServicesManager mockSystemServicesManager =
+          MockSystemServicesManager();
+      const Map<String, int> statistics = <String, int>{
+        'releasedCount': 120,
+        'releaseBatchCount': 40,
+        'ephemeralReleasedCount': 100,
+        'averageReleaseLatencyMicros': 250,
+        'maxReleaseLatencyMicros': 900,
+      };
+
+      camera.proxy = CameraXProxy(
+        newSystemServicesManager: ({
+          required void Function(SystemServicesManager, String) onCameraError,
+          // ignore: non_constant_identifier_names
+          BinaryMessenger? pigeon_binaryMessenger,
+          // ignore: non_constant_identifier_names
+          PigeonInstanceManager? pigeon_instanceManager,
+        }) {
+          return mockSystemServicesManager;
+        },
+      );
+      when(
+        mockSystemServicesManager.getInstanceManagerStatistics(),
+      ).thenAnswer((_) async => statistics);
+
+      expect(await camera.getInstanceManagerStatistics(), statistics);
+    },
+  );
+
+  test(
+    'getFrameRateStatistics returns the frame rates measured natively',
+    () async {
+      final AndroidCameraCameraX camera = AndroidCameraCameraX();
+      final MockSystemServicesManager mockSystemServicesManager =
+          MockSystemServicesManager();
+      const Map<String, double> statistics = <String, double>{
+        'preview.frameRate': 29.97,
+        'preview.frames': 900,
+        'preview.dropped': 0,
+        'video.frameRate': 29.97,
+        'video.frames': 900,
+        'video.dropped': 0,
+        'imageStream.frameRate': 10,
+        'imageStream.frames': 300,
+        'imageStream.dropped': 2,
+      };
+
+      camera.proxy = CameraXProxy(
+        newSystemServicesManager: ({
+          required void Function(SystemServicesManager, String) onCameraError,
+          // ignore: non_constant_identifier_names
+          BinaryMessenger? pigeon_binaryMessenger,
+          // ignore: non_constant_identifier_names
+          PigeonInstanceManager? pigeon_instanceManager,
+        }) {
+          return mockSystemServicesManager;
+        },
+      );
+      when(
+        mockSystemServicesManager.getFrameRateStatistics(),
+      ).thenAnswer((_) async => statistics);
+
+      expect(await camera.getFrameRateStatistics(), statistics);
+    },
+  );
 }
 
 class TestMeteringPoint extends MeteringPoint {
@@ -290,6 +290,11 @@ class MockAnalyzer extends _i1.Mock implements _i2.Analyzer {
           )
           as void Function(_i2.Analyzer, _i2.ImageProxy));
 
+  @override
+  void Function(_i2.Analyzer, _i9.Uint8List)? get analyzeFrame =>
+      (super.noSuchMethod(Invocation.getter(#analyzeFrame))
+          as void Function(_i2.Analyzer, _i9.Uint8List)?);
+
   @override
   _i2.PigeonInstanceManager get pigeon_instanceManager =>
       (super.noSuchMethod(
@@ -948,6 +953,30 @@ class MockCameraXProxy extends _i1.Mock implements _i7.CameraXProxy {
             _i2.PigeonInstanceManager? pigeonInstanceManager,
           }));
 
+  @override
+  void Function({
+    _i8.BinaryMessenger? pigeonBinaryMessenger,
+    _i2.PigeonInstanceManager? pigeonInstanceManager,
+  })
+  get setUpInstanceManagerBatchingProxy =>
+      (super.noSuchMethod(
+            Invocation.getter(#setUpInstanceManagerBatchingProxy),
+            returnValue:
+                ({
+                  _i8.BinaryMessenger? pigeonBinaryMessenger,
+                  _i2.PigeonInstanceManager? pigeonInstanceManager,
+                }) {},
+            returnValueForMissingStub:
+                ({
+                  _i8.BinaryMessenger? pigeonBinaryMessenger,
+                  _i2.PigeonInstanceManager? pigeonInstanceManager,
+                }) {},
+          )
+          as void Function({
+            _i8.BinaryMessenger? pigeonBinaryMessenger,
+            _i2.PigeonInstanceManager? pigeonInstanceManager,
+          }));
+
   @override
   _i2.CameraSize Function({
     required int height,
@@ -2774,6 +2803,23 @@ class MockImageAnalysis extends _i1.Mock implements _i2.ImageAnalysis {
           )
           as _i5.Future<void>);
 
+  @override
+  _i5.Future<void> setFrameAnalyzer(
+    _i2.Analyzer? analyzer,
+    int? maxFramesInFlight,
+    int? targetFrameRate,
+  ) =>
+      (super.noSuchMethod(
+            Invocation.method(#setFrameAnalyzer, [
+              analyzer,
+              maxFramesInFlight,
+              targetFrameRate,
+            ]),
+            returnValue: _i5.Future<void>.value(),
+            returnValueForMissingStub: _i5.Future<void>.value(),
+          )
+          as _i5.Future<void>);
+
   @override
   _i5.Future<void> clearAnalyzer() =>
       (super.noSuchMethod(
@@ -2849,6 +2895,20 @@ class MockImageCapture extends _i1.Mock implements _i2.ImageCapture {
           )
           as _i5.Future<String>);
 
+  @override
+  _i5.Future<_i9.Uint8List> takePictureToMemory(
+    int? jpegQuality,
+    int? maxSize,
+  ) =>
+      (super.noSuchMethod(
+            Invocation.method(#takePictureToMemory, [jpegQuality, maxSize]),
+            returnValue: _i5.Future<_i9.Uint8List>.value(_i9.Uint8List(0)),
+            returnValueForMissingStub: _i5.Future<_i9.Uint8List>.value(
+              _i9.Uint8List(0),
+            ),
+          )
+          as _i5.Future<_i9.Uint8List>);
+
   @override
   _i5.Future<void> setTargetRotation(int? rotation) =>
       (super.noSuchMethod(
@@ -3727,6 +3787,41 @@ class MockSystemServicesManager extends _i1.Mock
           )
           as _i5.Future<String>);
 
+  @override
+  _i5.Future<Map<String, int>> getExecutorThreadCounts() =>
+      (super.noSuchMethod(
+            Invocation.method(#getExecutorThreadCounts, []),
+            returnValue: _i5.Future<Map<String, int>>.value(<String, int>{}),
+            returnValueForMissingStub: _i5.Future<Map<String, int>>.value(
+              <String, int>{},
+            ),
+          )
+          as _i5.Future<Map<String, int>>);
+
+  @override
+  _i5.Future<Map<String, int>> getInstanceManagerStatistics() =>
+      (super.noSuchMethod(
+            Invocation.method(#getInstanceManagerStatistics, []),
+            returnValue: _i5.Future<Map<String, int>>.value(<String, int>{}),
+            returnValueForMissingStub: _i5.Future<Map<String, int>>.value(
+              <String, int>{},
+            ),
+          )
+          as _i5.Future<Map<String, int>>);
+
+  @override
+  _i5.Future<Map<String, double>> getFrameRateStatistics() =>
+      (super.noSuchMethod(
+            Invocation.method(#getFrameRateStatistics, []),
+            returnValue: _i5.Future<Map<String, double>>.value(
+              <String, double>{},
+            ),
+            returnValueForMissingStub: _i5.Future<Map<String, double>>.value(
+              <String, double>{},
+            ),
+          )
+          as _i5.Future<Map<String, double>>);
+
   @override
   _i2.SystemServicesManager pigeon_copy() =>
       (super.noSuchMethod(
@@ -0,0 +1,76 @@
+// Copyright 2013 The Flutter Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+import 'package:camera_android_camerax/src/camerax_library.dart';
+import 'package:flutter/services.dart';
+import 'package:flutter_test/flutter_test.dart';
+
+void main() {
+  TestWidgetsFlutterBinding.ensureInitialized();
+
+  group('setUpInstanceManagerBatching', () {
+    tearDown(() {
+      TestDefaultBinaryMessengerBinding.instance.defaultBinaryMessenger
+          .setMockMessageHandler(removeStrongReferencesChannelName, null);
+    });
+
+    Future<Object?> sendIdentifiers(List<int> identifiers) async {
+      const StandardMessageCodec codec = StandardMessageCodec();
+      final ByteData? reply = await TestDefaultBinaryMessengerBinding
+          .instance
+          .defaultBinaryMessenger
+          .handlePlatformMessage(
+            removeStrongReferencesChannelName,
+            codec.encodeMessage(identifiers),
+            (_) {},
+          );
+      return codec.decodeMessage(reply);
+    }
+
+    test('removes every instance of a batch', () async {
+      final PigeonInstanceManager instanceManager = PigeonInstanceManager(
+        onWeakReferenceRemoved: (_) {},
+      );
+      for (int identifier = 1; identifier <= 3; identifier++) {
+        instanceManager.addHostCreatedInstance(
+          CameraSize.pigeon_detached(
+            width: identifier,
+            height: identifier,
+            pigeon_instanceManager: instanceManager,
+          ),
+          identifier,
+        );
+      }
+      setUpInstanceManagerBatching(pigeonInstanceManager: instanceManager);
+
+      final Object? reply = await sendIdentifiers(<int>[1, 3]);
+
+      expect(reply, <Object?>[]);
+      expect(instanceManager.containsIdentifier(1), isFalse);
+      expect(instanceManager.containsIdentifier(2), isTrue);
+      expect(instanceManager.containsIdentifier(3), isFalse);
+    });
+
+    test('replies with an error when an instance cannot be removed', () async {
+      final PigeonInstanceManager instanceManager = PigeonInstanceManager(
+        onWeakReferenceRemoved: (_) {},
+      );
+      final CameraSize instance = CameraSize.pigeon_detached(
+        width: 1,
+        height: 1,
+        pigeon_instanceManager: instanceManager,
+      );
+      instanceManager.addHostCreatedInstance(instance, 1);
+      // Dart still holds the instance, so it cannot be removed.
+      final CameraSize? heldInstance = instanceManager
+          .getInstanceWithWeakReference<CameraSize>(1);
+      setUpInstanceManagerBatching(pigeonInstanceManager: instanceManager);
+
+      final Object? reply = await sendIdentifiers(<int>[1]);
+
+      expect((reply! as List<Object?>).first, 'error');
+      expect(heldInstance, isNotNull);
+    });
+  });
+}
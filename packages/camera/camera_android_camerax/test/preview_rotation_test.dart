@@ -108,6 +108,7 @@ void main() {
     newCameraSelector: createCameraSelector,
     newPreview: ({
       int? targetRotation,
+      int? targetFrameRate,
       ResolutionSelector? resolutionSelector,
       // ignore: non_constant_identifier_names
       BinaryMessenger? pigeon_binaryMessenger,
@@ -142,6 +143,7 @@ void main() {
         }) => MockRecorder(),
     withOutputVideoCapture: ({
       required VideoOutput videoOutput,
+      int? targetFrameRate,
       // ignore: non_constant_identifier_names
       BinaryMessenger? pigeon_binaryMessenger,
       // ignore: non_constant_identifier_names
@@ -0,0 +1,214 @@
+// Copyright 2013 The Flutter Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package io.flutter.plugins.googlemaps;
+
+import android.content.ComponentCallbacks2;
+import android.content.res.Configuration;
+import android.graphics.Bitmap;
+import android.util.LruCache;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.UiThread;
+import com.google.android.gms.maps.model.BitmapDescriptor;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Cache of the bitmap descriptors decoded from images sent by Dart, so that markers and ground
+ * overlays sharing an image only decode and scale it once.
+ *
+ * <p>Descriptors are keyed by the content of the image, or the name of the asset it is loaded from,
+ * and every parameter its size depends on. The least recently used descriptors are evicted first
+ * once the decoded bitmaps, and the image content they are keyed by, exceed the size of the cache.
+ * Descriptors can be looked up from any thread.
+ *
+ * <p>The cache is cleared once the last map is disposed, and when the system is running low on
+ * memory if it is registered with {@link android.content.Context#registerComponentCallbacks}.
+ */
+class BitmapDescriptorCache implements ComponentCallbacks2 {
+  static final int DEFAULT_MAX_BYTES = 16 * 1024 * 1024;
+
+  /** Decodes the bitmap of a descriptor that is not cached. */
+  interface BitmapDecoder {
+    @NonNull
+    Bitmap decode();
+  }
+
+  /** Identifies an image by its content and the parameters its size depends on. */
+  static final class Key {
+    @Nullable private final byte[] content;
+    @NonNull private final String parameters;
+    private final int hashCode;
+
+    private Key(@Nullable byte[] content, @NonNull String parameters) {
+      this.content = content;
+      this.parameters = parameters;
+      this.hashCode = 31 * parameters.hashCode() + Arrays.hashCode(content);
+    }
+
+    @NonNull
+    static Key fromBytes(@NonNull Messages.PlatformBitmapBytesMap bytesMap, float density) {
+      return new Key(
+          bytesMap.getByteData(),
+          getParameters(
+              bytesMap.getBitmapScaling(),
+              bytesMap.getImagePixelRatio(),
+              bytesMap.getWidth(),
+              bytesMap.getHeight(),
+              density));
+    }
+
+    @NonNull
+    static Key fromAsset(
+        @NonNull Messages.PlatformBitmapAssetMap assetMap, @NonNull String assetKey, float density) {
+      return new Key(
+          null,
+          assetKey
+              + "|"
+              + getParameters(
+                  assetMap.getBitmapScaling(),
+                  assetMap.getImagePixelRatio(),
+                  assetMap.getWidth(),
+                  assetMap.getHeight(),
+                  density));
+    }
+
+    /** Returns the size of the image content held by this key. */
+    int getByteCount() {
+      return content == null ? 0 : content.length;
+    }
+
+    @NonNull
+    private static String getParameters(
+        @NonNull Messages.PlatformMapBitmapScaling scaling,
+        @NonNull Double imagePixelRatio,
+        @Nullable Double width,
+        @Nullable Double height,
+        float density) {
+      return scaling + "|" + imagePixelRatio + "|" + width + "|" + height + "|" + density;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (!(o instanceof Key)) {
+        return false;
+      }
+      final Key other = (Key) o;
+      return hashCode == other.hashCode
+          && parameters.equals(other.parameters)
+          && Arrays.equals(content, other.content);
+    }
+
+    @Override
+    public int hashCode() {
+      return hashCode;
+    }
+  }
+
+  private static final class Entry {
+    @NonNull final BitmapDescriptor descriptor;
+    final int byteCount;
+
+    Entry(@NonNull BitmapDescriptor descriptor, int byteCount) {
+      this.descriptor = descriptor;
+      this.byteCount = byteCount;
+    }
+  }
+
+  @NonNull private final LruCache<Key, Entry> cache;
+  private final AtomicLong decodedBitmaps = new AtomicLong();
+  private final AtomicLong decodedBytes = new AtomicLong();
+  private int mapCount;
+
+  BitmapDescriptorCache(int maxBytes) {
+    cache =
+        new LruCache<Key, Entry>(maxBytes) {
+          @Override
+          protected int sizeOf(@NonNull Key key, @NonNull Entry entry) {
+            return entry.byteCount + key.getByteCount();
+          }
+        };
+  }
+
+  /**
+   * Returns the descriptor cached for {@code key}, or creates one with {@code factory} from the
+   * bitmap decoded by {@code decoder} and caches it.
+   */
+  @NonNull
+  BitmapDescriptor get(
+      @NonNull Key key,
+      @NonNull BitmapDecoder decoder,
+      @NonNull Convert.BitmapDescriptorFactoryWrapper factory) {
+    final Entry cachedEntry = cache.get(key);
+    if (cachedEntry != null) {
+      return cachedEntry.descriptor;
+    }
+    // Concurrent misses for the same key decode the image more than once, which is cheaper than
+    // making every lookup wait for unrelated images to be decoded.
+    final Bitmap bitmap = decoder.decode();
+    final int byteCount = bitmap.getAllocationByteCount();
+    decodedBitmaps.incrementAndGet();
+    decodedBytes.addAndGet(byteCount);
+    final Entry entry = new Entry(factory.fromBitmap(bitmap), byteCount);
+    cache.put(key, entry);
+    return entry.descriptor;
+  }
+
+  void clear() {
+    cache.evictAll();
+  }
+
+  /** Called when a map using this cache is created. */
+  @UiThread
+  void onMapCreated() {
+    mapCount++;
+  }
+
+  /** Called when a map using this cache is disposed, clearing it if no other map uses it. */
+  @UiThread
+  void onMapDisposed() {
+    mapCount = Math.max(0, mapCount - 1);
+    if (mapCount == 0) {
+      clear();
+    }
+  }
+
+  @Override
+  public void onTrimMemory(int level) {
+    if (level >= TRIM_MEMORY_RUNNING_LOW) {
+      clear();
+    }
+  }
+
+  @Override
+  public void onLowMemory() {
+    clear();
+  }
+
+  @Override
+  public void onConfigurationChanged(@NonNull Configuration newConfig) {}
+
+  /**
+   * Returns the number of lookups served from the cache and of bitmaps decoded, with the total size
+   * of the decoded bitmaps and of the cached entries, including the content of their keys, keyed by
+   * name.
+   */
+  @NonNull
+  Map<String, Long> getStatistics() {
+    final Map<String, Long> statistics = new LinkedHashMap<>();
+    statistics.put("hits", (long) cache.hitCount());
+    statistics.put("misses", (long) cache.missCount());
+    statistics.put("evictions", (long) cache.evictionCount());
+    statistics.put("decodedBitmaps", decodedBitmaps.get());
+    statistics.put("decodedBytes", decodedBytes.get());
+    statistics.put("cachedBytes", (long) cache.size());
+    return statistics;
+  }
+}
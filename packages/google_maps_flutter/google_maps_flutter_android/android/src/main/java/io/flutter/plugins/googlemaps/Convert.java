@@ -62,6 +62,11 @@ class Convert {
   public static final String HEATMAP_GRADIENT_START_POINTS_KEY = "startPoints";
   public static final String HEATMAP_GRADIENT_COLOR_MAP_SIZE_KEY = "colorMapSize";
 
+  /** Cache of the bitmap descriptors decoded from bytes and assets, shared by every map. */
+  @VisibleForTesting
+  static final BitmapDescriptorCache bitmapDescriptorCache =
+      new BitmapDescriptorCache(BitmapDescriptorCache.DEFAULT_MAX_BYTES);
+
   private static BitmapDescriptor toBitmapDescriptor(
       Messages.PlatformBitmap platformBitmap, AssetManager assetManager, float density) {
     return toBitmapDescriptor(
@@ -110,12 +115,24 @@ class Convert {
     }
     if (bitmap instanceof Messages.PlatformBitmapAssetMap) {
       Messages.PlatformBitmapAssetMap typedBitmap = (Messages.PlatformBitmapAssetMap) bitmap;
-      return getBitmapFromAsset(
-          typedBitmap, assetManager, density, wrapper, new FlutterInjectorWrapper());
+      if (typedBitmap.getBitmapScaling() != Messages.PlatformMapBitmapScaling.AUTO) {
+        // The asset is not decoded, so there is nothing to cache.
+        return getBitmapFromAsset(
+            typedBitmap, assetManager, density, wrapper, new FlutterInjectorWrapper());
+      }
+      final String assetKey =
+          new FlutterInjectorWrapper().getLookupKeyForAsset(typedBitmap.getAssetName());
+      return bitmapDescriptorCache.get(
+          BitmapDescriptorCache.Key.fromAsset(typedBitmap, assetKey, density),
+          () -> decodeBitmapFromAsset(typedBitmap, assetKey, assetManager, density),
+          wrapper);
     }
     if (bitmap instanceof Messages.PlatformBitmapBytesMap) {
       Messages.PlatformBitmapBytesMap typedBitmap = (Messages.PlatformBitmapBytesMap) bitmap;
-      return getBitmapFromBytes(typedBitmap, density, wrapper);
+      return bitmapDescriptorCache.get(
+          BitmapDescriptorCache.Key.fromBytes(typedBitmap, density),
+          () -> decodeBitmapFromBytes(typedBitmap, density),
+          wrapper);
     }
     throw new IllegalArgumentException("PlatformBitmap did not contain a supported subtype.");
   }
@@ -150,6 +167,11 @@ class Convert {
       Messages.PlatformBitmapBytesMap bytesMap,
       float density,
       BitmapDescriptorFactoryWrapper bitmapDescriptorFactory) {
+    return bitmapDescriptorFactory.fromBitmap(decodeBitmapFromBytes(bytesMap, density));
+  }
+
+  private static Bitmap decodeBitmapFromBytes(
+      Messages.PlatformBitmapBytesMap bytesMap, float density) {
     try {
       Bitmap bitmap = toBitmap(bytesMap.getByteData());
       Messages.PlatformMapBitmapScaling scalingMode = bytesMap.getBitmapScaling();
@@ -171,17 +193,16 @@ class Convert {
               double aspectRatio = (double) bitmap.getWidth() / bitmap.getHeight();
               targetWidth = (int) (targetHeight * aspectRatio);
             }
-            return bitmapDescriptorFactory.fromBitmap(
-                toScaledBitmap(bitmap, targetWidth, targetHeight));
+            return toScaledBitmap(bitmap, targetWidth, targetHeight);
           } else {
             // Scale image using given scale ratio
             final float scale = density / bytesMap.getImagePixelRatio().floatValue();
-            return bitmapDescriptorFactory.fromBitmap(toScaledBitmap(bitmap, scale));
+            return toScaledBitmap(bitmap, scale);
           }
         case NONE:
           break;
       }
-      return bitmapDescriptorFactory.fromBitmap(bitmap);
+      return bitmap;
     } catch (Exception e) {
       throw new IllegalArgumentException("Unable to interpret bytes as a valid image.", e);
     }
@@ -220,44 +241,8 @@ class Convert {
     Messages.PlatformMapBitmapScaling scalingMode = assetMap.getBitmapScaling();
     switch (scalingMode) {
       case AUTO:
-        final Double width = assetMap.getWidth();
-        final Double height = assetMap.getHeight();
-        InputStream inputStream = null;
-        try {
-          inputStream = assetManager.open(assetKey);
-          Bitmap bitmap = BitmapFactory.decodeStream(inputStream);
-
-          if (width != null || height != null) {
-            int targetWidth = width != null ? toInt(width * density) : bitmap.getWidth();
-            int targetHeight = height != null ? toInt(height * density) : bitmap.getHeight();
-
-            if (width != null && height == null) {
-              // If only width is provided, calculate height based on aspect ratio.
-              double aspectRatio = (double) bitmap.getHeight() / bitmap.getWidth();
-              targetHeight = (int) (targetWidth * aspectRatio);
-            } else if (height != null && width == null) {
-              // If only height is provided, calculate width based on aspect ratio.
-              double aspectRatio = (double) bitmap.getWidth() / bitmap.getHeight();
-              targetWidth = (int) (targetHeight * aspectRatio);
-            }
-            return bitmapDescriptorFactory.fromBitmap(
-                toScaledBitmap(bitmap, targetWidth, targetHeight));
-          } else {
-            // Scale image using given scale.
-            final float scale = density / assetMap.getImagePixelRatio().floatValue();
-            return bitmapDescriptorFactory.fromBitmap(toScaledBitmap(bitmap, scale));
-          }
-        } catch (Exception e) {
-          throw new IllegalArgumentException("'asset' cannot open asset: " + assetName, e);
-        } finally {
-          if (inputStream != null) {
-            try {
-              inputStream.close();
-            } catch (IOException e) {
-              e.printStackTrace();
-            }
-          }
-        }
+        return bitmapDescriptorFactory.fromBitmap(
+            decodeBitmapFromAsset(assetMap, assetKey, assetManager, density));
       case NONE:
         break;
     }
@@ -265,6 +250,51 @@ class Convert {
     return bitmapDescriptorFactory.fromAsset(assetKey);
   }
 
+  private static Bitmap decodeBitmapFromAsset(
+      Messages.PlatformBitmapAssetMap assetMap,
+      String assetKey,
+      AssetManager assetManager,
+      float density) {
+    final Double width = assetMap.getWidth();
+    final Double height = assetMap.getHeight();
+    InputStream inputStream = null;
+    try {
+      inputStream = assetManager.open(assetKey);
+      Bitmap bitmap = BitmapFactory.decodeStream(inputStream);
+
+      if (width != null || height != null) {
+        int targetWidth = width != null ? toInt(width * density) : bitmap.getWidth();
+        int targetHeight = height != null ? toInt(height * density) : bitmap.getHeight();
+
+        if (width != null && height == null) {
+          // If only width is provided, calculate height based on aspect ratio.
+          double aspectRatio = (double) bitmap.getHeight() / bitmap.getWidth();
+          targetHeight = (int) (targetWidth * aspectRatio);
+        } else if (height != null && width == null) {
+          // If only height is provided, calculate width based on aspect ratio.
+          double aspectRatio = (double) bitmap.getWidth() / bitmap.getHeight();
+          targetWidth = (int) (targetHeight * aspectRatio);
+        }
+        return toScaledBitmap(bitmap, targetWidth, targetHeight);
+      } else {
+        // Scale image using given scale.
+        final float scale = density / assetMap.getImagePixelRatio().floatValue();
+        return toScaledBitmap(bitmap, scale);
+      }
+    } catch (Exception e) {
+      throw new IllegalArgumentException(
+          "'asset' cannot open asset: " + assetMap.getAssetName(), e);
+    } finally {
+      if (inputStream != null) {
+        try {
+          inputStream.close();
+        } catch (IOException e) {
+          e.printStackTrace();
+        }
+      }
+    }
+  }
+
   static @NonNull CameraPosition cameraPositionFromPigeon(
       @NonNull Messages.PlatformCameraPosition position) {
     final CameraPosition.Builder builder = CameraPosition.builder();
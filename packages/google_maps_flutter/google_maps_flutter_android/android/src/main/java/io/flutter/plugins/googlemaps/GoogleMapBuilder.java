@@ -32,6 +32,7 @@ class GoogleMapBuilder implements GoogleMapOptionsSink {
   private List<Messages.PlatformGroundOverlay> initialGroundOverlays;
   private Rect padding = new Rect(0, 0, 0, 0);
   private @Nullable String style;
+  private @NonNull TileCacheOptions tileCacheOptions = TileCacheOptions.DEFAULT;
 
   GoogleMapController build(
       int id,
@@ -54,6 +55,7 @@ class GoogleMapBuilder implements GoogleMapOptionsSink {
     controller.setInitialCircles(initialCircles);
     controller.setInitialHeatmaps(initialHeatmaps);
     controller.setPadding(padding.top, padding.left, padding.bottom, padding.right);
+    controller.setTileCacheOptions(tileCacheOptions);
     controller.setInitialTileOverlays(initialTileOverlays);
     controller.setInitialGroundOverlays(initialGroundOverlays);
     controller.setMapStyle(style);
@@ -64,6 +66,10 @@ class GoogleMapBuilder implements GoogleMapOptionsSink {
     options.camera(position);
   }
 
+  void setTileCacheOptions(@NonNull TileCacheOptions tileCacheOptions) {
+    this.tileCacheOptions = tileCacheOptions;
+  }
+
   public void setMapId(String mapId) {
     options.mapId(mapId);
   }
@@ -52,7 +52,9 @@ import io.flutter.plugins.googlemaps.Messages.MapsCallbackApi;
 import io.flutter.plugins.googlemaps.Messages.MapsInspectorApi;
 import java.io.ByteArrayOutputStream;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
 
@@ -190,6 +192,7 @@ class GoogleMapController
   }
 
   void init() {
+    Convert.bitmapDescriptorCache.onMapCreated();
     lifecycleProvider.getLifecycle().addObserver(this);
     mapView.getMapAsync(this);
   }
@@ -340,6 +343,9 @@ class GoogleMapController
   @Override
   public void onCameraIdle() {
     clusterManagersController.onCameraIdle();
+    if (markersController.isVirtualizationEnabled()) {
+      markersController.onCameraIdle(getVisibleBounds());
+    }
     flutterApi.onCameraIdle(new NoOpVoidResult());
   }
 
@@ -389,6 +395,8 @@ class GoogleMapController
       return;
     }
     disposed = true;
+    Convert.bitmapDescriptorCache.onMapDisposed();
+    markersController.dispose();
     MapsApi.setUp(binaryMessenger, Integer.toString(id), null);
     MapsInspectorApi.setUp(binaryMessenger, Integer.toString(id), null);
     setGoogleMapListener(null);
@@ -652,7 +660,11 @@ class GoogleMapController
 
   private void updateInitialMarkers() {
     if (initialMarkers != null) {
-      markersController.addMarkers(initialMarkers);
+      markersController.updateMarkers(
+          initialMarkers,
+          Collections.emptyList(),
+          Collections.emptyList(),
+          new NoOpVoidResult());
     }
   }
 
@@ -736,6 +748,11 @@ class GoogleMapController
     }
   }
 
+  /** Sets how the tiles of tile overlays added afterwards are cached. */
+  void setTileCacheOptions(@NonNull TileCacheOptions tileCacheOptions) {
+    tileOverlaysController.setTileCacheOptions(tileCacheOptions);
+  }
+
   private void updateInitialTileOverlays() {
     if (initialTileOverlays != null) {
       tileOverlaysController.addTileOverlays(initialTileOverlays);
@@ -885,10 +902,19 @@ class GoogleMapController
   public void updateMarkers(
       @NonNull List<Messages.PlatformMarker> toAdd,
       @NonNull List<Messages.PlatformMarker> toChange,
-      @NonNull List<String> idsToRemove) {
-    markersController.addMarkers(toAdd);
-    markersController.changeMarkers(toChange);
-    markersController.removeMarkers(idsToRemove);
+      @NonNull List<String> idsToRemove,
+      @NonNull Messages.VoidResult result) {
+    markersController.updateMarkers(toAdd, toChange, idsToRemove, result);
+  }
+
+  @Override
+  public void setMarkerVirtualizationEnabled(@NonNull Boolean enabled) {
+    markersController.setVirtualizationEnabled(enabled, getVisibleBounds());
+  }
+
+  @Nullable
+  private LatLngBounds getVisibleBounds() {
+    return googleMap != null ? googleMap.getProjection().getVisibleRegion().latLngBounds : null;
   }
 
   @Override
@@ -1031,6 +1057,11 @@ class GoogleMapController
     tileOverlaysController.clearTileCache(tileOverlayId);
   }
 
+  @Override
+  public @NonNull Map<String, Long> getTileOverlayStatistics(@NonNull String tileOverlayId) {
+    return tileOverlaysController.getTileOverlayStatistics(tileOverlayId);
+  }
+
   @Override
   public void takeSnapshot(@NonNull Messages.Result<byte[]> result) {
     if (googleMap == null) {
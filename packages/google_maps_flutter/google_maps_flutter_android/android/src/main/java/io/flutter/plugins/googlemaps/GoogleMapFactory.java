@@ -47,6 +47,7 @@ public class GoogleMapFactory extends PlatformViewFactory {
     builder.setInitialHeatmaps(params.getInitialHeatmaps());
     builder.setInitialTileOverlays(params.getInitialTileOverlays());
     builder.setInitialGroundOverlays(params.getInitialGroundOverlays());
+    builder.setTileCacheOptions(googleMapInitializer.getTileCacheOptions());
 
     final String cloudMapId = mapConfig.getCloudMapId();
     if (cloudMapId != null) {
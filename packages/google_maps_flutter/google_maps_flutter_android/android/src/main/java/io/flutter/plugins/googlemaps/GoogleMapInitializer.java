@@ -11,13 +11,18 @@ import androidx.annotation.VisibleForTesting;
 import com.google.android.gms.maps.MapsInitializer;
 import com.google.android.gms.maps.OnMapsSdkInitializedCallback;
 import io.flutter.plugin.common.BinaryMessenger;
+import java.io.File;
+import java.util.Map;
 
 /** GoogleMaps initializer used to initialize the Google Maps SDK with preferred settings. */
 final class GoogleMapInitializer
     implements OnMapsSdkInitializedCallback, Messages.MapsInitializerApi {
+  private static final String TILE_CACHE_DIRECTORY = "io.flutter.plugins.googlemaps.tiles";
+
   private final Context context;
   private static Messages.Result<Messages.PlatformRendererType> initializationResult;
   private boolean rendererInitialized = false;
+  private @NonNull TileCacheOptions tileCacheOptions = TileCacheOptions.DEFAULT;
 
   GoogleMapInitializer(Context context, BinaryMessenger binaryMessenger) {
     this.context = context;
@@ -41,6 +46,32 @@ final class GoogleMapInitializer
     }
   }
 
+  @Override
+  public void setTileCacheOptions(
+      @NonNull Long memoryCacheBytes,
+      @NonNull Long diskCacheBytes,
+      @NonNull Long timeoutMilliseconds,
+      @NonNull Boolean prefetchNeighbors) {
+    tileCacheOptions =
+        new TileCacheOptions(
+            memoryCacheBytes,
+            diskCacheBytes,
+            new File(context.getCacheDir(), TILE_CACHE_DIRECTORY),
+            timeoutMilliseconds,
+            prefetchNeighbors);
+  }
+
+  @Override
+  public @NonNull Map<String, Long> getBitmapDescriptorCacheStatistics() {
+    return Convert.bitmapDescriptorCache.getStatistics();
+  }
+
+  /** Returns how the tiles of tile overlays added to new maps are cached. */
+  @NonNull
+  TileCacheOptions getTileCacheOptions() {
+    return tileCacheOptions;
+  }
+
   /**
    * Initializes map renderer to with preferred renderer type.
    *
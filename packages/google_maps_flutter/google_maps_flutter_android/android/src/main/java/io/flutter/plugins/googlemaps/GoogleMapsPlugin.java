@@ -6,6 +6,7 @@ package io.flutter.plugins.googlemaps;
 
 import android.app.Activity;
 import android.app.Application.ActivityLifecycleCallbacks;
+import android.content.Context;
 import android.os.Bundle;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
@@ -27,6 +28,7 @@ import io.flutter.embedding.engine.plugins.lifecycle.FlutterLifecycleAdapter;
 public class GoogleMapsPlugin implements FlutterPlugin, ActivityAware {
 
   @Nullable Lifecycle lifecycle;
+  @Nullable private Context applicationContext;
 
   private static final String VIEW_TYPE = "plugins.flutter.dev/google_maps_android";
 
@@ -36,6 +38,8 @@ public class GoogleMapsPlugin implements FlutterPlugin, ActivityAware {
 
   @Override
   public void onAttachedToEngine(@NonNull FlutterPluginBinding binding) {
+    applicationContext = binding.getApplicationContext();
+    applicationContext.registerComponentCallbacks(Convert.bitmapDescriptorCache);
     binding
         .getPlatformViewRegistry()
         .registerViewFactory(
@@ -53,7 +57,12 @@ public class GoogleMapsPlugin implements FlutterPlugin, ActivityAware {
   }
 
   @Override
-  public void onDetachedFromEngine(@NonNull FlutterPluginBinding binding) {}
+  public void onDetachedFromEngine(@NonNull FlutterPluginBinding binding) {
+    if (applicationContext != null) {
+      applicationContext.unregisterComponentCallbacks(Convert.bitmapDescriptorCache);
+      applicationContext = null;
+    }
+  }
 
   // ActivityAware
 
@@ -0,0 +1,114 @@
+// Copyright 2013 The Flutter Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package io.flutter.plugins.googlemaps;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.VisibleForTesting;
+import com.google.android.gms.maps.model.LatLng;
+import com.google.android.gms.maps.model.LatLngBounds;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Index of marker positions in a grid of latitude and longitude cells, to find the markers in a
+ * region of the map without going through every marker.
+ *
+ * <p>Only the cells containing markers are kept. Regions covering more cells than that go through
+ * the kept cells instead of the cells of the region.
+ */
+class MarkerGrid {
+  @VisibleForTesting static final double CELL_SIZE_DEGREES = 0.1;
+
+  private static final int ROW_COUNT = (int) Math.ceil(180 / CELL_SIZE_DEGREES);
+  private static final int COLUMN_COUNT = (int) Math.ceil(360 / CELL_SIZE_DEGREES);
+
+  // Positions of the markers in each cell, by marker ID.
+  private final HashMap<Long, HashMap<String, LatLng>> cells = new HashMap<>();
+
+  void add(@NonNull String markerId, @NonNull LatLng position) {
+    final long key = getKey(getRow(position.latitude), getColumn(position.longitude));
+    HashMap<String, LatLng> cell = cells.get(key);
+    if (cell == null) {
+      cell = new HashMap<>();
+      cells.put(key, cell);
+    }
+    cell.put(markerId, position);
+  }
+
+  void remove(@NonNull String markerId, @NonNull LatLng position) {
+    final long key = getKey(getRow(position.latitude), getColumn(position.longitude));
+    final HashMap<String, LatLng> cell = cells.get(key);
+    if (cell != null && cell.remove(markerId) != null && cell.isEmpty()) {
+      cells.remove(key);
+    }
+  }
+
+  /** Returns the IDs of the markers within {@code bounds}, which may cross the antimeridian. */
+  @NonNull
+  Set<String> getMarkerIds(@NonNull LatLngBounds bounds) {
+    final int firstRow = getRow(bounds.southwest.latitude);
+    final int lastRow = getRow(bounds.northeast.latitude);
+    final int firstColumn = getColumn(bounds.southwest.longitude);
+    final int lastColumn = getColumn(bounds.northeast.longitude);
+    final boolean crossesAntimeridian = bounds.southwest.longitude > bounds.northeast.longitude;
+    final int columnCount =
+        crossesAntimeridian
+            ? Math.min(COLUMN_COUNT, COLUMN_COUNT - firstColumn + lastColumn + 1)
+            : lastColumn - firstColumn + 1;
+
+    final Set<String> markerIds = new HashSet<>();
+    if ((long) (lastRow - firstRow + 1) * columnCount <= cells.size()) {
+      for (int row = firstRow; row <= lastRow; row++) {
+        for (int i = 0; i < columnCount; i++) {
+          final HashMap<String, LatLng> cell =
+              cells.get(getKey(row, (firstColumn + i) % COLUMN_COUNT));
+          if (cell != null) {
+            addMarkerIds(cell, bounds, markerIds);
+          }
+        }
+      }
+      return markerIds;
+    }
+    for (Map.Entry<Long, HashMap<String, LatLng>> entry : cells.entrySet()) {
+      final int row = (int) (entry.getKey() / COLUMN_COUNT);
+      final int column = (int) (entry.getKey() % COLUMN_COUNT);
+      final boolean containsColumn =
+          crossesAntimeridian
+              ? column >= firstColumn || column <= lastColumn
+              : column >= firstColumn && column <= lastColumn;
+      if (row >= firstRow && row <= lastRow && containsColumn) {
+        addMarkerIds(entry.getValue(), bounds, markerIds);
+      }
+    }
+    return markerIds;
+  }
+
+  private static void addMarkerIds(
+      @NonNull HashMap<String, LatLng> cell,
+      @NonNull LatLngBounds bounds,
+      @NonNull Set<String> markerIds) {
+    for (Map.Entry<String, LatLng> entry : cell.entrySet()) {
+      if (bounds.contains(entry.getValue())) {
+        markerIds.add(entry.getKey());
+      }
+    }
+  }
+
+  private static long getKey(int row, int column) {
+    return (long) row * COLUMN_COUNT + column;
+  }
+
+  private static int getRow(double latitude) {
+    final int row = (int) Math.floor((latitude + 90) / CELL_SIZE_DEGREES);
+    return Math.max(0, Math.min(ROW_COUNT - 1, row));
+  }
+
+  private static int getColumn(double longitude) {
+    final int column = (int) Math.floor((longitude + 180) / CELL_SIZE_DEGREES);
+    return ((column % COLUMN_COUNT) + COLUMN_COUNT) % COLUMN_COUNT;
+  }
+}
@@ -5,17 +5,66 @@
 package io.flutter.plugins.googlemaps;
 
 import android.content.res.AssetManager;
+import android.os.Handler;
+import android.os.Looper;
+import android.view.Choreographer;
 import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.VisibleForTesting;
 import com.google.android.gms.maps.model.LatLng;
+import com.google.android.gms.maps.model.LatLngBounds;
 import com.google.android.gms.maps.model.Marker;
 import com.google.android.gms.maps.model.MarkerOptions;
 import com.google.maps.android.collections.MarkerManager;
 import io.flutter.plugins.googlemaps.Messages.MapsCallbackApi;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
-
+import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Manages the markers of a map.
+ *
+ * <p>Updates are applied in the order they are received. Updates adding more than {@link
+ * #SYNCHRONOUS_ADD_LIMIT} markers interpret the options and decode the icons of the added markers
+ * on a background thread pool shared by every map, and add the markers to the map in chunks taking
+ * at most {@link #FRAME_BUDGET_NANOS} per frame, so that adding thousands of markers does not
+ * freeze the UI. Later updates wait for them to complete.
+ *
+ * <p>When virtualization is enabled, markers that are not in a cluster are only added to the map
+ * while they are within the visible region extended by {@link #VIRTUALIZATION_MARGIN} on each side,
+ * as of the last time the camera stopped moving. Their builders are indexed by position in a {@link
+ * MarkerGrid}, and markers are added and removed each time the camera stops moving. Markers are
+ * removed immediately, and added for at most {@link #FRAME_BUDGET_NANOS} per frame like the markers
+ * of large updates.
+ */
 class MarkersController {
+  /** Updates adding at most this many markers add them immediately. */
+  @VisibleForTesting static final int SYNCHRONOUS_ADD_LIMIT = 50;
+
+  /** How long markers are added to the map for in each frame. */
+  @VisibleForTesting static final long FRAME_BUDGET_NANOS = TimeUnit.MILLISECONDS.toNanos(4);
+
+  /** Number of markers interpreted by each background task. */
+  private static final int CHUNK_SIZE = 64;
+
+  /**
+   * Fraction of the size of the visible region by which the region of the map with virtualized
+   * markers on it extends beyond each of its edges.
+   */
+  private static final double VIRTUALIZATION_MARGIN = 0.5;
+
+  @Nullable private static Executor sharedBackgroundExecutor;
+
   private final HashMap<String, MarkerBuilder> markerIdToMarkerBuilder;
   private final HashMap<String, MarkerController> markerIdToController;
   private final HashMap<String, String> googleMapsMarkerIdToDartMarkerId;
@@ -25,6 +74,22 @@ class MarkersController {
   private final AssetManager assetManager;
   private final float density;
   private final Convert.BitmapDescriptorFactoryWrapper bitmapDescriptorFactoryWrapper;
+  private final @NonNull Executor backgroundExecutor;
+  private final Handler handler = new Handler(Looper.getMainLooper());
+  // Updates waiting for the markers being added in the background to be on the map.
+  private final ArrayDeque<MarkerUpdate> pendingUpdates = new ArrayDeque<>();
+  private @Nullable BulkInsertion bulkInsertion;
+  private boolean disposed;
+  // Positions of the markers that are not in a cluster, if virtualization is enabled.
+  private @Nullable MarkerGrid markerGrid;
+  // Region of the map markers that are not in a cluster are on the map within, if virtualization is
+  // enabled and the visible region is known.
+  private @Nullable LatLngBounds virtualizationBounds;
+  // Virtualized markers waiting to be added to the map in the next frames.
+  private final LinkedHashSet<String> virtualizedMarkerIdsToAdd = new LinkedHashSet<>();
+  private final Choreographer.FrameCallback addVirtualizedMarkersCallback =
+      this::addVirtualizedMarkers;
+  private boolean isAddVirtualizedMarkersCallbackPosted;
 
   MarkersController(
       @NonNull MapsCallbackApi flutterApi,
@@ -32,6 +97,23 @@ class MarkersController {
       AssetManager assetManager,
       float density,
       Convert.BitmapDescriptorFactoryWrapper bitmapDescriptorFactoryWrapper) {
+    this(
+        flutterApi,
+        clusterManagersController,
+        assetManager,
+        density,
+        bitmapDescriptorFactoryWrapper,
+        getSharedBackgroundExecutor());
+  }
+
+  @VisibleForTesting
+  MarkersController(
+      @NonNull MapsCallbackApi flutterApi,
+      ClusterManagersController clusterManagersController,
+      AssetManager assetManager,
+      float density,
+      Convert.BitmapDescriptorFactoryWrapper bitmapDescriptorFactoryWrapper,
+      @NonNull Executor backgroundExecutor) {
     this.markerIdToMarkerBuilder = new HashMap<>();
     this.markerIdToController = new HashMap<>();
     this.googleMapsMarkerIdToDartMarkerId = new HashMap<>();
@@ -40,12 +122,227 @@ class MarkersController {
     this.assetManager = assetManager;
     this.density = density;
     this.bitmapDescriptorFactoryWrapper = bitmapDescriptorFactoryWrapper;
+    this.backgroundExecutor = backgroundExecutor;
   }
 
   void setCollection(MarkerManager.Collection markerCollection) {
     this.markerCollection = markerCollection;
   }
 
+  /**
+   * Adds, changes and removes markers once the updates received before have been applied, and
+   * completes {@code result} once every added marker is on the map.
+   *
+   * <p>Once the controller is disposed, {@code result} is completed without applying the update.
+   */
+  void updateMarkers(
+      @NonNull List<Messages.PlatformMarker> markersToAdd,
+      @NonNull List<Messages.PlatformMarker> markersToChange,
+      @NonNull List<String> markerIdsToRemove,
+      @NonNull Messages.VoidResult result) {
+    if (disposed) {
+      result.success();
+      return;
+    }
+    pendingUpdates.add(new MarkerUpdate(markersToAdd, markersToChange, markerIdsToRemove, result));
+    applyPendingUpdates();
+  }
+
+  /**
+   * Stops adding markers, and drops the updates that have not been applied, completing their
+   * results so that Dart does not wait for markers that will never be on the map.
+   */
+  void dispose() {
+    if (disposed) {
+      return;
+    }
+    disposed = true;
+    final List<Messages.VoidResult> droppedResults = new ArrayList<>();
+    if (bulkInsertion != null) {
+      bulkInsertion.cancel();
+      droppedResults.add(bulkInsertion.result);
+      bulkInsertion = null;
+    }
+    for (MarkerUpdate update : pendingUpdates) {
+      droppedResults.add(update.result);
+    }
+    pendingUpdates.clear();
+    virtualizedMarkerIdsToAdd.clear();
+    if (isAddVirtualizedMarkersCallbackPosted) {
+      Choreographer.getInstance().removeFrameCallback(addVirtualizedMarkersCallback);
+      isAddVirtualizedMarkersCallbackPosted = false;
+    }
+    for (Messages.VoidResult result : droppedResults) {
+      result.success();
+    }
+  }
+
+  boolean isVirtualizationEnabled() {
+    return markerGrid != null;
+  }
+
+  /**
+   * Enables or disables virtualization. Markers are virtualized within {@code visibleBounds}, or
+   * all added to the map until the camera stops moving if it is null.
+   */
+  void setVirtualizationEnabled(boolean enabled, @Nullable LatLngBounds visibleBounds) {
+    if (enabled == isVirtualizationEnabled()) {
+      return;
+    }
+    if (!enabled) {
+      markerGrid = null;
+      virtualizationBounds = null;
+      updateVirtualizedMarkers();
+      return;
+    }
+    final MarkerGrid grid = new MarkerGrid();
+    for (MarkerBuilder markerBuilder : markerIdToMarkerBuilder.values()) {
+      if (markerBuilder.clusterManagerId() == null) {
+        grid.add(markerBuilder.markerId(), markerBuilder.getPosition());
+      }
+    }
+    markerGrid = grid;
+    onCameraIdle(visibleBounds);
+  }
+
+  /** Adds and removes virtualized markers for the region of the map that is now visible. */
+  void onCameraIdle(@Nullable LatLngBounds visibleBounds) {
+    if (markerGrid == null) {
+      return;
+    }
+    virtualizationBounds = visibleBounds != null ? extendBounds(visibleBounds) : null;
+    updateVirtualizedMarkers();
+  }
+
+  /**
+   * Removes the markers that are not in a cluster from the map if they are outside of the
+   * virtualization bounds, unless their info window is shown, and adds the others in the next
+   * frames.
+   */
+  private void updateVirtualizedMarkers() {
+    final Set<String> markerIdsInBounds =
+        markerGrid != null && virtualizationBounds != null
+            ? markerGrid.getMarkerIds(virtualizationBounds)
+            : null;
+    for (Map.Entry<String, MarkerController> entry :
+        new ArrayList<>(markerIdToController.entrySet())) {
+      final MarkerBuilder markerBuilder = markerIdToMarkerBuilder.get(entry.getKey());
+      if (markerIdsInBounds == null
+          || markerIdsInBounds.contains(entry.getKey())
+          || markerBuilder == null
+          || markerBuilder.clusterManagerId() != null
+          || entry.getValue().isInfoWindowShown()) {
+        continue;
+      }
+      final MarkerController markerController = markerIdToController.remove(entry.getKey());
+      markerController.removeFromCollection(markerCollection);
+      googleMapsMarkerIdToDartMarkerId.remove(markerController.getGoogleMapsMarkerId());
+    }
+    final Iterable<String> markerIdsToAdd =
+        markerIdsInBounds != null ? markerIdsInBounds : markerIdToMarkerBuilder.keySet();
+    // Markers still waiting from the previous update are only added if they are in the new bounds.
+    virtualizedMarkerIdsToAdd.clear();
+    for (String markerId : markerIdsToAdd) {
+      if (!markerIdToController.containsKey(markerId)) {
+        virtualizedMarkerIdsToAdd.add(markerId);
+      }
+    }
+    if (!virtualizedMarkerIdsToAdd.isEmpty() && !isAddVirtualizedMarkersCallbackPosted) {
+      isAddVirtualizedMarkersCallbackPosted = true;
+      Choreographer.getInstance().postFrameCallback(addVirtualizedMarkersCallback);
+    }
+  }
+
+  /**
+   * Adds the virtualized markers waiting to be on the map for at most {@link #FRAME_BUDGET_NANOS},
+   * skipping those that were removed, added or moved out of the virtualization bounds since.
+   */
+  private void addVirtualizedMarkers(long frameTimeNanos) {
+    isAddVirtualizedMarkersCallbackPosted = false;
+    final long deadlineNanos = System.nanoTime() + FRAME_BUDGET_NANOS;
+    final Iterator<String> iterator = virtualizedMarkerIdsToAdd.iterator();
+    while (iterator.hasNext()) {
+      if (System.nanoTime() >= deadlineNanos) {
+        isAddVirtualizedMarkersCallbackPosted = true;
+        Choreographer.getInstance().postFrameCallback(addVirtualizedMarkersCallback);
+        return;
+      }
+      final String markerId = iterator.next();
+      iterator.remove();
+      final MarkerBuilder markerBuilder = markerIdToMarkerBuilder.get(markerId);
+      if (markerBuilder != null
+          && markerBuilder.clusterManagerId() == null
+          && !markerIdToController.containsKey(markerId)
+          && isInVirtualizationBounds(markerBuilder.getPosition())) {
+        addMarkerToCollection(markerId, markerBuilder);
+      }
+    }
+  }
+
+  /** Returns whether a marker that is not in a cluster at {@code position} is on the map. */
+  private boolean isInVirtualizationBounds(@NonNull LatLng position) {
+    return markerGrid == null
+        || virtualizationBounds == null
+        || virtualizationBounds.contains(position);
+  }
+
+  @NonNull
+  private static LatLngBounds extendBounds(@NonNull LatLngBounds bounds) {
+    final double latitudeMargin =
+        (bounds.northeast.latitude - bounds.southwest.latitude) * VIRTUALIZATION_MARGIN;
+    double longitudeSpan = bounds.northeast.longitude - bounds.southwest.longitude;
+    if (longitudeSpan < 0) {
+      longitudeSpan += 360;
+    }
+    final double longitudeMargin = longitudeSpan * VIRTUALIZATION_MARGIN;
+    final double south = Math.max(-90, bounds.southwest.latitude - latitudeMargin);
+    final double north = Math.min(90, bounds.northeast.latitude + latitudeMargin);
+    if (longitudeSpan + 2 * longitudeMargin >= 360) {
+      return new LatLngBounds(new LatLng(south, -180), new LatLng(north, 180));
+    }
+    // LatLng wraps longitudes into [-180, 180).
+    return new LatLngBounds(
+        new LatLng(south, bounds.southwest.longitude - longitudeMargin),
+        new LatLng(north, bounds.northeast.longitude + longitudeMargin));
+  }
+
+  private void applyPendingUpdates() {
+    while (bulkInsertion == null && !pendingUpdates.isEmpty()) {
+      final MarkerUpdate update = pendingUpdates.poll();
+      try {
+        // Markers are added last, as the markers of an update are added, changed and removed
+        // independently of each other, and the added markers may not be on the map until later
+        // frames.
+        changeMarkers(update.markersToChange);
+        removeMarkers(update.markerIdsToRemove);
+        if (update.markersToAdd.size() > SYNCHRONOUS_ADD_LIMIT) {
+          bulkInsertion = new BulkInsertion(update.markersToAdd, update.result);
+          bulkInsertion.start();
+          continue;
+        }
+        addMarkers(update.markersToAdd);
+      } catch (Throwable e) {
+        update.result.error(e);
+        continue;
+      }
+      update.result.success();
+    }
+  }
+
+  private void onBulkInsertionCompleted(
+      @NonNull BulkInsertion insertion, @Nullable Throwable error) {
+    if (bulkInsertion != insertion) {
+      return;
+    }
+    bulkInsertion = null;
+    if (error != null) {
+      insertion.result.error(error);
+    } else {
+      insertion.result.success();
+    }
+    applyPendingUpdates();
+  }
+
   void addMarkers(@NonNull List<Messages.PlatformMarker> markersToAdd) {
     for (Messages.PlatformMarker markerToAdd : markersToAdd) {
       addMarker(markerToAdd);
@@ -71,6 +368,9 @@ class MarkersController {
     }
     final MarkerController markerController = markerIdToController.remove(markerId);
     final String clusterManagerId = markerBuilder.clusterManagerId();
+    if (clusterManagerId == null && markerGrid != null) {
+      markerGrid.remove(markerId, markerBuilder.getPosition());
+    }
     if (clusterManagerId != null) {
       // Remove marker from clusterManager.
       clusterManagersController.removeItem(markerBuilder);
@@ -86,6 +386,12 @@ class MarkersController {
 
   void showMarkerInfoWindow(String markerId) {
     MarkerController markerController = markerIdToController.get(markerId);
+    final MarkerBuilder virtualizedMarkerBuilder = getVirtualizedMarkerBuilder(markerId);
+    if (markerController == null && virtualizedMarkerBuilder != null) {
+      // The marker is added to the map, and kept on it while its info window is shown.
+      addMarkerToCollection(markerId, virtualizedMarkerBuilder);
+      markerController = markerIdToController.get(markerId);
+    }
     if (markerController == null) {
       throw new Messages.FlutterError(
           "Invalid markerId", "showInfoWindow called with invalid markerId", null);
@@ -95,6 +401,9 @@ class MarkersController {
 
   void hideMarkerInfoWindow(String markerId) {
     MarkerController markerController = markerIdToController.get(markerId);
+    if (markerController == null && getVirtualizedMarkerBuilder(markerId) != null) {
+      return;
+    }
     if (markerController == null) {
       throw new Messages.FlutterError(
           "Invalid markerId", "hideInfoWindow called with invalid markerId", null);
@@ -104,6 +413,9 @@ class MarkersController {
 
   boolean isInfoWindowShown(String markerId) {
     MarkerController markerController = markerIdToController.get(markerId);
+    if (markerController == null && getVirtualizedMarkerBuilder(markerId) != null) {
+      return false;
+    }
     if (markerController == null) {
       throw new Messages.FlutterError(
           "Invalid markerId", "isInfoWindowShown called with invalid markerId", null);
@@ -149,6 +461,13 @@ class MarkersController {
     if (markerId == null) {
       return;
     }
+    final MarkerBuilder virtualizedMarkerBuilder = getVirtualizedMarkerBuilder(markerId);
+    if (virtualizedMarkerBuilder != null) {
+      // Keep the marker where it was dragged to when it is added to the map again.
+      markerGrid.remove(markerId, virtualizedMarkerBuilder.getPosition());
+      virtualizedMarkerBuilder.setPosition(latLng);
+      markerGrid.add(markerId, latLng);
+    }
     flutterApi.onMarkerDragEnd(markerId, Convert.latLngToPigeon(latLng), new NoOpVoidResult());
   }
 
@@ -172,12 +491,17 @@ class MarkersController {
   }
 
   private void addMarker(@NonNull Messages.PlatformMarker marker) {
+    addMarker(createMarkerBuilder(marker));
+  }
+
+  @NonNull
+  private MarkerBuilder createMarkerBuilder(@NonNull Messages.PlatformMarker marker) {
     String markerId = marker.getMarkerId();
     String clusterManagerId = marker.getClusterManagerId();
     MarkerBuilder markerBuilder = new MarkerBuilder(markerId, clusterManagerId);
     Convert.interpretMarkerOptions(
         marker, markerBuilder, assetManager, density, bitmapDescriptorFactoryWrapper);
-    addMarker(markerBuilder);
+    return markerBuilder;
   }
 
   private void addMarker(MarkerBuilder markerBuilder) {
@@ -190,7 +514,12 @@ class MarkersController {
     markerIdToMarkerBuilder.put(markerId, markerBuilder);
 
     if (markerBuilder.clusterManagerId() == null) {
-      addMarkerToCollection(markerId, markerBuilder);
+      if (markerGrid != null) {
+        markerGrid.add(markerId, markerBuilder.getPosition());
+      }
+      if (isInVirtualizationBounds(markerBuilder.getPosition())) {
+        addMarkerToCollection(markerId, markerBuilder);
+      }
     } else {
       addMarkerBuilderForCluster(markerBuilder);
     }
@@ -212,6 +541,18 @@ class MarkersController {
     googleMapsMarkerIdToDartMarkerId.put(marker.getId(), markerId);
   }
 
+  /** Returns the builder of a marker that is not in a cluster if virtualization is enabled. */
+  @Nullable
+  private MarkerBuilder getVirtualizedMarkerBuilder(String markerId) {
+    if (markerGrid == null) {
+      return null;
+    }
+    final MarkerBuilder markerBuilder = markerIdToMarkerBuilder.get(markerId);
+    return markerBuilder != null && markerBuilder.clusterManagerId() == null
+        ? markerBuilder
+        : null;
+  }
+
   private void changeMarker(@NonNull Messages.PlatformMarker marker) {
     String markerId = marker.getMarkerId();
 
@@ -232,8 +573,18 @@ class MarkersController {
     }
 
     // Update marker builder.
+    final LatLng previousPosition = markerBuilder.getPosition();
     Convert.interpretMarkerOptions(
         marker, markerBuilder, assetManager, density, bitmapDescriptorFactoryWrapper);
+    if (clusterManagerId == null && markerGrid != null) {
+      markerGrid.remove(markerId, previousPosition);
+      markerGrid.add(markerId, markerBuilder.getPosition());
+      if (!markerIdToController.containsKey(markerId)
+          && isInVirtualizationBounds(markerBuilder.getPosition())) {
+        addMarkerToCollection(markerId, markerBuilder);
+        return;
+      }
+    }
 
     // Update existing marker on map.
     MarkerController markerController = markerIdToController.get(markerId);
@@ -242,4 +593,152 @@ class MarkersController {
           marker, markerController, assetManager, density, bitmapDescriptorFactoryWrapper);
     }
   }
+
+  @NonNull
+  private static synchronized Executor getSharedBackgroundExecutor() {
+    if (sharedBackgroundExecutor == null) {
+      final int threadCount =
+          Math.max(1, Math.min(4, Runtime.getRuntime().availableProcessors() - 1));
+      final ThreadPoolExecutor executor =
+          new ThreadPoolExecutor(
+              threadCount, threadCount, 10, TimeUnit.SECONDS, new LinkedBlockingQueue<>());
+      executor.allowCoreThreadTimeOut(true);
+      sharedBackgroundExecutor = executor;
+    }
+    return sharedBackgroundExecutor;
+  }
+
+  private static final class MarkerUpdate {
+    @NonNull final List<Messages.PlatformMarker> markersToAdd;
+    @NonNull final List<Messages.PlatformMarker> markersToChange;
+    @NonNull final List<String> markerIdsToRemove;
+    @NonNull final Messages.VoidResult result;
+
+    MarkerUpdate(
+        @NonNull List<Messages.PlatformMarker> markersToAdd,
+        @NonNull List<Messages.PlatformMarker> markersToChange,
+        @NonNull List<String> markerIdsToRemove,
+        @NonNull Messages.VoidResult result) {
+      this.markersToAdd = markersToAdd;
+      this.markersToChange = markersToChange;
+      this.markerIdsToRemove = markerIdsToRemove;
+      this.result = result;
+    }
+  }
+
+  /**
+   * Adds markers to the map in their order once their options have been interpreted in the
+   * background, for at most {@link #FRAME_BUDGET_NANOS} per frame.
+   *
+   * <p>Markers whose options can't be interpreted are not added, and the first error is reported
+   * once the other markers have been added.
+   */
+  private final class BulkInsertion implements Choreographer.FrameCallback {
+    @NonNull private final List<Messages.PlatformMarker> markers;
+    @NonNull final Messages.VoidResult result;
+    // Builders of each chunk of markers, set on the main thread once they have been interpreted
+    // and cleared once they have been added to the map.
+    @NonNull private final MarkerBuilder[][] chunks;
+    private int nextChunk;
+    private int nextMarkerInChunk;
+    private @Nullable Throwable error;
+    private boolean isFrameCallbackPosted;
+    // Read by the background threads, so that they stop interpreting options once cancelled.
+    private volatile boolean cancelled;
+
+    BulkInsertion(
+        @NonNull List<Messages.PlatformMarker> markers, @NonNull Messages.VoidResult result) {
+      this.markers = markers;
+      this.result = result;
+      this.chunks = new MarkerBuilder[(markers.size() + CHUNK_SIZE - 1) / CHUNK_SIZE][];
+    }
+
+    void start() {
+      for (int i = 0; i < chunks.length; i++) {
+        final int chunkIndex = i;
+        final List<Messages.PlatformMarker> chunkMarkers =
+            markers.subList(i * CHUNK_SIZE, Math.min((i + 1) * CHUNK_SIZE, markers.size()));
+        backgroundExecutor.execute(() -> interpretChunk(chunkIndex, chunkMarkers));
+      }
+    }
+
+    void cancel() {
+      cancelled = true;
+      if (isFrameCallbackPosted) {
+        Choreographer.getInstance().removeFrameCallback(this);
+        isFrameCallbackPosted = false;
+      }
+    }
+
+    /** Interprets the options of a chunk of markers on a background thread. */
+    private void interpretChunk(
+        int chunkIndex, @NonNull List<Messages.PlatformMarker> chunkMarkers) {
+      final MarkerBuilder[] builders = new MarkerBuilder[chunkMarkers.size()];
+      Throwable chunkError = null;
+      for (int i = 0; i < builders.length && !cancelled; i++) {
+        try {
+          builders[i] = createMarkerBuilder(chunkMarkers.get(i));
+        } catch (Throwable e) {
+          if (chunkError == null) {
+            chunkError = e;
+          }
+        }
+      }
+      final Throwable interpretationError = chunkError;
+      handler.post(() -> onChunkInterpreted(chunkIndex, builders, interpretationError));
+    }
+
+    private void onChunkInterpreted(
+        int chunkIndex, @NonNull MarkerBuilder[] builders, @Nullable Throwable chunkError) {
+      if (cancelled) {
+        return;
+      }
+      chunks[chunkIndex] = builders;
+      if (error == null) {
+        error = chunkError;
+      }
+      if (chunkIndex == nextChunk) {
+        postFrameCallback();
+      }
+    }
+
+    private void postFrameCallback() {
+      if (!isFrameCallbackPosted) {
+        isFrameCallbackPosted = true;
+        Choreographer.getInstance().postFrameCallback(this);
+      }
+    }
+
+    @Override
+    public void doFrame(long frameTimeNanos) {
+      isFrameCallbackPosted = false;
+      if (cancelled) {
+        return;
+      }
+      final long deadlineNanos = System.nanoTime() + FRAME_BUDGET_NANOS;
+      while (nextChunk < chunks.length && chunks[nextChunk] != null) {
+        final MarkerBuilder[] builders = chunks[nextChunk];
+        while (nextMarkerInChunk < builders.length) {
+          if (System.nanoTime() >= deadlineNanos) {
+            postFrameCallback();
+            return;
+          }
+          final MarkerBuilder builder = builders[nextMarkerInChunk++];
+          try {
+            addMarker(builder);
+          } catch (Throwable e) {
+            if (error == null) {
+              error = e;
+            }
+          }
+        }
+        chunks[nextChunk++] = null;
+        nextMarkerInChunk = 0;
+      }
+      if (nextChunk == chunks.length) {
+        onBulkInsertionCompleted(this, error);
+      }
+      // Otherwise the next chunk posts a frame callback once it has been interpreted.
+    }
+  }
 }
@@ -6531,11 +6531,23 @@ public class Messages {
     /** Updates the set of custer managers for clusters on the map. */
     void updateClusterManagers(
         @NonNull List<PlatformClusterManager> toAdd, @NonNull List<String> idsToRemove);
-    /** Updates the set of markers on the map. */
+    /**
+     * Updates the set of markers on the map.
+     *
+     * <p>Returns once every added marker is on the map, or the map is disposed.
+     */
     void updateMarkers(
         @NonNull List<PlatformMarker> toAdd,
         @NonNull List<PlatformMarker> toChange,
-        @NonNull List<String> idsToRemove);
+        @NonNull List<String> idsToRemove,
+        @NonNull VoidResult result);
+    /**
+     * Enables or disables the virtualization of markers that are not in a cluster.
+     *
+     * <p>When enabled, only the markers within the visible region of the map and a margin around it
+     * are added to the map, and markers are added and removed as the camera moves.
+     */
+    void setMarkerVirtualizationEnabled(@NonNull Boolean enabled);
     /** Updates the set of polygonss on the map. */
     void updatePolygons(
         @NonNull List<PlatformPolygon> toAdd,
@@ -6602,6 +6614,12 @@ public class Messages {
     Boolean didLastStyleSucceed();
     /** Clears the cache of tiles previously requseted from the tile provider. */
     void clearTileCache(@NonNull String tileOverlayId);
+    /**
+     * Returns the number of tiles of the tile overlay with the given ID served from the native tile
+     * cache and requested from Dart, with the latency of those requests, keyed by name.
+     */
+    @NonNull
+    Map<String, Long> getTileOverlayStatistics(@NonNull String tileOverlayId);
     /** Takes a snapshot of the map and returns its image data. */
     void takeSnapshot(@NonNull Result<byte[]> result);
 
@@ -6769,8 +6787,40 @@ public class Messages {
                 List<PlatformMarker> toAddArg = (List<PlatformMarker>) args.get(0);
                 List<PlatformMarker> toChangeArg = (List<PlatformMarker>) args.get(1);
                 List<String> idsToRemoveArg = (List<String>) args.get(2);
+                VoidResult resultCallback =
+                    new VoidResult() {
+                      public void success() {
+                        wrapped.add(0, null);
+                        reply.reply(wrapped);
+                      }
+
+                      public void error(Throwable error) {
+                        ArrayList<Object> wrappedError = wrapError(error);
+                        reply.reply(wrappedError);
+                      }
+                    };
+
+                api.updateMarkers(toAddArg, toChangeArg, idsToRemoveArg, resultCallback);
+              });
+        } else {
+          channel.setMessageHandler(null);
+        }
+      }
+      {
+        BasicMessageChannel<Object> channel =
+            new BasicMessageChannel<>(
+                binaryMessenger,
+                "dev.flutter.pigeon.google_maps_flutter_android.MapsApi.setMarkerVirtualizationEnabled"
+                    + messageChannelSuffix,
+                getCodec());
+        if (api != null) {
+          channel.setMessageHandler(
+              (message, reply) -> {
+                ArrayList<Object> wrapped = new ArrayList<>();
+                ArrayList<Object> args = (ArrayList<Object>) message;
+                Boolean enabledArg = (Boolean) args.get(0);
                 try {
-                  api.updateMarkers(toAddArg, toChangeArg, idsToRemoveArg);
+                  api.setMarkerVirtualizationEnabled(enabledArg);
                   wrapped.add(0, null);
                 } catch (Throwable exception) {
                   wrapped = wrapError(exception);
@@ -7184,6 +7234,31 @@ public class Messages {
           channel.setMessageHandler(null);
         }
       }
+      {
+        BasicMessageChannel<Object> channel =
+            new BasicMessageChannel<>(
+                binaryMessenger,
+                "dev.flutter.pigeon.google_maps_flutter_android.MapsApi.getTileOverlayStatistics"
+                    + messageChannelSuffix,
+                getCodec());
+        if (api != null) {
+          channel.setMessageHandler(
+              (message, reply) -> {
+                ArrayList<Object> wrapped = new ArrayList<>();
+                ArrayList<Object> args = (ArrayList<Object>) message;
+                String tileOverlayIdArg = (String) args.get(0);
+                try {
+                  Map<String, Long> output = api.getTileOverlayStatistics(tileOverlayIdArg);
+                  wrapped.add(0, output);
+                } catch (Throwable exception) {
+                  wrapped = wrapError(exception);
+                }
+                reply.reply(wrapped);
+              });
+        } else {
+          channel.setMessageHandler(null);
+        }
+      }
       {
         BasicMessageChannel<Object> channel =
             new BasicMessageChannel<>(
@@ -7641,6 +7716,46 @@ public class Messages {
             }
           });
     }
+    /**
+     * Called to get data for several map tiles at the same zoom level.
+     *
+     * <p>The tiles are returned in the order of [locations].
+     */
+    public void getTileOverlayTiles(
+        @NonNull String tileOverlayIdArg,
+        @NonNull List<PlatformPoint> locationsArg,
+        @NonNull Long zoomArg,
+        @NonNull Result<List<PlatformTile>> result) {
+      final String channelName =
+          "dev.flutter.pigeon.google_maps_flutter_android.MapsCallbackApi.getTileOverlayTiles"
+              + messageChannelSuffix;
+      BasicMessageChannel<Object> channel =
+          new BasicMessageChannel<>(binaryMessenger, channelName, getCodec());
+      channel.send(
+          new ArrayList<>(Arrays.asList(tileOverlayIdArg, locationsArg, zoomArg)),
+          channelReply -> {
+            if (channelReply instanceof List) {
+              List<Object> listReply = (List<Object>) channelReply;
+              if (listReply.size() > 1) {
+                result.error(
+                    new FlutterError(
+                        (String) listReply.get(0), (String) listReply.get(1), listReply.get(2)));
+              } else if (listReply.get(0) == null) {
+                result.error(
+                    new FlutterError(
+                        "null-error",
+                        "Flutter api returned null value for non-null return value.",
+                        ""));
+              } else {
+                @SuppressWarnings("ConstantConditions")
+                List<PlatformTile> output = (List<PlatformTile>) listReply.get(0);
+                result.success(output);
+              }
+            } else {
+              result.error(createConnectionError(channelName));
+            }
+          });
+    }
   }
   /**
    * Interface for global SDK initialization.
@@ -7657,6 +7772,18 @@ public class Messages {
      */
     void initializeWithPreferredRenderer(
         @Nullable PlatformRendererType type, @NonNull Result<PlatformRendererType> result);
+    /** Sets how tiles of tile overlays added after this call are cached and requested from Dart. */
+    void setTileCacheOptions(
+        @NonNull Long memoryCacheBytes,
+        @NonNull Long diskCacheBytes,
+        @NonNull Long timeoutMilliseconds,
+        @NonNull Boolean prefetchNeighbors);
+    /**
+     * Returns the number of bitmap descriptors served from the native cache and decoded, with the
+     * size of the decoded and cached bitmaps, keyed by name.
+     */
+    @NonNull
+    Map<String, Long> getBitmapDescriptorCacheStatistics();
 
     /** The codec used by MapsInitializerApi. */
     static @NonNull MessageCodec<Object> getCodec() {
@@ -7706,6 +7833,61 @@ public class Messages {
           channel.setMessageHandler(null);
         }
       }
+      {
+        BasicMessageChannel<Object> channel =
+            new BasicMessageChannel<>(
+                binaryMessenger,
+                "dev.flutter.pigeon.google_maps_flutter_android.MapsInitializerApi.setTileCacheOptions"
+                    + messageChannelSuffix,
+                getCodec());
+        if (api != null) {
+          channel.setMessageHandler(
+              (message, reply) -> {
+                ArrayList<Object> wrapped = new ArrayList<>();
+                ArrayList<Object> args = (ArrayList<Object>) message;
+                Long memoryCacheBytesArg = (Long) args.get(0);
+                Long diskCacheBytesArg = (Long) args.get(1);
+                Long timeoutMillisecondsArg = (Long) args.get(2);
+                Boolean prefetchNeighborsArg = (Boolean) args.get(3);
+                try {
+                  api.setTileCacheOptions(
+                      memoryCacheBytesArg,
+                      diskCacheBytesArg,
+                      timeoutMillisecondsArg,
+                      prefetchNeighborsArg);
+                  wrapped.add(0, null);
+                } catch (Throwable exception) {
+                  wrapped = wrapError(exception);
+                }
+                reply.reply(wrapped);
+              });
+        } else {
+          channel.setMessageHandler(null);
+        }
+      }
+      {
+        BasicMessageChannel<Object> channel =
+            new BasicMessageChannel<>(
+                binaryMessenger,
+                "dev.flutter.pigeon.google_maps_flutter_android.MapsInitializerApi.getBitmapDescriptorCacheStatistics"
+                    + messageChannelSuffix,
+                getCodec());
+        if (api != null) {
+          channel.setMessageHandler(
+              (message, reply) -> {
+                ArrayList<Object> wrapped = new ArrayList<>();
+                try {
+                  Map<String, Long> output = api.getBitmapDescriptorCacheStatistics();
+                  wrapped.add(0, output);
+                } catch (Throwable exception) {
+                  wrapped = wrapError(exception);
+                }
+                reply.reply(wrapped);
+              });
+        } else {
+          channel.setMessageHandler(null);
+        }
+      }
     }
   }
   /**
@@ -0,0 +1,308 @@
+// Copyright 2013 The Flutter Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package io.flutter.plugins.googlemaps;
+
+import android.util.Base64;
+import android.util.Log;
+import android.util.LruCache;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.VisibleForTesting;
+import com.google.android.gms.maps.model.Tile;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cache of the tiles of a tile overlay returned by Dart, so that tiles the map requests again, for
+ * example after it is zoomed out and in, are not requested from Dart again.
+ *
+ * <p>Tiles are kept in memory up to {@link TileCacheOptions#memoryCacheBytes}, evicting the least
+ * recently used ones first, and optionally on disk up to {@link TileCacheOptions#diskCacheBytes},
+ * evicting the least recently written ones first. Tiles are written to disk on a background thread
+ * shared by every cache. Tiles can be looked up and added from any thread.
+ */
+class TileCache {
+  private static final String TAG = "TileCache";
+  // Approximate size of a tile and its key in memory, in addition to its data.
+  private static final int TILE_OVERHEAD_BYTES = 64;
+  private static final String TILE_SUFFIX = ".tile";
+  private static final String TEMPORARY_SUFFIX = ".tmp";
+
+  @Nullable private static Executor sharedDiskExecutor;
+
+  @Nullable private final LruCache<String, Tile> memoryCache;
+  @Nullable private final File directory;
+  private final long maxDiskBytes;
+  @NonNull private final Executor diskExecutor;
+  // Incremented when the cache is cleared, so that tiles requested before are not kept afterwards.
+  // Guarded by this.
+  private int generation;
+  // Size of the tiles on disk, or -1 if not computed yet. Only accessed on the disk executor.
+  private long diskBytes = -1;
+
+  TileCache(@NonNull TileCacheOptions options, @NonNull String tileOverlayId) {
+    this(
+        options.memoryCacheBytes,
+        options.diskCacheDirectory != null && options.diskCacheBytes > 0
+            ? new File(options.diskCacheDirectory, getDirectoryName(tileOverlayId))
+            : null,
+        options.diskCacheBytes,
+        getSharedDiskExecutor());
+  }
+
+  @VisibleForTesting
+  TileCache(
+      long maxMemoryBytes,
+      @Nullable File directory,
+      long maxDiskBytes,
+      @NonNull Executor diskExecutor) {
+    this.memoryCache =
+        maxMemoryBytes > 0
+            ? new LruCache<String, Tile>((int) Math.min(maxMemoryBytes, Integer.MAX_VALUE)) {
+              @Override
+              protected int sizeOf(@NonNull String key, @NonNull Tile tile) {
+                return getSize(tile);
+              }
+            }
+            : null;
+    this.directory = directory;
+    this.maxDiskBytes = maxDiskBytes;
+    this.diskExecutor = diskExecutor;
+  }
+
+  @NonNull
+  static String getKey(int x, int y, int zoom) {
+    return zoom + "_" + x + "_" + y;
+  }
+
+  /** Returns whether tiles are kept in memory or on disk at all. */
+  boolean isEnabled() {
+    return memoryCache != null || directory != null;
+  }
+
+  /**
+   * Returns the number of times the cache was cleared, to be passed to {@link #put} with the tiles
+   * requested now.
+   */
+  synchronized int getGeneration() {
+    return generation;
+  }
+
+  /** Returns the tile with the given key kept in memory, or null if there is none. */
+  @Nullable
+  Tile getFromMemory(@NonNull String key) {
+    return memoryCache != null ? memoryCache.get(key) : null;
+  }
+
+  /**
+   * Returns the tile with the given key kept on disk, or null if there is none, and keeps it in
+   * memory. Reads the disk, so it is not called on the main thread.
+   */
+  @Nullable
+  Tile getFromDisk(@NonNull String key) {
+    if (directory == null) {
+      return null;
+    }
+    final File file = new File(directory, key + TILE_SUFFIX);
+    if (!file.exists()) {
+      return null;
+    }
+    final int tileGeneration = getGeneration();
+    final Tile tile;
+    try (DataInputStream input =
+        new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+      final int width = input.readInt();
+      final int height = input.readInt();
+      final byte[] data = new byte[input.readInt()];
+      input.readFully(data);
+      tile = new Tile(width, height, data);
+    } catch (IOException | RuntimeException e) {
+      Log.w(TAG, "Can't read cached tile " + file, e);
+      //noinspection ResultOfMethodCallIgnored
+      file.delete();
+      return null;
+    }
+    putInMemory(key, tile, tileGeneration);
+    return tile;
+  }
+
+  /** Returns whether the tile with the given key is kept in memory or on disk. */
+  boolean contains(@NonNull String key) {
+    return getFromMemory(key) != null
+        || (directory != null && new File(directory, key + TILE_SUFFIX).exists());
+  }
+
+  /**
+   * Keeps {@code tile} in memory and writes it to disk in the background, unless the cache was
+   * cleared since {@code tileGeneration} was returned by {@link #getGeneration}.
+   */
+  void put(@NonNull String key, @NonNull Tile tile, int tileGeneration) {
+    if (tile.data == null || !putInMemory(key, tile, tileGeneration)) {
+      return;
+    }
+    if (directory != null) {
+      diskExecutor.execute(() -> write(key, tile, tileGeneration));
+    }
+  }
+
+  /** Removes every tile kept in memory and on disk. */
+  void clear() {
+    synchronized (this) {
+      generation++;
+      if (memoryCache != null) {
+        memoryCache.evictAll();
+      }
+    }
+    if (directory == null) {
+      return;
+    }
+    // The directory is renamed so that tiles are not read from it anymore, and deleted in the
+    // background.
+    final File deletedDirectory =
+        new File(directory.getParentFile(), directory.getName() + ".deleted" + System.nanoTime());
+    synchronized (this) {
+      if (!directory.renameTo(deletedDirectory)) {
+        return;
+      }
+    }
+    diskExecutor.execute(
+        () -> {
+          deleteFiles(deletedDirectory);
+          //noinspection ResultOfMethodCallIgnored
+          deletedDirectory.delete();
+          diskBytes = 0;
+        });
+  }
+
+  /** Keeps {@code tile} in memory, and returns false if the cache was cleared since it was read. */
+  private synchronized boolean putInMemory(
+      @NonNull String key, @NonNull Tile tile, int tileGeneration) {
+    if (tileGeneration != generation) {
+      return false;
+    }
+    if (memoryCache != null) {
+      memoryCache.put(key, tile);
+    }
+    return true;
+  }
+
+  private void write(@NonNull String key, @NonNull Tile tile, int tileGeneration) {
+    final File directory = this.directory;
+    if (directory == null || tile.data == null) {
+      return;
+    }
+    if (diskBytes < 0) {
+      diskBytes = getDiskBytes(directory);
+    }
+    //noinspection ResultOfMethodCallIgnored
+    directory.mkdirs();
+    final File file = new File(directory, key + TILE_SUFFIX);
+    final File temporaryFile = new File(directory, key + TEMPORARY_SUFFIX);
+    try (DataOutputStream output =
+        new DataOutputStream(new BufferedOutputStream(new FileOutputStream(temporaryFile)))) {
+      output.writeInt(tile.width);
+      output.writeInt(tile.height);
+      output.writeInt(tile.data.length);
+      output.write(tile.data);
+    } catch (IOException e) {
+      Log.w(TAG, "Can't write cached tile " + file, e);
+      //noinspection ResultOfMethodCallIgnored
+      temporaryFile.delete();
+      return;
+    }
+    final long previousLength = file.length();
+    synchronized (this) {
+      // Tiles are renamed into place so that they are never read partially written.
+      if (tileGeneration != generation || !temporaryFile.renameTo(file)) {
+        //noinspection ResultOfMethodCallIgnored
+        temporaryFile.delete();
+        return;
+      }
+    }
+    diskBytes += file.length() - previousLength;
+    if (diskBytes > maxDiskBytes) {
+      trim(directory);
+    }
+  }
+
+  /** Deletes the least recently written tiles until the tiles on disk fit in the limit. */
+  private void trim(@NonNull File directory) {
+    final File[] files = directory.listFiles();
+    if (files == null) {
+      return;
+    }
+    final long[] lastModified = new long[files.length];
+    final Integer[] order = new Integer[files.length];
+    for (int i = 0; i < files.length; i++) {
+      lastModified[i] = files[i].lastModified();
+      order[i] = i;
+    }
+    Arrays.sort(order, (a, b) -> Long.compare(lastModified[a], lastModified[b]));
+    for (Integer i : order) {
+      if (diskBytes <= maxDiskBytes) {
+        break;
+      }
+      final long length = files[i].length();
+      if (files[i].delete()) {
+        diskBytes -= length;
+      }
+    }
+  }
+
+  private static long getDiskBytes(@NonNull File directory) {
+    final File[] files = directory.listFiles();
+    long bytes = 0;
+    if (files != null) {
+      for (File file : files) {
+        bytes += file.length();
+      }
+    }
+    return bytes;
+  }
+
+  private static void deleteFiles(@NonNull File directory) {
+    final File[] files = directory.listFiles();
+    if (files != null) {
+      for (File file : files) {
+        //noinspection ResultOfMethodCallIgnored
+        file.delete();
+      }
+    }
+  }
+
+  private static int getSize(@NonNull Tile tile) {
+    return (tile.data != null ? tile.data.length : 0) + TILE_OVERHEAD_BYTES;
+  }
+
+  @NonNull
+  private static String getDirectoryName(@NonNull String tileOverlayId) {
+    return Base64.encodeToString(
+        tileOverlayId.getBytes(StandardCharsets.UTF_8),
+        Base64.URL_SAFE | Base64.NO_WRAP | Base64.NO_PADDING);
+  }
+
+  @NonNull
+  private static synchronized Executor getSharedDiskExecutor() {
+    if (sharedDiskExecutor == null) {
+      final ThreadPoolExecutor executor =
+          new ThreadPoolExecutor(1, 1, 10, TimeUnit.SECONDS, new LinkedBlockingQueue<>());
+      executor.allowCoreThreadTimeOut(true);
+      sharedDiskExecutor = executor;
+    }
+    return sharedDiskExecutor;
+  }
+}
@@ -0,0 +1,49 @@
+// Copyright 2013 The Flutter Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package io.flutter.plugins.googlemaps;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import java.io.File;
+
+/** Options of the native cache of the tiles of tile overlays, which are set for all maps. */
+final class TileCacheOptions {
+  static final long DEFAULT_MEMORY_CACHE_BYTES = 8 * 1024 * 1024;
+
+  @NonNull
+  static final TileCacheOptions DEFAULT =
+      new TileCacheOptions(DEFAULT_MEMORY_CACHE_BYTES, 0, null, 0, false);
+
+  /** The maximum size of the tiles of each tile overlay kept in memory, or 0 to keep none. */
+  final long memoryCacheBytes;
+
+  /** The maximum size of the tiles of each tile overlay kept on disk, or 0 to keep none. */
+  final long diskCacheBytes;
+
+  /** The directory in which the directory of the tiles of each tile overlay is created. */
+  @Nullable final File diskCacheDirectory;
+
+  /**
+   * How long a tile is waited for before the map is told to request it again later, or 0 to wait
+   * until Dart returns it.
+   */
+  final long timeoutMilliseconds;
+
+  /** Whether the tiles around each tile requested from Dart are requested ahead of the map. */
+  final boolean prefetchNeighbors;
+
+  TileCacheOptions(
+      long memoryCacheBytes,
+      long diskCacheBytes,
+      @Nullable File diskCacheDirectory,
+      long timeoutMilliseconds,
+      boolean prefetchNeighbors) {
+    this.memoryCacheBytes = Math.max(0, memoryCacheBytes);
+    this.diskCacheBytes = diskCacheDirectory != null ? Math.max(0, diskCacheBytes) : 0;
+    this.diskCacheDirectory = diskCacheDirectory;
+    this.timeoutMilliseconds = Math.max(0, timeoutMilliseconds);
+    this.prefetchNeighbors = prefetchNeighbors;
+  }
+}
@@ -4,15 +4,22 @@
 
 package io.flutter.plugins.googlemaps;
 
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
 import com.google.android.gms.maps.model.TileOverlay;
 import com.google.android.gms.maps.model.TileProvider;
+import java.util.HashMap;
+import java.util.Map;
 
 class TileOverlayController implements TileOverlaySink {
 
   private final TileOverlay tileOverlay;
+  private final @Nullable TileProviderController tileProviderController;
 
-  TileOverlayController(TileOverlay tileOverlay) {
+  TileOverlayController(
+      TileOverlay tileOverlay, @Nullable TileProviderController tileProviderController) {
     this.tileOverlay = tileOverlay;
+    this.tileProviderController = tileProviderController;
   }
 
   void remove() {
@@ -20,9 +27,19 @@ class TileOverlayController implements TileOverlaySink {
   }
 
   void clearTileCache() {
+    if (tileProviderController != null) {
+      tileProviderController.clearCache();
+    }
     tileOverlay.clearTileCache();
   }
 
+  @NonNull
+  Map<String, Long> getStatistics() {
+    return tileProviderController != null
+        ? tileProviderController.getStatistics()
+        : new HashMap<>();
+  }
+
   TileOverlay getTileOverlay() {
     return tileOverlay;
   }
@@ -19,6 +19,7 @@ class TileOverlaysController {
   private final Map<String, TileOverlayController> tileOverlayIdToController;
   private final MapsCallbackApi flutterApi;
   private GoogleMap googleMap;
+  private @NonNull TileCacheOptions tileCacheOptions = TileCacheOptions.DEFAULT;
 
   TileOverlaysController(MapsCallbackApi flutterApi) {
     this.tileOverlayIdToController = new HashMap<>();
@@ -29,6 +30,11 @@ class TileOverlaysController {
     this.googleMap = googleMap;
   }
 
+  /** Sets how the tiles of tile overlays added afterwards are cached. */
+  void setTileCacheOptions(@NonNull TileCacheOptions tileCacheOptions) {
+    this.tileCacheOptions = tileCacheOptions;
+  }
+
   void addTileOverlays(@NonNull List<Messages.PlatformTileOverlay> tileOverlaysToAdd) {
     for (Messages.PlatformTileOverlay tileOverlayToAdd : tileOverlaysToAdd) {
       addTileOverlay(tileOverlayToAdd);
@@ -63,6 +69,15 @@ class TileOverlaysController {
     }
   }
 
+  @NonNull
+  Map<String, Long> getTileOverlayStatistics(String tileOverlayId) {
+    TileOverlayController tileOverlayController = tileOverlayIdToController.get(tileOverlayId);
+    if (tileOverlayController == null) {
+      return new HashMap<>();
+    }
+    return tileOverlayController.getStatistics();
+  }
+
   @Nullable
   TileOverlay getTileOverlay(String tileOverlayId) {
     if (tileOverlayId == null) {
@@ -80,11 +95,12 @@ class TileOverlaysController {
     String tileOverlayId =
         Convert.interpretTileOverlayOptions(platformTileOverlay, tileOverlayOptionsBuilder);
     TileProviderController tileProviderController =
-        new TileProviderController(flutterApi, tileOverlayId);
+        new TileProviderController(flutterApi, tileOverlayId, tileCacheOptions);
     tileOverlayOptionsBuilder.setTileProvider(tileProviderController);
     TileOverlayOptions options = tileOverlayOptionsBuilder.build();
     TileOverlay tileOverlay = googleMap.addTileOverlay(options);
-    TileOverlayController tileOverlayController = new TileOverlayController(tileOverlay);
+    TileOverlayController tileOverlayController =
+        new TileOverlayController(tileOverlay, tileProviderController);
     tileOverlayIdToController.put(tileOverlayId, tileOverlayController);
   }
 
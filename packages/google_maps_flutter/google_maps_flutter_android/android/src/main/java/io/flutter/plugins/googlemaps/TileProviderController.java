@@ -9,53 +9,311 @@ import android.os.Looper;
 import android.util.Log;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
+import androidx.annotation.VisibleForTesting;
 import com.google.android.gms.maps.model.Tile;
 import com.google.android.gms.maps.model.TileProvider;
 import io.flutter.plugins.googlemaps.Messages.FlutterError;
 import io.flutter.plugins.googlemaps.Messages.MapsCallbackApi;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
+/**
+ * Provides the tiles of a tile overlay from its {@link TileCache}, requesting the tiles that are
+ * not cached from Dart.
+ *
+ * <p>Concurrent requests for the same tile share a single request to Dart. Tiles requested within
+ * {@link #BATCH_WINDOW_MILLIS} of each other are requested from Dart with one message per zoom
+ * level. When the tile cache options enable it, the tiles around each tile requested from Dart are
+ * requested ahead of the map, in batches separate from the tiles the map is waiting for.
+ */
 class TileProviderController implements TileProvider {
 
   private static final String TAG = "TileProviderController";
 
+  /** How long tile requests are collected before they are sent to Dart together. */
+  @VisibleForTesting static final long BATCH_WINDOW_MILLIS = 4;
+
   protected final String tileOverlayId;
   protected final @NonNull MapsCallbackApi flutterApi;
   protected final Handler handler = new Handler(Looper.getMainLooper());
+  private final @NonNull TileCache cache;
+  private final long timeoutMilliseconds;
+  private final boolean prefetchNeighbors;
+  // Requests to Dart that have not completed, by tile key.
+  private final ConcurrentHashMap<String, Worker> workers = new ConcurrentHashMap<>();
+  private final Object batchLock = new Object();
+  // Requests that have not been sent to Dart yet. Guarded by batchLock.
+  private @NonNull List<Worker> pendingWorkers = new ArrayList<>();
+
+  private final AtomicLong memoryHits = new AtomicLong();
+  private final AtomicLong diskHits = new AtomicLong();
+  private final AtomicLong requests = new AtomicLong();
+  private final AtomicLong coalescedRequests = new AtomicLong();
+  private final AtomicLong prefetchedTiles = new AtomicLong();
+  private final AtomicLong batches = new AtomicLong();
+  private final AtomicLong timeouts = new AtomicLong();
+  private final AtomicLong errors = new AtomicLong();
+  private final AtomicLong completedRequests = new AtomicLong();
+  private final AtomicLong totalLatencyNanos = new AtomicLong();
+  private final AtomicLong maxLatencyNanos = new AtomicLong();
+
+  TileProviderController(
+      @NonNull MapsCallbackApi flutterApi,
+      String tileOverlayId,
+      @NonNull TileCacheOptions options) {
+    this(
+        flutterApi,
+        tileOverlayId,
+        new TileCache(options, tileOverlayId),
+        options.timeoutMilliseconds,
+        options.prefetchNeighbors);
+  }
 
-  TileProviderController(@NonNull MapsCallbackApi flutterApi, String tileOverlayId) {
+  @VisibleForTesting
+  TileProviderController(
+      @NonNull MapsCallbackApi flutterApi,
+      String tileOverlayId,
+      @NonNull TileCache cache,
+      long timeoutMilliseconds,
+      boolean prefetchNeighbors) {
     this.tileOverlayId = tileOverlayId;
     this.flutterApi = flutterApi;
+    this.cache = cache;
+    this.timeoutMilliseconds = timeoutMilliseconds;
+    // Prefetched tiles are only kept by the cache, so there is no point in requesting them without
+    // one.
+    this.prefetchNeighbors = prefetchNeighbors && cache.isEnabled();
   }
 
   @Override
-  public Tile getTile(final int x, final int y, final int zoom) {
-    Worker worker = new Worker(x, y, zoom);
+  public @Nullable Tile getTile(final int x, final int y, final int zoom) {
+    final String key = TileCache.getKey(x, y, zoom);
+    Tile tile = cache.getFromMemory(key);
+    if (tile != null) {
+      memoryHits.incrementAndGet();
+      return tile;
+    }
+    tile = cache.getFromDisk(key);
+    if (tile != null) {
+      diskHits.incrementAndGet();
+      return tile;
+    }
+
+    final Worker worker = new Worker(key, x, y, zoom, false);
+    final Worker existingWorker = putWorkerIfAbsent(worker);
+    if (existingWorker != null) {
+      coalescedRequests.incrementAndGet();
+      return existingWorker.getTile();
+    }
+    worker.request();
+    requests.incrementAndGet();
+    if (prefetchNeighbors) {
+      prefetchNeighbors(x, y, zoom);
+    }
     return worker.getTile();
   }
 
+  /**
+   * Removes every tile kept by the cache of this tile overlay.
+   *
+   * <p>Requests to Dart that are in flight are still returned to the map, but their tiles are not
+   * cached and later requests for the same tiles are sent to Dart again.
+   */
+  void clearCache() {
+    cache.clear();
+    workers.clear();
+  }
+
+  /** Returns the number of tiles served from the cache and requested from Dart, keyed by name. */
+  @NonNull
+  Map<String, Long> getStatistics() {
+    final Map<String, Long> statistics = new LinkedHashMap<>();
+    statistics.put("memoryHits", memoryHits.get());
+    statistics.put("diskHits", diskHits.get());
+    statistics.put("requests", requests.get());
+    statistics.put("coalescedRequests", coalescedRequests.get());
+    statistics.put("prefetchedTiles", prefetchedTiles.get());
+    statistics.put("batches", batches.get());
+    statistics.put("timeouts", timeouts.get());
+    statistics.put("errors", errors.get());
+    final long completed = completedRequests.get();
+    statistics.put(
+        "averageLatencyMicros",
+        completed > 0 ? TimeUnit.NANOSECONDS.toMicros(totalLatencyNanos.get() / completed) : 0);
+    statistics.put("maxLatencyMicros", TimeUnit.NANOSECONDS.toMicros(maxLatencyNanos.get()));
+    return statistics;
+  }
+
+  /**
+   * Requests the tiles around a tile requested from Dart that are not cached, so that they are
+   * ready when the map is panned. Tiles wrap around horizontally.
+   */
+  private void prefetchNeighbors(int x, int y, int zoom) {
+    final int tileCount = 1 << zoom;
+    for (int dy = -1; dy <= 1; dy++) {
+      final int neighborY = y + dy;
+      if (neighborY < 0 || neighborY >= tileCount) {
+        continue;
+      }
+      for (int dx = -1; dx <= 1; dx++) {
+        final int neighborX = ((x + dx) % tileCount + tileCount) % tileCount;
+        final String key = TileCache.getKey(neighborX, neighborY, zoom);
+        if ((dx == 0 && dy == 0) || workers.containsKey(key) || cache.contains(key)) {
+          continue;
+        }
+        final Worker worker = new Worker(key, neighborX, neighborY, zoom, true);
+        if (putWorkerIfAbsent(worker) == null) {
+          worker.request();
+          prefetchedTiles.incrementAndGet();
+        }
+      }
+    }
+  }
+
+  @Nullable
+  private Worker putWorkerIfAbsent(@NonNull Worker worker) {
+    return workers.putIfAbsent(worker.key, worker);
+  }
+
+  private void enqueue(@NonNull Worker worker) {
+    synchronized (batchLock) {
+      pendingWorkers.add(worker);
+      if (pendingWorkers.size() == 1) {
+        handler.postDelayed(this::requestPendingTiles, BATCH_WINDOW_MILLIS);
+      }
+    }
+  }
+
+  /**
+   * Sends the pending requests to Dart, with one message per zoom level for the tiles the map
+   * requested, followed by one message per zoom level for the prefetched tiles, so that the tiles
+   * the map is waiting for do not wait for the prefetched ones.
+   */
+  private void requestPendingTiles() {
+    final List<Worker> pending;
+    synchronized (batchLock) {
+      pending = pendingWorkers;
+      pendingWorkers = new ArrayList<>();
+    }
+    final Map<Integer, List<Worker>> workersByZoom = new LinkedHashMap<>();
+    final Map<Integer, List<Worker>> prefetchWorkersByZoom = new LinkedHashMap<>();
+    for (Worker worker : pending) {
+      final Map<Integer, List<Worker>> batches =
+          worker.prefetch ? prefetchWorkersByZoom : workersByZoom;
+      List<Worker> batch = batches.get(worker.zoom);
+      if (batch == null) {
+        batch = new ArrayList<>();
+        batches.put(worker.zoom, batch);
+      }
+      batch.add(worker);
+    }
+    for (List<Worker> batch : workersByZoom.values()) {
+      requestTiles(batch);
+    }
+    for (List<Worker> batch : prefetchWorkersByZoom.values()) {
+      requestTiles(batch);
+    }
+  }
+
+  private void requestTiles(@NonNull List<Worker> batch) {
+    batches.incrementAndGet();
+    final Worker firstWorker = batch.get(0);
+    if (batch.size() == 1) {
+      flutterApi.getTileOverlayTile(
+          tileOverlayId, firstWorker.getLocation(), (long) firstWorker.zoom, firstWorker);
+      return;
+    }
+    final List<Messages.PlatformPoint> locations = new ArrayList<>(batch.size());
+    for (Worker worker : batch) {
+      locations.add(worker.getLocation());
+    }
+    flutterApi.getTileOverlayTiles(
+        tileOverlayId,
+        locations,
+        (long) firstWorker.zoom,
+        new Messages.Result<List<Messages.PlatformTile>>() {
+          @Override
+          public void success(@NonNull List<Messages.PlatformTile> result) {
+            if (result.size() != batch.size()) {
+              error(
+                  new FlutterError(
+                      "Invalid tiles",
+                      "Expected " + batch.size() + " tiles, got " + result.size(),
+                      null));
+              return;
+            }
+            for (int i = 0; i < batch.size(); i++) {
+              batch.get(i).success(result.get(i));
+            }
+          }
+
+          @Override
+          public void error(@NonNull Throwable error) {
+            for (Worker worker : batch) {
+              worker.error(error);
+            }
+          }
+        });
+  }
+
+  private void recordLatency(long latencyNanos) {
+    completedRequests.incrementAndGet();
+    totalLatencyNanos.addAndGet(latencyNanos);
+    long max = maxLatencyNanos.get();
+    while (latencyNanos > max && !maxLatencyNanos.compareAndSet(max, latencyNanos)) {
+      max = maxLatencyNanos.get();
+    }
+  }
+
   private final class Worker implements Messages.Result<Messages.PlatformTile> {
 
     private final CountDownLatch countDownLatch = new CountDownLatch(1);
+    private final String key;
     private final int x;
     private final int y;
     private final int zoom;
-    private @Nullable Messages.PlatformTile result;
+    // Whether the tile is requested ahead of the map.
+    private final boolean prefetch;
+    private final int cacheGeneration = cache.getGeneration();
+    private long requestNanos;
+    private volatile @Nullable Tile result;
 
-    Worker(int x, int y, int zoom) {
+    Worker(String key, int x, int y, int zoom, boolean prefetch) {
+      this.key = key;
       this.x = x;
       this.y = y;
       this.zoom = zoom;
+      this.prefetch = prefetch;
+    }
+
+    void request() {
+      requestNanos = System.nanoTime();
+      enqueue(this);
     }
 
     @NonNull
+    Messages.PlatformPoint getLocation() {
+      return new Messages.PlatformPoint.Builder().setX((long) x).setY((long) y).build();
+    }
+
+    /** Waits for the tile, or returns null to have the map request it again if it times out. */
+    @Nullable
     Tile getTile() {
-      final Messages.PlatformPoint location =
-          new Messages.PlatformPoint.Builder().setX((long) x).setY((long) y).build();
-      handler.post(() -> flutterApi.getTileOverlayTile(tileOverlayId, location, (long) zoom, this));
       try {
         // `flutterApi.getTileOverlayTile` is async, so use a `countDownLatch` to make it synchronized.
-        countDownLatch.await();
+        if (timeoutMilliseconds <= 0) {
+          countDownLatch.await();
+        } else if (!countDownLatch.await(timeoutMilliseconds, TimeUnit.MILLISECONDS)) {
+          // The request is left in flight, so that the tile is cached when Dart returns it.
+          timeouts.incrementAndGet();
+          return null;
+        }
       } catch (InterruptedException e) {
         Log.e(
             TAG,
@@ -63,25 +321,29 @@ class TileProviderController implements TileProvider {
             e);
         return TileProvider.NO_TILE;
       }
-      try {
-        if (result == null) {
-          Log.e(
-              TAG,
-              String.format(
-                  "Did not receive tile data for tile: x = %d, y= %d, zoom = %d", x, y, zoom));
-          return TileProvider.NO_TILE;
-        }
-        return Convert.tileFromPigeon(result);
-      } catch (Exception e) {
-        Log.e(TAG, "Can't parse tile data", e);
+      final Tile tile = result;
+      if (tile == null) {
+        Log.e(
+            TAG,
+            String.format(
+                "Did not receive tile data for tile: x = %d, y= %d, zoom = %d", x, y, zoom));
         return TileProvider.NO_TILE;
       }
+      return tile;
     }
 
     @Override
     public void success(@NonNull Messages.PlatformTile result) {
-      this.result = result;
-      countDownLatch.countDown();
+      recordLatency(System.nanoTime() - requestNanos);
+      try {
+        final Tile tile = Convert.tileFromPigeon(result);
+        cache.put(key, tile, cacheGeneration);
+        this.result = tile;
+      } catch (Exception e) {
+        Log.e(TAG, "Can't parse tile data", e);
+        errors.incrementAndGet();
+      }
+      complete();
     }
 
     @Override
@@ -99,7 +361,13 @@ class TileProviderController implements TileProvider {
       } else {
         Log.e(TAG, "Can't get tile: " + error);
       }
+      errors.incrementAndGet();
       result = null;
+      complete();
+    }
+
+    private void complete() {
+      workers.remove(key, this);
       countDownLatch.countDown();
     }
   }
@@ -0,0 +1,156 @@
+// Copyright 2013 The Flutter Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package io.flutter.plugins.googlemaps;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import android.content.ComponentCallbacks2;
+import android.graphics.Bitmap;
+import com.google.android.gms.maps.model.BitmapDescriptor;
+import java.util.Map;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+@RunWith(RobolectricTestRunner.class)
+public class BitmapDescriptorCacheTest {
+  // Size of the 10x10 ARGB_8888 bitmaps returned by the decoder.
+  private static final int BITMAP_BYTES = 10 * 10 * 4;
+
+  private final Convert.BitmapDescriptorFactoryWrapper mockFactory =
+      mock(Convert.BitmapDescriptorFactoryWrapper.class);
+  private int decodeCount;
+
+  private final BitmapDescriptorCache.BitmapDecoder decoder =
+      () -> {
+        decodeCount++;
+        return Bitmap.createBitmap(10, 10, Bitmap.Config.ARGB_8888);
+      };
+
+  private static BitmapDescriptorCache.Key createKey(byte[] content, float density) {
+    return BitmapDescriptorCache.Key.fromBytes(
+        new Messages.PlatformBitmapBytesMap.Builder()
+            .setByteData(content)
+            .setImagePixelRatio(1.0)
+            .setBitmapScaling(Messages.PlatformMapBitmapScaling.AUTO)
+            .build(),
+        density);
+  }
+
+  @Test
+  public void get_decodesImagesWithTheSameContentOnce() {
+    final BitmapDescriptor descriptor = mock(BitmapDescriptor.class);
+    when(mockFactory.fromBitmap(any())).thenReturn(descriptor);
+    final BitmapDescriptorCache cache = new BitmapDescriptorCache(BITMAP_BYTES * 4);
+
+    // Equal content sent in separate messages is in separate arrays.
+    final BitmapDescriptor first =
+        cache.get(createKey(new byte[] {1, 2, 3}, 2f), decoder, mockFactory);
+    final BitmapDescriptor second =
+        cache.get(createKey(new byte[] {1, 2, 3}, 2f), decoder, mockFactory);
+
+    assertSame(descriptor, first);
+    assertSame(descriptor, second);
+    assertEquals(1, decodeCount);
+    verify(mockFactory, times(1)).fromBitmap(any());
+    final Map<String, Long> statistics = cache.getStatistics();
+    assertEquals(1L, (long) statistics.get("hits"));
+    assertEquals(1L, (long) statistics.get("misses"));
+    assertEquals(1L, (long) statistics.get("decodedBitmaps"));
+    assertEquals(BITMAP_BYTES, (long) statistics.get("decodedBytes"));
+  }
+
+  @Test
+  public void get_decodesImagesAgainForEachSize() {
+    when(mockFactory.fromBitmap(any())).thenReturn(mock(BitmapDescriptor.class));
+    final BitmapDescriptorCache cache = new BitmapDescriptorCache(BITMAP_BYTES * 4);
+
+    cache.get(createKey(new byte[] {1, 2, 3}, 2f), decoder, mockFactory);
+    cache.get(createKey(new byte[] {1, 2, 3}, 3f), decoder, mockFactory);
+    cache.get(createKey(new byte[] {1, 2, 4}, 3f), decoder, mockFactory);
+
+    assertEquals(3, decodeCount);
+  }
+
+  @Test
+  public void get_evictsLeastRecentlyUsedDescriptorsBeyondMaxBytes() {
+    when(mockFactory.fromBitmap(any())).thenReturn(mock(BitmapDescriptor.class));
+    // Room for two bitmaps and their single byte keys.
+    final BitmapDescriptorCache cache = new BitmapDescriptorCache((BITMAP_BYTES + 1) * 2);
+
+    cache.get(createKey(new byte[] {1}, 1f), decoder, mockFactory);
+    cache.get(createKey(new byte[] {2}, 1f), decoder, mockFactory);
+    cache.get(createKey(new byte[] {1}, 1f), decoder, mockFactory);
+    cache.get(createKey(new byte[] {3}, 1f), decoder, mockFactory);
+    cache.get(createKey(new byte[] {1}, 1f), decoder, mockFactory);
+    cache.get(createKey(new byte[] {2}, 1f), decoder, mockFactory);
+
+    // {2} was evicted when {3} was added, as {1} was used more recently.
+    assertEquals(4, decodeCount);
+    final Map<String, Long> statistics = cache.getStatistics();
+    assertEquals(2L, (long) statistics.get("evictions"));
+    assertEquals((BITMAP_BYTES + 1) * 2, (long) statistics.get("cachedBytes"));
+  }
+
+  @Test
+  public void get_countsKeyContentInCacheSize() {
+    when(mockFactory.fromBitmap(any())).thenReturn(mock(BitmapDescriptor.class));
+    final BitmapDescriptorCache cache = new BitmapDescriptorCache(BITMAP_BYTES * 4);
+
+    cache.get(createKey(new byte[100], 1f), decoder, mockFactory);
+
+    assertEquals(BITMAP_BYTES + 100, (long) cache.getStatistics().get("cachedBytes"));
+  }
+
+  @Test
+  public void get_evictsDescriptorsWhoseKeyContentExceedsMaxBytes() {
+    when(mockFactory.fromBitmap(any())).thenReturn(mock(BitmapDescriptor.class));
+    final BitmapDescriptorCache cache = new BitmapDescriptorCache(BITMAP_BYTES * 2);
+
+    // The image content is larger than its decoded bitmap.
+    cache.get(createKey(new byte[BITMAP_BYTES * 2], 1f), decoder, mockFactory);
+
+    assertEquals(0L, (long) cache.getStatistics().get("cachedBytes"));
+  }
+
+  @Test
+  public void onMapDisposed_clearsCacheOnceLastMapIsDisposed() {
+    when(mockFactory.fromBitmap(any())).thenReturn(mock(BitmapDescriptor.class));
+    final BitmapDescriptorCache cache = new BitmapDescriptorCache(BITMAP_BYTES * 4);
+    cache.onMapCreated();
+    cache.onMapCreated();
+    cache.get(createKey(new byte[] {1}, 1f), decoder, mockFactory);
+
+    cache.onMapDisposed();
+
+    assertTrue(cache.getStatistics().get("cachedBytes") > 0);
+
+    cache.onMapDisposed();
+
+    assertEquals(0L, (long) cache.getStatistics().get("cachedBytes"));
+  }
+
+  @Test
+  public void onTrimMemory_clearsCacheWhenRunningLowOnMemory() {
+    when(mockFactory.fromBitmap(any())).thenReturn(mock(BitmapDescriptor.class));
+    final BitmapDescriptorCache cache = new BitmapDescriptorCache(BITMAP_BYTES * 4);
+    cache.get(createKey(new byte[] {1}, 1f), decoder, mockFactory);
+
+    cache.onTrimMemory(ComponentCallbacks2.TRIM_MEMORY_RUNNING_MODERATE);
+
+    assertTrue(cache.getStatistics().get("cachedBytes") > 0);
+
+    cache.onTrimMemory(ComponentCallbacks2.TRIM_MEMORY_RUNNING_LOW);
+
+    assertEquals(0L, (long) cache.getStatistics().get("cachedBytes"));
+  }
+}
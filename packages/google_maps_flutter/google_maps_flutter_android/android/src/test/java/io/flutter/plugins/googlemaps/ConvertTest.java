@@ -229,6 +229,66 @@ public class ConvertTest {
     Assert.assertEquals(mockBitmapDescriptor, result);
   }
 
+  private static Messages.PlatformMarker createMarkerWithIcon(byte[] iconData) {
+    final Messages.PlatformBitmap icon =
+        new Messages.PlatformBitmap.Builder()
+            .setBitmap(
+                new Messages.PlatformBitmapBytesMap.Builder()
+                    .setBitmapScaling(Messages.PlatformMapBitmapScaling.AUTO)
+                    .setImagePixelRatio(2.0)
+                    .setByteData(iconData)
+                    .build())
+            .build();
+    final Messages.PlatformDoublePair anchor =
+        new Messages.PlatformDoublePair.Builder().setX(0.5).setY(0.0).build();
+    return new Messages.PlatformMarker.Builder()
+        .setPosition(
+            new Messages.PlatformLatLng.Builder().setLatitude(0.0).setLongitude(0.0).build())
+        .setAnchor(anchor)
+        .setFlat(false)
+        .setDraggable(false)
+        .setVisible(true)
+        .setAlpha(1.0)
+        .setRotation(0.0)
+        .setZIndex(0.0)
+        .setConsumeTapEvents(false)
+        .setIcon(icon)
+        .setInfoWindow(new Messages.PlatformInfoWindow.Builder().setAnchor(anchor).build())
+        .build();
+  }
+
+  @Test
+  public void InterpretMarkerOptionsDecodesIconsWithEqualBytesOnce() {
+    Convert.bitmapDescriptorCache.clear();
+    when(bitmapDescriptorFactoryWrapper.fromBitmap(any())).thenReturn(mockBitmapDescriptor);
+    final long decodedBitmaps =
+        Convert.bitmapDescriptorCache.getStatistics().get("decodedBitmaps");
+    // Each marker gets its own copy of the icon, as when they are sent in separate messages.
+    final MarkerBuilder first = new MarkerBuilder("m_1", null);
+    final MarkerBuilder second = new MarkerBuilder("m_2", null);
+
+    Convert.interpretMarkerOptions(
+        createMarkerWithIcon(Base64.decode(base64Image, Base64.DEFAULT)),
+        first,
+        assetManager,
+        1f,
+        bitmapDescriptorFactoryWrapper);
+    Convert.interpretMarkerOptions(
+        createMarkerWithIcon(Base64.decode(base64Image, Base64.DEFAULT)),
+        second,
+        assetManager,
+        1f,
+        bitmapDescriptorFactoryWrapper);
+
+    verify(bitmapDescriptorFactoryWrapper, times(1)).fromBitmap(any());
+    Assert.assertEquals(
+        decodedBitmaps + 1,
+        (long) Convert.bitmapDescriptorCache.getStatistics().get("decodedBitmaps"));
+    Assert.assertSame(mockBitmapDescriptor, first.build().getIcon());
+    Assert.assertSame(mockBitmapDescriptor, second.build().getIcon());
+    Convert.bitmapDescriptorCache.clear();
+  }
+
   @Test
   public void GetBitmapFromBytesAuto() {
     byte[] bmpData = Base64.decode(base64Image, Base64.DEFAULT);
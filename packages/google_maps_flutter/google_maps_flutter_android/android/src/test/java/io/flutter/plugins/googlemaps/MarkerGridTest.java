@@ -0,0 +1,83 @@
+// Copyright 2013 The Flutter Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package io.flutter.plugins.googlemaps;
+
+import static org.junit.Assert.assertEquals;
+
+import com.google.android.gms.maps.model.LatLng;
+import com.google.android.gms.maps.model.LatLngBounds;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+@RunWith(RobolectricTestRunner.class)
+public class MarkerGridTest {
+  private static LatLngBounds createBounds(double south, double west, double north, double east) {
+    return new LatLngBounds(new LatLng(south, west), new LatLng(north, east));
+  }
+
+  @Test
+  public void getMarkerIds_returnsMarkersWithinBounds() {
+    final MarkerGrid grid = new MarkerGrid();
+    grid.add("inside", new LatLng(10.05, 20.05));
+    grid.add("sameCellOutside", new LatLng(10.09, 20.09));
+    grid.add("outside", new LatLng(-10, -20));
+
+    assertEquals(
+        Collections.singleton("inside"),
+        grid.getMarkerIds(createBounds(10, 20, 10.07, 20.07)));
+  }
+
+  @Test
+  public void getMarkerIds_returnsMarkersOnBothSidesOfTheAntimeridian() {
+    final MarkerGrid grid = new MarkerGrid();
+    grid.add("east", new LatLng(0, 179.5));
+    grid.add("west", new LatLng(0, -179.5));
+    grid.add("outside", new LatLng(0, 0));
+
+    assertEquals(
+        new HashSet<>(Arrays.asList("east", "west")),
+        grid.getMarkerIds(createBounds(-1, 179, 1, -179)));
+  }
+
+  @Test
+  public void getMarkerIds_returnsMarkersInBoundsCoveringMoreCellsThanAreOccupied() {
+    final MarkerGrid grid = new MarkerGrid();
+    grid.add("a", new LatLng(45, 90));
+    grid.add("b", new LatLng(-45, -90));
+
+    assertEquals(
+        new HashSet<>(Arrays.asList("a", "b")),
+        grid.getMarkerIds(createBounds(-90, -180, 90, 179.9)));
+  }
+
+  @Test
+  public void remove_removesMarkerAtPosition() {
+    final MarkerGrid grid = new MarkerGrid();
+    final LatLng position = new LatLng(1, 2);
+    grid.add("marker", position);
+
+    grid.remove("marker", position);
+
+    assertEquals(0, grid.getMarkerIds(createBounds(0, 1, 2, 3)).size());
+  }
+
+  @Test
+  public void getMarkerIds_returnsMarkerMovedAcrossBoundsAtItsNewPosition() {
+    final MarkerGrid grid = new MarkerGrid();
+    final LatLng previousPosition = new LatLng(1, 2);
+    final LatLng position = new LatLng(50, 60);
+    grid.add("marker", previousPosition);
+
+    grid.remove("marker", previousPosition);
+    grid.add("marker", position);
+
+    assertEquals(0, grid.getMarkerIds(createBounds(0, 1, 2, 3)).size());
+    assertEquals(Collections.singleton("marker"), grid.getMarkerIds(createBounds(49, 59, 51, 61)));
+  }
+}
@@ -5,25 +5,33 @@
 package io.flutter.plugins.googlemaps;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
+import static org.robolectric.Shadows.shadowOf;
 
 import android.content.Context;
 import android.content.res.AssetManager;
 import android.graphics.Bitmap;
+import android.os.Looper;
 import androidx.test.core.app.ApplicationProvider;
 import com.google.android.gms.maps.GoogleMap;
 import com.google.android.gms.maps.model.LatLng;
+import com.google.android.gms.maps.model.LatLngBounds;
 import com.google.android.gms.maps.model.Marker;
 import com.google.android.gms.maps.model.MarkerOptions;
 import com.google.maps.android.collections.MarkerManager;
 import io.flutter.plugin.common.BinaryMessenger;
 import io.flutter.plugins.googlemaps.Messages.MapsCallbackApi;
 import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 import org.junit.After;
@@ -266,4 +274,339 @@ public class MarkersControllerTest {
 
     Mockito.verify(spyMarkerCollection, times(1)).remove(marker);
   }
+
+  // Returns markers added to the map in the order they are added, each with its own id.
+  private List<Marker> recordAddedMarkers() {
+    final List<Marker> addedMarkers = new ArrayList<>();
+    when(googleMap.addMarker(any(MarkerOptions.class)))
+        .thenAnswer(
+            invocation -> {
+              final Marker marker = mock(Marker.class);
+              when(marker.getId()).thenReturn("m" + addedMarkers.size());
+              addedMarkers.add(marker);
+              return marker;
+            });
+    return addedMarkers;
+  }
+
+  private static List<Messages.PlatformMarker> createMarkers(int count) {
+    final List<Messages.PlatformMarker> markers = new ArrayList<>();
+    for (int i = 0; i < count; i++) {
+      markers.add(defaultMarkerBuilder().setMarkerId("marker" + i).build());
+    }
+    return markers;
+  }
+
+  private MarkersController createControllerInterpretingOnCallingThread() {
+    final MarkersController controller =
+        new MarkersController(
+            flutterApi,
+            clusterManagersController,
+            assetManager,
+            density,
+            bitmapDescriptorFactoryWrapper,
+            Runnable::run);
+    controller.setCollection(markerCollection);
+    return controller;
+  }
+
+  @Test
+  public void updateMarkers_addsFewMarkersImmediately() {
+    final List<Marker> addedMarkers = recordAddedMarkers();
+    final Messages.VoidResult result = mock(Messages.VoidResult.class);
+
+    createControllerInterpretingOnCallingThread()
+        .updateMarkers(
+            createMarkers(MarkersController.SYNCHRONOUS_ADD_LIMIT),
+            Collections.emptyList(),
+            Collections.emptyList(),
+            result);
+
+    assertEquals(MarkersController.SYNCHRONOUS_ADD_LIMIT, addedMarkers.size());
+    verify(result).success();
+  }
+
+  @Test
+  public void updateMarkers_addsManyMarkersInFramesAndCompletesOnceAllAreAdded() {
+    final List<Marker> addedMarkers = recordAddedMarkers();
+    final Messages.VoidResult result = mock(Messages.VoidResult.class);
+    final int markerCount = MarkersController.SYNCHRONOUS_ADD_LIMIT * 10;
+    final MarkersController controller = createControllerInterpretingOnCallingThread();
+
+    controller.updateMarkers(
+        createMarkers(markerCount), Collections.emptyList(), Collections.emptyList(), result);
+    assertEquals(0, addedMarkers.size());
+    verify(result, never()).success();
+
+    shadowOf(Looper.getMainLooper()).runToEndOfTasks();
+
+    assertEquals(markerCount, addedMarkers.size());
+    verify(result).success();
+    // Markers added in the background can be tapped like any other.
+    controller.onMapsMarkerTap("m" + (markerCount - 1));
+    verify(flutterApi).onMarkerTap(eq("marker" + (markerCount - 1)), any());
+  }
+
+  @Test
+  public void updateMarkers_appliesUpdatesInOrder() {
+    final List<Marker> addedMarkers = recordAddedMarkers();
+    final Messages.VoidResult firstResult = mock(Messages.VoidResult.class);
+    final Messages.VoidResult secondResult = mock(Messages.VoidResult.class);
+    final MarkersController controller = createControllerInterpretingOnCallingThread();
+
+    controller.updateMarkers(
+        createMarkers(MarkersController.SYNCHRONOUS_ADD_LIMIT + 1),
+        Collections.emptyList(),
+        Collections.emptyList(),
+        firstResult);
+    controller.updateMarkers(
+        Collections.emptyList(),
+        Collections.emptyList(),
+        Collections.singletonList("marker0"),
+        secondResult);
+    verify(secondResult, never()).success();
+
+    shadowOf(Looper.getMainLooper()).runToEndOfTasks();
+
+    verify(firstResult).success();
+    verify(secondResult).success();
+    verify(addedMarkers.get(0)).remove();
+  }
+
+  @Test
+  public void dispose_stopsAddingMarkers() {
+    final List<Marker> addedMarkers = recordAddedMarkers();
+    final Messages.VoidResult result = mock(Messages.VoidResult.class);
+    final MarkersController controller = createControllerInterpretingOnCallingThread();
+
+    controller.updateMarkers(
+        createMarkers(MarkersController.SYNCHRONOUS_ADD_LIMIT + 1),
+        Collections.emptyList(),
+        Collections.emptyList(),
+        result);
+    controller.dispose();
+    shadowOf(Looper.getMainLooper()).runToEndOfTasks();
+
+    assertEquals(0, addedMarkers.size());
+    // Dart is not left waiting for the markers that were being added.
+    verify(result, times(1)).success();
+  }
+
+  @Test
+  public void dispose_completesPendingUpdates() {
+    final List<Marker> addedMarkers = recordAddedMarkers();
+    final Messages.VoidResult pendingResult = mock(Messages.VoidResult.class);
+    final MarkersController controller = createControllerInterpretingOnCallingThread();
+    controller.updateMarkers(
+        createMarkers(MarkersController.SYNCHRONOUS_ADD_LIMIT + 1),
+        Collections.emptyList(),
+        Collections.emptyList(),
+        mock(Messages.VoidResult.class));
+    controller.updateMarkers(
+        Collections.singletonList(createMarkerAt("pending", 0, 0)),
+        Collections.emptyList(),
+        Collections.emptyList(),
+        pendingResult);
+
+    controller.dispose();
+    shadowOf(Looper.getMainLooper()).runToEndOfTasks();
+
+    assertEquals(0, addedMarkers.size());
+    verify(pendingResult, times(1)).success();
+  }
+
+  @Test
+  public void updateMarkers_completesUpdatesReceivedAfterDispose() {
+    final List<Marker> addedMarkers = recordAddedMarkers();
+    final Messages.VoidResult result = mock(Messages.VoidResult.class);
+    final MarkersController controller = createControllerInterpretingOnCallingThread();
+    controller.dispose();
+
+    controller.updateMarkers(
+        createMarkers(1), Collections.emptyList(), Collections.emptyList(), result);
+
+    assertEquals(0, addedMarkers.size());
+    verify(result).success();
+  }
+
+  private static Messages.PlatformMarker createMarkerAt(
+      String markerId, double latitude, double longitude) {
+    return defaultMarkerBuilder()
+        .setMarkerId(markerId)
+        .setPosition(
+            new Messages.PlatformLatLng.Builder()
+                .setLatitude(latitude)
+                .setLongitude(longitude)
+                .build())
+        .build();
+  }
+
+  private static LatLngBounds createBoundsAround(double latitude, double longitude) {
+    return new LatLngBounds(
+        new LatLng(latitude - 0.5, longitude - 0.5), new LatLng(latitude + 0.5, longitude + 0.5));
+  }
+
+  @Test
+  public void virtualization_addsMarkersNearTheVisibleRegionWhenTheCameraStops() {
+    final List<Marker> addedMarkers = recordAddedMarkers();
+    final MarkersController controller = createControllerInterpretingOnCallingThread();
+    controller.setVirtualizationEnabled(true, createBoundsAround(0, 0));
+
+    controller.updateMarkers(
+        Arrays.asList(createMarkerAt("near", 0.6, 0.6), createMarkerAt("far", 50, 50)),
+        Collections.emptyList(),
+        Collections.emptyList(),
+        mock(Messages.VoidResult.class));
+    assertEquals(1, addedMarkers.size());
+
+    controller.onCameraIdle(createBoundsAround(50, 50));
+
+    // Markers are removed immediately, and added in the next frames.
+    verify(addedMarkers.get(0)).remove();
+    assertEquals(1, addedMarkers.size());
+
+    shadowOf(Looper.getMainLooper()).runToEndOfTasks();
+
+    assertEquals(2, addedMarkers.size());
+    // Taps keep reporting the ID of the marker in Dart, and markers removed from the map are not
+    // reported anymore.
+    controller.onMapsMarkerTap("m1");
+    verify(flutterApi).onMarkerTap(eq("far"), any());
+    assertFalse(controller.onMapsMarkerTap("m0"));
+    verify(flutterApi, never()).onMarkerTap(eq("near"), any());
+  }
+
+  @Test
+  public void virtualization_addsMarkerWhoseInfoWindowIsShown() {
+    final List<Marker> addedMarkers = recordAddedMarkers();
+    final MarkersController controller = createControllerInterpretingOnCallingThread();
+    controller.setVirtualizationEnabled(true, createBoundsAround(0, 0));
+    controller.updateMarkers(
+        Collections.singletonList(createMarkerAt("far", 50, 50)),
+        Collections.emptyList(),
+        Collections.emptyList(),
+        mock(Messages.VoidResult.class));
+
+    assertFalse(controller.isInfoWindowShown("far"));
+    controller.showMarkerInfoWindow("far");
+
+    assertEquals(1, addedMarkers.size());
+    verify(addedMarkers.get(0)).showInfoWindow();
+  }
+
+  @Test
+  public void virtualization_addsEveryMarkerWhenDisabled() {
+    final List<Marker> addedMarkers = recordAddedMarkers();
+    final MarkersController controller = createControllerInterpretingOnCallingThread();
+    controller.setVirtualizationEnabled(true, createBoundsAround(0, 0));
+    controller.updateMarkers(
+        Arrays.asList(createMarkerAt("near", 0, 0), createMarkerAt("far", 50, 50)),
+        Collections.emptyList(),
+        Collections.emptyList(),
+        mock(Messages.VoidResult.class));
+
+    controller.setVirtualizationEnabled(false, createBoundsAround(0, 0));
+
+    assertEquals(1, addedMarkers.size());
+
+    shadowOf(Looper.getMainLooper()).runToEndOfTasks();
+
+    assertEquals(2, addedMarkers.size());
+  }
+
+  @Test
+  public void virtualization_addsMarkerChangedToAPositionInBounds() {
+    final List<Marker> addedMarkers = recordAddedMarkers();
+    final MarkersController controller = createControllerInterpretingOnCallingThread();
+    controller.setVirtualizationEnabled(true, createBoundsAround(0, 0));
+    controller.updateMarkers(
+        Collections.singletonList(createMarkerAt("marker", 50, 50)),
+        Collections.emptyList(),
+        Collections.emptyList(),
+        mock(Messages.VoidResult.class));
+    assertEquals(0, addedMarkers.size());
+
+    controller.updateMarkers(
+        Collections.emptyList(),
+        Collections.singletonList(createMarkerAt("marker", 0, 0)),
+        Collections.emptyList(),
+        mock(Messages.VoidResult.class));
+
+    assertEquals(1, addedMarkers.size());
+
+    // The marker is indexed at its new position, so it stays on the map.
+    controller.onCameraIdle(createBoundsAround(0, 0));
+    shadowOf(Looper.getMainLooper()).runToEndOfTasks();
+
+    verify(addedMarkers.get(0), never()).remove();
+  }
+
+  @Test
+  public void virtualization_removesMarkerChangedToAPositionOutOfBoundsWhenTheCameraStops() {
+    final List<Marker> addedMarkers = recordAddedMarkers();
+    final MarkersController controller = createControllerInterpretingOnCallingThread();
+    controller.setVirtualizationEnabled(true, createBoundsAround(0, 0));
+    controller.updateMarkers(
+        Collections.singletonList(createMarkerAt("marker", 0, 0)),
+        Collections.emptyList(),
+        Collections.emptyList(),
+        mock(Messages.VoidResult.class));
+
+    controller.updateMarkers(
+        Collections.emptyList(),
+        Collections.singletonList(createMarkerAt("marker", 50, 50)),
+        Collections.emptyList(),
+        mock(Messages.VoidResult.class));
+    controller.onCameraIdle(createBoundsAround(0, 0));
+
+    verify(addedMarkers.get(0)).remove();
+
+    controller.onCameraIdle(createBoundsAround(50, 50));
+    shadowOf(Looper.getMainLooper()).runToEndOfTasks();
+
+    assertEquals(2, addedMarkers.size());
+  }
+
+  @Test
+  public void virtualization_removesMarkerThatIsNotOnTheMap() {
+    final List<Marker> addedMarkers = recordAddedMarkers();
+    final MarkersController controller = createControllerInterpretingOnCallingThread();
+    controller.setVirtualizationEnabled(true, createBoundsAround(0, 0));
+    controller.updateMarkers(
+        Collections.singletonList(createMarkerAt("far", 50, 50)),
+        Collections.emptyList(),
+        Collections.emptyList(),
+        mock(Messages.VoidResult.class));
+    final Messages.VoidResult result = mock(Messages.VoidResult.class);
+
+    controller.updateMarkers(
+        Collections.emptyList(), Collections.emptyList(), Collections.singletonList("far"), result);
+    controller.onCameraIdle(createBoundsAround(50, 50));
+    shadowOf(Looper.getMainLooper()).runToEndOfTasks();
+
+    verify(result).success();
+    assertEquals(0, addedMarkers.size());
+  }
+
+  @Test
+  public void virtualization_doesNotAddMarkerRemovedBeforeItsFrame() {
+    final List<Marker> addedMarkers = recordAddedMarkers();
+    final MarkersController controller = createControllerInterpretingOnCallingThread();
+    controller.setVirtualizationEnabled(true, createBoundsAround(0, 0));
+    controller.updateMarkers(
+        Collections.singletonList(createMarkerAt("far", 50, 50)),
+        Collections.emptyList(),
+        Collections.emptyList(),
+        mock(Messages.VoidResult.class));
+
+    controller.onCameraIdle(createBoundsAround(50, 50));
+    controller.updateMarkers(
+        Collections.emptyList(),
+        Collections.emptyList(),
+        Collections.singletonList("far"),
+        mock(Messages.VoidResult.class));
+    shadowOf(Looper.getMainLooper()).runToEndOfTasks();
+
+    assertEquals(0, addedMarkers.size());
+  }
 }
@@ -0,0 +1,309 @@
+// Copyright 2013 The Flutter Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package io.flutter.plugins.googlemaps;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.robolectric.Shadows.shadowOf;
+
+import android.os.Looper;
+import com.google.android.gms.maps.model.Tile;
+import io.flutter.plugins.googlemaps.Messages.MapsCallbackApi;
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.FutureTask;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.robolectric.RobolectricTestRunner;
+
+@RunWith(RobolectricTestRunner.class)
+public class TileProviderControllerTest {
+  private static final String TILE_OVERLAY_ID = "overlay";
+  private static final byte[] TILE_DATA = new byte[] {1, 2, 3};
+
+  @Rule public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+  private final MapsCallbackApi mockFlutterApi = mock(MapsCallbackApi.class);
+  // Results of the tile requests that have not been answered yet.
+  private final List<Messages.Result<Messages.PlatformTile>> pendingResults = new ArrayList<>();
+
+  private void answerRequestsWithTile() {
+    doAnswer(
+            invocation -> {
+              Messages.Result<Messages.PlatformTile> result = invocation.getArgument(3);
+              result.success(createPlatformTile());
+              return null;
+            })
+        .when(mockFlutterApi)
+        .getTileOverlayTile(eq(TILE_OVERLAY_ID), any(), any(), any());
+    doAnswer(
+            invocation -> {
+              List<Messages.PlatformPoint> locations = invocation.getArgument(1);
+              Messages.Result<List<Messages.PlatformTile>> result = invocation.getArgument(3);
+              List<Messages.PlatformTile> tiles = new ArrayList<>();
+              for (int i = 0; i < locations.size(); i++) {
+                tiles.add(createPlatformTile());
+              }
+              result.success(tiles);
+              return null;
+            })
+        .when(mockFlutterApi)
+        .getTileOverlayTiles(eq(TILE_OVERLAY_ID), any(), any(), any());
+  }
+
+  private void holdRequests() {
+    doAnswer(
+            invocation -> {
+              pendingResults.add(invocation.getArgument(3));
+              return null;
+            })
+        .when(mockFlutterApi)
+        .getTileOverlayTile(eq(TILE_OVERLAY_ID), any(), any(), any());
+  }
+
+  private static Messages.PlatformTile createPlatformTile() {
+    return new Messages.PlatformTile.Builder()
+        .setWidth(256L)
+        .setHeight(256L)
+        .setData(TILE_DATA)
+        .build();
+  }
+
+  private TileProviderController createController(
+      TileCache cache, long timeoutMilliseconds, boolean prefetchNeighbors) {
+    return new TileProviderController(
+        mockFlutterApi, TILE_OVERLAY_ID, cache, timeoutMilliseconds, prefetchNeighbors);
+  }
+
+  private static TileCache createMemoryCache() {
+    return new TileCache(1024, null, 0, Runnable::run);
+  }
+
+  // Tiles are requested on a background thread, as the map does, while requests to Dart are posted
+  // to the main thread.
+  private static FutureTask<Tile> startGetTile(
+      TileProviderController controller, int x, int y, int zoom) {
+    final FutureTask<Tile> task = new FutureTask<>(() -> controller.getTile(x, y, zoom));
+    new Thread(task).start();
+    return task;
+  }
+
+  private static Tile await(FutureTask<Tile> task) throws Exception {
+    while (!task.isDone()) {
+      runMainLooper();
+      Thread.sleep(1);
+    }
+    return task.get();
+  }
+
+  // Runs the requests to Dart posted to the main thread, including the batches that are still
+  // collecting requests.
+  private static void runMainLooper() {
+    shadowOf(Looper.getMainLooper()).runToEndOfTasks();
+  }
+
+  private static void waitForStatistic(TileProviderController controller, String name, long value)
+      throws InterruptedException {
+    while (getStatistic(controller, name) < value) {
+      Thread.sleep(1);
+    }
+  }
+
+  private static long getStatistic(TileProviderController controller, String name) {
+    return controller.getStatistics().get(name);
+  }
+
+  @Test
+  public void getTile_servesRepeatedRequestsFromMemory() throws Exception {
+    answerRequestsWithTile();
+    final TileProviderController controller = createController(createMemoryCache(), 0, false);
+
+    final Tile tile = await(startGetTile(controller, 1, 2, 3));
+    final Tile cachedTile = controller.getTile(1, 2, 3);
+
+    assertArrayEquals(TILE_DATA, tile.data);
+    assertSame(tile, cachedTile);
+    verify(mockFlutterApi, times(1)).getTileOverlayTile(any(), any(), any(), any());
+    assertEquals(1, getStatistic(controller, "requests"));
+    assertEquals(1, getStatistic(controller, "memoryHits"));
+  }
+
+  @Test
+  public void getTile_servesTilesCachedOnDiskByAnEarlierProvider() throws Exception {
+    answerRequestsWithTile();
+    final File directory = temporaryFolder.newFolder();
+    final TileProviderController writingController =
+        createController(new TileCache(0, directory, 1024, Runnable::run), 0, false);
+    await(startGetTile(writingController, 1, 2, 3));
+
+    final TileProviderController controller =
+        createController(new TileCache(0, directory, 1024, Runnable::run), 0, false);
+    final Tile tile = controller.getTile(1, 2, 3);
+
+    assertArrayEquals(TILE_DATA, tile.data);
+    assertEquals(256, tile.width);
+    verify(mockFlutterApi, times(1)).getTileOverlayTile(any(), any(), any(), any());
+    assertEquals(1, getStatistic(controller, "diskHits"));
+  }
+
+  @Test
+  public void getTile_sharesConcurrentRequestsForTheSameTile() throws Exception {
+    holdRequests();
+    final TileProviderController controller = createController(createMemoryCache(), 0, false);
+
+    final FutureTask<Tile> first = startGetTile(controller, 1, 2, 3);
+    final FutureTask<Tile> second = startGetTile(controller, 1, 2, 3);
+    waitForStatistic(controller, "requests", 1);
+    waitForStatistic(controller, "coalescedRequests", 1);
+    runMainLooper();
+    pendingResults.get(0).success(createPlatformTile());
+
+    assertSame(await(first), await(second));
+    assertEquals(1, pendingResults.size());
+    assertEquals(1, getStatistic(controller, "coalescedRequests"));
+  }
+
+  @Test
+  public void getTile_returnsNullWhenTheTileIsNotReturnedInTime() throws Exception {
+    holdRequests();
+    final TileProviderController controller = createController(createMemoryCache(), 10, false);
+
+    assertNull(await(startGetTile(controller, 1, 2, 3)));
+    assertEquals(1, getStatistic(controller, "timeouts"));
+    runMainLooper();
+
+    // The tile is cached when it is returned, so the map gets it when it requests it again.
+    pendingResults.get(0).success(createPlatformTile());
+    assertArrayEquals(TILE_DATA, controller.getTile(1, 2, 3).data);
+    assertEquals(1, pendingResults.size());
+  }
+
+  @Test
+  public void getTile_prefetchesNeighborsOfRequestedTiles() throws Exception {
+    answerRequestsWithTile();
+    final TileProviderController controller = createController(createMemoryCache(), 0, true);
+
+    final FutureTask<Tile> task = startGetTile(controller, 0, 0, 1);
+    // At zoom 1, the neighbors of (0, 0) are (1, 0), (0, 1) and (1, 1), as tiles wrap around
+    // horizontally and there are no tiles above.
+    waitForStatistic(controller, "prefetchedTiles", 3);
+    await(task);
+
+    // The requested tile is sent on its own, ahead of the prefetched ones.
+    final InOrder inOrder = inOrder(mockFlutterApi);
+    final ArgumentCaptor<Messages.PlatformPoint> location =
+        ArgumentCaptor.forClass(Messages.PlatformPoint.class);
+    inOrder
+        .verify(mockFlutterApi)
+        .getTileOverlayTile(eq(TILE_OVERLAY_ID), location.capture(), eq(1L), any());
+    @SuppressWarnings("unchecked")
+    final ArgumentCaptor<List<Messages.PlatformPoint>> prefetchedLocations =
+        ArgumentCaptor.forClass(List.class);
+    inOrder
+        .verify(mockFlutterApi)
+        .getTileOverlayTiles(eq(TILE_OVERLAY_ID), prefetchedLocations.capture(), eq(1L), any());
+    assertEquals(0L, location.getValue().getX().longValue());
+    assertEquals(0L, location.getValue().getY().longValue());
+    assertEquals(3, prefetchedLocations.getValue().size());
+    assertEquals(2, getStatistic(controller, "batches"));
+    assertArrayEquals(TILE_DATA, controller.getTile(1, 1, 1).data);
+  }
+
+  @Test
+  public void getTile_doesNotPrefetchNeighborsWithoutCache() throws Exception {
+    answerRequestsWithTile();
+    final TileProviderController controller =
+        createController(new TileCache(0, null, 0, Runnable::run), 0, true);
+
+    await(startGetTile(controller, 0, 0, 1));
+
+    verify(mockFlutterApi).getTileOverlayTile(eq(TILE_OVERLAY_ID), any(), eq(1L), any());
+    assertEquals(0, getStatistic(controller, "prefetchedTiles"));
+  }
+
+  @Test
+  public void getTile_requestsTilesCollectedWithinTheBatchWindowTogether() throws Exception {
+    answerRequestsWithTile();
+    final TileProviderController controller = createController(createMemoryCache(), 0, false);
+
+    final List<FutureTask<Tile>> tasks = new ArrayList<>();
+    tasks.add(startGetTile(controller, 1, 0, 2));
+    tasks.add(startGetTile(controller, 2, 0, 2));
+    tasks.add(startGetTile(controller, 3, 0, 3));
+    waitForStatistic(controller, "requests", 3);
+    for (FutureTask<Tile> task : tasks) {
+      assertArrayEquals(TILE_DATA, await(task).data);
+    }
+
+    // One message is sent per zoom level.
+    @SuppressWarnings("unchecked")
+    final ArgumentCaptor<List<Messages.PlatformPoint>> locations =
+        ArgumentCaptor.forClass(List.class);
+    verify(mockFlutterApi).getTileOverlayTiles(any(), locations.capture(), eq(2L), any());
+    assertEquals(2, locations.getValue().size());
+    assertEquals(1L, locations.getValue().get(0).getX().longValue());
+    assertEquals(2L, locations.getValue().get(1).getX().longValue());
+    verify(mockFlutterApi).getTileOverlayTile(any(), any(), eq(3L), any());
+    assertEquals(2, getStatistic(controller, "batches"));
+  }
+
+  @Test
+  public void clearCache_makesTilesBeRequestedAgain() throws Exception {
+    answerRequestsWithTile();
+    final File directory = temporaryFolder.newFolder();
+    final TileProviderController controller =
+        createController(new TileCache(1024, directory, 1024, Runnable::run), 0, false);
+
+    await(startGetTile(controller, 1, 2, 3));
+    controller.clearCache();
+    await(startGetTile(controller, 1, 2, 3));
+
+    verify(mockFlutterApi, times(2)).getTileOverlayTile(any(), any(), any(), any());
+    assertEquals(0, getStatistic(controller, "memoryHits"));
+    assertEquals(0, getStatistic(controller, "diskHits"));
+  }
+
+  @Test
+  public void clearCache_abandonsRequestsInFlight() throws Exception {
+    holdRequests();
+    final TileCache cache = createMemoryCache();
+    final TileProviderController controller = createController(cache, 0, false);
+
+    final FutureTask<Tile> first = startGetTile(controller, 1, 2, 3);
+    waitForStatistic(controller, "requests", 1);
+    runMainLooper();
+    controller.clearCache();
+
+    // The tile requested before the cache was cleared is requested again instead of being shared.
+    final FutureTask<Tile> second = startGetTile(controller, 1, 2, 3);
+    waitForStatistic(controller, "requests", 2);
+    runMainLooper();
+    assertEquals(2, pendingResults.size());
+    assertEquals(0, getStatistic(controller, "coalescedRequests"));
+
+    // The tile returned for the abandoned request is returned to the map but not cached.
+    pendingResults.get(0).success(createPlatformTile());
+    assertArrayEquals(TILE_DATA, await(first).data);
+    assertNull(cache.getFromMemory(TileCache.getKey(1, 2, 3)));
+
+    pendingResults.get(1).success(createPlatformTile());
+    assertArrayEquals(TILE_DATA, await(second).data);
+    assertArrayEquals(TILE_DATA, cache.getFromMemory(TileCache.getKey(1, 2, 3)).data);
+  }
+}
@@ -254,6 +254,23 @@ class GoogleMapsFlutterAndroid extends GoogleMapsFlutterPlatform {
     );
   }
 
+  /// Enables or disables the virtualization of the markers of the map with the
+  /// given ID that are not in a cluster.
+  ///
+  /// When enabled, only the markers within the visible region of the map and a
+  /// margin of half its size around it are added to the native map, and
+  /// markers are added and removed each time the camera stops moving, adding
+  /// them over several frames when there are many. This keeps maps with tens
+  /// of thousands of markers responsive, at the cost of markers appearing once
+  /// the camera stops when it moves far. Marker taps, drags and info windows
+  /// keep working.
+  Future<void> setMarkerVirtualizationEnabled(
+    bool enabled, {
+    required int mapId,
+  }) {
+    return _hostApi(mapId).setMarkerVirtualizationEnabled(enabled);
+  }
+
   @override
   Future<void> updatePolygons(
     PolygonUpdates polygonUpdates, {
@@ -385,6 +402,26 @@ class GoogleMapsFlutterAndroid extends GoogleMapsFlutterPlatform {
     return _hostApi(mapId).clearTileCache(tileOverlayId.value);
   }
 
+  /// Returns statistics of the tiles of the tile overlay with the given ID,
+  /// keyed by name.
+  ///
+  /// The statistics are the number of tiles served from the native tile cache
+  /// (`memoryHits` and `diskHits`), requested from the [TileProvider]
+  /// (`requests`), served by a request already in flight
+  /// (`coalescedRequests`), requested ahead of the map (`prefetchedTiles`),
+  /// not returned in time (`timeouts`) and failed (`errors`), the number of
+  /// messages the tiles were requested with (`batches`), and the average and
+  /// maximum time the [TileProvider] took to return a tile
+  /// (`averageLatencyMicros` and `maxLatencyMicros`).
+  ///
+  /// See [setTileCacheOptions].
+  Future<Map<String, int>> getTileOverlayStatistics(
+    TileOverlayId tileOverlayId, {
+    required int mapId,
+  }) {
+    return _hostApi(mapId).getTileOverlayStatistics(tileOverlayId.value);
+  }
+
   @override
   Future<void> animateCamera(
     CameraUpdate cameraUpdate, {
@@ -540,6 +577,47 @@ class GoogleMapsFlutterAndroid extends GoogleMapsFlutterPlatform {
     };
   }
 
+  /// Sets how the tiles returned by the [TileProvider] of each tile overlay
+  /// are cached natively, so that tiles the map requests again, for example
+  /// after it is zoomed out and back in, are not requested from Dart again.
+  ///
+  /// Up to [memoryCacheBytes] of tiles of each tile overlay are kept in memory
+  /// and, if [diskCacheBytes] is greater than zero, up to [diskCacheBytes] on
+  /// disk, where they persist across app launches until [clearTileCache] is
+  /// called. Only use the disk cache for tiles that do not change.
+  ///
+  /// If [timeout] is set, tiles not returned in time are requested again by
+  /// the map later, instead of blocking the thread the map requests tiles on.
+  /// If [prefetchNeighbors] is true, the tiles around each tile requested from
+  /// the [TileProvider] are requested ahead of the map.
+  ///
+  /// The options apply to tile overlays added after this call.
+  Future<void> setTileCacheOptions({
+    int memoryCacheBytes = 8 * 1024 * 1024,
+    int diskCacheBytes = 0,
+    Duration? timeout,
+    bool prefetchNeighbors = false,
+  }) {
+    return MapsInitializerApi().setTileCacheOptions(memoryCacheBytes,
+        diskCacheBytes, timeout?.inMilliseconds ?? 0, prefetchNeighbors);
+  }
+
+  /// Returns statistics of the native cache of the bitmaps of marker icons
+  /// and ground overlay images created with [BytesMapBitmap] and
+  /// [AssetMapBitmap], keyed by name.
+  ///
+  /// The cache is shared by every map, so that images used by several markers
+  /// are decoded and scaled once. The statistics are the number of lookups
+  /// served from the cache (`hits`) and not (`misses`), the number of bitmaps
+  /// evicted to keep the cache within its size (`evictions`), the number and
+  /// total size of the bitmaps decoded (`decodedBitmaps` and `decodedBytes`),
+  /// and the size of the cached bitmaps and of the image data they were decoded
+  /// from (`cachedBytes`). The cache is cleared once the last map is disposed
+  /// and when the system is low on memory.
+  Future<Map<String, int>> getBitmapDescriptorCacheStatistics() {
+    return MapsInitializerApi().getBitmapDescriptorCacheStatistics();
+  }
+
   Widget _buildView(
     int creationId,
     PlatformViewCreatedCallback onPlatformViewCreated, {
@@ -1069,6 +1147,38 @@ class HostMapMessageHandler implements MapsCallbackApi {
     return _platformTileFromTile(tile);
   }
 
+  @override
+  Future<List<PlatformTile>> getTileOverlayTiles(
+    String tileOverlayId,
+    List<PlatformPoint> locations,
+    int zoom,
+  ) {
+    final TileOverlay? tileOverlay =
+        tileOverlayProvider(TileOverlayId(tileOverlayId));
+    final TileProvider? tileProvider = tileOverlay?.tileProvider;
+    return Future.wait(locations.map((PlatformPoint location) async {
+      if (tileProvider == null) {
+        return _platformTileFromTile(TileProvider.noTile);
+      }
+      // A tile that fails is reported and left empty, so that it does not fail
+      // the other tiles requested with it.
+      try {
+        return _platformTileFromTile(
+            await tileProvider.getTile(location.x, location.y, zoom));
+      } catch (exception, stack) {
+        FlutterError.reportError(FlutterErrorDetails(
+          exception: exception,
+          stack: stack,
+          library: 'google_maps_flutter_android',
+          context: ErrorDescription(
+              'while getting tile (${location.x}, ${location.y}) at zoom '
+              '$zoom of tile overlay $tileOverlayId'),
+        ));
+        return _platformTileFromTile(TileProvider.noTile);
+      }
+    }));
+  }
+
   @override
   void onCameraIdle() {
     streamController.add(CameraIdleEvent(mapId));
@@ -2015,6 +2015,8 @@ class MapsApi {
   }
 
   /// Updates the set of markers on the map.
+  ///
+  /// Returns once every added marker is on the map, or the map is disposed.
   Future<void> updateMarkers(List<PlatformMarker> toAdd,
       List<PlatformMarker> toChange, List<String> idsToRemove) async {
     final String pigeonVar_channelName =
@@ -2040,6 +2042,36 @@ class MapsApi {
     }
   }
 
+  /// Enables or disables the virtualization of markers that are not in a
+  /// cluster.
+  ///
+  /// When enabled, only the markers within the visible region of the map and a
+  /// margin around it are added to the map, and markers are added and removed
+  /// as the camera moves.
+  Future<void> setMarkerVirtualizationEnabled(bool enabled) async {
+    final String pigeonVar_channelName =
+        'dev.flutter.pigeon.google_maps_flutter_android.MapsApi.setMarkerVirtualizationEnabled$pigeonVar_messageChannelSuffix';
+    final BasicMessageChannel<Object?> pigeonVar_channel =
+        BasicMessageChannel<Object?>(
+      pigeonVar_channelName,
+      pigeonChannelCodec,
+      binaryMessenger: pigeonVar_binaryMessenger,
+    );
+    final List<Object?>? pigeonVar_replyList =
+        await pigeonVar_channel.send(<Object?>[enabled]) as List<Object?>?;
+    if (pigeonVar_replyList == null) {
+      throw _createConnectionError(pigeonVar_channelName);
+    } else if (pigeonVar_replyList.length > 1) {
+      throw PlatformException(
+        code: pigeonVar_replyList[0]! as String,
+        message: pigeonVar_replyList[1] as String?,
+        details: pigeonVar_replyList[2],
+      );
+    } else {
+      return;
+    }
+  }
+
   /// Updates the set of polygonss on the map.
   Future<void> updatePolygons(List<PlatformPolygon> toAdd,
       List<PlatformPolygon> toChange, List<String> idsToRemove) async {
@@ -2491,6 +2523,40 @@ class MapsApi {
     }
   }
 
+  /// Returns the number of tiles of the tile overlay with the given ID served
+  /// from the native tile cache and requested from Dart, with the latency of
+  /// those requests, keyed by name.
+  Future<Map<String, int>> getTileOverlayStatistics(
+      String tileOverlayId) async {
+    final String pigeonVar_channelName =
+        'dev.flutter.pigeon.google_maps_flutter_android.MapsApi.getTileOverlayStatistics$pigeonVar_messageChannelSuffix';
+    final BasicMessageChannel<Object?> pigeonVar_channel =
+        BasicMessageChannel<Object?>(
+      pigeonVar_channelName,
+      pigeonChannelCodec,
+      binaryMessenger: pigeonVar_binaryMessenger,
+    );
+    final List<Object?>? pigeonVar_replyList = await pigeonVar_channel
+        .send(<Object?>[tileOverlayId]) as List<Object?>?;
+    if (pigeonVar_replyList == null) {
+      throw _createConnectionError(pigeonVar_channelName);
+    } else if (pigeonVar_replyList.length > 1) {
+      throw PlatformException(
+        code: pigeonVar_replyList[0]! as String,
+        message: pigeonVar_replyList[1] as String?,
+        details: pigeonVar_replyList[2],
+      );
+    } else if (pigeonVar_replyList[0] == null) {
+      throw PlatformException(
+        code: 'null-error',
+        message: 'Host platform returned null value for non-null return value.',
+      );
+    } else {
+      return (pigeonVar_replyList[0] as Map<Object?, Object?>?)!
+          .cast<String, int>();
+    }
+  }
+
   /// Takes a snapshot of the map and returns its image data.
   Future<Uint8List> takeSnapshot() async {
     final String pigeonVar_channelName =
@@ -2574,6 +2640,12 @@ abstract class MapsCallbackApi {
   Future<PlatformTile> getTileOverlayTile(
       String tileOverlayId, PlatformPoint location, int zoom);
 
+  /// Called to get data for several map tiles at the same zoom level.
+  ///
+  /// The tiles are returned in the order of [locations].
+  Future<List<PlatformTile>> getTileOverlayTiles(
+      String tileOverlayId, List<PlatformPoint> locations, int zoom);
+
   static void setUp(
     MapsCallbackApi? api, {
     BinaryMessenger? binaryMessenger,
@@ -3050,6 +3122,43 @@ abstract class MapsCallbackApi {
         });
       }
     }
+    {
+      final BasicMessageChannel<
+          Object?> pigeonVar_channel = BasicMessageChannel<
+              Object?>(
+          'dev.flutter.pigeon.google_maps_flutter_android.MapsCallbackApi.getTileOverlayTiles$messageChannelSuffix',
+          pigeonChannelCodec,
+          binaryMessenger: binaryMessenger);
+      if (api == null) {
+        pigeonVar_channel.setMessageHandler(null);
+      } else {
+        pigeonVar_channel.setMessageHandler((Object? message) async {
+          assert(message != null,
+              'Argument for dev.flutter.pigeon.google_maps_flutter_android.MapsCallbackApi.getTileOverlayTiles was null.');
+          final List<Object?> args = (message as List<Object?>?)!;
+          final String? arg_tileOverlayId = (args[0] as String?);
+          assert(arg_tileOverlayId != null,
+              'Argument for dev.flutter.pigeon.google_maps_flutter_android.MapsCallbackApi.getTileOverlayTiles was null, expected non-null String.');
+          final List<PlatformPoint>? arg_locations =
+              (args[1] as List<Object?>?)?.cast<PlatformPoint>();
+          assert(arg_locations != null,
+              'Argument for dev.flutter.pigeon.google_maps_flutter_android.MapsCallbackApi.getTileOverlayTiles was null, expected non-null List<PlatformPoint>.');
+          final int? arg_zoom = (args[2] as int?);
+          assert(arg_zoom != null,
+              'Argument for dev.flutter.pigeon.google_maps_flutter_android.MapsCallbackApi.getTileOverlayTiles was null, expected non-null int.');
+          try {
+            final List<PlatformTile> output = await api.getTileOverlayTiles(
+                arg_tileOverlayId!, arg_locations!, arg_zoom!);
+            return wrapResponse(result: output);
+          } on PlatformException catch (e) {
+            return wrapResponse(error: e);
+          } catch (e) {
+            return wrapResponse(
+                error: PlatformException(code: 'error', message: e.toString()));
+          }
+        });
+      }
+    }
   }
 }
 
@@ -3104,6 +3213,71 @@ class MapsInitializerApi {
       return (pigeonVar_replyList[0] as PlatformRendererType?)!;
     }
   }
+
+  /// Sets how tiles of tile overlays added after this call are cached and
+  /// requested from Dart.
+  Future<void> setTileCacheOptions(int memoryCacheBytes, int diskCacheBytes,
+      int timeoutMilliseconds, bool prefetchNeighbors) async {
+    final String pigeonVar_channelName =
+        'dev.flutter.pigeon.google_maps_flutter_android.MapsInitializerApi.setTileCacheOptions$pigeonVar_messageChannelSuffix';
+    final BasicMessageChannel<Object?> pigeonVar_channel =
+        BasicMessageChannel<Object?>(
+      pigeonVar_channelName,
+      pigeonChannelCodec,
+      binaryMessenger: pigeonVar_binaryMessenger,
+    );
+    final List<Object?>? pigeonVar_replyList = await pigeonVar_channel.send(
+        <Object?>[
+          memoryCacheBytes,
+          diskCacheBytes,
+          timeoutMilliseconds,
+          prefetchNeighbors
+        ]) as List<Object?>?;
+    if (pigeonVar_replyList == null) {
+      throw _createConnectionError(pigeonVar_channelName);
+    } else if (pigeonVar_replyList.length > 1) {
+      throw PlatformException(
+        code: pigeonVar_replyList[0]! as String,
+        message: pigeonVar_replyList[1] as String?,
+        details: pigeonVar_replyList[2],
+      );
+    } else {
+      return;
+    }
+  }
+
+  /// Returns the number of bitmap descriptors served from the native cache
+  /// and decoded, with the size of the decoded and cached bitmaps, keyed by
+  /// name.
+  Future<Map<String, int>> getBitmapDescriptorCacheStatistics() async {
+    final String pigeonVar_channelName =
+        'dev.flutter.pigeon.google_maps_flutter_android.MapsInitializerApi.getBitmapDescriptorCacheStatistics$pigeonVar_messageChannelSuffix';
+    final BasicMessageChannel<Object?> pigeonVar_channel =
+        BasicMessageChannel<Object?>(
+      pigeonVar_channelName,
+      pigeonChannelCodec,
+      binaryMessenger: pigeonVar_binaryMessenger,
+    );
+    final List<Object?>? pigeonVar_replyList =
+        await pigeonVar_channel.send(null) as List<Object?>?;
+    if (pigeonVar_replyList == null) {
+      throw _createConnectionError(pigeonVar_channelName);
+    } else if (pigeonVar_replyList.length > 1) {
+      throw PlatformException(
+        code: pigeonVar_replyList[0]! as String,
+        message: pigeonVar_replyList[1] as String?,
+        details: pigeonVar_replyList[2],
+      );
+    } else if (pigeonVar_replyList[0] == null) {
+      throw PlatformException(
+        code: 'null-error',
+        message: 'Host platform returned null value for non-null return value.',
+      );
+    } else {
+      return (pigeonVar_replyList[0] as Map<Object?, Object?>?)!
+          .cast<String, int>();
+    }
+  }
 }
 
 /// Dummy interface to force generation of the platform view creation params,
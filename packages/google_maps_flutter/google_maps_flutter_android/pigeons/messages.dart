@@ -649,9 +649,20 @@ abstract class MapsApi {
       List<PlatformClusterManager> toAdd, List<String> idsToRemove);
 
   /// Updates the set of markers on the map.
+  ///
+  /// Returns once every added marker is on the map, or the map is disposed.
+  @async
   void updateMarkers(List<PlatformMarker> toAdd, List<PlatformMarker> toChange,
       List<String> idsToRemove);
 
+  /// Enables or disables the virtualization of markers that are not in a
+  /// cluster.
+  ///
+  /// When enabled, only the markers within the visible region of the map and a
+  /// margin around it are added to the map, and markers are added and removed
+  /// as the camera moves.
+  void setMarkerVirtualizationEnabled(bool enabled);
+
   /// Updates the set of polygonss on the map.
   void updatePolygons(List<PlatformPolygon> toAdd,
       List<PlatformPolygon> toChange, List<String> idsToRemove);
@@ -716,6 +727,11 @@ abstract class MapsApi {
   /// Clears the cache of tiles previously requseted from the tile provider.
   void clearTileCache(String tileOverlayId);
 
+  /// Returns the number of tiles of the tile overlay with the given ID served
+  /// from the native tile cache and requested from Dart, with the latency of
+  /// those requests, keyed by name.
+  Map<String, int> getTileOverlayStatistics(String tileOverlayId);
+
   /// Takes a snapshot of the map and returns its image data.
   @async
   Uint8List takeSnapshot();
@@ -772,6 +788,13 @@ abstract class MapsCallbackApi {
   @async
   PlatformTile getTileOverlayTile(
       String tileOverlayId, PlatformPoint location, int zoom);
+
+  /// Called to get data for several map tiles at the same zoom level.
+  ///
+  /// The tiles are returned in the order of [locations].
+  @async
+  List<PlatformTile> getTileOverlayTiles(
+      String tileOverlayId, List<PlatformPoint> locations, int zoom);
 }
 
 /// Interface for global SDK initialization.
@@ -786,6 +809,16 @@ abstract class MapsInitializerApi {
   @async
   PlatformRendererType initializeWithPreferredRenderer(
       PlatformRendererType? type);
+
+  /// Sets how tiles of tile overlays added after this call are cached and
+  /// requested from Dart.
+  void setTileCacheOptions(int memoryCacheBytes, int diskCacheBytes,
+      int timeoutMilliseconds, bool prefetchNeighbors);
+
+  /// Returns the number of bitmap descriptors served from the native cache
+  /// and decoded, with the size of the decoded and cached bitmaps, keyed by
+  /// name.
+  Map<String, int> getBitmapDescriptorCacheStatistics();
 }
 
 /// Dummy interface to force generation of the platform view creation params,
@@ -239,6 +239,35 @@ void main() {
     verify(api.clearTileCache(tileOverlayId));
   });
 
+  test('getTileOverlayStatistics returns the native statistics', () async {
+    const int mapId = 1;
+    final (GoogleMapsFlutterAndroid maps, MockMapsApi api) =
+        setUpMockMap(mapId: mapId);
+
+    const String tileOverlayId = 'overlay';
+    const Map<String, int> statistics = <String, int>{
+      'memoryHits': 3,
+      'requests': 2,
+    };
+    when(api.getTileOverlayStatistics(tileOverlayId))
+        .thenAnswer((_) async => statistics);
+
+    expect(
+        await maps.getTileOverlayStatistics(const TileOverlayId(tileOverlayId),
+            mapId: mapId),
+        statistics);
+  });
+
+  test('setMarkerVirtualizationEnabled passes expected arguments', () async {
+    const int mapId = 1;
+    final (GoogleMapsFlutterAndroid maps, MockMapsApi api) =
+        setUpMockMap(mapId: mapId);
+
+    await maps.setMarkerVirtualizationEnabled(true, mapId: mapId);
+
+    verify(api.setMarkerVirtualizationEnabled(true));
+  });
+
   test('updateMapConfiguration passes expected arguments', () async {
     const int mapId = 1;
     final (GoogleMapsFlutterAndroid maps, MockMapsApi api) =
@@ -856,6 +885,58 @@ void main() {
     expect((await stream.next).value.value, equals(objectId));
   });
 
+  test('getTileOverlayTiles returns the tile of each location in order',
+      () async {
+    final HostMapMessageHandler callbackHandler = HostMapMessageHandler(
+      1,
+      StreamController<MapEvent<Object?>>.broadcast(),
+      tileOverlayProvider: (TileOverlayId tileOverlayId) => TileOverlay(
+          tileOverlayId: tileOverlayId, tileProvider: _FakeTileProvider()),
+    );
+
+    final List<PlatformTile> tiles = await callbackHandler.getTileOverlayTiles(
+      'overlay',
+      <PlatformPoint>[PlatformPoint(x: 1, y: 2), PlatformPoint(x: 3, y: 4)],
+      5,
+    );
+
+    expect(tiles.map((PlatformTile tile) => tile.data),
+        <List<int>>[<int>[1, 2, 5], <int>[3, 4, 5]]);
+  });
+
+  test('getTileOverlayTiles returns no tile for the locations that fail',
+      () async {
+    final List<FlutterErrorDetails> errors = <FlutterErrorDetails>[];
+    final FlutterExceptionHandler? onError = FlutterError.onError;
+    FlutterError.onError = errors.add;
+    addTearDown(() => FlutterError.onError = onError);
+    final HostMapMessageHandler callbackHandler = HostMapMessageHandler(
+      1,
+      StreamController<MapEvent<Object?>>.broadcast(),
+      tileOverlayProvider: (TileOverlayId tileOverlayId) => TileOverlay(
+          tileOverlayId: tileOverlayId,
+          tileProvider: _FakeTileProvider(failingX: 3)),
+    );
+
+    final List<PlatformTile> tiles = await callbackHandler.getTileOverlayTiles(
+      'overlay',
+      <PlatformPoint>[
+        PlatformPoint(x: 1, y: 2),
+        PlatformPoint(x: 3, y: 4),
+        PlatformPoint(x: 5, y: 6),
+      ],
+      7,
+    );
+
+    expect(tiles.map((PlatformTile tile) => tile.data), <List<int>?>[
+      <int>[1, 2, 7],
+      null,
+      <int>[5, 6, 7],
+    ]);
+    expect(errors, hasLength(1));
+    expect(errors.single.exception, isA<StateError>());
+  });
+
   test('circles send tap events to correct stream', () async {
     const int mapId = 1;
     const String objectId = 'object-id';
@@ -1278,3 +1359,18 @@ void main() {
     );
   });
 }
+
+class _FakeTileProvider implements TileProvider {
+  _FakeTileProvider({this.failingX});
+
+  /// The column of the tiles that fail to load, if any.
+  final int? failingX;
+
+  @override
+  Future<Tile> getTile(int x, int y, int? zoom) async {
+    if (x == failingX) {
+      throw StateError('Tile $x, $y is not available');
+    }
+    return Tile(256, 256, Uint8List.fromList(<int>[x, y, zoom!]));
+  }
+}
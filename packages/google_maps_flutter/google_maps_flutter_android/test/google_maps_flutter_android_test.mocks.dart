@@ -122,6 +122,14 @@ class MockMapsApi extends _i1.Mock implements _i2.MapsApi {
         returnValueForMissingStub: _i4.Future<void>.value(),
       ) as _i4.Future<void>);
 
+  @override
+  _i4.Future<void> setMarkerVirtualizationEnabled(bool? enabled) =>
+      (super.noSuchMethod(
+        Invocation.method(#setMarkerVirtualizationEnabled, [enabled]),
+        returnValue: _i4.Future<void>.value(),
+        returnValueForMissingStub: _i4.Future<void>.value(),
+      ) as _i4.Future<void>);
+
   @override
   _i4.Future<void> updatePolygons(
     List<_i2.PlatformPolygon>? toAdd,
@@ -307,6 +315,18 @@ class MockMapsApi extends _i1.Mock implements _i2.MapsApi {
         returnValueForMissingStub: _i4.Future<void>.value(),
       ) as _i4.Future<void>);
 
+  @override
+  _i4.Future<Map<String, int>> getTileOverlayStatistics(
+    String? tileOverlayId,
+  ) =>
+      (super.noSuchMethod(
+        Invocation.method(#getTileOverlayStatistics, [tileOverlayId]),
+        returnValue: _i4.Future<Map<String, int>>.value(<String, int>{}),
+        returnValueForMissingStub: _i4.Future<Map<String, int>>.value(
+          <String, int>{},
+        ),
+      ) as _i4.Future<Map<String, int>>);
+
   @override
   _i4.Future<_i5.Uint8List> takeSnapshot() => (super.noSuchMethod(
         Invocation.method(#takeSnapshot, []),